@@ -0,0 +1,63 @@
+/*
+ * ASIBenchmark.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.bench;
+
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.analyse.cli.Convert;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.save.FiltreMeriseASI;
+import org.analyse.xml.XmlWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lecture d'un fichier ASI (XmlParser puis ASIMeriseHandler) et écriture de
+ * la partie Merise par FiltreMeriseASI.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ASIBenchmark
+{
+    @Benchmark
+    public MeriseModule chargement(ModeleEtat etat) throws Exception
+    {
+        return Convert.charger(new StringReader(etat.xml));
+    }
+
+    @Benchmark
+    public void sauvegarde(ModeleEtat etat) throws Exception
+    {
+        FiltreMeriseASI filtre = (FiltreMeriseASI) etat.module.getFiltre("ASI");
+        XmlWriter out = new XmlWriter(Writer.nullWriter());
+        filtre.save(out);
+        out.flush();
+    }
+}
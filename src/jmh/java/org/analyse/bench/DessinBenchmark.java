@@ -0,0 +1,95 @@
+/*
+ * DessinBenchmark.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.bench;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dessin hors écran du MCD dans une image de la taille d'une fenêtre :
+ * l'écran affiché en haut à gauche, puis le MCD complet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DessinBenchmark
+{
+    private static final int LARGEUR = 1600, HAUTEUR = 1200;
+
+    private MCDComponent mcd;
+
+    private BufferedImage image;
+
+    private Graphics2D g;
+
+    @Setup(Level.Trial)
+    public void preparer(ModeleEtat etat)
+    {
+        mcd = etat.module.getMCDComponent();
+        mcd.setFont(new Font("Dialog", Font.PLAIN, 12));
+        // Première mise en page de tous les éléments, hors mesure
+        mcd.mettreEnPage();
+        mcd.setSize(mcd.getPreferredSize());
+
+        image = new BufferedImage(LARGEUR, HAUTEUR, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void liberer()
+    {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage ecran()
+    {
+        g.setClip(0, 0, LARGEUR, HAUTEUR);
+        mcd.paint(g);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage complet()
+    {
+        g.setClip(0, 0, mcd.getWidth(), mcd.getHeight());
+        mcd.paint(g);
+        return image;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * DictionnaireBenchmark.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.analyse.merise.gui.table.DictionnaireTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lecture de tout le dictionnaire, comme lors de l'affichage de la table et
+ * de la génération du SQL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionnaireBenchmark
+{
+    @Benchmark
+    public void getValue(ModeleEtat etat, Blackhole trou)
+    {
+        DictionnaireTable dico = etat.module.getDictionnaireTable();
+        for (int i = 0; i < dico.getRowCount(); i++) {
+            String id = dico.getID(i);
+            trou.consume(dico.getValue(id, DictionnaireTable.NAME));
+            trou.consume(dico.getValue(id, DictionnaireTable.TYPE));
+            trou.consume(dico.getValue(id, DictionnaireTable.SIZE));
+            trou.consume(dico.getValue(id, DictionnaireTable.ENTITY));
+        }
+    }
+}
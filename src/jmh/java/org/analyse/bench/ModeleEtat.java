@@ -0,0 +1,87 @@
+/*
+ * ModeleEtat.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.bench;
+
+import java.awt.Font;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.analyse.core.gui.zgraph.ZElement;
+import org.analyse.core.util.Constantes;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDObjet;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Modèle chargé une fois par essai, à la taille donnée par le paramètre
+ * <code>entites</code>, avec son MPD déjà construit.
+ */
+@State(Scope.Benchmark)
+public class ModeleEtat
+{
+    @Param({"10", "100", "1000", "10000"})
+    public int entites;
+
+    /** XML du fichier ASI correspondant au modèle */
+    String xml;
+
+    MeriseModule module;
+
+    /** Objets du MCD modifiés avant une reconstruction incrémentale, un sur cent */
+    final List<MCDObjet> echantillon = new ArrayList<MCDObjet>();
+
+    private int decalage = 1;
+
+    @Setup(Level.Trial)
+    public void preparer() throws Exception
+    {
+        xml = ModeleSynthetique.xml(entites);
+        module = ModeleSynthetique.charger(entites);
+        // le MPD affiché mesure ses entités avec la police du composant
+        module.getMPDComponent().setFont(new Font("Dialog", Font.PLAIN, 12));
+        if (!module.getMCDComponent().buildMPD(module.getMPDComponent(),
+                Constantes.HIDE_ALL))
+            throw new IllegalStateException("Modèle synthétique incorrect : "
+                    + module.getMCDComponent().getMessage());
+
+        int i = 0;
+        for (Iterator<ZElement> e = module.getMCDComponent().enumElements(); e.hasNext(); i++) {
+            ZElement element = e.next();
+            if (i % 100 == 0)
+                echantillon.add((MCDObjet) element);
+        }
+    }
+
+    /**
+     * Déplace l'échantillon d'un pixel, dans un sens puis dans l'autre : le
+     * MCD le note comme modifié depuis la dernière construction du MPD.
+     */
+    void modifierEchantillon()
+    {
+        for (MCDObjet objet : echantillon)
+            objet.setPosition(new Point(objet.getX() + decalage, objet.getY()));
+        decalage = -decalage;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * ModeleSynthetique.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.bench;
+
+import java.io.StringReader;
+
+import org.analyse.cli.Convert;
+import org.analyse.cli.GenerateurModele;
+import org.analyse.merise.main.MeriseModule;
+
+/**
+ * Modèles des benchmarks : autant d'entités que demandé, chacune avec trois
+ * informations, reliées par autant d'associations 1,N / 0,1 ou 1,1. La graine
+ * est fixe pour que tous les essais mesurent le même modèle.
+ */
+final class ModeleSynthetique
+{
+    private ModeleSynthetique() {}
+
+    private static GenerateurModele generateur(int entites)
+    {
+        GenerateurModele generateur = new GenerateurModele();
+        generateur.setGraine(42);
+        generateur.setEntites(entites);
+        generateur.setBinaires(entites - 1);
+        generateur.setAttributs(3, 3);
+        generateur.setCardinalites(1, 0, 0);
+        return generateur;
+    }
+
+    static String xml(int entites) throws Exception
+    {
+        StringBuilder xml = new StringBuilder(entites * 400);
+        generateur(entites).ecrire(xml);
+        return xml.toString();
+    }
+
+    /**
+     * Charge un modèle de <code>entites</code> entités dans un nouveau module,
+     * en passant par le XML comme à l'ouverture d'un fichier.
+     */
+    static MeriseModule charger(int entites) throws Exception
+    {
+        return Convert.charger(new StringReader(xml(entites)));
+    }
+}
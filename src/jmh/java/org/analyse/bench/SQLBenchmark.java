@@ -0,0 +1,73 @@
+/*
+ * SQLBenchmark.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Génération du script SQL à partir du MPD, pour chaque dialecte de
+ * <code>DialectesSQL</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SQLBenchmark
+{
+    /** Nom d'un dialecte de DialectesSQL.tous() */
+    @Param({"MySQL", "PostgreSQL", "OracleDB", "SQLite", "H2"})
+    public String dialecte;
+
+    private DialecteSQL dialecteSQL;
+
+    @Setup
+    public void preparer()
+    {
+        dialecteSQL = DialectesSQL.get(dialecte);
+        if (dialecteSQL == null)
+            throw new IllegalStateException("Dialecte inconnu : " + dialecte);
+    }
+
+    @Benchmark
+    public String buildSQL(ModeleEtat etat)
+    {
+        MeriseModule module = etat.module;
+        module.getMPDComponent().buildSQL(module.getDictionnaireTable(),
+                module.getSQLCommand(), dialecteSQL);
+        return module.getSQLCommand().getRequests();
+    }
+}
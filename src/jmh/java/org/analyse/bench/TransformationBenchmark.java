@@ -0,0 +1,86 @@
+/*
+ * TransformationBenchmark.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.analyse.core.util.Constantes;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MPDComponent;
+import org.analyse.merise.mcd.modele.ModeleMPD;
+import org.analyse.merise.mcd.modele.TransformationMCD;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Passage du MCD au MPD, affiché ou non, puis du MPD au MLD.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformationBenchmark
+{
+    /**
+     * Construction complète du MPD affiché : un composant neuf à chaque
+     * appel, le MPD du modèle n'étant sinon reconstruit que pour les objets
+     * modifiés.
+     */
+    @Benchmark
+    public boolean buildMPD(ModeleEtat etat)
+    {
+        MeriseModule module = etat.module;
+        MPDComponent mpd = new MPDComponent();
+        mpd.setFont(module.getMPDComponent().getFont());
+        return module.getMCDComponent().buildMPD(mpd, Constantes.HIDE_ALL);
+    }
+
+    /** Reconstruction du MPD affiché après la modification d'un objet sur cent */
+    @Benchmark
+    public boolean buildMPDIncremental(ModeleEtat etat)
+    {
+        MeriseModule module = etat.module;
+        etat.modifierEchantillon();
+        return module.getMCDComponent().buildMPD(module.getMPDComponent(),
+                Constantes.HIDE_ALL);
+    }
+
+    /** Instantané du MCD et dérivation, sans composant graphique */
+    @Benchmark
+    public ModeleMPD deriver(ModeleEtat etat)
+    {
+        return TransformationMCD.deriver(etat.module.getMCDComponent().modele());
+    }
+
+    @Benchmark
+    public String buildMLD(ModeleEtat etat)
+    {
+        MeriseModule module = etat.module;
+        module.getMLDComponent().buildMLD(module.getMPDComponent(),
+                module.getMLDCommand());
+        return module.getMLDCommand().getRequests();
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Convert.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.cli;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.save.FiltreASIB;
+import org.analyse.core.save.asi.ASIHandler;
+import org.analyse.core.save.asib.ConteneurASIB;
+import org.analyse.core.save.asib.FilterASIBModule;
+import org.analyse.core.util.Constantes;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MLDCommand;
+import org.analyse.merise.mcd.modele.Dictionnaire;
+import org.analyse.merise.mcd.modele.GenerateurMLD;
+import org.analyse.merise.mcd.modele.ModeleMCD;
+import org.analyse.merise.mcd.modele.ModeleMPD;
+import org.analyse.merise.mcd.modele.TransformationMCD;
+import org.analyse.merise.sql.GenerateurSQL;
+import org.analyse.merise.sql.SQLCommand;
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+import org.analyse.xml.XmlParser;
+
+/**
+ * Convertit un fichier ASI en script SQL et, au besoin, en MLD, sans
+ * interface graphique :
+ *
+ * <pre>
+ * java -Djava.awt.headless=true -cp analyseSI.jar org.analyse.cli.Convert \
+ *     model.asi --dialect postgresql --out schema.sql --mld model.mld
+ * </pre>
+ *
+ * Les fichiers produits sont encodés en UTF-8. Sans <code>--out</code>, le
+ * script SQL est écrit sur la sortie standard.
+ * Code de retour : 0 si la conversion a réussi, 1 si le MCD est incorrect, 2
+ * pour une erreur d'utilisation ou d'entrée/sortie.
+ */
+public final class Convert
+{
+    public static final int OK = 0;
+
+    public static final int MCD_INCORRECT = 1;
+
+    public static final int ERREUR = 2;
+
+    private static final String USAGE = "usage : Convert fichier.asi"
+            + " [--dialect mysql|postgresql|oracle|sqlite|h2] [--out script.sql]"
+            + " [--mld modele.mld]";
+
+    private Convert() {}
+
+    public static void main(String[] args)
+    {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Exécute la conversion décrite par les arguments de la ligne de commande
+     * et retourne le code de retour.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err)
+    {
+        File source = null, sortieSQL = null, sortieMLD = null;
+        DialecteSQL dialecte = DialectesSQL.tous().get(0);
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--") && i + 1 == args.length) {
+                err.println("Valeur manquante pour " + arg);
+                err.println(USAGE);
+                return ERREUR;
+            }
+
+            if ("--dialect".equals(arg)) {
+                dialecte = DialectesSQL.chercher(args[++i]);
+                if (dialecte == null) {
+                    err.println("Dialecte inconnu : " + args[i]);
+                    err.println(USAGE);
+                    return ERREUR;
+                }
+            } else if ("--out".equals(arg)) {
+                sortieSQL = new File(args[++i]);
+            } else if ("--mld".equals(arg)) {
+                sortieMLD = new File(args[++i]);
+            } else if (arg.startsWith("--") || source != null) {
+                err.println("Argument inattendu : " + arg);
+                err.println(USAGE);
+                return ERREUR;
+            } else {
+                source = new File(arg);
+            }
+        }
+
+        if (source == null) {
+            err.println(USAGE);
+            return ERREUR;
+        }
+
+        MeriseModule module;
+        try {
+            module = charger(source);
+        } catch (Exception e) {
+            err.println("Impossible de lire le fichier " + source + " : "
+                    + e.getMessage());
+            return ERREUR;
+        }
+
+        TransformationMCD.Verification verification = generer(module, dialecte);
+        if (!verification.isCorrect()) {
+            err.println(texte(verification.getMessage()));
+            return MCD_INCORRECT;
+        }
+
+        try {
+            if (sortieSQL == null) {
+                Writer w = new BufferedWriter(new OutputStreamWriter(out));
+                module.getSQLCommand().writeScript(w);
+                w.flush();
+            } else {
+                ecrireSQL(module, sortieSQL);
+            }
+
+            if (sortieMLD != null)
+                ecrireMLD(module, sortieMLD);
+        } catch (IOException e) {
+            err.println("Impossible d'écrire le résultat : " + e.getMessage());
+            return ERREUR;
+        }
+
+        return OK;
+    }
+
+    /**
+     * Charge un fichier ASI, ou ASIB, dans un nouveau module Merise,
+     * indépendant de celui de l'application.
+     */
+    public static MeriseModule charger(File fichier) throws Exception
+    {
+        if (ConteneurASIB.estASIB(fichier)) {
+            MeriseModule module = nouveauModule();
+            ((FilterASIBModule) module.getFiltre(FiltreASIB.ID_ASIB))
+                    .charger(ConteneurASIB.ouvrir(fichier));
+            return module;
+        }
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(fichier)),
+                Constantes.ASI_ENCODING));
+        try {
+            return charger(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Charge le XML d'un fichier ASI, déjà décompressé, dans un nouveau
+     * module Merise.
+     */
+    public static MeriseModule charger(Reader in) throws Exception
+    {
+        MeriseModule module = nouveauModule();
+
+        Map<String, AnalyseModule> modules = new HashMap<String, AnalyseModule>();
+        modules.put(module.getID(), module);
+
+        ASIHandler handler = new ASIHandler(modules);
+        XmlParser parser = new XmlParser();
+        parser.setHandler(handler);
+        try {
+            parser.parse(null, null, in);
+        } finally {
+            handler.terminer();
+        }
+
+        return module;
+    }
+
+    /**
+     * Crée un module Merise vide, prêt à recevoir un modèle sans interface
+     * graphique.
+     */
+    static MeriseModule nouveauModule()
+    {
+        MeriseModule module = new MeriseModule();
+        module.initModele();
+        return module;
+    }
+
+    /**
+     * Vérifie le MCD puis génère le script SQL dans le dialecte indiqué et le
+     * MLD, rangés dans les commandes du module. La dérivation passe par
+     * <code>TransformationMCD</code> et le dictionnaire, sans construire le
+     * MPD affiché : aucune police ni aucun composant n'est nécessaire. Rien
+     * n'est généré si le MCD est incorrect ; le compte rendu est celui de la
+     * vérification retournée.
+     */
+    public static TransformationMCD.Verification generer(MeriseModule module,
+            DialecteSQL dialecte)
+    {
+        ModeleMCD mcd = module.getMCDComponent().modele();
+        Dictionnaire dico = module.getDictionnaireTable().instantane();
+        TransformationMCD.Verification verification = TransformationMCD.verifier(mcd, dico);
+        if (!verification.isCorrect())
+            return verification;
+
+        ModeleMPD mpd = TransformationMCD.deriver(mcd);
+
+        SQLCommand sql = module.getSQLCommand();
+        sql.beginBatch();
+        try {
+            sql.clear();
+            sql.addRequests(new GenerateurSQL(dico, dialecte).generer(mpd));
+        } finally {
+            sql.commitBatch();
+        }
+
+        MLDCommand mld = module.getMLDCommand();
+        mld.beginBatch();
+        try {
+            mld.clear();
+            mld.addRequests(GenerateurMLD.generer(mpd));
+        } finally {
+            mld.commitBatch();
+        }
+        return verification;
+    }
+
+    /**
+     * Ecrit le script SQL généré dans le fichier, en UTF-8.
+     */
+    static void ecrireSQL(MeriseModule module, File fichier) throws IOException
+    {
+        Writer w = ouvrir(fichier);
+        try {
+            module.getSQLCommand().writeScript(w);
+        } finally {
+            w.close();
+        }
+    }
+
+    /**
+     * Ecrit le MLD généré dans le fichier, en UTF-8.
+     */
+    static void ecrireMLD(MeriseModule module, File fichier) throws IOException
+    {
+        Writer w = ouvrir(fichier);
+        try {
+            module.getMLDCommand().writeScript(w);
+        } finally {
+            w.close();
+        }
+    }
+
+    private static Writer ouvrir(File fichier) throws IOException
+    {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
+                fichier), Constantes.ASI_ENCODING));
+    }
+
+    static String texte(String html)
+    {
+        if (html == null)
+            return "MCD incorrect";
+        return html.replaceAll("<br/?>", System.lineSeparator())
+                .replaceAll("<[^>]*>", "").trim();
+    }
+}
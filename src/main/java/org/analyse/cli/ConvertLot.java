@@ -0,0 +1,291 @@
+/*
+ * ConvertLot.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.modele.TransformationMCD;
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+
+/**
+ * Convertit en parallèle tous les fichiers ASI d'une arborescence :
+ *
+ * <pre>
+ * java -Djava.awt.headless=true -cp analyseSI.jar org.analyse.cli.ConvertLot \
+ *     modeles/ --dialect postgresql --out generes/ --threads 8
+ * </pre>
+ *
+ * Chaque <code>modele.asi</code> donne <code>modele.sql</code> et
+ * <code>modele.mld</code>, à côté du source ou sous le répertoire
+ * <code>--out</code> en reproduisant l'arborescence. Chaque fichier est chargé
+ * dans son propre module Merise, si bien que les conversions ne partagent
+ * aucun état. Un bilan (durée de chaque fichier, erreurs, débit) est écrit à
+ * la fin. Code de retour : 0 si tout est converti, 1 si au moins un fichier a
+ * échoué, 2 pour une erreur d'utilisation.
+ */
+public final class ConvertLot
+{
+    /** Code de retour lorsqu'au moins un fichier n'a pas été converti */
+    public static final int ECHEC = 1;
+
+    private static final String USAGE = "usage : ConvertLot repertoire"
+            + " [--dialect mysql|postgresql|oracle|sqlite|h2] [--out repertoire]"
+            + " [--threads n]";
+
+    private ConvertLot() {}
+
+    /**
+     * Résultat de la conversion d'un fichier.
+     */
+    public static class Resultat
+    {
+        private final File source;
+
+        private final long duree;
+
+        private final String erreur;
+
+        Resultat(File source, long duree, String erreur)
+        {
+            this.source = source;
+            this.duree = duree;
+            this.erreur = erreur;
+        }
+
+        public File getSource()
+        {
+            return source;
+        }
+
+        /** Durée de la conversion, en nanosecondes */
+        public long getDuree()
+        {
+            return duree;
+        }
+
+        /** Message d'erreur, ou null si la conversion a réussi */
+        public String getErreur()
+        {
+            return erreur;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Exécute la conversion décrite par les arguments de la ligne de commande
+     * et retourne le code de retour.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err)
+    {
+        File racine = null, destination = null;
+        DialecteSQL dialecte = DialectesSQL.tous().get(0);
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--") && i + 1 == args.length) {
+                err.println("Valeur manquante pour " + arg);
+                err.println(USAGE);
+                return Convert.ERREUR;
+            }
+
+            if ("--dialect".equals(arg)) {
+                dialecte = DialectesSQL.chercher(args[++i]);
+                if (dialecte == null) {
+                    err.println("Dialecte inconnu : " + args[i]);
+                    err.println(USAGE);
+                    return Convert.ERREUR;
+                }
+            } else if ("--out".equals(arg)) {
+                destination = new File(args[++i]);
+            } else if ("--threads".equals(arg)) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+                if (threads < 1) {
+                    err.println("Nombre de threads invalide : " + args[i]);
+                    return Convert.ERREUR;
+                }
+            } else if (arg.startsWith("--") || racine != null) {
+                err.println("Argument inattendu : " + arg);
+                err.println(USAGE);
+                return Convert.ERREUR;
+            } else {
+                racine = new File(arg);
+            }
+        }
+
+        if (racine == null || !racine.isDirectory()) {
+            err.println(USAGE);
+            return Convert.ERREUR;
+        }
+
+        long debut = System.nanoTime();
+        List<Resultat> resultats = convertir(racine, destination, dialecte,
+                threads);
+        long duree = System.nanoTime() - debut;
+
+        return bilan(racine, resultats, duree, out) ? Convert.OK : ECHEC;
+    }
+
+    /**
+     * Convertit tous les fichiers ASI de l'arborescence dans le dialecte
+     * indiqué, sur un pool de <code>threads</code> threads. Les résultats
+     * sont dans l'ordre des fichiers.
+     */
+    public static List<Resultat> convertir(final File racine,
+            final File destination, final DialecteSQL dialecte, int threads)
+    {
+        List<File> fichiers = new ArrayList<File>();
+        chercher(racine, fichiers);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Resultat>> taches = new ArrayList<Future<Resultat>>();
+            for (final File fichier : fichiers)
+                taches.add(pool.submit(new Callable<Resultat>() {
+                    public Resultat call()
+                    {
+                        return convertir(fichier, racine, destination, dialecte);
+                    }
+                }));
+
+            List<Resultat> resultats = new ArrayList<Resultat>();
+            for (int i = 0; i < taches.size(); i++) {
+                try {
+                    resultats.add(taches.get(i).get());
+                } catch (ExecutionException e) {
+                    resultats.add(new Resultat(fichiers.get(i), 0, String
+                            .valueOf(e.getCause())));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return resultats;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Resultat convertir(File source, File racine,
+            File destination, DialecteSQL dialecte)
+    {
+        long debut = System.nanoTime();
+        String erreur = null;
+
+        try {
+            MeriseModule module = Convert.charger(source);
+            TransformationMCD.Verification verification = Convert.generer(module, dialecte);
+            if (verification.isCorrect()) {
+                File base = cible(source, racine, destination);
+                Convert.ecrireSQL(module, new File(base.getPath() + ".sql"));
+                Convert.ecrireMLD(module, new File(base.getPath() + ".mld"));
+            } else {
+                erreur = Convert.texte(verification.getMessage())
+                        .replaceAll("\\s+", " ");
+            }
+        } catch (Exception e) {
+            erreur = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+
+        return new Resultat(source, System.nanoTime() - debut, erreur);
+    }
+
+    /**
+     * Retourne le chemin, sans extension, des fichiers générés pour source.
+     */
+    private static File cible(File source, File racine, File destination)
+            throws IOException
+    {
+        String nom = source.getName();
+        nom = nom.substring(0, nom.length() - ".asi".length());
+        if (destination == null)
+            return new File(source.getParentFile(), nom);
+
+        String relatif = racine.toURI().relativize(
+                source.getParentFile().toURI()).getPath();
+        File repertoire = new File(destination, relatif);
+        if (!repertoire.mkdirs() && !repertoire.isDirectory())
+            throw new IOException("Impossible de créer le répertoire "
+                    + repertoire);
+        return new File(repertoire, nom);
+    }
+
+    private static void chercher(File repertoire, List<File> fichiers)
+    {
+        File[] contenu = repertoire.listFiles();
+        if (contenu == null)
+            return;
+
+        List<File> tries = new ArrayList<File>();
+        Collections.addAll(tries, contenu);
+        Collections.sort(tries);
+        for (File f : tries) {
+            if (f.isDirectory())
+                chercher(f, fichiers);
+            else if (f.getName().toLowerCase().endsWith(".asi"))
+                fichiers.add(f);
+        }
+    }
+
+    /**
+     * Ecrit le bilan et retourne vrai si tous les fichiers sont convertis.
+     */
+    private static boolean bilan(File racine, List<Resultat> resultats,
+            long duree, PrintStream out)
+    {
+        int erreurs = 0;
+        for (Resultat r : resultats) {
+            String nom = racine.toURI().relativize(r.getSource().toURI())
+                    .getPath();
+            if (r.getErreur() == null) {
+                out.printf("OK      %8.1f ms  %s%n", r.getDuree() / 1e6, nom);
+            } else {
+                erreurs++;
+                out.printf("ERREUR  %8.1f ms  %s : %s%n", r.getDuree() / 1e6,
+                        nom, r.getErreur());
+            }
+        }
+
+        double debit = duree > 0 ? resultats.size() / (duree / 1e9) : 0;
+        out.printf("%d fichier(s), %d converti(s), %d en erreur en %.1f ms"
+                + " (%.1f fichiers/s)%n", resultats.size(),
+                resultats.size() - erreurs, erreurs, duree / 1e6, debit);
+        return erreurs == 0;
+    }
+}
@@ -0,0 +1,656 @@
+/*
+ * GenerateurModele.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.cli;
+
+import java.awt.Point;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.analyse.core.util.Constantes;
+import org.analyse.merise.gui.table.DictionnaireTable;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDAssociation;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.merise.mcd.composant.MCDEntite;
+import org.analyse.merise.mcd.composant.MCDLien;
+import org.analyse.merise.mcd.composant.MCDObjet;
+
+/**
+ * Génère des modèles Merise synthétiques de taille quelconque, au format des
+ * fichiers ASI (celui de <code>FiltreMeriseASI</code>) ou directement en
+ * mémoire :
+ *
+ * <pre>
+ * java -Djava.awt.headless=true -cp analyseSI.jar org.analyse.cli.GenerateurModele \
+ *     --entities 10000 --binary 12000 --ternary 500 --reflexive 200 \
+ *     --attributes 2-8 --seed 42 --out gros.asi
+ * </pre>
+ *
+ * Le tirage utilise un générateur pseudo-aléatoire initialisé par la graine :
+ * une même graine avec les mêmes paramètres donne toujours le même modèle,
+ * qu'il soit écrit dans un fichier ou construit en mémoire. Les modèles
+ * produits sont corrects au sens de <code>MCDComponent.isCorrect</code>.
+ * Sans <code>--out</code>, le XML non compressé est écrit sur la sortie
+ * standard.
+ */
+public class GenerateurModele
+{
+    /** Association binaire 1,N / 0,1 ou 1,1 : migration d'une clé étrangère */
+    public static final int UN_N = 0;
+
+    /** Association binaire 0,1 / 1,1 */
+    public static final int UN_UN = 1;
+
+    /** Association binaire 0,N / 1,N : table d'association */
+    public static final int N_N = 2;
+
+    private static final String USAGE = "usage : GenerateurModele"
+            + " [--entities n] [--binary n] [--ternary n] [--reflexive n]"
+            + " [--attributes min[-max]] [--association-attributes min[-max]]"
+            + " [--dictionary n] [--cardinalities 1n,11,nn]"
+            + " [--canvas largeurxhauteur] [--seed n] [--out fichier.asi]";
+
+    /** Types tirés pour les informations autres que les identifiants */
+    private static final String[] TYPES = {"VARCHAR", "VARCHAR", "INT",
+            "DATE", "CHAR", "TEXT", "FLOAT", "DATETIME"};
+
+    private long graine = 0;
+
+    private int entites = 100;
+
+    private int binaires = 100;
+
+    private int ternaires = 0;
+
+    private int reflexives = 0;
+
+    private int attributsMin = 2, attributsMax = 5;
+
+    private int attributsAssociationMin = 0, attributsAssociationMax = 0;
+
+    private int dictionnaire = 0;
+
+    private int[] cardinalites = {6, 2, 2};
+
+    private int largeur = 0, hauteur = 0;
+
+    public static void main(String[] args)
+    {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Génère le modèle décrit par les arguments de la ligne de commande et
+     * retourne le code de retour.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err)
+    {
+        GenerateurModele generateur = new GenerateurModele();
+        File fichier = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--") || i + 1 == args.length) {
+                    err.println("Argument inattendu : " + arg);
+                    err.println(USAGE);
+                    return Convert.ERREUR;
+                }
+
+                String valeur = args[++i];
+                if ("--entities".equals(arg)) {
+                    generateur.setEntites(Integer.parseInt(valeur));
+                } else if ("--binary".equals(arg)) {
+                    generateur.setBinaires(Integer.parseInt(valeur));
+                } else if ("--ternary".equals(arg)) {
+                    generateur.setTernaires(Integer.parseInt(valeur));
+                } else if ("--reflexive".equals(arg)) {
+                    generateur.setReflexives(Integer.parseInt(valeur));
+                } else if ("--attributes".equals(arg)) {
+                    int[] bornes = intervalle(valeur);
+                    generateur.setAttributs(bornes[0], bornes[1]);
+                } else if ("--association-attributes".equals(arg)) {
+                    int[] bornes = intervalle(valeur);
+                    generateur.setAttributsAssociation(bornes[0], bornes[1]);
+                } else if ("--dictionary".equals(arg)) {
+                    generateur.setDictionnaire(Integer.parseInt(valeur));
+                } else if ("--cardinalities".equals(arg)) {
+                    String[] poids = valeur.split(",");
+                    if (poids.length != 3)
+                        throw new IllegalArgumentException(
+                                "Trois poids attendus pour " + arg);
+                    generateur.setCardinalites(Integer.parseInt(poids[0]),
+                            Integer.parseInt(poids[1]),
+                            Integer.parseInt(poids[2]));
+                } else if ("--canvas".equals(arg)) {
+                    String[] taille = valeur.toLowerCase().split("x");
+                    if (taille.length != 2)
+                        throw new IllegalArgumentException(
+                                "Taille attendue sous la forme largeurxhauteur : "
+                                        + valeur);
+                    generateur.setEtendue(Integer.parseInt(taille[0]),
+                            Integer.parseInt(taille[1]));
+                } else if ("--seed".equals(arg)) {
+                    generateur.setGraine(Long.parseLong(valeur));
+                } else if ("--out".equals(arg)) {
+                    fichier = new File(valeur);
+                } else {
+                    err.println("Argument inattendu : " + arg);
+                    err.println(USAGE);
+                    return Convert.ERREUR;
+                }
+            }
+
+            if (fichier == null) {
+                Writer sortie = new BufferedWriter(new OutputStreamWriter(out,
+                        Constantes.ASI_ENCODING));
+                generateur.ecrire(sortie);
+                sortie.flush();
+            } else {
+                generateur.ecrire(fichier);
+            }
+        } catch (NumberFormatException e) {
+            err.println("Nombre invalide : " + e.getMessage());
+            return Convert.ERREUR;
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            return Convert.ERREUR;
+        } catch (IOException e) {
+            err.println("Impossible d'écrire le modèle : " + e.getMessage());
+            return Convert.ERREUR;
+        }
+
+        return Convert.OK;
+    }
+
+    private static int[] intervalle(String valeur)
+    {
+        int tiret = valeur.indexOf('-', 1);
+        if (tiret < 0) {
+            int n = Integer.parseInt(valeur);
+            return new int[] {n, n};
+        }
+        return new int[] {Integer.parseInt(valeur.substring(0, tiret)),
+                Integer.parseInt(valeur.substring(tiret + 1))};
+    }
+
+    /**
+     * Graine du générateur pseudo-aléatoire.
+     */
+    public void setGraine(long graine)
+    {
+        this.graine = graine;
+    }
+
+    public void setEntites(int entites)
+    {
+        if (entites < 1)
+            throw new IllegalArgumentException(
+                    "Le modèle doit avoir au moins une entité");
+        this.entites = entites;
+    }
+
+    public void setBinaires(int binaires)
+    {
+        this.binaires = positif(binaires, "associations binaires");
+    }
+
+    public void setTernaires(int ternaires)
+    {
+        this.ternaires = positif(ternaires, "associations ternaires");
+    }
+
+    /**
+     * Nombre d'associations réflexives, c'est-à-dire n'ayant qu'un seul lien
+     * vers leur entité.
+     */
+    public void setReflexives(int reflexives)
+    {
+        this.reflexives = positif(reflexives, "associations réflexives");
+    }
+
+    /**
+     * Nombre d'informations de chaque entité, identifiant compris, tiré entre
+     * min et max.
+     */
+    public void setAttributs(int min, int max)
+    {
+        if (min < 1 || max < min)
+            throw new IllegalArgumentException("Nombre d'attributs invalide : "
+                    + min + "-" + max);
+        attributsMin = min;
+        attributsMax = max;
+    }
+
+    /**
+     * Nombre d'informations portées par les associations ternaires et les
+     * associations binaires N / N, tiré entre min et max.
+     */
+    public void setAttributsAssociation(int min, int max)
+    {
+        if (min < 0 || max < min)
+            throw new IllegalArgumentException(
+                    "Nombre d'attributs d'association invalide : " + min + "-"
+                            + max);
+        attributsAssociationMin = min;
+        attributsAssociationMax = max;
+    }
+
+    /**
+     * Taille minimale du dictionnaire. Lorsque les objets utilisent moins
+     * d'informations, il est complété par des informations non utilisées.
+     */
+    public void setDictionnaire(int dictionnaire)
+    {
+        this.dictionnaire = positif(dictionnaire, "informations");
+    }
+
+    /**
+     * Poids relatifs des associations binaires {@link #UN_N},
+     * {@link #UN_UN} et {@link #N_N}. Les associations réflexives suivent le
+     * même tirage : 0,1 pour <code>UN_UN</code>, 0,N ou 1,N sinon.
+     */
+    public void setCardinalites(int unN, int unUn, int nN)
+    {
+        positif(unN, "poids");
+        positif(unUn, "poids");
+        positif(nN, "poids");
+        if (unN + unUn + nN == 0)
+            throw new IllegalArgumentException(
+                    "Au moins un poids de cardinalité doit être positif");
+        cardinalites = new int[] {unN, unUn, nN};
+    }
+
+    /**
+     * Dimensions de la zone sur laquelle les entités sont réparties. Avec
+     * 0, elles sont déduites du nombre d'objets.
+     */
+    public void setEtendue(int largeur, int hauteur)
+    {
+        this.largeur = positif(largeur, "largeur");
+        this.hauteur = positif(hauteur, "hauteur");
+    }
+
+    private static int positif(int valeur, String quoi)
+    {
+        if (valeur < 0)
+            throw new IllegalArgumentException("Nombre de " + quoi
+                    + " négatif : " + valeur);
+        return valeur;
+    }
+
+    /**
+     * Ecrit le XML du fichier ASI, non compressé.
+     */
+    public void ecrire(Appendable out) throws IOException
+    {
+        generer(new EcritureXML(out));
+    }
+
+    /**
+     * Ecrit le modèle dans un fichier ASI compressé.
+     */
+    public void ecrire(File fichier) throws IOException
+    {
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(fichier)),
+                Constantes.ASI_ENCODING));
+        try {
+            ecrire(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Construit le modèle dans un nouveau module Merise, sans passer par le
+     * XML.
+     */
+    public MeriseModule construire()
+    {
+        MeriseModule module = Convert.nouveauModule();
+        try {
+            generer(new Construction(module));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return module;
+    }
+
+    /**
+     * Tire le modèle et le transmet à la cible. Le tirage ne dépend que de la
+     * graine et des paramètres, jamais de la cible.
+     */
+    private void generer(Cible cible) throws IOException
+    {
+        if (binaires > 0 && entites < 2)
+            throw new IllegalArgumentException(
+                    "Deux entités au moins sont nécessaires aux associations binaires");
+        if (ternaires > 0 && entites < 3)
+            throw new IllegalArgumentException(
+                    "Trois entités au moins sont nécessaires aux associations ternaires");
+
+        Random rnd = new Random(graine);
+        int associations = binaires + ternaires + reflexives;
+
+        int cote = Math.max(800, (int) Math.ceil(Math.sqrt(entites)) * 260);
+        int l = largeur > 0 ? largeur : cote;
+        int h = hauteur > 0 ? hauteur : cote;
+
+        int[] attributs = new int[entites];
+        int[] x = new int[entites], y = new int[entites];
+        for (int i = 0; i < entites; i++) {
+            attributs[i] = tirer(rnd, attributsMin, attributsMax);
+            x[i] = rnd.nextInt(l);
+            y[i] = rnd.nextInt(h);
+        }
+
+        int[][] extremites = new int[associations][];
+        String[][] cards = new String[associations][];
+        int[] attributsAssociation = new int[associations];
+        for (int a = 0; a < associations; a++) {
+            int arite = a < binaires ? 2 : a < binaires + ternaires ? 3 : 1;
+            extremites[a] = tirerEntites(rnd, arite);
+            cards[a] = tirerCardinalites(rnd, arite);
+            if (arite == 3 || (arite == 2 && "N".equals(cards[a][3])))
+                attributsAssociation[a] = tirer(rnd, attributsAssociationMin,
+                        attributsAssociationMax);
+        }
+
+        // Dictionnaire
+        cible.dictionnaire();
+        int utilisees = 0;
+        for (int i = 0; i < entites; i++) {
+            cible.information("id_e" + i, "INT", 0, true);
+            for (int j = 1; j < attributs[i]; j++)
+                information(cible, rnd, "att" + j + "_e" + i, true);
+            utilisees += attributs[i];
+        }
+        for (int a = 0; a < associations; a++) {
+            for (int j = 0; j < attributsAssociation[a]; j++)
+                information(cible, rnd, "att" + j + "_a" + a, true);
+            utilisees += attributsAssociation[a];
+        }
+        for (int k = 0; k < dictionnaire - utilisees; k++)
+            information(cible, rnd, "libre" + k, false);
+
+        // MCD
+        cible.mcd();
+        for (int i = 0; i < entites; i++) {
+            String[] codes = new String[attributs[i]];
+            codes[0] = "id_e" + i;
+            for (int j = 1; j < codes.length; j++)
+                codes[j] = "att" + j + "_e" + i;
+            cible.objet(true, "E" + i, x[i], y[i], codes);
+        }
+        for (int a = 0; a < associations; a++) {
+            int[] e = extremites[a];
+            int ax, ay;
+            if (e.length == 1) {
+                ax = x[e[0]] + 120;
+                ay = y[e[0]] + 80;
+            } else {
+                ax = 0;
+                ay = 0;
+                for (int i : e) {
+                    ax += x[i];
+                    ay += y[i];
+                }
+                ax = Math.max(0, ax / e.length + rnd.nextInt(81) - 40);
+                ay = Math.max(0, ay / e.length + rnd.nextInt(81) - 40);
+            }
+
+            String[] codes = new String[attributsAssociation[a]];
+            for (int j = 0; j < codes.length; j++)
+                codes[j] = "att" + j + "_a" + a;
+            cible.objet(false, "a" + a, ax, ay, codes);
+        }
+        for (int a = 0; a < associations; a++)
+            for (int k = 0; k < extremites[a].length; k++)
+                cible.lien(cards[a][2 * k], cards[a][2 * k + 1], "a" + a, "E"
+                        + extremites[a][k]);
+
+        cible.fin();
+    }
+
+    private static int tirer(Random rnd, int min, int max)
+    {
+        return min + rnd.nextInt(max - min + 1);
+    }
+
+    /**
+     * Tire <code>n</code> entités distinctes.
+     */
+    private int[] tirerEntites(Random rnd, int n)
+    {
+        int[] tirees = new int[n];
+        for (int k = 0; k < n; k++) {
+            boolean distincte;
+            do {
+                tirees[k] = rnd.nextInt(entites);
+                distincte = true;
+                for (int j = 0; j < k; j++)
+                    if (tirees[j] == tirees[k])
+                        distincte = false;
+            } while (!distincte);
+        }
+        return tirees;
+    }
+
+    /**
+     * Tire les cardinalités (min, max) de chaque lien d'une association
+     * d'arité donnée.
+     */
+    private String[] tirerCardinalites(Random rnd, int arite)
+    {
+        String min = rnd.nextBoolean() ? "0" : "1";
+        if (arite == 3)
+            return new String[] {min, "N", rnd.nextBoolean() ? "0" : "1", "N",
+                    rnd.nextBoolean() ? "0" : "1", "N"};
+
+        int tirage = rnd.nextInt(cardinalites[UN_N] + cardinalites[UN_UN]
+                + cardinalites[N_N]);
+        int type = tirage < cardinalites[UN_N] ? UN_N : tirage
+                < cardinalites[UN_N] + cardinalites[UN_UN] ? UN_UN : N_N;
+
+        if (arite == 1)
+            return type == UN_UN ? new String[] {"0", "1"} : new String[] {
+                    min, "N"};
+
+        String autre = rnd.nextBoolean() ? "0" : "1";
+        switch (type) {
+            case UN_N:
+                return new String[] {min, "N", autre, "1"};
+            case UN_UN:
+                return new String[] {"0", "1", "1", "1"};
+            default:
+                return new String[] {min, "N", autre, "N"};
+        }
+    }
+
+    private static void information(Cible cible, Random rnd, String code,
+            boolean utilise) throws IOException
+    {
+        String type = TYPES[rnd.nextInt(TYPES.length)];
+        int taille = 0;
+        if ("VARCHAR".equals(type))
+            taille = 10 * tirer(rnd, 1, 25);
+        else if ("CHAR".equals(type))
+            taille = tirer(rnd, 1, 10);
+        cible.information(code, type, taille, utilise);
+    }
+
+    /**
+     * Destination du modèle tiré : fichier ASI ou module en mémoire.
+     */
+    private interface Cible
+    {
+        void dictionnaire() throws IOException;
+
+        void information(String code, String type, int taille,
+                boolean utilise) throws IOException;
+
+        void mcd() throws IOException;
+
+        void objet(boolean entite, String nom, int x, int y,
+                String[] informations) throws IOException;
+
+        void lien(String cardMin, String cardMax, String association,
+                String entite) throws IOException;
+
+        void fin() throws IOException;
+    }
+
+    /**
+     * Ecrit le modèle au format de <code>FiltreASI</code> et
+     * <code>FiltreMeriseASI</code>.
+     */
+    private static class EcritureXML implements Cible
+    {
+        private final Appendable out;
+
+        EcritureXML(Appendable out)
+        {
+            this.out = out;
+        }
+
+        public void dictionnaire() throws IOException
+        {
+            out.append("<?xml version=\"1.0\" encoding=\"")
+                    .append(Constantes.ASI_ENCODING).append("\"?>\n")
+                    .append("<analyse>\n<about>\n<release release=\"")
+                    .append(Constantes.RELEASE).append("\" />\n</about>\n")
+                    .append("<module id=\"merise\">\n<dictionnaire>\n");
+        }
+
+        public void information(String code, String type, int taille,
+                boolean utilise) throws IOException
+        {
+            out.append("<information code=\"").append(code)
+                    .append("\" nom=\"").append(code).append("\" type=\"")
+                    .append(type).append("\" taille=\"")
+                    .append(String.valueOf(taille)).append("\" utilise=\"")
+                    .append(String.valueOf(utilise)).append("\" />\n");
+        }
+
+        public void mcd() throws IOException
+        {
+            out.append("</dictionnaire>\n<mcd>\n");
+        }
+
+        public void objet(boolean entite, String nom, int x, int y,
+                String[] informations) throws IOException
+        {
+            String element = entite ? "entite" : "association";
+            out.append('<').append(element).append(" nom=\"").append(nom)
+                    .append("\" x=\"").append(String.valueOf(x))
+                    .append("\" y=\"").append(String.valueOf(y))
+                    .append("\">\n");
+            for (String code : informations)
+                out.append("<information code=\"").append(code)
+                        .append("\" />\n");
+            out.append("</").append(element).append(">\n");
+        }
+
+        public void lien(String cardMin, String cardMax, String association,
+                String entite) throws IOException
+        {
+            out.append("<lien cardmin=\"").append(cardMin)
+                    .append("\" cardmax=\"").append(cardMax)
+                    .append("\" elem1=\"").append(association)
+                    .append("\" elem2=\"").append(entite).append("\" />\n");
+        }
+
+        public void fin() throws IOException
+        {
+            out.append("</mcd>\n</module>\n</analyse>\n");
+        }
+    }
+
+    /**
+     * Construit le modèle dans un module, comme le ferait
+     * <code>ASIMeriseHandler</code> à la lecture du fichier.
+     */
+    private static class Construction implements Cible
+    {
+        private final DictionnaireTable dictionnaire;
+
+        private final MCDComponent mcd;
+
+        Construction(MeriseModule module)
+        {
+            dictionnaire = module.getDictionnaireTable();
+            mcd = module.getMCDComponent();
+        }
+
+        public void dictionnaire()
+        {
+            dictionnaire.beginBatch();
+            mcd.beginBatch();
+        }
+
+        public void information(String code, String type, int taille,
+                boolean utilise)
+        {
+            dictionnaire.addData(code, code, type, String.valueOf(taille),
+                    String.valueOf(utilise));
+        }
+
+        public void mcd()
+        {
+        }
+
+        public void objet(boolean entite, String nom, int x, int y,
+                String[] informations)
+        {
+            MCDObjet objet = entite ? new MCDEntite(mcd, nom, x, y)
+                    : new MCDAssociation(mcd, nom, x, y);
+            objet.setPosition(new Point(x, y));
+            mcd.addObjet(objet);
+            for (String code : informations)
+                objet.addInformation(code);
+        }
+
+        public void lien(String cardMin, String cardMax, String association,
+                String entite)
+        {
+            MCDLien lien = new MCDLien();
+            lien.setElement(mcd.getElement(association),
+                    Constantes.MCDENTITE1);
+            lien.setElement(mcd.getElement(entite), Constantes.MCDENTITE2);
+            lien.setCardMin(cardMin);
+            lien.setCardMax(cardMax);
+            mcd.addLien(lien);
+        }
+
+        public void fin()
+        {
+            mcd.setPreferredSize(mcd.getPreferredSize());
+            mcd.commitBatch();
+            dictionnaire.commitBatch();
+        }
+    }
+}
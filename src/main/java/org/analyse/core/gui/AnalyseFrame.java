@@ -54,6 +54,7 @@ import org.analyse.core.gui.panel.Navigator;
 import org.analyse.core.gui.statusbar.AnalyseStatusbar;
 import org.analyse.core.gui.toolbar.AnalyseToolbar;
 import org.analyse.core.modules.AnalysePanel;
+import org.analyse.core.save.JournalASI;
 import org.analyse.core.util.Constantes;
 import org.analyse.core.util.GUIUtilities;
 import org.analyse.core.util.Utilities;
@@ -238,6 +239,14 @@ public class AnalyseFrame extends JFrame {
 				Integer.parseInt(props.getProperty("height")));
 		toolbar.setTreeSelected(Boolean.parseBoolean(props.getProperty("tree")));
 		this.showHideNavigator();
+
+		/* Délai d'écriture du journal, 0 pour le désactiver */
+		try {
+			analyseSave.getJournal().setIntervalle(Integer.parseInt(props.getProperty(
+					"journal.intervalle", "" + JournalASI.INTERVALLE)));
+		} catch (NumberFormatException e) {
+			logger.log(Level.WARNING, "Invalid journal.intervalle property", e);
+		}
 	}
 
 	/**
@@ -20,6 +20,8 @@
 
 package org.analyse.core.gui.statusbar;
 
+import java.awt.Cursor;
+import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
 import javax.swing.AbstractButton;
@@ -36,6 +38,9 @@ public class AnalyseStatusbar extends JLabel
 
     private boolean enabledChange;
 
+    /** Annulation de la tâche dont la progression est affichée, ou null */
+    private Runnable annulation;
+
     public AnalyseStatusbar()
     {
         setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 2));
@@ -44,6 +49,39 @@ public class AnalyseStatusbar extends JLabel
 
         mouseHandler = new MouseHandler(this);
         this.setText( Utilities.getRelease() );
+
+        addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent evt)
+            {
+                if (annulation != null)
+                    annulation.run();
+            }
+        });
+    }
+
+    /**
+     * Affiche la progression d'une tâche de fond. Tant qu'elle est affichée,
+     * un clic sur la barre annule la tâche.
+     */
+    public void afficherProgression(String message, Runnable annulation)
+    {
+        this.annulation = annulation;
+        enabledChange = false;
+        setText(message);
+        setToolTipText("Cliquer pour annuler");
+        setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+    }
+
+    /**
+     * Termine l'affichage de la progression avec un dernier message.
+     */
+    public void terminerProgression(String message)
+    {
+        annulation = null;
+        enabledChange = true;
+        setText(message);
+        setToolTipText(null);
+        setCursor(null);
     }
 
     public MouseInputAdapter getHandler()
@@ -58,6 +58,12 @@ public abstract class ZElement
     /** Changement d'un lien */
     private boolean lien;
 
+    /** Vrai lorsque la taille doit être recalculée avant le prochain dessin */
+    private boolean miseEnPageInvalide = true;
+
+    /** Nombre de notifications de l'élément, augmenté à chaque modification */
+    private long version;
+
     public ZElement()
     {
         observable = new ObservableZGraphique();
@@ -161,6 +167,43 @@ public abstract class ZElement
             && (x1 < x+width && x+width < x2) && (y1 < y+height && y+height < y2);
     }
 
+    /**
+     * Calcule la taille de l'élément. Cette méthode est appelée lors de la
+     * phase de mise en page qui précède le dessin, jamais par
+     * <code>paint()</code>.
+     */
+    public void updateSize()
+    {
+    }
+
+    /**
+     * Indique que la taille de l'élément devra être recalculée avant le
+     * prochain dessin.
+     */
+    public void invaliderMiseEnPage()
+    {
+        miseEnPageInvalide = true;
+    }
+
+    /**
+     * Retourne vrai si la taille de l'élément doit être recalculée.
+     */
+    public boolean isMiseEnPageInvalide()
+    {
+        return miseEnPageInvalide;
+    }
+
+    /**
+     * Recalcule la taille de l'élément si elle a été invalidée.
+     */
+    public void mettreEnPage()
+    {
+        if (miseEnPageInvalide) {
+            miseEnPageInvalide = false;
+            updateSize();
+        }
+    }
+
     public boolean getLien()
     {
         return lien;
@@ -226,6 +269,15 @@ public abstract class ZElement
         lien = true;
     }
 
+    /**
+     * Retourne la version de l'élément : elle change à chaque modification
+     * notifiée aux observateurs.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
     public abstract boolean isChanged();
 
     public String toString()
@@ -250,8 +302,10 @@ public abstract class ZElement
 
         public void notifyZElement()
         {
+            version++;
             if (x != getX() || y != getY() || height != getHeight()
-                    || width != getWidth() || getLien() || isChanged()) {
+                    || width != getWidth() || getLien() || isChanged()
+                    || miseEnPageInvalide) {
                 setChanged();
                 this.x = getX();
                 this.y = getY();
@@ -259,7 +313,7 @@ public abstract class ZElement
                 this.width = getWidth();
                 setLien(false);
             }
-            super.notifyObservers();
+            super.notifyObservers(ZElement.this);
         }
     }
 }
\ No newline at end of file
@@ -36,9 +36,11 @@ import java.awt.AWTEvent;
 import java.awt.AWTEventMulticaster;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
@@ -47,6 +49,7 @@ import java.awt.event.MouseMotionListener;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -57,6 +60,7 @@ import java.util.Observer;
 import java.util.Set;
 
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
 
 import org.analyse.core.util.Constantes;
 
@@ -81,6 +85,61 @@ public class ZGraphique extends JComponent implements MouseListener,
     /** Vecteur de <code>ZLien</code> */
     private List<ZLien> zliens = new ArrayList<ZLien>() ;
 
+    /** Taille des cellules des index spatiaux */
+    private static final int TAILLE_CELLULE = 128;
+
+    /** Tolérance autour d'un lien pour la sélection à la souris */
+    private static final int MARGE_LIEN = 12;
+
+    /**
+     * Marge autour d'un lien couvrant ce qu'il dessine en dehors de son
+     * segment (cardinalités, flèches).
+     */
+    private static final int MARGE_DESSIN = 40;
+
+    /** Marge autour d'un élément couvrant son trait et les marques de focus */
+    private static final int MARGE_FOCUS = 4;
+
+    /** Index spatial des <code>ZElement</code> */
+    private ZGrille<ZElement> grilleElements = new ZGrille<ZElement>(TAILLE_CELLULE);
+
+    /** Index spatial des <code>ZLien</code> */
+    private ZGrille<ZLien> grilleLiens = new ZGrille<ZLien>(TAILLE_CELLULE);
+
+    /**
+     * Rang de chaque <code>ZElement</code> dans l'ordre d'affichage. Les rangs
+     * croissent avec la position dans la liste mais ne se suivent pas : une
+     * suppression n'oblige pas à renuméroter les suivants.
+     */
+    private Map<ZElement, Integer> rangsElements = new HashMap<ZElement, Integer>();
+
+    /** Rang de chaque <code>ZLien</code> dans l'ordre d'affichage */
+    private Map<ZLien, Integer> rangsLiens = new HashMap<ZLien, Integer>();
+
+    /** Rang du prochain <code>ZElement</code> ajouté */
+    private int rangElementSuivant;
+
+    /** Rang du prochain <code>ZLien</code> ajouté */
+    private int rangLienSuivant;
+
+    /** Extrémités de chaque <code>ZLien</code> au moment de son ajout */
+    private Map<ZLien, ZElement[]> extremites = new HashMap<ZLien, ZElement[]>();
+
+    /** Liens attachés à chaque <code>ZElement</code> */
+    private Map<ZElement, List<ZLien>> liensElements = new HashMap<ZElement, List<ZLien>>();
+
+    /** Zone occupée par chaque <code>ZElement</code> lors de son dernier placement */
+    private Map<ZElement, Rectangle> zonesElements = new HashMap<ZElement, Rectangle>();
+
+    /** Zone occupée par chaque <code>ZLien</code> lors de son dernier placement */
+    private Map<ZLien, Rectangle> zonesLiens = new HashMap<ZLien, Rectangle>();
+
+    /** <code>ZElement</code>s dont la taille doit être recalculée avant le prochain dessin */
+    private Set<ZElement> aMettreEnPage = new LinkedHashSet<ZElement>();
+
+    /** Vrai si une phase de mise en page attend déjà dans la file de l'EDT */
+    private boolean miseEnPagePlanifiee;
+
     /**
      * Cette variable sert pour le glisser-déposer. Lorsque l'on clic sur un
      * <code>ZElement</code> la variable est liée à ce <code>ZElement</code>
@@ -132,6 +191,18 @@ public class ZGraphique extends JComponent implements MouseListener,
     /** Pour la position du lien */
     private int x1, y1, x2, y2;
 
+    /** Profondeur des lots ouverts par beginBatch() */
+    private int lot;
+
+    /** Indique si le graphique a changé depuis l'ouverture du lot */
+    private boolean lotModifie;
+
+    /**
+     * Nombre de modifications du contenu : permet de savoir qu'il a changé
+     * sans le parcourir.
+     */
+    private long modifications;
+
     /**
      * Définie un <code>ZGraphique</code> avec les paramètres par défaut.
      */
@@ -204,9 +275,18 @@ public class ZGraphique extends JComponent implements MouseListener,
      */
     public void addElement(ZElement element)
     {
+        modifications++;
         zelements.add(element);
+        rangsElements.put(element, rangElementSuivant++);
         element.majObserver(this);
-        repaint();
+        if (lot > 0) {
+            lotModifie = true;
+            return;
+        }
+        placerElement(element);
+        if (element.isMiseEnPageInvalide())
+            aMettreEnPage(element);
+        repaintZone(zonesElements.get(element));
     }
 
     /**
@@ -226,17 +306,37 @@ public class ZGraphique extends JComponent implements MouseListener,
     {
         enleverFocus();
 
-        Iterator<ZLien> e = zliens.iterator();
-        List<ZLien> supp = new ArrayList<ZLien>();
-        while (e.hasNext()) {
-            ZLien l = e.next();
-            if (l.getElement(Constantes.MCDENTITE1).equals(element)
-                    || l.getElement(Constantes.MCDENTITE2).equals(element))
-                supp.add(l);
+        List<ZLien> liens = liensElements.get(element);
+        if (liens != null)
+            removeLiens(new ArrayList<ZLien>(liens));
+        int i = position(zelements, rangsElements, element);
+        if (i != -1) {
+            modifications++;
+            zelements.remove(i);
+            rangsElements.remove(element);
+            grilleElements.retirer(element);
+            liensElements.remove(element);
+            aMettreEnPage.remove(element);
+            repaintZone(zonesElements.remove(element));
         }
-        removeLiens(supp);
-        zelements.remove(element);
-        repaint();
+    }
+
+    /**
+     * Indique si <code>element</code> fait partie du composant.
+     */
+    public boolean contient(ZElement element)
+    {
+        return rangsElements.containsKey(element);
+    }
+
+    /**
+     * Retourne le nombre de modifications du contenu depuis la création du
+     * composant : ajouts, suppressions et changements des éléments et des
+     * liens.
+     */
+    public long getModifications()
+    {
+        return modifications;
     }
 
     /**
@@ -246,9 +346,131 @@ public class ZGraphique extends JComponent implements MouseListener,
     	
         if (lien.getElement(Constantes.MCDENTITE1) != null && lien.getElement(Constantes.MCDENTITE2) != null 
         		&& lien.getElement(Constantes.MCDENTITE1) != lien.getElement(Constantes.MCDENTITE2)
-                && !zliens.contains(lien))
+                && !rangsLiens.containsKey(lien)) {
     	
+            modifications++;
             zliens.add(lien);
+            rangsLiens.put(lien, rangLienSuivant++);
+            ZElement[] ext = new ZElement[] {
+                    lien.getElement(Constantes.MCDENTITE1),
+                    lien.getElement(Constantes.MCDENTITE2) };
+            extremites.put(lien, ext);
+            for (ZElement elem : ext) {
+                List<ZLien> liens = liensElements.get(elem);
+                if (liens == null) {
+                    liens = new ArrayList<ZLien>(2);
+                    liensElements.put(elem, liens);
+                }
+                liens.add(lien);
+            }
+            if (lot > 0) {
+                lotModifie = true;
+                return;
+            }
+            placerLien(lien);
+            repaintZone(zonesLiens.get(lien));
+        }
+    }
+
+    /**
+     * Ouvre un lot, typiquement pour un chargement : jusqu'au commitBatch()
+     * correspondant, les ajouts et les modifications d'éléments ne mettent plus
+     * à jour l'index spatial ni la géométrie des liens et ne redessinent rien.
+     * Les lots peuvent être imbriqués.
+     */
+    public void beginBatch()
+    {
+        lot++;
+    }
+
+    /**
+     * Ferme le lot ouvert par beginBatch(). A la fermeture du lot le plus
+     * externe, l'index spatial et la géométrie des liens sont reconstruits en
+     * une fois, puis le composant est redessiné.
+     */
+    public void commitBatch()
+    {
+        if (lot == 0)
+            throw new IllegalStateException("Aucun lot ouvert");
+
+        if (--lot == 0 && lotModifie) {
+            lotModifie = false;
+            reconstruire();
+            repaint();
+        }
+    }
+
+    /**
+     * Recalcule l'index spatial, les zones et la géométrie de tous les
+     * éléments et de tous les liens.
+     */
+    private void reconstruire()
+    {
+        grilleElements.vider();
+        grilleLiens.vider();
+        zonesElements.clear();
+        zonesLiens.clear();
+
+        for (ZElement elem : zelements) {
+            placerElement(elem);
+            if (elem.isMiseEnPageInvalide())
+                aMettreEnPage(elem);
+        }
+        for (ZLien lien : zliens)
+            placerLien(lien);
+    }
+
+    /**
+     * Remplace le contenu du composant par celui de <code>source</code>, qui
+     * se retrouve vide : les éléments, les liens et leur index spatial sont
+     * repris tels quels, sans être recalculés. Permet de publier en une fois
+     * un modèle construit hors de l'EDT dans un composant non affiché.
+     */
+    protected void reprendre(ZGraphique source)
+    {
+        if (lot > 0 || source.lot > 0)
+            throw new IllegalStateException("Lot ouvert");
+
+        clearAll();
+        source.enleverFocus();
+
+        zelements = source.zelements;
+        zliens = source.zliens;
+        grilleElements = source.grilleElements;
+        grilleLiens = source.grilleLiens;
+        rangsElements = source.rangsElements;
+        rangsLiens = source.rangsLiens;
+        rangElementSuivant = source.rangElementSuivant;
+        rangLienSuivant = source.rangLienSuivant;
+        extremites = source.extremites;
+        liensElements = source.liensElements;
+        zonesElements = source.zonesElements;
+        zonesLiens = source.zonesLiens;
+        aMettreEnPage = source.aMettreEnPage;
+
+        source.zelements = new ArrayList<ZElement>();
+        source.zliens = new ArrayList<ZLien>();
+        source.grilleElements = new ZGrille<ZElement>(TAILLE_CELLULE);
+        source.grilleLiens = new ZGrille<ZLien>(TAILLE_CELLULE);
+        source.rangsElements = new HashMap<ZElement, Integer>();
+        source.rangsLiens = new HashMap<ZLien, Integer>();
+        source.rangElementSuivant = 0;
+        source.rangLienSuivant = 0;
+        source.extremites = new HashMap<ZLien, ZElement[]>();
+        source.liensElements = new HashMap<ZElement, List<ZLien>>();
+        source.zonesElements = new HashMap<ZElement, Rectangle>();
+        source.zonesLiens = new HashMap<ZLien, Rectangle>();
+        source.aMettreEnPage = new LinkedHashSet<ZElement>();
+
+        // la taille des éléments dépend de la police de ce composant
+        for (ZElement elem : zelements) {
+            elem.clearObservers();
+            elem.majObserver(this);
+            elem.invaliderMiseEnPage();
+            aMettreEnPage(elem);
+        }
+
+        revalidate();
         repaint();
     }
 
@@ -268,8 +490,43 @@ public class ZGraphique extends JComponent implements MouseListener,
     public void removeLien(ZLien lien)
     {
         enleverFocus();
-        zliens.remove(lien);
-        repaint();
+        int i = position(zliens, rangsLiens, lien);
+        if (i != -1) {
+            modifications++;
+            zliens.remove(i);
+            rangsLiens.remove(lien);
+            grilleLiens.retirer(lien);
+            for (ZElement elem : extremites.remove(lien)) {
+                List<ZLien> liens = liensElements.get(elem);
+                if (liens != null)
+                    liens.remove(lien);
+            }
+            repaintZone(zonesLiens.remove(lien));
+        }
+    }
+
+    /**
+     * Retourne la position de <code>objet</code> dans <code>liste</code>, ou
+     * -1, par dichotomie sur les rangs.
+     */
+    private static <T> int position(List<T> liste, Map<T, Integer> rangs, T objet)
+    {
+        Integer rang = rangs.get(objet);
+        if (rang == null)
+            return -1;
+
+        int bas = 0, haut = liste.size() - 1;
+        while (bas <= haut) {
+            int milieu = (bas + haut) >>> 1;
+            int r = rangs.get(liste.get(milieu));
+            if (r < rang)
+                bas = milieu + 1;
+            else if (r > rang)
+                haut = milieu - 1;
+            else
+                return milieu;
+        }
+        return -1;
     }
 
     /**
@@ -281,6 +538,17 @@ public class ZGraphique extends JComponent implements MouseListener,
             removeLien(e.next());
     }
 
+    /**
+     * Supprime tous les <code>ZLien</code> attachés à <code>element</code>,
+     * qui reste dans le composant.
+     */
+    public void retirerLiens(ZElement element)
+    {
+        List<ZLien> liens = liensElements.get(element);
+        if (liens != null)
+            removeLiens(new ArrayList<ZLien>(liens));
+    }
+
     /**
      * Retourne un <code>ZLien</code> du composant.
      * 
@@ -340,20 +608,209 @@ public class ZGraphique extends JComponent implements MouseListener,
      */
     public ZElement chercheElement(int x, int y)
     {
-        for (int i = zelements.size() - 1; i >= 0; i--)
-            if (getElement(i).isSelected(x, y))
-                return getElement(i);
-        return null;
+        ZElement trouve = null;
+        int rang = -1;
+        for (ZElement elem : grilleElements.chercher(x, y)) {
+            int r = rangsElements.get(elem);
+            if (r > rang && elem.isSelected(x, y)) {
+                trouve = elem;
+                rang = r;
+            }
+        }
+        return trouve;
     }
     /**
      * Retourne le premier {@link ZLien} se trouvant à la position x, y.
      */
     public ZLien chercheLien(int x, int y)
     {
-        for (int i = 0; i < zliens.size(); i++)
-            if (getLien(i).isSelected(x, y))
-                return getLien(i);
-        return null;
+        ZLien trouve = null;
+        int rang = Integer.MAX_VALUE;
+        for (ZLien lien : grilleLiens.chercher(x, y)) {
+            int r = rangsLiens.get(lien);
+            if (r < rang && lien.isSelected(x, y)) {
+                trouve = lien;
+                rang = r;
+            }
+        }
+        return trouve;
+    }
+
+    /**
+     * Retourne, dans l'ordre d'affichage, les {@link ZElement}s entièrement
+     * contenus dans le rectangle (x1, y1) - (x2, y2).
+     */
+    public List<ZElement> chercheElements(int x1, int y1, int x2, int y2)
+    {
+        List<ZElement> res = new ArrayList<ZElement>();
+        if (grilleElements.nombreCellules(x1, y1, x2, y2) > zelements.size()) {
+            for (ZElement elem : zelements)
+                if (elem.isInside(x1, y1, x2, y2))
+                    res.add(elem);
+            return res;
+        }
+
+        for (ZElement elem : grilleElements.chercher(x1, y1, x2, y2))
+            if (elem.isInside(x1, y1, x2, y2))
+                res.add(elem);
+        res.sort((a, b) -> Integer.compare(rangsElements.get(a), rangsElements.get(b)));
+        return res;
+    }
+
+    /**
+     * Met à jour la position d'un <code>ZElement</code> dans l'index spatial.
+     */
+    private void placerElement(ZElement elem)
+    {
+        grilleElements.placer(elem, elem.getX(), elem.getY(), elem.getX()
+                + elem.getWidth(), elem.getY() + elem.getHeight());
+        Rectangle zone = new Rectangle(elem.getX(), elem.getY(), elem
+                .getWidth(), elem.getHeight());
+        zone.grow(MARGE_FOCUS, MARGE_FOCUS);
+        zonesElements.put(elem, zone);
+    }
+
+    /**
+     * Met à jour la position d'un <code>ZLien</code> dans l'index spatial,
+     * d'après les extrémités qu'il calcule lui-même : un lien redressé (MPD)
+     * s'écarte du segment joignant les centres de ses éléments.
+     */
+    private void placerLien(ZLien lien)
+    {
+        lien.updateLocation();
+        int lx1 = lien.getX1();
+        int ly1 = lien.getY1();
+        int lx2 = lien.getX2();
+        int ly2 = lien.getY2();
+        grilleLiens.placerSegment(lien, lx1, ly1, lx2, ly2, MARGE_LIEN);
+
+        Rectangle zone = new Rectangle(Math.min(lx1, lx2), Math.min(ly1, ly2),
+                Math.abs(lx2 - lx1), Math.abs(ly2 - ly1));
+        zone.grow(MARGE_DESSIN, MARGE_DESSIN);
+        zonesLiens.put(lien, zone);
+    }
+
+    /**
+     * Ajoute un élément à la prochaine phase de mise en page.
+     */
+    private void aMettreEnPage(ZElement elem)
+    {
+        aMettreEnPage.add(elem);
+        planifierMiseEnPage();
+    }
+
+    /**
+     * Demande une phase de mise en page sur l'EDT, une seule pour toutes les
+     * invalidations qui la précèdent. Elle passe dans la file avant le dessin
+     * que ces invalidations provoquent. Un composant construit hors de l'EDT
+     * est mis en page lorsqu'il est repris.
+     */
+    private void planifierMiseEnPage()
+    {
+        if (miseEnPagePlanifiee || !SwingUtilities.isEventDispatchThread())
+            return;
+
+        miseEnPagePlanifiee = true;
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run()
+            {
+                miseEnPagePlanifiee = false;
+                mettreEnPage();
+            }
+        });
+    }
+
+    /**
+     * Phase de mise en page : recalcule la taille des éléments invalidés. Elle
+     * n'est jamais lancée par le dessin ; les zones dont la taille change sont
+     * redessinées ensuite.
+     */
+    public void mettreEnPage()
+    {
+        if (aMettreEnPage.isEmpty())
+            return;
+
+        for (ZElement elem : new ArrayList<ZElement>(aMettreEnPage))
+            elem.mettreEnPage();
+        aMettreEnPage.removeIf(elem -> !elem.isMiseEnPageInvalide());
+    }
+
+    /**
+     * Demande le dessin d'une zone du composant.
+     */
+    private void repaintZone(Rectangle zone)
+    {
+        if (zone == null || lot > 0)
+            return;
+        repaint(zone.x, zone.y, zone.width, zone.height);
+    }
+
+    /**
+     * Demande le dessin de la réunion de deux zones.
+     */
+    private void repaintZone(Rectangle avant, Rectangle apres)
+    {
+        if (avant == null || apres == null)
+            repaintZone(avant == null ? apres : avant);
+        else
+            repaintZone(avant.union(apres));
+    }
+
+    /**
+     * Demande le dessin des marques de focus courantes.
+     */
+    private void repaintFocus()
+    {
+        for (ZElement elem : selectionCourante)
+            repaintZone(zonesElements.get(elem));
+        for (ZElement elem : selectionTemporaire)
+            repaintZone(zonesElements.get(elem));
+        if (lienClic != null)
+            repaintZone(zonesLiens.get(lienClic));
+    }
+
+    /**
+     * Retourne, dans l'ordre d'affichage, les <code>ZElement</code>s dont la
+     * zone recoupe le rectangle.
+     */
+    private List<ZElement> elementsVisibles(Rectangle clip)
+    {
+        Collection<ZElement> candidats = zelements;
+        if (grilleElements.nombreCellules(clip.x, clip.y, clip.x + clip.width,
+                clip.y + clip.height) <= zelements.size())
+            candidats = grilleElements.chercher(clip.x - MARGE_FOCUS, clip.y
+                    - MARGE_FOCUS, clip.x + clip.width + MARGE_FOCUS, clip.y
+                    + clip.height + MARGE_FOCUS);
+
+        List<ZElement> res = new ArrayList<ZElement>();
+        for (ZElement elem : candidats)
+            if (clip.intersects(zonesElements.get(elem)))
+                res.add(elem);
+        if (candidats != zelements)
+            res.sort((a, b) -> Integer.compare(rangsElements.get(a), rangsElements.get(b)));
+        return res;
+    }
+
+    /**
+     * Retourne, dans l'ordre d'affichage, les <code>ZLien</code>s dont la
+     * zone recoupe le rectangle.
+     */
+    private List<ZLien> liensVisibles(Rectangle clip)
+    {
+        Collection<ZLien> candidats = zliens;
+        if (grilleLiens.nombreCellules(clip.x, clip.y, clip.x + clip.width,
+                clip.y + clip.height) <= zliens.size())
+            candidats = grilleLiens.chercher(clip.x - MARGE_DESSIN, clip.y
+                    - MARGE_DESSIN, clip.x + clip.width + MARGE_DESSIN, clip.y
+                    + clip.height + MARGE_DESSIN);
+
+        List<ZLien> res = new ArrayList<ZLien>();
+        for (ZLien lien : candidats)
+            if (clip.intersects(zonesLiens.get(lien)))
+                res.add(lien);
+        if (candidats != zliens)
+            res.sort((a, b) -> Integer.compare(rangsLiens.get(a), rangsLiens.get(b)));
+        return res;
     }
     /**
      * Retourne le premier composant se trouvant à la position x, y.
@@ -375,6 +832,7 @@ public class ZGraphique extends JComponent implements MouseListener,
      */
     public void enleverFocus()
     {
+        repaintFocus();
         elementClic = null;
         selectionCourante.clear();
         selectionTemporaire.clear();
@@ -439,9 +897,21 @@ public class ZGraphique extends JComponent implements MouseListener,
 
     public void clearAll()
     {
+        modifications++;
         enleverFocus();
         zelements = new ArrayList<ZElement>();
         zliens = new ArrayList<ZLien>();
+        grilleElements.vider();
+        grilleLiens.vider();
+        rangsElements.clear();
+        rangsLiens.clear();
+        rangElementSuivant = 0;
+        rangLienSuivant = 0;
+        extremites.clear();
+        liensElements.clear();
+        zonesElements.clear();
+        zonesLiens.clear();
+        aMettreEnPage.clear();
         repaint();
     }
 
@@ -452,16 +922,18 @@ public class ZGraphique extends JComponent implements MouseListener,
     {
         super.paintComponent(g);
 
+        Rectangle clip = g.getClipBounds();
+        if (clip == null)
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+
         g.setColor(getBackground());
-        g.fillRect(0, 0, getWidth(), getHeight());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
 
-        Iterator<ZElement> e = zelements.iterator();
-        while (e.hasNext())
-            e.next().paint(g);
-        
-        Iterator<ZLien> e1 = zliens.iterator();
-        while (e1.hasNext())
-            e1.next().paint(g);
+        for (ZElement elem : elementsVisibles(clip))
+            elem.paint(g);
+
+        for (ZLien lien : liensVisibles(clip))
+            lien.paint(g);
 
         for (ZElement elem : selectionCourante)
             elem.paintFocus(g);
@@ -506,6 +978,21 @@ public class ZGraphique extends JComponent implements MouseListener,
         }
     }
 
+    /**
+     * Change la police du composant : la taille de tous les éléments sera
+     * recalculée.
+     */
+    public void setFont(Font font)
+    {
+        super.setFont(font);
+        if (zelements == null)
+            return;
+        for (ZElement elem : zelements) {
+            elem.invaliderMiseEnPage();
+            aMettreEnPage(elem);
+        }
+    }
+
     public Dimension getPreferredSize()
     {
         int x = 0, y = 0;
@@ -524,6 +1011,33 @@ public class ZGraphique extends JComponent implements MouseListener,
 
     public void update(Observable o, Object arg)
     {
+        modifications++;
+        if (lot > 0) {
+            // tout sera recalculé à la fermeture du lot
+            lotModifie = true;
+            return;
+        }
+
+        if (arg instanceof ZElement) {
+            ZElement elem = (ZElement) arg;
+            if (!rangsElements.containsKey(elem))
+                return;
+            if (elem.isMiseEnPageInvalide())
+                aMettreEnPage(elem);
+
+            Rectangle avant = zonesElements.get(elem);
+            placerElement(elem);
+            repaintZone(avant, zonesElements.get(elem));
+
+            List<ZLien> liens = liensElements.get(elem);
+            if (liens != null)
+                for (ZLien lien : liens) {
+                    avant = zonesLiens.get(lien);
+                    placerLien(lien);
+                    repaintZone(avant, zonesLiens.get(lien));
+                }
+            return;
+        }
         this.repaint();
     }
 
@@ -651,9 +1165,15 @@ public class ZGraphique extends JComponent implements MouseListener,
         Point point = new Point();
         
         if (creationLien && enabled) {
+            Rectangle avant = new Rectangle(Math.min(x1, x2), Math.min(y1, y2),
+                    Math.abs(x2 - x1), Math.abs(y2 - y1));
             x2 = e.getX();
             y2 = e.getY();
-            repaint();
+            Rectangle apres = new Rectangle(Math.min(x1, x2), Math.min(y1, y2),
+                    Math.abs(x2 - x1), Math.abs(y2 - y1));
+            avant.grow(MARGE_FOCUS, MARGE_FOCUS);
+            apres.grow(MARGE_FOCUS, MARGE_FOCUS);
+            repaintZone(avant, apres);
         } else if (enabled) {
             if (elementPress != null) {
                 for (Map.Entry<ZElement, Point> entry : positionsRelatives.entrySet()) {
@@ -666,16 +1186,20 @@ public class ZGraphique extends JComponent implements MouseListener,
                     ZElement elem = entry.getKey();
                     elem.setPosition(point);
                 }
-                repaint();
             }
             else if (arriveeCadreSelection != null) {
+                Rectangle avant = new Rectangle(departCadreSelection);
+                avant.add(arriveeCadreSelection);
                 arriveeCadreSelection.x = e.getX();
                 arriveeCadreSelection.y = e.getY();
+                Rectangle apres = new Rectangle(departCadreSelection);
+                apres.add(arriveeCadreSelection);
+                avant.grow(MARGE_FOCUS, MARGE_FOCUS);
+                apres.grow(MARGE_FOCUS, MARGE_FOCUS);
+
                 selectionTemporaire.clear();
-                for (ZElement elem : zelements)
-                    if (elem.isInside(departCadreSelection.x, departCadreSelection.y, arriveeCadreSelection.x, arriveeCadreSelection.y))
-                        selectionTemporaire.add(elem);
-                repaint();
+                selectionTemporaire.addAll(chercheElements(departCadreSelection.x, departCadreSelection.y, arriveeCadreSelection.x, arriveeCadreSelection.y));
+                repaintZone(avant, apres);
             }
         }
     }
@@ -0,0 +1,187 @@
+/*
+ * ZGrille.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.gui.zgraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grille uniforme utilisée par <code>ZGraphique</code> pour retrouver
+ * rapidement les objets proches d'un point ou d'un rectangle. Chaque objet est
+ * enregistré dans toutes les cellules que recouvre son emprise ; une recherche
+ * ne retourne que des candidats, le test précis reste à la charge de
+ * l'appelant.
+ */
+class ZGrille<T>
+{
+    /** Taille d'une cellule en pixels */
+    private final int taille;
+
+    /** Contenu de chaque cellule non vide */
+    private Map<Long, List<T>> cellules = new HashMap<Long, List<T>>();
+
+    /** Cellules occupées par chaque objet */
+    private Map<T, Set<Long>> emprises = new HashMap<T, Set<Long>>();
+
+    ZGrille(int taille)
+    {
+        this.taille = taille;
+    }
+
+    /**
+     * Place l'objet sur le rectangle (x1, y1) - (x2, y2), en remplaçant son
+     * emprise précédente.
+     */
+    void placer(T objet, int x1, int y1, int x2, int y2)
+    {
+        retirer(objet);
+        Set<Long> emprise = new LinkedHashSet<Long>();
+        ajouterRectangle(emprise, x1, y1, x2, y2);
+        enregistrer(objet, emprise);
+    }
+
+    /**
+     * Place l'objet le long du segment (x1, y1) - (x2, y2), élargi de
+     * <code>marge</code> pixels de chaque côté.
+     */
+    void placerSegment(T objet, int x1, int y1, int x2, int y2, int marge)
+    {
+        retirer(objet);
+        Set<Long> emprise = new LinkedHashSet<Long>();
+
+        double longueur = Math.hypot(x2 - x1, y2 - y1);
+        int pas = Math.max(1, (int) Math.ceil(longueur / (taille / 2.0)));
+        int xa = x1, ya = y1;
+        for (int i = 1; i <= pas; i++) {
+            int xb = x1 + (int) Math.round((x2 - x1) * (double) i / pas);
+            int yb = y1 + (int) Math.round((y2 - y1) * (double) i / pas);
+            ajouterRectangle(emprise, Math.min(xa, xb) - marge, Math.min(ya,
+                    yb) - marge, Math.max(xa, xb) + marge, Math.max(ya, yb)
+                    + marge);
+            xa = xb;
+            ya = yb;
+        }
+        enregistrer(objet, emprise);
+    }
+
+    /**
+     * Retire l'objet de la grille.
+     */
+    void retirer(T objet)
+    {
+        Set<Long> emprise = emprises.remove(objet);
+        if (emprise == null)
+            return;
+
+        for (Long cle : emprise) {
+            List<T> contenu = cellules.get(cle);
+            contenu.remove(objet);
+            if (contenu.isEmpty())
+                cellules.remove(cle);
+        }
+    }
+
+    /**
+     * Vide la grille.
+     */
+    void vider()
+    {
+        cellules.clear();
+        emprises.clear();
+    }
+
+    /**
+     * Retourne les objets dont l'emprise contient la cellule du point (x, y).
+     */
+    List<T> chercher(int x, int y)
+    {
+        List<T> contenu = cellules.get(cle(cellule(x), cellule(y)));
+        return contenu == null ? Collections.<T> emptyList() : contenu;
+    }
+
+    /**
+     * Retourne les objets dont l'emprise recoupe le rectangle (x1, y1) - (x2,
+     * y2).
+     */
+    Set<T> chercher(int x1, int y1, int x2, int y2)
+    {
+        Set<T> res = new LinkedHashSet<T>();
+        for (int cx = cellule(Math.min(x1, x2)); cx <= cellule(Math.max(x1, x2)); cx++)
+            for (int cy = cellule(Math.min(y1, y2)); cy <= cellule(Math.max(y1,
+                    y2)); cy++) {
+                List<T> contenu = cellules.get(cle(cx, cy));
+                if (contenu != null)
+                    res.addAll(contenu);
+            }
+        return res;
+    }
+
+    /**
+     * Retourne le nombre de cellules recouvertes par le rectangle (x1, y1) -
+     * (x2, y2).
+     */
+    long nombreCellules(int x1, int y1, int x2, int y2)
+    {
+        long largeur = Math.abs((long) cellule(x2) - cellule(x1)) + 1;
+        long hauteur = Math.abs((long) cellule(y2) - cellule(y1)) + 1;
+        return largeur * hauteur;
+    }
+
+    private void ajouterRectangle(Set<Long> emprise, int x1, int y1, int x2,
+            int y2)
+    {
+        for (int cx = cellule(x1); cx <= cellule(x2); cx++)
+            for (int cy = cellule(y1); cy <= cellule(y2); cy++)
+                emprise.add(cle(cx, cy));
+    }
+
+    private void enregistrer(T objet, Set<Long> emprise)
+    {
+        for (Long cle : emprise) {
+            List<T> contenu = cellules.get(cle);
+            if (contenu == null) {
+                contenu = new ArrayList<T>(4);
+                cellules.put(cle, contenu);
+            }
+            contenu.add(objet);
+        }
+        emprises.put(objet, emprise);
+    }
+
+    private int cellule(int coord)
+    {
+        return Math.floorDiv(coord, taille);
+    }
+
+    /**
+     * Clé d'une cellule. Le produit par une constante impaire reste une
+     * bijection mais disperse les bits : sans lui, le hachage de
+     * <code>Long</code> (cx ^ cy) confond toutes les cellules d'une même
+     * diagonale.
+     */
+    private static long cle(int cx, int cy)
+    {
+        return (((long) cx << 32) | (cy & 0xffffffffL)) * 0x9E3779B97F4A7C15L;
+    }
+}
@@ -52,6 +52,9 @@ public abstract class ZLien
     /** Position y2 */
     protected int y2;
 
+    /** Nombre de modifications du lien */
+    private long version;
+
     /**
      * Définie un <code>ZLien</code> avec les deux <code>ZElement</code>
      * qu'il lie
@@ -82,6 +85,7 @@ public abstract class ZLien
     /** Change l'élément 1, 2 ou 3 */
     public void setElement(ZElement elem, String index)
     {
+        version++;
         if (index == Constantes.MCDENTITE1 )
             this.elem1 = elem;
         else if (index == Constantes.MCDENTITE2 )
@@ -126,6 +130,7 @@ public abstract class ZLien
      */
     public void inverseZElements()
     {
+        version++;
         ZElement elem = elem1;
         elem1 = elem2;
         elem2 = elem;
@@ -297,8 +302,18 @@ public abstract class ZLien
                 && mousey > y2 - 10);
     }
 
+    /**
+     * Retourne la version du lien : elle change à chaque modification de ses
+     * éléments ou notifiée par notifyZLien().
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
     public void notifyZLien()
     {
+        version++;
         elem1.changementLien();
         elem1.notifyZElement();
     }
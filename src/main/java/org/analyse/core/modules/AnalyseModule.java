@@ -59,6 +59,25 @@ public abstract class AnalyseModule
 
     public abstract void clear();
 
+    /**
+     * Crée un module du même type, vide et sans interface, dans lequel un
+     * fichier peut être chargé hors de l'EDT avant d'être repris par ce module.
+     * Retourne null si le module ne sait pas être chargé ainsi.
+     */
+    public AnalyseModule creerModuleChargement()
+    {
+        return null;
+    }
+
+    /**
+     * Remplace le contenu du module par celui d'un module créé par
+     * creerModuleChargement(). Appelé sur l'EDT.
+     */
+    public void reprendre(AnalyseModule charge)
+    {
+        throw new UnsupportedOperationException(getID());
+    }
+
     public DefaultTreeCellRenderer getTreeCellRenderer()
     {
         return treeCellRendererModule;
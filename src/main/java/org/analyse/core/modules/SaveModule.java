@@ -21,13 +21,21 @@
 package org.analyse.core.modules;
 
 import java.io.IOException;
-import java.io.PrintStream;
+
+import org.analyse.xml.XmlWriter;
 
 public interface SaveModule
 {
     /**
-     * Sauvegarde les données du module sous forme d'un fichier binaire ou de
-     * type texte selon le filtre utilisé.
+     * Sauvegarde les données du module dans le document XML, à l'intérieur
+     * de son élément <code>module</code>.
+     */
+    void save(XmlWriter out) throws IOException;
+
+    /**
+     * Capture l'état à sauvegarder, sur l'EDT. L'instantané retourné ne
+     * dépend plus du modèle : il peut être écrit par save() hors de l'EDT
+     * pendant que l'utilisateur continue de modifier le modèle.
      */
-    void save(PrintStream out) throws IOException;
+    SaveModule instantane();
 }
\ No newline at end of file
@@ -0,0 +1,306 @@
+/*
+ * ChargementASI.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+import javax.swing.SwingUtilities;
+
+import org.analyse.core.context.ContextHelper;
+import org.analyse.core.gui.statusbar.AnalyseStatusbar;
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.save.asi.ASIHandler;
+import org.analyse.core.util.CompteurInputStream;
+import org.analyse.core.util.Constantes;
+import org.analyse.core.util.GUIUtilities;
+import org.analyse.core.util.SwingWorker;
+import org.analyse.xml.XmlParser;
+
+/**
+ * Ouverture d'un fichier ASI en tâche de fond : la lecture et la construction
+ * du modèle se font hors de l'EDT, dans des modules créés par
+ * <code>AnalyseModule.creerModuleChargement()</code>. La progression est
+ * affichée dans la barre d'état, d'où le chargement peut être annulé. Une
+ * fois le fichier lu, les modules de l'application reprennent le modèle en
+ * une seule fois sur l'EDT ; un chargement annulé ou en erreur les laisse
+ * intacts.
+ */
+public class ChargementASI extends SwingWorker
+{
+    private static final Logger logger = Logger.getLogger(ChargementASI.class.getName());
+
+    /** Délai minimal entre deux affichages de la progression, en ms */
+    private static final long INTERVALLE = 100;
+
+    private final File fichier;
+
+    /** Modules de l'application, par ID */
+    private final Map<String, AnalyseModule> modules;
+
+    /** Modules dans lesquels le fichier est chargé, par ID */
+    private final Map<String, AnalyseModule> charges = new HashMap<String, AnalyseModule>();
+
+    private volatile boolean annule;
+
+    /** Erreur de lecture ou d'analyse, qui empêche la reprise du modèle */
+    private IOException erreur;
+
+    private CompteurInputStream compteur;
+
+    private int elements;
+
+    private long prochainAffichage;
+
+    /** Tâche lancée sur l'EDT à la fin du chargement, ou null */
+    private Suite suite;
+
+    /**
+     * Tâche lancée sur l'EDT à la fin d'un chargement.
+     */
+    public interface Suite
+    {
+        /**
+         * @param repris true si les modules de l'application ont repris le
+         *            modèle lu, false si le chargement est annulé ou en erreur
+         */
+        void fin(boolean repris);
+    }
+
+    /**
+     * Prépare le chargement de <code>fichier</code> dans les modules donnés.
+     * Les modules à charger sont créés ici, sur l'EDT.
+     */
+    public ChargementASI(File fichier, Map<String, AnalyseModule> modules)
+    {
+        this.fichier = fichier;
+        this.modules = modules;
+
+        for (Iterator<Entry<String, AnalyseModule>> e = modules.entrySet().iterator(); e.hasNext();) {
+            Entry<String, AnalyseModule> entry = e.next();
+            AnalyseModule charge = entry.getValue().creerModuleChargement();
+            if (charge != null)
+                charges.put(entry.getKey(), charge);
+        }
+    }
+
+    /**
+     * Annule le chargement : les modules de l'application ne seront pas
+     * modifiés. Sans effet si le modèle a déjà été repris.
+     */
+    public void annuler()
+    {
+        annule = true;
+    }
+
+    public boolean isAnnule()
+    {
+        return annule;
+    }
+
+    /**
+     * Indique une tâche à lancer sur l'EDT à la fin du chargement, qu'il
+     * soit repris, annulé ou en erreur.
+     */
+    public void setSuite(Suite suite)
+    {
+        this.suite = suite;
+    }
+
+    /**
+     * Lit le fichier dans les modules de chargement. Appelé hors de l'EDT.
+     */
+    public Object construct()
+    {
+        try {
+            lire(fichier, charges);
+        } catch (CancellationException e) {
+            annule = true;
+        } catch (IOException e) {
+            erreur = e;
+        } catch (Throwable e) {
+            // XML invalide ou mémoire insuffisante : un modèle partiel ne
+            // remplace pas celui de l'application, et finished() doit passer
+            erreur = new IOException(e);
+        }
+        return charges;
+    }
+
+    /**
+     * Lit le fichier XML compressé dans les modules de chargement, par ID.
+     * Une <code>CancellationException</code> interrompt la lecture.
+     */
+    protected void lire(File fichier, Map<String, AnalyseModule> charges)
+            throws Exception
+    {
+        BufferedReader in = null;
+        ASIHandler handler = new ASIHandler(charges) {
+            public void startElement(String name)
+            {
+                super.startElement(name);
+                elementLu();
+            }
+        };
+        try {
+            compteur = new CompteurInputStream(new FileInputStream(fichier));
+            in = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                    compteur), Constantes.ASI_ENCODING));
+
+            XmlParser parser = new XmlParser();
+            parser.setHandler(handler);
+            parser.parse(null, null, in);
+        } finally {
+            handler.terminer();
+            try {
+                if (in != null)
+                    in.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Error closing ASI file", e);
+            }
+        }
+    }
+
+    /**
+     * Ajoute <code>n</code> éléments au bilan du chargement, pour les formats
+     * lus autrement qu'élément par élément.
+     */
+    protected void elementsLus(int n)
+    {
+        elements += n;
+    }
+
+    /**
+     * Compte un élément lu, arrête la lecture si le chargement est annulé et
+     * publie la progression au plus toutes les INTERVALLE ms.
+     */
+    private void elementLu()
+    {
+        if (annule || Thread.currentThread().isInterrupted())
+            throw new CancellationException();
+
+        elements++;
+        long maintenant = System.nanoTime() / 1000000;
+        if (maintenant < prochainAffichage)
+            return;
+        prochainAffichage = maintenant + INTERVALLE;
+
+        final long lus = compteur.getLus();
+        final long taille = fichier.length();
+        final int n = elements;
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run()
+            {
+                if (!annule)
+                    progression(lus, taille, n);
+            }
+        });
+    }
+
+    /**
+     * Reprend le modèle chargé dans les modules de l'application, ou signale
+     * l'annulation ou l'erreur. Appelé sur l'EDT.
+     */
+    public void finished()
+    {
+        boolean repris = false;
+        try {
+            repris = reprendre();
+        } finally {
+            if (suite != null)
+                suite.fin(repris);
+        }
+    }
+
+    private boolean reprendre()
+    {
+        if (annule) {
+            termine("Ouverture de " + fichier.getName() + " annulée");
+            return false;
+        }
+        if (erreur != null) {
+            termine(null);
+            echec(erreur);
+            return false;
+        }
+
+        for (Iterator<Entry<String, AnalyseModule>> e = modules.entrySet().iterator(); e.hasNext();) {
+            Entry<String, AnalyseModule> entry = e.next();
+            AnalyseModule charge = charges.get(entry.getKey());
+            if (charge != null)
+                entry.getValue().reprendre(charge);
+            else
+                entry.getValue().clear();
+        }
+        termine(fichier.getName() + " : " + elements + " éléments chargés");
+        return true;
+    }
+
+    /**
+     * Affiche la progression de la lecture : octets compressés lus sur la
+     * taille du fichier et nombre d'éléments XML lus.
+     */
+    protected void progression(long lus, long taille, int elements)
+    {
+        AnalyseStatusbar statusbar = ContextHelper.getStatusbar();
+        if (statusbar == null)
+            return;
+
+        int pourcent = taille > 0 ? (int) Math.min(100, lus * 100 / taille) : 0;
+        statusbar.afficherProgression("Ouverture de " + fichier.getName()
+                + " : " + pourcent + " % (" + elements + " éléments)",
+                new Runnable() {
+                    public void run()
+                    {
+                        annuler();
+                    }
+                });
+    }
+
+    /**
+     * Efface la progression de la barre d'état, avec un dernier message ou
+     * non.
+     */
+    protected void termine(String message)
+    {
+        AnalyseStatusbar statusbar = ContextHelper.getStatusbar();
+        if (statusbar != null)
+            statusbar.terminerProgression(message != null ? message : "");
+    }
+
+    /**
+     * Signale une erreur de lecture du fichier.
+     */
+    protected void echec(IOException e)
+    {
+        logger.log(Level.SEVERE, "Error reading ASI file", e);
+        GUIUtilities.error("Impossible d'ouvrir le fichier \""
+                + fichier.getName() + "\"");
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * ChargementASIB.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.modules.FilterModule;
+import org.analyse.core.save.asib.ConteneurASIB;
+import org.analyse.core.save.asib.FilterASIBModule;
+
+/**
+ * Ouverture d'un fichier ASIB en tâche de fond. Le fichier est projeté en
+ * mémoire et chaque module construit son modèle directement depuis ses
+ * sections, sans analyse XML ; la reprise sur l'EDT est celle de
+ * <code>ChargementASI</code>.
+ */
+public class ChargementASIB extends ChargementASI
+{
+    public ChargementASIB(File fichier, Map<String, AnalyseModule> modules)
+    {
+        super(fichier, modules);
+    }
+
+    /**
+     * Lit les sections de chaque module. Un fichier incohérent est une
+     * erreur de lecture : les modules de l'application restent intacts.
+     */
+    protected void lire(File fichier, Map<String, AnalyseModule> charges)
+            throws Exception
+    {
+        ConteneurASIB in = ConteneurASIB.ouvrir(fichier);
+        for (Iterator<Entry<String, AnalyseModule>> e = charges.entrySet().iterator(); e.hasNext();) {
+            if (isAnnule() || Thread.currentThread().isInterrupted())
+                throw new CancellationException();
+
+            FilterModule fm = e.next().getValue().getFiltre(FiltreASIB.ID_ASIB);
+            if (!(fm instanceof FilterASIBModule))
+                continue;
+            try {
+                elementsLus(((FilterASIBModule) fm).charger(in));
+            } catch (RuntimeException ex) {
+                throw new IOException("Fichier ASIB invalide : " + fichier.getName(), ex);
+            }
+        }
+    }
+}
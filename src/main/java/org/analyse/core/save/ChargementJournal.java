@@ -0,0 +1,72 @@
+/*
+ * ChargementJournal.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.modules.FilterModule;
+import org.analyse.core.save.journal.FilterJournalModule;
+
+/**
+ * Restauration d'un modèle depuis son journal en tâche de fond : chaque
+ * module rejoue ses enregistrements dans un module de chargement, repris
+ * ensuite sur l'EDT comme pour <code>ChargementASI</code>.
+ */
+public class ChargementJournal extends ChargementASI
+{
+    public ChargementJournal(File journal, Map<String, AnalyseModule> modules)
+    {
+        super(journal, modules);
+    }
+
+    /**
+     * Rejoue les enregistrements valides du journal. Un module absent du
+     * journal reste vide.
+     */
+    protected void lire(File journal, Map<String, AnalyseModule> charges)
+            throws Exception
+    {
+        Map<String, List<DataInputStream>> enregistrements = JournalASI.lire(journal);
+        for (Iterator<Entry<String, AnalyseModule>> e = charges.entrySet().iterator(); e.hasNext();) {
+            if (isAnnule() || Thread.currentThread().isInterrupted())
+                throw new CancellationException();
+
+            Entry<String, AnalyseModule> entry = e.next();
+            FilterModule fm = entry.getValue().getFiltre(JournalASI.ID_JOURNAL);
+            if (!(fm instanceof FilterJournalModule))
+                continue;
+            List<DataInputStream> module = enregistrements.get(entry.getKey());
+            try {
+                elementsLus(((FilterJournalModule) fm).rejouer(module != null ? module
+                        : Collections.<DataInputStream> emptyList()));
+            } catch (RuntimeException ex) {
+                throw new IOException("Journal invalide : " + journal.getName(), ex);
+            }
+        }
+    }
+}
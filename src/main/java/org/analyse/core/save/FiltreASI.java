@@ -23,27 +23,18 @@
 
 package org.analyse.core.save;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.PrintStream;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
 import org.analyse.core.modules.AnalyseModule;
 import org.analyse.core.modules.FilterModule;
 import org.analyse.core.modules.SaveModule;
-import org.analyse.core.save.asi.ASIHandler;
-import org.analyse.core.util.Constantes;
-import org.analyse.core.util.GUIUtilities;
 import org.analyse.core.util.save.AnalyseFilter;
 import org.analyse.core.util.save.Open;
 import org.analyse.core.util.save.Save;
@@ -51,8 +42,6 @@ import org.analyse.main.Main;
 import org.analyse.core.context.ApplicationContext;
 import org.analyse.merise.main.MeriseModule;
 
-import org.analyse.xml.XmlException;
-import org.analyse.xml.XmlParser;
 
 /**
  * La classe <code>FiltreASI</code> représente un filtre qui permet de
@@ -70,6 +59,18 @@ public class FiltreASI extends AnalyseFilter implements Save, Open, Runnable
 
     private boolean action;
 
+    /** Tâche à lancer une fois le fichier écrit, ou null */
+    private Runnable suite;
+
+    /** Tâche à lancer à la fin du chargement, ou null */
+    private ChargementASI.Suite suiteChargement;
+
+    /** Dernier chargement lancé */
+    private ChargementASI chargement;
+
+    /** Dernière sauvegarde lancée */
+    private SauvegardeASI sauvegarde;
+
     /**
      * Créer un nouveau Filtre propre à l'application AnalyseSI. Ce filtre gère
      * les fichiers XML.
@@ -79,91 +80,83 @@ public class FiltreASI extends AnalyseFilter implements Save, Open, Runnable
         super("ASI", "asi");
     }
 
+    /**
+     * Filtre d'un autre format de fichier ASI, lu et écrit par les tâches
+     * retournées par charger() et sauvegarder().
+     */
+    protected FiltreASI(String ID, String extention)
+    {
+        super(ID, extention);
+    }
+
     public void run()
     {
         if (action == SAVE) {
-            try {
-                PrintStream out = new PrintStream(new GZIPOutputStream(
-                        new FileOutputStream(file)), false, Constantes.ASI_ENCODING);
-
-                out.println("<?xml version=\"1.0\" encoding=\"" + Constantes.ASI_ENCODING + "\"?>");
-                out.println("<analyse>");
-
-                out.println("<about>");
-
-                out.println("<release release=\""
-                        + Constantes.RELEASE + "\" />");
-                out.println("<company>");
-                out.println ("<name>"+ Constantes.COMPANY + "</name>" ) ;
-                out.println ("<email>"+ Constantes.CONTACT_EMAIL + "</email>" ) ;
-                out.println("</company>");
-
-
-                out.println("</about>");
-
-                AnalyseModule mod;
-                FilterModule fm;
-
-                ApplicationContext context = ApplicationContext.getInstance();
-                if (context != null && context.isInitialized()) {
-                    Iterator<Entry<String, AnalyseModule>> e = context.getModules().entrySet().iterator();
-                    while ( e.hasNext() ) {
-                        mod = e.next().getValue();
-
-                        out.println("<module id=\"" + mod.getID().toLowerCase()
-                                + "\">");
-
-                        fm = mod.getFiltre(ID);
-                        if (fm != null && fm.canSave())
-                            ((SaveModule) fm).save(out);
-
-                        out.println("</module>");
-                    }
-                }
-
-                out.println("</analyse>");
-
-                out.flush();
-                out.close();
-            } catch (IOException e) {
-                GUIUtilities.error("Impossible de sauvegarder le fichier "
-                        + file.getName());
-            }
+            Map<String, AnalyseModule> modules = Collections.emptyMap();
+            ApplicationContext context = ApplicationContext.getInstance();
+            if (context != null && context.isInitialized())
+                modules = context.getModules();
+
+            sauvegarde = sauvegarder(file, modules, sauvegarde);
+            sauvegarde.setSuite(suite);
+            sauvegarde.start();
         } else //if (action == OPEN)
 
         {
             // Ensure required modules are initialized before parsing ASI files
             ensureModulesInitialized();
 
-            try {
-            	InputStream inStream = new GZIPInputStream(new FileInputStream(file));
-                BufferedReader in = new BufferedReader(new InputStreamReader(inStream, Constantes.ASI_ENCODING));
-
-                ASIHandler handler = new ASIHandler();
-                XmlParser parser = new XmlParser();
-                parser.setHandler(handler);
-                try {
-                    parser.parse(null, null, in);
-                } catch (XmlException e) {
-                    logger.log(Level.SEVERE, "XML parsing error while opening ASI file", e);
-                } catch (Exception e) {
-                    logger.log(Level.SEVERE, "Unexpected error while parsing ASI file", e);
-                }
-
-                in.close();
-            } catch (IOException e) {
-                GUIUtilities.error("Impossible d'ouvrir le fichier \""
-                        + file.getName() + "\"");
-            }
+            if (chargement != null)
+                chargement.annuler();
+            chargement = charger(file, ApplicationContext.getInstance()
+                    .getModules());
+            chargement.setSuite(suiteChargement);
+            chargement.start();
         }
     }
 
     /**
-     * Sauvegarde le fichier dans un fichier XML.
+     * Prend l'instantané de chaque module, sur l'EDT, et prépare son écriture
+     * en tâche de fond après <code>precedente</code>.
+     */
+    protected SauvegardeASI sauvegarder(File file, Map<String, AnalyseModule> modules,
+            SauvegardeASI precedente)
+    {
+        Map<String, SaveModule> instantanes = new LinkedHashMap<String, SaveModule>();
+        Iterator<Entry<String, AnalyseModule>> e = modules.entrySet().iterator();
+        while ( e.hasNext() ) {
+            AnalyseModule mod = e.next().getValue();
+            FilterModule fm = mod.getFiltre(ID);
+            instantanes.put(mod.getID(), fm != null && fm.canSave()
+                    ? ((SaveModule) fm).instantane() : null);
+        }
+        return new SauvegardeASI(file, instantanes, precedente);
+    }
+
+    /**
+     * Prépare la lecture de <code>file</code> dans les modules, sur l'EDT.
+     */
+    protected ChargementASI charger(File file, Map<String, AnalyseModule> modules)
+    {
+        return new ChargementASI(file, modules);
+    }
+
+    /**
+     * Sauvegarde le fichier dans un fichier XML, en tâche de fond.
      */
     public void save(File file)
+    {
+        save(file, null);
+    }
+
+    /**
+     * Sauvegarde le fichier en tâche de fond, puis lance <code>suite</code>
+     * sur l'EDT si le fichier est écrit.
+     */
+    public void save(File file, Runnable suite)
     {
         this.file = file;
+        this.suite = suite;
         this.action = SAVE;
 
         //Thread t = new Thread(this);
@@ -172,11 +165,22 @@ public class FiltreASI extends AnalyseFilter implements Save, Open, Runnable
     }
 
     /**
-     * Charge le fichier depuis un fichier XML.
+     * Charge le fichier depuis un fichier XML, en tâche de fond. Un
+     * chargement encore en cours est annulé.
      */
     public void open(File file)
+    {
+        open(file, null);
+    }
+
+    /**
+     * Charge le fichier en tâche de fond, puis lance <code>suite</code> sur
+     * l'EDT, en lui indiquant si le modèle chargé a été repris.
+     */
+    public void open(File file, ChargementASI.Suite suite)
     {
         this.file = file;
+        this.suiteChargement = suite;
         this.action = OPEN;
 
         //Thread t = new Thread(this);
@@ -184,6 +188,16 @@ public class FiltreASI extends AnalyseFilter implements Save, Open, Runnable
         run();
     }
 
+    /**
+     * Attend la fin de la dernière sauvegarde lancée.
+     *
+     * @return false si elle n'a pas pu écrire son fichier
+     */
+    public boolean attendreSauvegarde()
+    {
+        return sauvegarde == null || sauvegarde.attendre();
+    }
+
     /**
      * Ensure that required modules are initialized before parsing ASI files.
      * This prevents NullPointerExceptions when ASI files reference modules that haven't been loaded.
@@ -196,6 +210,8 @@ public class FiltreASI extends AnalyseFilter implements Save, Open, Runnable
             if (context.getModule("MERISE") == null) {
                 logger.log(Level.INFO, "Initializing MERISE module for ASI file parsing");
                 MeriseModule meriseModule = new MeriseModule();
+                // reprendre() remplace le modèle existant : il doit être créé
+                meriseModule.initModele();
                 context.addModule(meriseModule);
             }
 
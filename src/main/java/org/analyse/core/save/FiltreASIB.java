@@ -0,0 +1,69 @@
+/*
+ * FiltreASIB.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.modules.FilterModule;
+import org.analyse.core.save.asib.FilterASIBModule;
+import org.analyse.core.save.asib.InstantaneASIB;
+
+/**
+ * Filtre des fichiers ASIB, le format binaire des fichiers ASI : même
+ * contenu, ouvert par projection en mémoire plutôt qu'en analysant du XML.
+ * Pour les très gros modèles.
+ */
+public class FiltreASIB extends FiltreASI
+{
+    /** ID du filtre, et des filtres des modules pour ce format */
+    public static final String ID_ASIB = "ASIB";
+
+    public FiltreASIB()
+    {
+        super(ID_ASIB, "asib");
+    }
+
+    protected SauvegardeASI sauvegarder(File file, Map<String, AnalyseModule> modules,
+            SauvegardeASI precedente)
+    {
+        Map<String, InstantaneASIB> instantanes = new LinkedHashMap<String, InstantaneASIB>();
+        for (Iterator<Entry<String, AnalyseModule>> e = modules.entrySet().iterator(); e.hasNext();) {
+            AnalyseModule mod = e.next().getValue();
+            FilterModule fm = mod.getFiltre(ID);
+            instantanes.put(mod.getID(), fm instanceof FilterASIBModule
+                    ? ((FilterASIBModule) fm).instantane() : null);
+        }
+        return new SauvegardeASIB(file, instantanes, precedente);
+    }
+
+    protected ChargementASI charger(File file, Map<String, AnalyseModule> modules)
+    {
+        return new ChargementASIB(file, modules);
+    }
+
+    public String getDescription()
+    {
+        return "ASI File (binary)";
+    }
+}
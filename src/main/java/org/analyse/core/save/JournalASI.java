@@ -0,0 +1,540 @@
+/*
+ * JournalASI.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import javax.swing.Timer;
+
+import org.analyse.core.context.ApplicationContext;
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.modules.FilterModule;
+import org.analyse.core.save.journal.EtatJournal;
+import org.analyse.core.save.journal.FilterJournalModule;
+
+/**
+ * Journal des modifications du modèle, écrit à côté du fichier ouvert
+ * (<code>modele.asi.journal</code>) pour retrouver le travail non
+ * sauvegardé après un arrêt inattendu.
+ * <p>
+ * A chaque intervalle, sur l'EDT, les modules dont le compteur de
+ * modifications a changé sont capturés ; les différences avec la capture
+ * précédente sont ajoutées au journal puis synchronisées sur le disque par
+ * une tâche de fond. Quand les ajouts dépassent la taille de l'état complet,
+ * le journal est réécrit à partir de la dernière capture, de façon atomique.
+ * Le journal se suffit à lui-même : son premier enregistrement par module
+ * part d'un modèle vide.
+ * <p>
+ * Format : <code>int</code> magique, <code>short</code> version,
+ * <code>short</code> nul, puis des enregistrements <code>int</code>
+ * longueur, <code>int</code> CRC32 du contenu, contenu (ID du module en UTF
+ * puis les opérations du module). La relecture s'arrête au premier
+ * enregistrement incomplet ou altéré, celui qu'écrivait l'application
+ * lorsqu'elle s'est arrêtée.
+ */
+public class JournalASI
+{
+    private static final Logger logger = Logger.getLogger(JournalASI.class.getName());
+
+    /** ID des filtres de journal des modules */
+    public static final String ID_JOURNAL = "JOURNAL";
+
+    /** Extension ajoutée au nom du fichier du modèle */
+    public static final String EXTENSION = ".journal";
+
+    /** Délai par défaut entre deux écritures du journal, en ms */
+    public static final int INTERVALLE = 2000;
+
+    static final int MAGIQUE = 0x4153494A; // "ASIJ"
+
+    static final short VERSION = 1;
+
+    private static final int TAILLE_ENTETE = 8;
+
+    /** Taille des ajouts en deçà de laquelle le journal n'est pas réécrit */
+    private static final long SEUIL_COMPACTION = 256 * 1024;
+
+    /** Modules journalisés par ID, ceux de l'application si null */
+    private final Map<String, AnalyseModule> modules;
+
+    private final ExecutorService ecriture = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                public Thread newThread(Runnable r)
+                {
+                    Thread t = new Thread(r, "journal-asi");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    private final Timer timer;
+
+    // --- sur l'EDT ---
+
+    private File fichier;
+
+    private boolean suspendu = true;
+
+    /** Compteurs de modifications lors de la dernière capture */
+    private Map<String, Long> versions = Collections.emptyMap();
+
+    /** Dernière capture écrite dans le journal, null s'il est à réécrire */
+    private Map<String, EtatJournal> etats;
+
+    // --- sur la tâche d'écriture ---
+
+    private FileChannel canal;
+
+    private File fichierCanal;
+
+    /** Taille du journal après sa dernière réécriture, puis actuelle */
+    private long tailleBase, taille;
+
+    /** Le prochain écrit réécrit le journal complet */
+    private volatile boolean aCompacter;
+
+    /**
+     * Journal des modules de l'application.
+     */
+    public JournalASI()
+    {
+        this(null);
+    }
+
+    /**
+     * Journal des modules donnés, par ID. Rien n'est écrit avant le premier
+     * appel à reprendre().
+     */
+    public JournalASI(Map<String, AnalyseModule> modules)
+    {
+        this.modules = modules;
+        timer = new Timer(INTERVALLE, new ActionListener() {
+            public void actionPerformed(ActionEvent e)
+            {
+                verifier();
+            }
+        });
+        timer.setRepeats(true);
+    }
+
+    /**
+     * Retourne le journal du fichier <code>modele</code>.
+     */
+    public static File getFichier(File modele)
+    {
+        return new File(modele.getPath() + EXTENSION);
+    }
+
+    /**
+     * Modifie le délai entre deux écritures du journal, en ms. Un délai nul ou
+     * négatif désactive le journal ; ses vérifications sont alors appelées à
+     * la main.
+     */
+    public void setIntervalle(int intervalle)
+    {
+        if (intervalle > 0) {
+            timer.setDelay(intervalle);
+            timer.setInitialDelay(intervalle);
+            timer.restart();
+        } else {
+            timer.stop();
+        }
+    }
+
+    public File getFichier()
+    {
+        return fichier;
+    }
+
+    /**
+     * Arrête la journalisation, par exemple pendant un chargement : le
+     * journal garde son contenu.
+     */
+    public void suspendre()
+    {
+        suspendu = true;
+    }
+
+    /**
+     * Journalise les modifications à venir dans <code>journal</code>, à
+     * partir du modèle actuel. Le journal est réécrit en entier à la
+     * première modification ; d'ici là, il est conservé ou supprimé selon
+     * <code>conserver</code>.
+     */
+    public void reprendre(File journal, boolean conserver)
+    {
+        if (fichier != null && !fichier.equals(journal))
+            supprimer(fichier);
+        if (!conserver)
+            supprimer(journal);
+
+        fichier = journal;
+        versions = versions(filtres());
+        etats = null;
+        suspendu = false;
+    }
+
+    /**
+     * Supprime le journal : les modifications en cours sont abandonnées ou
+     * sauvegardées. La journalisation reste arrêtée jusqu'à reprendre().
+     */
+    public void abandonner()
+    {
+        suspendu = true;
+        etats = null;
+        if (fichier != null)
+            supprimer(fichier);
+    }
+
+    /**
+     * Prépare la fin d'une sauvegarde du modèle dans <code>modele</code>, à
+     * appeler à son lancement. La tâche retournée est à lancer sur l'EDT une
+     * fois le fichier écrit : si le modèle n'a pas changé depuis, le journal
+     * est supprimé, sinon il suit le fichier sauvegardé. Sans effet si le
+     * journal a changé de fichier d'ici là.
+     */
+    public Runnable apresSauvegarde(final File modele)
+    {
+        final Map<String, Long> sauvees = versions(filtres());
+        final File avant = fichier;
+        return new Runnable() {
+            public void run()
+            {
+                // modèle vidé ou remplacé entre-temps
+                if (suspendu || !Objects.equals(avant, fichier))
+                    return;
+                File journal = getFichier(modele);
+                if (versions(filtres()).equals(sauvees)) {
+                    reprendre(journal, false);
+                } else if (!journal.equals(fichier)) {
+                    // les modifications faites depuis passent dans le
+                    // journal du nouveau fichier
+                    reprendre(journal, false);
+                    versions = Collections.emptyMap();
+                    verifier();
+                }
+            }
+        };
+    }
+
+    /**
+     * Supprime le journal et arrête la tâche d'écriture, à la fermeture de
+     * l'application. Sans effet une fois la tâche arrêtée.
+     */
+    public void fermer()
+    {
+        if (ecriture.isShutdown())
+            return;
+        timer.stop();
+        abandonner();
+        attendre();
+        ecriture.shutdown();
+    }
+
+    /**
+     * Arrête la tâche d'écriture à la fermeture de l'application, en
+     * conservant le journal à jour : les modifications n'ont pas été
+     * sauvegardées, il sera proposé à la prochaine ouverture.
+     */
+    public void arreter()
+    {
+        if (ecriture.isShutdown())
+            return;
+        timer.stop();
+        verifier();
+        suspendu = true;
+        attendre();
+        ecriture.shutdown();
+    }
+
+    /**
+     * Attend la fin des écritures lancées.
+     */
+    public void attendre()
+    {
+        try {
+            ecriture.submit(new Runnable() {
+                public void run()
+                {
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.log(Level.WARNING, "Journal task failed", e);
+        } catch (RejectedExecutionException e) {
+            // déjà fermé
+        }
+    }
+
+    /**
+     * Capture les modules modifiés et lance l'écriture de leurs différences.
+     * Appelé sur l'EDT à chaque intervalle.
+     */
+    public void verifier()
+    {
+        if (suspendu || fichier == null)
+            return;
+
+        Map<String, FilterJournalModule> filtres = filtres();
+        Map<String, Long> actuelles = versions(filtres);
+        if (actuelles.equals(versions))
+            return;
+        versions = actuelles;
+
+        final Map<String, EtatJournal> avant = etats;
+        final Map<String, EtatJournal> apres = new LinkedHashMap<String, EtatJournal>();
+        for (Iterator<Entry<String, FilterJournalModule>> e = filtres.entrySet().iterator(); e.hasNext();) {
+            Entry<String, FilterJournalModule> entry = e.next();
+            apres.put(entry.getKey(), entry.getValue().capturer());
+        }
+        etats = apres;
+
+        final File journal = fichier;
+        final boolean compacter = avant == null || aCompacter;
+        aCompacter = false;
+        ecriture.execute(new Runnable() {
+            public void run()
+            {
+                try {
+                    if (compacter || canal == null || !journal.equals(fichierCanal))
+                        compacter(journal, apres);
+                    else
+                        ajouter(avant, apres);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Error writing journal " + journal, e);
+                    fermerCanal();
+                    aCompacter = true;
+                }
+            }
+        });
+    }
+
+    private Map<String, FilterJournalModule> filtres()
+    {
+        Map<String, AnalyseModule> m = modules;
+        if (m == null) {
+            ApplicationContext context = ApplicationContext.getInstance();
+            m = context != null && context.isInitialized() ? context.getModules()
+                    : Collections.<String, AnalyseModule> emptyMap();
+        }
+
+        Map<String, FilterJournalModule> filtres = new LinkedHashMap<String, FilterJournalModule>();
+        for (Iterator<Entry<String, AnalyseModule>> e = m.entrySet().iterator(); e.hasNext();) {
+            Entry<String, AnalyseModule> entry = e.next();
+            FilterModule fm = entry.getValue().getFiltre(ID_JOURNAL);
+            if (fm instanceof FilterJournalModule)
+                filtres.put(entry.getKey(), (FilterJournalModule) fm);
+        }
+        return filtres;
+    }
+
+    private static Map<String, Long> versions(Map<String, FilterJournalModule> filtres)
+    {
+        Map<String, Long> versions = new LinkedHashMap<String, Long>();
+        for (Iterator<Entry<String, FilterJournalModule>> e = filtres.entrySet().iterator(); e.hasNext();) {
+            Entry<String, FilterJournalModule> entry = e.next();
+            versions.put(entry.getKey(), Long.valueOf(entry.getValue().getModifications()));
+        }
+        return versions;
+    }
+
+    /**
+     * Réécrit le journal avec l'état complet des modules, de façon atomique,
+     * puis l'ouvre en ajout.
+     */
+    private void compacter(File journal, final Map<String, EtatJournal> etats)
+            throws IOException
+    {
+        fermerCanal();
+        SauvegardeASI.ecrireAtomique(journal, new SauvegardeASI.Contenu() {
+            public void ecrire(OutputStream out) throws IOException
+            {
+                DataOutputStream d = new DataOutputStream(new BufferedOutputStream(
+                        out, SauvegardeASI.TAMPON));
+                d.writeInt(MAGIQUE);
+                d.writeShort(VERSION);
+                d.writeShort(0);
+                ecrireEnregistrements(d, null, etats);
+                d.flush();
+            }
+        });
+
+        canal = FileChannel.open(journal.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fichierCanal = journal;
+        tailleBase = taille = canal.size();
+    }
+
+    /**
+     * Ajoute les différences au journal et les synchronise sur le disque.
+     */
+    private void ajouter(Map<String, EtatJournal> avant, Map<String, EtatJournal> apres)
+            throws IOException
+    {
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(octets);
+        ecrireEnregistrements(out, avant, apres);
+        if (octets.size() == 0)
+            return;
+
+        ByteBuffer tampon = ByteBuffer.wrap(octets.toByteArray());
+        while (tampon.hasRemaining())
+            canal.write(tampon);
+        canal.force(false);
+
+        taille += octets.size();
+        if (taille - tailleBase > Math.max(tailleBase, SEUIL_COMPACTION))
+            aCompacter = true;
+    }
+
+    private static void ecrireEnregistrements(DataOutputStream out,
+            Map<String, EtatJournal> avant, Map<String, EtatJournal> apres)
+            throws IOException
+    {
+        CRC32 crc = new CRC32();
+        for (Iterator<Entry<String, EtatJournal>> e = apres.entrySet().iterator(); e.hasNext();) {
+            Entry<String, EtatJournal> entry = e.next();
+            ByteArrayOutputStream contenu = new ByteArrayOutputStream();
+            DataOutputStream d = new DataOutputStream(contenu);
+            d.writeUTF(entry.getKey());
+            if (!entry.getValue().ecrireDifferences(
+                    avant != null ? avant.get(entry.getKey()) : null, d))
+                continue;
+
+            byte[] b = contenu.toByteArray();
+            crc.reset();
+            crc.update(b, 0, b.length);
+            out.writeInt(b.length);
+            out.writeInt((int) crc.getValue());
+            out.write(b);
+        }
+    }
+
+    private void supprimer(final File journal)
+    {
+        ecriture.execute(new Runnable() {
+            public void run()
+            {
+                if (journal.equals(fichierCanal))
+                    fermerCanal();
+                try {
+                    Files.deleteIfExists(journal.toPath());
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Cannot delete journal " + journal, e);
+                }
+            }
+        });
+    }
+
+    private void fermerCanal()
+    {
+        if (canal == null)
+            return;
+        try {
+            canal.close();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Error closing journal", e);
+        }
+        canal = null;
+        fichierCanal = null;
+    }
+
+    /**
+     * Lit les enregistrements du journal, par ID de module, jusqu'au premier
+     * enregistrement incomplet ou altéré.
+     */
+    static Map<String, List<DataInputStream>> lire(File journal) throws IOException
+    {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(journal.toPath()));
+        if (in.remaining() < TAILLE_ENTETE || in.getInt() != MAGIQUE)
+            throw new IOException("Journal invalide : " + journal.getName());
+        if (in.getShort() != VERSION)
+            throw new IOException("Version de journal inconnue : " + journal.getName());
+        in.getShort();
+
+        Map<String, List<DataInputStream>> enregistrements = new LinkedHashMap<String, List<DataInputStream>>();
+        CRC32 crc = new CRC32();
+        while (in.remaining() > 0) {
+            if (in.remaining() < 8) {
+                tronque(journal, in.position());
+                break;
+            }
+            int longueur = in.getInt();
+            int somme = in.getInt();
+            if (longueur < 0 || longueur > in.remaining()) {
+                tronque(journal, in.position() - 8);
+                break;
+            }
+            crc.reset();
+            crc.update(in.array(), in.position(), longueur);
+            if ((int) crc.getValue() != somme) {
+                tronque(journal, in.position() - 8);
+                break;
+            }
+
+            DataInputStream contenu = new DataInputStream(new ByteArrayInputStream(
+                    in.array(), in.position(), longueur));
+            in.position(in.position() + longueur);
+            String module = contenu.readUTF();
+            List<DataInputStream> liste = enregistrements.get(module);
+            if (liste == null) {
+                liste = new ArrayList<DataInputStream>();
+                enregistrements.put(module, liste);
+            }
+            liste.add(contenu);
+        }
+        return enregistrements;
+    }
+
+    private static void tronque(File journal, int position)
+    {
+        logger.log(Level.WARNING, "Journal " + journal.getName()
+                + " truncated at offset " + position);
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * SauvegardeASI.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+import javax.swing.SwingUtilities;
+
+import org.analyse.core.modules.SaveModule;
+import org.analyse.core.util.Constantes;
+import org.analyse.core.util.GUIUtilities;
+import org.analyse.core.util.SwingWorker;
+import org.analyse.core.util.Utilities;
+import org.analyse.xml.XmlWriter;
+
+/**
+ * Sauvegarde d'un fichier ASI en tâche de fond, à partir des instantanés des
+ * modules pris sur l'EDT. Le fichier est écrit à côté de la cible, synchronisé
+ * sur le disque puis renommé en une fois : un arrêt en cours d'écriture laisse
+ * l'ancien fichier intact. Les sauvegardes successives s'écrivent dans
+ * l'ordre où elles ont été lancées.
+ */
+public class SauvegardeASI extends SwingWorker
+{
+    private static final Logger logger = Logger.getLogger(SauvegardeASI.class.getName());
+
+    /** Taille des tampons du texte et de la compression */
+    static final int TAMPON = 64 * 1024;
+
+    private final File fichier;
+
+    /** Instantané de chaque module par ID, null si le module ne sauve rien */
+    private final Map<String, SaveModule> instantanes;
+
+    /** Sauvegarde lancée avant celle-ci, à attendre, ou null */
+    private final SauvegardeASI precedente;
+
+    private IOException erreur;
+
+    /** L'erreur a déjà été affichée */
+    private boolean signale;
+
+    /** Tâche lancée sur l'EDT une fois le fichier écrit, ou null */
+    private Runnable suite;
+
+    public SauvegardeASI(File fichier, Map<String, SaveModule> instantanes,
+            SauvegardeASI precedente)
+    {
+        this.fichier = fichier;
+        this.instantanes = instantanes;
+        this.precedente = precedente;
+    }
+
+    /**
+     * Sauvegarde dans un autre format, écrit par ecrireFichier().
+     */
+    protected SauvegardeASI(File fichier, SauvegardeASI precedente)
+    {
+        this(fichier, null, precedente);
+    }
+
+    /**
+     * Indique une tâche à lancer sur l'EDT si le fichier est écrit.
+     */
+    public void setSuite(Runnable suite)
+    {
+        this.suite = suite;
+    }
+
+    /**
+     * Ecrit le fichier. Appelé hors de l'EDT.
+     */
+    public Object construct()
+    {
+        if (precedente != null)
+            precedente.get();
+
+        try {
+            ecrireFichier(fichier);
+        } catch (IOException e) {
+            erreur = e;
+        } catch (RuntimeException e) {
+            // sans quoi le worker ne rappelle pas finished()
+            erreur = new IOException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Attend la fin de l'écriture, par exemple avant de quitter. Sur l'EDT,
+     * où finished() ne passera qu'après l'appelant, une erreur est affichée
+     * ici.
+     *
+     * @return true si le fichier est écrit
+     */
+    public boolean attendre()
+    {
+        get();
+        if (erreur == null)
+            return true;
+        if (SwingUtilities.isEventDispatchThread())
+            signaler();
+        return false;
+    }
+
+    /**
+     * Ecrit le fichier dans le format de cette sauvegarde.
+     */
+    protected void ecrireFichier(File fichier) throws IOException
+    {
+        ecrire(fichier, instantanes);
+    }
+
+    /**
+     * Ecrit les instantanés en XML compressé, de façon atomique.
+     */
+    static void ecrire(File fichier, final Map<String, SaveModule> instantanes)
+            throws IOException
+    {
+        ecrireAtomique(fichier, new Contenu() {
+            public void ecrire(OutputStream out) throws IOException
+            {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, TAMPON);
+                Writer w = new BufferedWriter(new OutputStreamWriter(gzip,
+                        Constantes.ASI_ENCODING), TAMPON);
+                SauvegardeASI.ecrire(new XmlWriter(w), instantanes);
+                w.flush();
+                gzip.finish();
+            }
+        });
+    }
+
+    /**
+     * Contenu d'un fichier à écrire.
+     */
+    interface Contenu
+    {
+        void ecrire(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Ecrit le contenu dans un fichier temporaire du même répertoire, le
+     * synchronise puis le renomme en <code>fichier</code>, dont il garde les
+     * droits.
+     */
+    static void ecrireAtomique(File fichier, Contenu contenu) throws IOException
+    {
+        Path cible = fichier.getAbsoluteFile().toPath();
+        Path repertoire = cible.getParent();
+        Path temp = creerTemporaire(cible);
+        try {
+            copierDroits(cible, temp);
+            FileOutputStream fos = new FileOutputStream(temp.toFile());
+            try {
+                contenu.ecrire(fos);
+                fos.getFD().sync();
+            } finally {
+                fos.close();
+            }
+
+            try {
+                Files.move(temp, cible, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, cible, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        synchroniser(repertoire);
+    }
+
+    /**
+     * Crée le fichier temporaire de <code>cible</code> avec les droits par
+     * défaut d'un nouveau fichier. Ceux de createTempFile(), réservés au
+     * propriétaire, passeraient au fichier sauvegardé.
+     */
+    private static Path creerTemporaire(Path cible) throws IOException
+    {
+        String prefixe = "." + cible.getFileName() + ".";
+        while (true) {
+            Path temp = cible.resolveSibling(prefixe
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+            try {
+                return Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                // nom déjà pris, un autre est tiré
+            }
+        }
+    }
+
+    /**
+     * Donne au fichier temporaire les droits POSIX de la cible, si elle
+     * existe déjà.
+     */
+    private static void copierDroits(Path cible, Path temp) throws IOException
+    {
+        try {
+            Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(cible));
+        } catch (NoSuchFileException e) {
+            // nouveau fichier : droits par défaut
+        } catch (UnsupportedOperationException e) {
+            // pas de droits POSIX, sous Windows
+        }
+    }
+
+    /**
+     * Ecrit le document XML.
+     */
+    static void ecrire(XmlWriter out, Map<String, SaveModule> instantanes)
+            throws IOException
+    {
+        out.declaration(Constantes.ASI_ENCODING);
+        out.startElement("analyse");
+
+        out.startElement("about");
+        out.startElement("release").attribute("release", Constantes.RELEASE)
+                .endElement();
+        out.startElement("company");
+        out.startElement("name").text(Constantes.COMPANY).endElement();
+        out.startElement("email").text(Constantes.CONTACT_EMAIL).endElement();
+        out.endElement();
+        out.endElement();
+
+        for (Iterator<Entry<String, SaveModule>> e = instantanes.entrySet().iterator(); e.hasNext();) {
+            Entry<String, SaveModule> entry = e.next();
+
+            out.startElement("module").attribute("id",
+                    entry.getKey().toLowerCase());
+
+            if (entry.getValue() != null)
+                entry.getValue().save(out);
+
+            out.endElement();
+        }
+
+        out.endElement();
+    }
+
+    /**
+     * Rend le renommage durable là où le système le permet.
+     */
+    private static void synchroniser(Path repertoire)
+    {
+        try {
+            FileChannel canal = FileChannel.open(repertoire, StandardOpenOption.READ);
+            try {
+                canal.force(true);
+            } finally {
+                canal.close();
+            }
+        } catch (IOException e) {
+            // impossible sous Windows, le renommage y est déjà journalisé
+            logger.log(Level.FINE, "Cannot sync directory " + repertoire, e);
+        }
+    }
+
+    /**
+     * Signale le résultat de la sauvegarde. Appelé sur l'EDT.
+     */
+    public void finished()
+    {
+        if (erreur != null) {
+            signaler();
+        } else {
+            reussite();
+            if (suite != null)
+                suite.run();
+        }
+    }
+
+    private void signaler()
+    {
+        if (!signale) {
+            signale = true;
+            echec(erreur);
+        }
+    }
+
+    /**
+     * Confirme la sauvegarde.
+     */
+    protected void reussite()
+    {
+        GUIUtilities.messageHTML("<b style=\"color: blue;\">"
+                + Utilities.getLangueMessage(Constantes.MESSAGE_SAUVEGARDE_EFFECTUEE)
+                + "</b>", true, 300, 250);
+    }
+
+    /**
+     * Signale une erreur d'écriture : l'ancien fichier est conservé.
+     */
+    protected void echec(IOException e)
+    {
+        logger.log(Level.SEVERE, "Error writing ASI file", e);
+        GUIUtilities.error("Impossible de sauvegarder le fichier "
+                + fichier.getName());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * SauvegardeASIB.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.analyse.core.save.asib.EcritureASIB;
+import org.analyse.core.save.asib.InstantaneASIB;
+
+/**
+ * Sauvegarde d'un fichier ASIB en tâche de fond, avec les mêmes garanties
+ * que <code>SauvegardeASI</code> : écriture atomique, dans l'ordre de
+ * lancement.
+ */
+public class SauvegardeASIB extends SauvegardeASI
+{
+    /** Instantané de chaque module par ID, null si le module ne sauve rien */
+    private final Map<String, InstantaneASIB> instantanes;
+
+    public SauvegardeASIB(File fichier, Map<String, InstantaneASIB> instantanes,
+            SauvegardeASI precedente)
+    {
+        super(fichier, precedente);
+        this.instantanes = instantanes;
+    }
+
+    protected void ecrireFichier(File fichier) throws IOException
+    {
+        ecrireASIB(fichier, instantanes);
+    }
+
+    /**
+     * Ecrit les sections des instantanés, de façon atomique.
+     */
+    static void ecrireASIB(File fichier, Map<String, InstantaneASIB> instantanes)
+            throws IOException
+    {
+        final EcritureASIB sections = new EcritureASIB();
+        for (Iterator<Entry<String, InstantaneASIB>> e = instantanes.entrySet().iterator(); e.hasNext();) {
+            Entry<String, InstantaneASIB> entry = e.next();
+            if (entry.getValue() != null)
+                entry.getValue().save(sections, entry.getKey());
+        }
+
+        ecrireAtomique(fichier, new Contenu() {
+            public void ecrire(OutputStream out) throws IOException
+            {
+                BufferedOutputStream b = new BufferedOutputStream(out, TAMPON);
+                sections.ecrire(b);
+                b.flush();
+            }
+        });
+    }
+}
@@ -22,6 +22,7 @@ package org.analyse.core.save.asi;
 
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -41,10 +42,22 @@ public class ASIHandler extends HandlerBase
 
     private String id;
 
+    /** Modules par ID, ou null pour ceux de l'application */
+    private Map<String, AnalyseModule> modules;
+
     public ASIHandler()
     {
     }
 
+    /**
+     * Crée un handler qui alimente les modules donnés, indexés par ID en
+     * majuscules, plutôt que ceux enregistrés dans l'application.
+     */
+    public ASIHandler(Map<String, AnalyseModule> modules)
+    {
+        this.modules = modules;
+    }
+
     public void startDocument()
     {
         stack = new LinkedList<String>();
@@ -53,6 +66,19 @@ public class ASIHandler extends HandlerBase
 
     public void endDocument()
     {
+        terminer();
+    }
+
+    /**
+     * Ferme le module en cours lorsque le document s'est interrompu avant sa
+     * balise de fin, par exemple sur une erreur d'analyse. Sans effet sinon.
+     */
+    public void terminer()
+    {
+        if (currentModule != null) {
+            currentModule = null;
+            asiModuleHandler.endModule();
+        }
     }
 
     public void attribute(String aname, String value, boolean isSpecified)
@@ -71,7 +97,8 @@ public class ASIHandler extends HandlerBase
         stack.addFirst(name);
 
         if (name.equals("module")) {
-            currentModule = Main.getModule(id.toUpperCase());
+            currentModule = modules != null ? modules.get(id.toUpperCase())
+                    : Main.getModule(id.toUpperCase());
 
             if (currentModule == null) {
                 logger.log(Level.WARNING, "Module not found for id: " + id + ". This ASI file may not be loaded correctly.");
@@ -86,6 +113,7 @@ public class ASIHandler extends HandlerBase
                     return;
                 }
                 asiModuleHandler = filterModule.getASIHandler();
+                asiModuleHandler.startModule();
             } catch (Exception e) {
                 logger.log(Level.SEVERE, "Error initializing ASI handler for module: " + id, e);
                 currentModule = null;
@@ -106,7 +134,7 @@ public class ASIHandler extends HandlerBase
 
         if (name.equalsIgnoreCase(lastStartTag)) {
             if (name.equals("module")) {
-                currentModule = null;
+                terminer();
             } else if (currentModule != null) {
                 asiModuleHandler.endElement(name);
             }
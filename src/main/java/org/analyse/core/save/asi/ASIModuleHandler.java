@@ -37,4 +37,21 @@ public abstract class ASIModuleHandler
     public abstract void startElement(String name);
 
     public abstract void endElement(String name);
+
+    /**
+     * Appelée à l'ouverture de la balise <code>module</code>, avant ses
+     * éléments.
+     */
+    public void startModule()
+    {
+    }
+
+    /**
+     * Appelée à la fermeture de la balise <code>module</code>, ou par
+     * <code>ASIHandler.terminer()</code> si le document s'est interrompu
+     * avant.
+     */
+    public void endModule()
+    {
+    }
 }
\ No newline at end of file
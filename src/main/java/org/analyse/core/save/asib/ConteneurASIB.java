@@ -0,0 +1,161 @@
+/*
+ * ConteneurASIB.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save.asib;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lecture d'un fichier ASIB, le format binaire des fichiers ASI. Le fichier
+ * est projeté en mémoire en lecture seule et chaque section est rendue telle
+ * quelle, sans copie : les modules lisent leurs enregistrements directement
+ * aux positions voulues.
+ * <p>
+ * Format, en big-endian :
+ * <pre>
+ * int    magique "ASIB"
+ * short  version
+ * short  nombre de sections
+ * pour chaque section : nom ASCII sur 32 octets complété par des zéros,
+ *                       long position, long longueur
+ * sections, chacune alignée sur 8 octets
+ * </pre>
+ * Les sections sont nommées <code>module.nom</code>, en minuscules.
+ */
+public class ConteneurASIB
+{
+    /** "ASIB" */
+    public static final int MAGIQUE = 0x41534942;
+
+    public static final short VERSION = 1;
+
+    /** Taille maximale d'un nom de section, en octets */
+    static final int TAILLE_NOM = 32;
+
+    /** Taille d'une entrée du répertoire des sections */
+    static final int TAILLE_ENTREE = TAILLE_NOM + 8 + 8;
+
+    /** Taille de l'en-tête, hors répertoire */
+    static final int TAILLE_ENTETE = 4 + 2 + 2;
+
+    private final Map<String, ByteBuffer> sections;
+
+    ConteneurASIB(ByteBuffer fichier) throws IOException
+    {
+        sections = lireRepertoire(fichier);
+    }
+
+    /**
+     * Projette <code>fichier</code> en mémoire et lit son répertoire. La
+     * projection reste valide après la fermeture du fichier, jusqu'à ce que
+     * les sections ne soient plus référencées.
+     */
+    public static ConteneurASIB ouvrir(File fichier) throws IOException
+    {
+        FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.READ);
+        try {
+            MappedByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY,
+                    0, canal.size());
+            return new ConteneurASIB(projection);
+        } finally {
+            canal.close();
+        }
+    }
+
+    /**
+     * Vrai si <code>fichier</code> commence par le nombre magique ASIB.
+     */
+    public static boolean estASIB(File fichier) throws IOException
+    {
+        FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer debut = ByteBuffer.allocate(4);
+            while (debut.hasRemaining() && canal.read(debut) >= 0)
+                ;
+            return !debut.hasRemaining() && debut.getInt(0) == MAGIQUE;
+        } finally {
+            canal.close();
+        }
+    }
+
+    private static Map<String, ByteBuffer> lireRepertoire(ByteBuffer fichier)
+            throws IOException
+    {
+        if (fichier.limit() < TAILLE_ENTETE || fichier.getInt(0) != MAGIQUE)
+            throw new IOException("Fichier ASIB invalide");
+        short version = fichier.getShort(4);
+        if (version > VERSION)
+            throw new IOException("Version ASIB " + version + " non supportée");
+
+        int n = fichier.getShort(6) & 0xFFFF;
+        if (TAILLE_ENTETE + (long) n * TAILLE_ENTREE > fichier.limit())
+            throw new IOException("Répertoire ASIB tronqué");
+
+        Map<String, ByteBuffer> sections = new LinkedHashMap<String, ByteBuffer>();
+        byte[] nom = new byte[TAILLE_NOM];
+        for (int i = 0; i < n; i++) {
+            int entree = TAILLE_ENTETE + i * TAILLE_ENTREE;
+            fichier.get(entree, nom);
+            int longueurNom = 0;
+            while (longueurNom < TAILLE_NOM && nom[longueurNom] != 0)
+                longueurNom++;
+
+            long position = fichier.getLong(entree + TAILLE_NOM);
+            long longueur = fichier.getLong(entree + TAILLE_NOM + 8);
+            if (position < 0 || longueur < 0 || position + longueur > fichier.limit())
+                throw new IOException("Section ASIB hors du fichier");
+
+            sections.put(new String(nom, 0, longueurNom, StandardCharsets.US_ASCII),
+                    fichier.slice((int) position, (int) longueur));
+        }
+        return sections;
+    }
+
+    /**
+     * Retourne la section <code>nom</code> du module, positionnée au début,
+     * ou null si le fichier ne la contient pas.
+     */
+    public ByteBuffer section(String module, String nom)
+    {
+        ByteBuffer section = sections.get(nomSection(module, nom));
+        return section != null ? section.duplicate() : null;
+    }
+
+    /**
+     * Noms de toutes les sections du fichier, dans l'ordre du répertoire.
+     */
+    public Set<String> getSections()
+    {
+        return Collections.unmodifiableSet(sections.keySet());
+    }
+
+    static String nomSection(String module, String nom)
+    {
+        return (module + "." + nom).toLowerCase();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * EcritureASIB.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save.asib;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Construction d'un fichier ASIB : les modules remplissent leurs sections en
+ * mémoire, puis le répertoire et les sections sont écrits d'un bloc. Voir
+ * <code>ConteneurASIB</code> pour le format.
+ */
+public class EcritureASIB
+{
+    private final Map<String, ByteArrayOutputStream> sections = new LinkedHashMap<String, ByteArrayOutputStream>();
+
+    /**
+     * Ouvre une nouvelle section du module. Les données écrites dans le flux
+     * retourné forment le contenu de la section, en big-endian.
+     */
+    public DataOutputStream section(String module, String nom)
+    {
+        String complet = ConteneurASIB.nomSection(module, nom);
+        if (complet.length() > ConteneurASIB.TAILLE_NOM
+                || !StandardCharsets.US_ASCII.newEncoder().canEncode(complet))
+            throw new IllegalArgumentException("Nom de section invalide : " + complet);
+        if (sections.containsKey(complet))
+            throw new IllegalArgumentException("Section déjà écrite : " + complet);
+
+        ByteArrayOutputStream contenu = new ByteArrayOutputStream();
+        sections.put(complet, contenu);
+        return new DataOutputStream(contenu);
+    }
+
+    /**
+     * Ecrit l'en-tête, le répertoire puis les sections.
+     */
+    public void ecrire(OutputStream out) throws IOException
+    {
+        if (sections.size() > 0xFFFF)
+            throw new IOException("Trop de sections ASIB");
+
+        int tailleRepertoire = ConteneurASIB.TAILLE_ENTETE
+                + sections.size() * ConteneurASIB.TAILLE_ENTREE;
+        ByteBuffer repertoire = ByteBuffer.allocate(tailleRepertoire);
+        repertoire.putInt(ConteneurASIB.MAGIQUE);
+        repertoire.putShort(ConteneurASIB.VERSION);
+        repertoire.putShort((short) sections.size());
+
+        long position = aligner(tailleRepertoire);
+        for (Iterator<Entry<String, ByteArrayOutputStream>> e = sections.entrySet().iterator(); e.hasNext();) {
+            Entry<String, ByteArrayOutputStream> entry = e.next();
+            byte[] nom = entry.getKey().getBytes(StandardCharsets.US_ASCII);
+            repertoire.put(nom);
+            repertoire.put(new byte[ConteneurASIB.TAILLE_NOM - nom.length]);
+            repertoire.putLong(position);
+            repertoire.putLong(entry.getValue().size());
+            position = aligner(position + entry.getValue().size());
+        }
+        if (position > Integer.MAX_VALUE)
+            throw new IOException("Fichier ASIB trop volumineux");
+
+        out.write(repertoire.array());
+        long ecrits = tailleRepertoire;
+        for (ByteArrayOutputStream contenu : sections.values()) {
+            ecrits = completer(out, ecrits);
+            contenu.writeTo(out);
+            ecrits += contenu.size();
+        }
+        completer(out, ecrits);
+    }
+
+    private static long aligner(long position)
+    {
+        return (position + 7) & ~7L;
+    }
+
+    /**
+     * Complète par des zéros jusqu'au prochain multiple de 8.
+     */
+    private static long completer(OutputStream out, long ecrits) throws IOException
+    {
+        long aligne = aligner(ecrits);
+        out.write(new byte[(int) (aligne - ecrits)]);
+        return aligne;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * FilterASIBModule.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save.asib;
+
+import java.io.IOException;
+
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.modules.FilterModule;
+
+/**
+ * Filtre d'un module pour les fichiers ASIB.
+ */
+public abstract class FilterASIBModule extends FilterModule
+{
+    public FilterASIBModule(String ID, AnalyseModule module)
+    {
+        super(ID, module);
+    }
+
+    /**
+     * Capture l'état à sauvegarder, sur l'EDT, comme
+     * <code>SaveModule.instantane()</code>.
+     */
+    public abstract InstantaneASIB instantane();
+
+    /**
+     * Construit le modèle du module à partir des sections du fichier. Appelé
+     * hors de l'EDT, sur un module créé par
+     * <code>AnalyseModule.creerModuleChargement()</code> ou non affiché.
+     * Retourne le nombre d'éléments lus.
+     */
+    public abstract int charger(ConteneurASIB in) throws IOException;
+}
@@ -0,0 +1,33 @@
+/*
+ * InstantaneASIB.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save.asib;
+
+import java.io.IOException;
+
+/**
+ * Etat d'un module capturé sur l'EDT, écrit ensuite dans un fichier ASIB hors
+ * de l'EDT.
+ */
+public interface InstantaneASIB
+{
+    /**
+     * Ecrit les sections du module <code>module</code>.
+     */
+    void save(EcritureASIB out, String module) throws IOException;
+}
@@ -0,0 +1,124 @@
+/*
+ * TableChaines.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save.asib;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table des chaînes d'un module ASIB : chaque chaîne distincte n'est écrite
+ * qu'une fois, les enregistrements n'en gardent que l'indice. L'indice -1
+ * représente null.
+ * <p>
+ * Section : <code>int n</code>, <code>n + 1</code> positions de fin
+ * (<code>int</code>, la première vaut 0) puis les chaînes en UTF-8, bout à
+ * bout.
+ */
+public class TableChaines
+{
+    public static final int NULL = -1;
+
+    private final Map<String, Integer> indices = new HashMap<String, Integer>();
+
+    private final List<String> chaines = new ArrayList<String>();
+
+    /**
+     * Retourne l'indice de <code>chaine</code>, ajoutée à la table au besoin.
+     */
+    public int indice(String chaine)
+    {
+        if (chaine == null)
+            return NULL;
+
+        Integer i = indices.get(chaine);
+        if (i == null) {
+            i = Integer.valueOf(chaines.size());
+            indices.put(chaine, i);
+            chaines.add(chaine);
+        }
+        return i.intValue();
+    }
+
+    public int size()
+    {
+        return chaines.size();
+    }
+
+    /**
+     * Ecrit la table dans sa section.
+     */
+    public void ecrire(DataOutputStream out) throws IOException
+    {
+        byte[][] octets = new byte[chaines.size()][];
+        out.writeInt(octets.length);
+        out.writeInt(0);
+        int fin = 0;
+        for (int i = 0; i < octets.length; i++) {
+            octets[i] = chaines.get(i).getBytes(StandardCharsets.UTF_8);
+            fin += octets[i].length;
+            out.writeInt(fin);
+        }
+        for (byte[] chaine : octets)
+            out.write(chaine);
+    }
+
+    /**
+     * Décode toutes les chaînes d'une section, dans l'ordre des indices.
+     */
+    public static String[] lire(ByteBuffer section) throws IOException
+    {
+        try {
+            int n = section.getInt(0);
+            if (n < 0 || n > (section.limit() - 8) / 4)
+                throw new IOException("Table des chaînes ASIB invalide");
+            int debutChaines = 4 + (n + 1) * 4;
+            byte[] octets = new byte[section.limit() - debutChaines];
+            section.get(debutChaines, octets);
+
+            String[] chaines = new String[n];
+            int debut = section.getInt(4);
+            for (int i = 0; i < n; i++) {
+                int fin = section.getInt(4 + (i + 1) * 4);
+                chaines[i] = new String(octets, debut, fin - debut, StandardCharsets.UTF_8);
+                debut = fin;
+            }
+            return chaines;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Table des chaînes ASIB invalide", e);
+        }
+    }
+
+    /**
+     * Retourne la chaîne d'indice <code>i</code>, null pour NULL.
+     */
+    public static String get(String[] chaines, int i) throws IOException
+    {
+        if (i == NULL)
+            return null;
+        if (i < 0 || i >= chaines.length)
+            throw new IOException("Indice de chaîne ASIB invalide : " + i);
+        return chaines[i];
+    }
+}
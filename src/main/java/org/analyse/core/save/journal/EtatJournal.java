@@ -0,0 +1,38 @@
+/*
+ * EtatJournal.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save.journal;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Etat d'un module capturé sur l'EDT pour le journal. Il n'est plus modifié
+ * ensuite : les différences entre deux états sont calculées et écrites hors
+ * de l'EDT.
+ */
+public interface EtatJournal
+{
+    /**
+     * Ecrit les opérations qui mènent de l'état <code>avant</code> à
+     * celui-ci, ou du modèle vide si <code>avant</code> est null. Retourne
+     * false si rien n'a été écrit.
+     */
+    boolean ecrireDifferences(EtatJournal avant, DataOutputStream out)
+            throws IOException;
+}
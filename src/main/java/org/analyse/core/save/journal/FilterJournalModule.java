@@ -0,0 +1,62 @@
+/*
+ * FilterJournalModule.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.save.journal;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.modules.FilterModule;
+
+/**
+ * Filtre d'un module pour le journal des modifications. Le journal compare
+ * les états capturés successivement et n'écrit que leurs différences : le
+ * module n'a pas à signaler chacune de ses modifications.
+ */
+public abstract class FilterJournalModule extends FilterModule
+{
+    public FilterJournalModule(String ID, AnalyseModule module)
+    {
+        super(ID, module);
+    }
+
+    /**
+     * Retourne un compteur qui change à chaque modification du modèle. Lu sur
+     * l'EDT à chaque vérification : tant qu'il ne change pas, le modèle n'est
+     * pas capturé.
+     */
+    public abstract long getModifications();
+
+    /**
+     * Capture l'état du modèle, sur l'EDT. Les objets du modèle y gardent le
+     * même identifiant d'une capture à l'autre.
+     */
+    public abstract EtatJournal capturer();
+
+    /**
+     * Reconstruit le modèle du module à partir de ses enregistrements, dans
+     * l'ordre du journal, le premier partant d'un modèle vide. Appelé hors de
+     * l'EDT, sur un module créé par
+     * <code>AnalyseModule.creerModuleChargement()</code> ou non affiché.
+     * Retourne le nombre d'éléments reconstruits.
+     */
+    public abstract int rejouer(List<DataInputStream> enregistrements)
+            throws IOException;
+}
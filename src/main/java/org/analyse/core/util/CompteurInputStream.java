@@ -0,0 +1,76 @@
+/*
+ * CompteurInputStream.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.core.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Flux qui compte les octets lus, pour suivre la progression d'une lecture.
+ */
+public class CompteurInputStream extends FilterInputStream
+{
+    private long lus;
+
+    public CompteurInputStream(InputStream in)
+    {
+        super(in);
+    }
+
+    /**
+     * Retourne le nombre d'octets lus ou sautés depuis l'ouverture.
+     */
+    public long getLus()
+    {
+        return lus;
+    }
+
+    public int read() throws IOException
+    {
+        int b = super.read();
+        if (b >= 0)
+            lus++;
+        return b;
+    }
+
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        int n = super.read(b, off, len);
+        if (n > 0)
+            lus += n;
+        return n;
+    }
+
+    public long skip(long n) throws IOException
+    {
+        long sautes = super.skip(n);
+        lus += sautes;
+        return sautes;
+    }
+
+    /**
+     * Les marques ne sont pas supportées : le compte resterait faux après un
+     * <code>reset()</code>.
+     */
+    public boolean markSupported()
+    {
+        return false;
+    }
+}
@@ -168,6 +168,7 @@ public class Constantes {
     public static final String MESSAGE_FERMER_LOGICIEL = "fermer_logiciel" ;
     public static final String MESSAGE_SAUVEGARDER_FICHIER_ENCOURS = "sauvegarder_fichier" ; 
     public static final String MESSAGE_FICHIER_EXISTANT = "fichier_existant" ;
+    public static final String MESSAGE_RESTAURER_JOURNAL = "restaurer_journal" ;
     public static final String MESSAGE_AIDE ="aide";
     public static final String MESSAGE_APROPOS ="apropos";    
     public static final String MESSAGE_UTILISE ="utilise";    
@@ -250,6 +251,9 @@ public class Constantes {
 	public static final String MESSAGE_IMPOSSIBLE_CREER_TABLE= "impossible_creer_table" ;
 	public static final String MESSAGE_TABLE_EXISTE_DEJA = "table_existe_deja";
 	public static final String MESSAGE_TABLE_CREATION_OK = "table_creation_ok";
+	public static final String MESSAGE_DEPLOIEMENT_PROGRESSION = "deploiement_progression";
+	public static final String MESSAGE_DEPLOIEMENT_ANNULE = "deploiement_annule";
+	public static final String MESSAGE_DEPLOIEMENT_ANNULE_TRANSACTION = "deploiement_annule_transaction";
     public static final String MESSAGE_DICTIONNAIRE_DONNEES="dictionnaire_donnees";
     public static final String MESSAGE_TITRE_MCD="titre_mcd";
     public static final String MESSAGE_TITRE_MPD="titre_mpd";
@@ -45,7 +45,11 @@ import javax.swing.JOptionPane;
 
 import org.analyse.core.gui.AnalyseFrame;
 import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.save.ChargementASI;
+import org.analyse.core.save.ChargementJournal;
 import org.analyse.core.save.FiltreASI;
+import org.analyse.core.save.FiltreASIB;
+import org.analyse.core.save.JournalASI;
 import org.analyse.core.util.Constantes;
 import org.analyse.core.util.GUIUtilities;
 import org.analyse.core.util.Utilities;
@@ -75,6 +79,9 @@ public class AnalyseSave {
 	}
 
 	private String fileName;
+
+	/** Une sauvegarde a été lancée en quittant */
+	private boolean sauvegardeLancee;
 	private boolean newOption = false ; 
 
     private JFileChooser chooser;
@@ -83,6 +90,9 @@ public class AnalyseSave {
 
     private List<FiltreASI> filtres;
 
+    /** Journal des modifications non sauvegardées */
+    private final JournalASI journal = new JournalASI();
+
     public AnalyseSave(AnalyseFrame frame)
     {
         this.frame = frame;
@@ -90,12 +100,38 @@ public class AnalyseSave {
 
         initFilter();
         initFileChooser();
+        journal.setIntervalle(JournalASI.INTERVALLE);
+    }
+
+    public JournalASI getJournal()
+    {
+        return journal;
     }
     
     public int  closeProgram()
     {
     	
-    	return ( this.popupExit ()  ) ;  
+    	this.sauvegardeLancee = false ;
+    	int choix = this.popupExit ();
+
+    	// les sauvegardes en cours doivent être sur le disque avant de quitter
+    	boolean sauvees = true;
+    	for (FiltreASI filtre : filtres)
+    	    sauvees &= filtre.attendreSauvegarde();
+
+    	// l'erreur est affichée : l'application reste ouverte
+    	if ( ! sauvees )
+    	    return JOptionPane.CANCEL_OPTION;
+
+    	// les modifications sont sauvegardées ou volontairement abandonnées ;
+    	// sinon le journal est conservé pour la prochaine ouverture
+    	if ( choix == JOptionPane.NO_OPTION
+    	        || ( choix == JOptionPane.YES_OPTION && this.sauvegardeLancee ) )
+    	    journal.fermer();
+    	else if ( choix == JOptionPane.YES_OPTION )
+    	    journal.arreter();
+
+    	return choix;
     	
     }
 
@@ -103,23 +139,23 @@ public class AnalyseSave {
      * Sauvegarde les données dans un fichier, si le document a déjà été
      * sauvegardé une fois, le nom du fichier ne change pas, sinon, la méthode
      * saveAs est lancée.
+     *
+     * @return true si la sauvegarde est lancée
      */
-    public void save() {
+    public boolean save() {
     	
     	if ( this.fileName == null ) {
-    		 saveAs();
-        	return;
+        	return saveAs();
         
     	}
     	
         if ( ! this.isSave () ) {
-        	 saveAs();
-             return;
+             return saveAs();
         }
         
         this.setSave ( true );
         
-        AnalyseFilter af = getAnalyseFilter();
+        FiltreASI af = getAnalyseFilter();
         if (af != null && af.canSave()) {
         	
         	// Bug #352415
@@ -131,32 +167,34 @@ public class AnalyseSave {
         	} 
         	
         	if ( sauvegarder == JOptionPane.YES_OPTION ) {
-        		((Save) af).save( file );
-        		msgSave ( Utilities.getLangueMessage( Constantes.MESSAGE_SAUVEGARDE_EFFECTUEE )) ;
+        		// le filtre confirme la sauvegarde une fois le fichier écrit
+        		af.save( file, journal.apresSauvegarde(file) );
         		frame.setTitle(Utilities.getRelease() + " - " + this.fileName);
-        		
+        		return true;
         	}
         
         }
         
-        
+        return false;
     }
 
     /**
      * Sauvegarde les données dans un nouveau fichier, si le nouveau fichier
      * existe, celui-ci sera écrasé.
+     *
+     * @return true si la sauvegarde est lancée
      */
     
-    public void saveAs() {
+    public boolean saveAs() {
     	
         String fileName;
         fileName = chooseFile( Constantes.SAVE );
         if (fileName == null)
-            return;
+            return false;
 
         this.setSave ( true );
 
-        AnalyseFilter af = getAnalyseFilter();
+        FiltreASI af = getAnalyseFilter();
 
         if (Utilities.getExtension(fileName).equals(""))
             this.fileName = fileName + "." + af.getExtension();
@@ -172,19 +210,13 @@ public class AnalyseSave {
     	} 
     	
     	if ( sauvegarder == JOptionPane.YES_OPTION ) {
-    		((Save) af).save( file );    		
-    		msgSave ( Utilities.getLangueMessage( Constantes.MESSAGE_SAUVEGARDE_EFFECTUEE ) ) ;     		
+    		af.save( file, journal.apresSauvegarde(file) );
     	}
     	
         frame.setTitle(Utilities.getRelease() + " - " + this.fileName);
-        
+        return sauvegarder == JOptionPane.YES_OPTION;
     }
 
-    private  void   msgSave ( String msg ) {      	
-    
-    	GUIUtilities.messageHTML("<b style=\"color: blue;\">" + msg + "</b>", true, 300, 250);
-    }
-    
     /**
      * Récupère les données depuis un fichier et les chargent dans l'application.
      */
@@ -199,28 +231,97 @@ public class AnalyseSave {
         open(fileName);
     }
 
+    /**
+     * Ouvre <code>fileName</code> en tâche de fond. Le modèle affiché, son
+     * nom et son journal ne changent que si le fichier a été chargé.
+     */
     public void open(String fileName)
     {
         if (fileName == null)
             return;
 
-        AnalyseModule mod;
-        ApplicationContext context = ApplicationContext.getInstance();
-        if (context != null && context.isInitialized()) {
-            for (Iterator<Entry<String, AnalyseModule>> e = context.getModules().entrySet().iterator(); e.hasNext();) {
-                mod = e.next().getValue();
-                mod.clear();
-            }
+        File file = new File(fileName);
+
+        // un journal laissé par un arrêt inattendu, pas celui de ce modèle
+        File fichierJournal = JournalASI.getFichier(file);
+        boolean restaurer = !fichierJournal.equals(journal.getFichier())
+                && fichierJournal.exists();
+
+        if (restaurer && popupRestaurer() == JOptionPane.YES_OPTION) {
+            restaurer(fichierJournal, ouverture(fileName, fichierJournal, true));
+        } else {
+            FiltreASI af = getAnalyseFilter(fileName);
+            if (af != null && af.canOpen())
+                af.open(file, ouverture(fileName, fichierJournal, false));
         }
+    }
 
-        this.setSave ( true ) ; 
+    /**
+     * Propose de restaurer le modèle sans nom laissé par un arrêt inattendu,
+     * puis démarre le journal. Appelé au lancement de l'application.
+     */
+    public void restaurer()
+    {
+        File fichierJournal = journalSansNom();
+        if (fichierJournal.exists() && popupRestaurer() == JOptionPane.YES_OPTION)
+            restaurer(fichierJournal, reprise(fichierJournal));
+        else
+            journal.reprendre(fichierJournal, false);
+    }
+
+    /**
+     * Retourne le journal d'un modèle qui n'a pas encore été sauvegardé.
+     */
+    private File journalSansNom()
+    {
+        return new File(Main.SETTINGS_DIRECTORY, "sans-nom" + JournalASI.EXTENSION);
+    }
 
-        this.fileName = fileName;
+    /**
+     * Charge le modèle depuis son journal, qui est conservé jusqu'à la
+     * prochaine sauvegarde.
+     */
+    private void restaurer(File fichierJournal, ChargementASI.Suite suite)
+    {
+        ChargementJournal chargement = new ChargementJournal(fichierJournal,
+                ApplicationContext.getInstance().getModules());
+        chargement.setSuite(suite);
+        chargement.start();
+    }
 
-        AnalyseFilter af = getAnalyseFilter();
-        if (af != null && af.canOpen())
-            ((Open) af).open(new File(this.fileName));
-        frame.setTitle(Utilities.getRelease() + " - " + this.fileName);
+    /**
+     * Retourne la tâche qui démarre le journal après la restauration du
+     * modèle sans nom, qu'elle ait abouti ou non.
+     */
+    private ChargementASI.Suite reprise(final File fichierJournal)
+    {
+        return new ChargementASI.Suite() {
+            public void fin(boolean repris)
+            {
+                journal.reprendre(fichierJournal, true);
+            }
+        };
+    }
+
+    /**
+     * Retourne la tâche qui adopte le fichier ouvert, une fois son modèle
+     * repris : nom, titre et journal. Sinon, le modèle affiché garde les
+     * siens.
+     */
+    private ChargementASI.Suite ouverture(final String fileName,
+            final File fichierJournal, final boolean conserver)
+    {
+        return new ChargementASI.Suite() {
+            public void fin(boolean repris)
+            {
+                if (!repris)
+                    return;
+                setSave(true);
+                AnalyseSave.this.fileName = fileName;
+                journal.reprendre(fichierJournal, conserver);
+                frame.setTitle(Utilities.getRelease() + " - " + fileName);
+            }
+        };
     }
 
     private  int  popupExit () {
@@ -235,7 +336,7 @@ public class AnalyseSave {
 	    		choix = GUIUtilities.question_YES_NO_CANCEL ( Utilities.getLangueMessage( Constantes.MESSAGE_SAUVEGARDER_FICHIER_ENCOURS) ) ;
 	
 	    	    if (choix == JOptionPane.YES_OPTION)
-	    	        save();
+	    	        this.sauvegardeLancee = save();
     		}
     	}
         else {
@@ -260,6 +361,10 @@ public class AnalyseSave {
 	    return choix ; 
     }
     
+    private  int  popupRestaurer () {
+    	return GUIUtilities.question_YES_NO ( Utilities.getLangueMessage( Constantes.MESSAGE_RESTAURER_JOURNAL )) ;
+    }
+
     private  int  popupFichierExiste () {	    
     	int choix = GUIUtilities.question_YES_NO ( Utilities.getLangueMessage( Constantes.MESSAGE_FICHIER_EXISTANT )) ;    
 	    return choix ; 
@@ -284,6 +389,7 @@ public class AnalyseSave {
         }
 
         this.setSave ( false ) ;
+        journal.reprendre(journalSansNom(), false);
         frame.setTitle( Utilities.getRelease() + " - sans nom");
     }
 
@@ -294,6 +400,7 @@ public class AnalyseSave {
     {
         filtres = new ArrayList<FiltreASI>();
         filtres.add(new FiltreASI());
+        filtres.add(new FiltreASIB());
     }
 
     /**
@@ -318,12 +425,21 @@ public class AnalyseSave {
     }
 
     /**
-     * Retourne l'objet <code>AnalyseFilter</code> correspondant à la
-     * description du FileChooserFilter courant.
+     * Retourne le filtre correspondant à l'extension du fichier ou au
+     * FileChooserFilter courant.
      */
-    private AnalyseFilter getAnalyseFilter()
+    private FiltreASI getAnalyseFilter()
     {
-        AnalyseFilter af;
+        return getAnalyseFilter(this.fileName);
+    }
+
+    /**
+     * Retourne le filtre correspondant à l'extension de <code>fileName</code>
+     * ou au FileChooserFilter courant.
+     */
+    private FiltreASI getAnalyseFilter(String fileName)
+    {
+        FiltreASI af;
         String ext = Constantes.FILE_EXTENSION ;   // bug #489240
         String ID = "";
         FileChooserFilter ff;
@@ -332,9 +448,17 @@ public class AnalyseSave {
             ff = (FileChooserFilter) (chooser.getFileFilter());
             ID = ff.getID();
         }
-        if (fileName != null)
+        if (fileName != null) {
             ext = Utilities.getExtension(fileName);
 
+            // l'extension du fichier l'emporte sur le filtre sélectionné
+            for (Iterator<FiltreASI> e = filtres.iterator(); e.hasNext();) {
+                af = e.next();
+                if (af.getExtension().equals(ext))
+                    return af;
+            }
+        }
+
         for (Iterator<FiltreASI> e = filtres.iterator(); e.hasNext();) {
             af = e.next();
             if (af.getID().equals(ID) || af.getExtension().equals(ext))
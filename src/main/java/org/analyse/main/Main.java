@@ -107,6 +107,9 @@ public final class Main
             // Open file if specified in command line
             if (args.length > 0) {
                 frame.getAnalyseSave().open(args[0]);
+            } else {
+                // propose le modèle perdu lors d'un arrêt inattendu
+                frame.getAnalyseSave().restaurer();
             }
 
             logger.log(Level.INFO, "AnalyseSI application started successfully");
@@ -107,6 +107,9 @@ public class EntiteDialog extends JDialog
 
     private String oldName;
 
+    /** Informations passées dans l'objet par la fenêtre, pas encore validées */
+    private final List<String> enAttente = new ArrayList<String>();
+
     public EntiteDialog(DictionnaireTable dictionnaireTable)
     {
         super(Main.analyseFrame, Utilities.getLangueMessage (Constantes.MESSAGE_ENTITE), true);
@@ -331,6 +334,7 @@ public class EntiteDialog extends JDialog
      */
     public void load(MCDObjet mcdobject)
     {
+        liberer();
         this.mcdobject = mcdobject;
 
         if (mcdobject instanceof MCDEntite)
@@ -391,14 +395,14 @@ public class EntiteDialog extends JDialog
         String key;
         List<String> keys = new ArrayList<String>();
         for (int i = 0; i < listGauche.getSize(); i++) {
-            if (gauche.isSelectedIndex(i)) {
+            if (gauche.isSelectedIndex(i))
                 keys.add(listGauche.getKey(i));
-                data.setUse(data.getID(i), true ) ;  // bug : 347422
-            }
-            
         }
         for (Iterator<String> e = keys.iterator(); e.hasNext();) {
             key = e.next();
+            // bug : 347422, l'information ne doit plus être proposée
+            data.addUse(key, mcdobject);
+            enAttente.add(key);
             listDroite.addElement(key, (String) data.getValue(key,
                     DictionnaireTable.NAME));
             listGauche.removeElement(key);
@@ -418,6 +422,8 @@ public class EntiteDialog extends JDialog
         }
         for (Iterator<String> e = keys.iterator(); e.hasNext();) {
             key = e.next();
+            if (enAttente.remove(key))
+                data.removeUse(key, mcdobject);
             listGauche.addElement(key, (String) data.getValue(key,
                     DictionnaireTable.NAME));
             listDroite.removeElement(key);
@@ -488,11 +494,10 @@ public class EntiteDialog extends JDialog
      */
     private void ok()
     {
+        liberer();
         mcdobject.clearInformations();
-        for (int i = 0; i < listDroite.getSize(); i++) {
-            data.setUse(listDroite.getKey(i), true);
+        for (int i = 0; i < listDroite.getSize(); i++)
             mcdobject.addInformation(listDroite.getKey(i));
-        }
 
         // Vérifie que le nom n'est pas utilisé par quelqu'un d'autre
         if (mcdobject.getMCD().getElement(nom.getText()) == null
@@ -513,9 +518,21 @@ public class EntiteDialog extends JDialog
      */
     private void close()
     {
+        liberer();
         this.setVisible( false );
     }
 
+    /**
+     * Rend au dictionnaire les informations passées dans l'objet depuis
+     * l'ouverture de la fenêtre et non validées.
+     */
+    private void liberer()
+    {
+        for (Iterator<String> e = enAttente.iterator(); e.hasNext();)
+            data.removeUse(e.next(), mcdobject);
+        enAttente.clear();
+    }
+
     private class ActionHandler implements ActionListener
     {
         public void actionPerformed(ActionEvent e)
@@ -100,6 +100,9 @@ public class MCDPanel extends AnalysePanel
 
     private SQLCommand sqlCommand ;
     private MLDCommand mldCommand ;
+
+    /** Onglet SQL, où est choisi le dialecte du script */
+    private SQLPanel sqlPanel ;
     
     private JPanel toolbar;
 
@@ -121,7 +124,7 @@ public class MCDPanel extends AnalysePanel
     private String typeAction = Constantes.ADD_ENT;
 
     public MCDPanel(MCDComponent mcdComponent, MPDComponent mpdComponent,
-            SQLCommand sqlCommand,  MLDComponent mldComponent, MLDCommand mldCommand )
+            SQLCommand sqlCommand, SQLPanel sqlPanel, MLDComponent mldComponent, MLDCommand mldCommand )
     {
         super(Constantes.MCD);
         
@@ -129,6 +132,7 @@ public class MCDPanel extends AnalysePanel
         this.mpdComponent = mpdComponent;        
         this.mldComponent = mldComponent;
         this.sqlCommand = sqlCommand;
+        this.sqlPanel = sqlPanel;
         this.mldCommand = mldCommand;
         this.actionHandler = new ActionHandler();
         
@@ -502,7 +506,7 @@ public class MCDPanel extends AnalysePanel
 
         private void handleBuildMPD() {
             if (mcdComponent.buildMPD(mpdComponent, Constantes.CREATE_MCD)) {
-                mpdComponent.buildSQL(mcdComponent.getData(), sqlCommand);
+                mpdComponent.buildSQL(mcdComponent.getData(), sqlCommand, sqlPanel.getSQLSyntax());
                 mldComponent.buildMLD(mpdComponent, mldCommand);
             }
         } 
@@ -539,6 +543,7 @@ public class MCDPanel extends AnalysePanel
         }
 
         private BufferedImage createGraphImage() {
+            mcdComponent.mettreEnPage();
             int width = (int) mcdComponent.getPreferredSize().getWidth();
             int height = (int) mcdComponent.getPreferredSize().getHeight();
             BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
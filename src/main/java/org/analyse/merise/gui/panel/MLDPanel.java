@@ -161,10 +161,10 @@ public class MLDPanel  extends AnalysePanel implements Observer, ClipboardInterf
 	}
 	
 	public void update(Observable o, Object arg) {
-		String name, str, text, textFinal, requete;
+		String str, text;
 
 		//textFinal = "<html><body style=\"font-family:Geneva,Arial,Helvetica,sans-serif;font-size:11px;\">";
-		textFinal = "<html><body><PRE>";
+		StringBuilder html = new StringBuilder("<html><body><PRE>");
 		 
 		text = mldCommand.getRequests() ;
 		
@@ -183,11 +183,12 @@ public class MLDPanel  extends AnalysePanel implements Observer, ClipboardInterf
 					else if (str.equals(";"))
 						textFinal += ";<br/><br/>";
 					else    */
-						textFinal += str;
+						html.append(str);
 				
 			}
 
-		textFinal += "</PRE></body></html>";
+		html.append("</PRE></body></html>");
+		String textFinal = html.toString();
 		
 		editor.setText(textFinal);
 		 
@@ -184,6 +184,7 @@ public class MPDPanel extends AnalysePanel
                     Rectangle2D r;
 
                     imageFile = new File(fileName);
+                    mpdComponent.mettreEnPage();
                     img = new BufferedImage(
                             (int) (mpdComponent.getPreferredSize().getWidth()),
                             (int) (mpdComponent.getPreferredSize().getHeight()),
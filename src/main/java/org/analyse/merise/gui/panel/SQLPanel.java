@@ -33,15 +33,15 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.FileOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -55,6 +55,9 @@ import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
 import javax.swing.JToolBar;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
 import org.analyse.core.gui.action.BasicAction;
 import org.analyse.core.gui.menu.ClipboardPopupMenu;
@@ -62,14 +65,15 @@ import org.analyse.core.modules.AnalysePanel;
 import org.analyse.core.modules.ClipboardInterface;
 import org.analyse.core.util.Constantes;
 import org.analyse.core.util.GUIUtilities;
-import org.analyse.core.util.SwingWorker;
 import org.analyse.core.util.Utilities;
 import org.analyse.core.util.save.AnalyseFilter;
 import org.analyse.core.util.save.AnalyseSave;
 import org.analyse.core.util.save.FileChooserFilter;
 import org.analyse.main.Main;
 import org.analyse.merise.gui.dialog.ConnectionDialog;
+import org.analyse.merise.sql.DeploiementSQL;
 import org.analyse.merise.sql.SQLCommand;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
 
 public class SQLPanel extends AnalysePanel
 	implements Observer, ClipboardInterface {
@@ -177,7 +181,7 @@ public class SQLPanel extends AnalysePanel
 		});
 
         // SQL Syntax selection combobox.
-        jrbSQLSyntax = new JComboBox(SQLCommand.SQLsyntax.values());
+        jrbSQLSyntax = new JComboBox(DialectesSQL.tous().toArray());
         jrbSQLSyntax.setSelectedIndex(0);
         toolbar.add(new JToolBar.Separator());
         toolbar.add(new JLabel(Utilities.getLangueMessage("sql_syntax")));
@@ -221,13 +225,11 @@ public class SQLPanel extends AnalysePanel
 	 * A optimiser
 	 */
 	public void update(Observable o, Object arg) {
-		String name, str, text, textFinal, requete;
+		String str, text, textFinal;
 
-		List<String> keywords = sqlCommand.getKeywords();
-		List<String> types = sqlCommand.getTypes();
 
 		//textFinal = "<html><body style=\"font-family:Geneva,Arial,Helvetica,sans-serif;font-size:11px;\">";
-		textFinal = "<html><body><pre>";
+		StringBuilder html = new StringBuilder("<html><body><pre>");
 		text = sqlCommand.getRequests() ;
 		
 		for (StringTokenizer st = new StringTokenizer(text, " (),<>;", true); st
@@ -236,20 +238,21 @@ public class SQLPanel extends AnalysePanel
 					
 					str = str.replace(",", ",<br/>") ;
 					
-					if (keywords.contains(str))
-						textFinal += "<b style=\"color: blue;\">" + str + "</b>";
-					else if (types.contains(str))
-						textFinal += "<b style=\"color: red;\">" + str + "</b>";
+					if (sqlCommand.isKeyword(str))
+						html.append("<b style=\"color: blue;\">").append(str).append("</b>");
+					else if (sqlCommand.isType(str))
+						html.append("<b style=\"color: red;\">").append(str).append("</b>");
 					else if (str.equals("(") || str.equals(")"))
-						textFinal += "<b>" + str + "</b>";
+						html.append("<b>").append(str).append("</b>");
 					else if (str.equals(";"))
-						textFinal += ";<br/><br/>";
+						html.append(";<br/><br/>");
 					else
-						textFinal += str;
+						html.append(str);
 				
 			}
 
-		textFinal += "</pre></body></html>";
+		html.append("</pre></body></html>");
+		textFinal = html.toString();
 		textFinal = textFinal.replace("<br/><br/><b style=\"color: blue;\">CREATE", "<br/><b style=\"color: blue;\">CREATE") ;
 		textFinal = textFinal.replace("<b>)</b>;<br/><br/>", "<b>)</b>;<br/>" ) ;
 		
@@ -278,20 +281,94 @@ public class SQLPanel extends AnalysePanel
 		return null;
 	}
 
+	/**
+	 * Exécute les requêtes dans le dialecte choisi, hors de l'EDT, en
+	 * affichant leur progression. Le bouton Annuler de la progression
+	 * interrompt la requête en cours.
+	 */
 	public void execRequest() {
-		if (!sqlCommand.execRequest()) {
-			if (sqlCommand.getErrorCode() == 0) {
-				if (GUIUtilities.question_YES_NO  (Constantes.MESSAGE_TABLE_EXISTE_DEJA) == JOptionPane.YES_OPTION ) {
-					if (sqlCommand.execRequest(true))						
-						GUIUtilities.messageHTML(Utilities.getLangueMessage(Constantes.MESSAGE_TABLE_CREATION_OK), true, 300, 250);
-					else
-						GUIUtilities.error(Utilities.getLangueMessage(Constantes.MESSAGE_IMPOSSIBLE_CREER_TABLE));
+		final DeploiementSQL deploiement = sqlCommand.deploiement(DialectesSQL.get(getSQLSyntax()));
+		if (deploiement == null)
+			return;
+
+		final ProgressMonitor progression = new ProgressMonitor(Main.analyseFrame,
+				Utilities.getLangueMessage(Constantes.MESSAGE_EXECUTER_REQUETE_SQL),
+				"", 0, deploiement.getTotal());
+
+		// ProgressMonitor ne prévient pas de l'annulation : elle est relevée
+		// périodiquement, et transmise hors de l'EDT car Statement.cancel()
+		// s'adresse à la base
+		final Timer annulation = new Timer(200, new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				if (progression.isCanceled()) {
+					((Timer) e.getSource()).stop();
+					new Thread(deploiement::annuler, "annulation-sql").start();
 				}
-			} else {
-				GUIUtilities.error(Utilities.getLangueMessage(Constantes.MESSAGE_IMPOSSIBLE_CREER_TABLE));
 			}
-		} else {
+		});
+
+		SwingWorker<Boolean, Integer> worker = new SwingWorker<Boolean, Integer>() {
+			protected Boolean doInBackground() {
+				deploiement.setSuivi(new DeploiementSQL.Suivi() {
+					public void requeteExecutee(int executees, int total, String requete) {
+						publish(executees);
+					}
+				});
+				return sqlCommand.execRequest(deploiement);
+			}
+
+			protected void process(List<Integer> executees) {
+				int n = executees.get(executees.size() - 1);
+				progression.setProgress(n);
+				progression.setNote(Utilities.getLangueMessageFormatter(
+						Constantes.MESSAGE_DEPLOIEMENT_PROGRESSION,
+						new Object[] { n, deploiement.getTotal() }));
+			}
+
+			protected void done() {
+				annulation.stop();
+				progression.close();
+				finDeploiement(deploiement, resultat(this));
+			}
+		};
+		annulation.start();
+		worker.execute();
+	}
+
+	private void finDeploiement(DeploiementSQL deploiement, boolean ok) {
+		if (ok) {
 			GUIUtilities.messageHTML(Utilities.getLangueMessage(Constantes.MESSAGE_TABLE_CREATION_OK), true, 300, 250);
+		} else if (deploiement.isAnnule()) {
+			if (deploiement.isTransactionnel())
+				GUIUtilities.message(Utilities.getLangueMessage(Constantes.MESSAGE_DEPLOIEMENT_ANNULE_TRANSACTION));
+			else
+				GUIUtilities.message(Utilities.getLangueMessageFormatter(Constantes.MESSAGE_DEPLOIEMENT_ANNULE,
+						new Object[] { deploiement.getExecutees() }));
+		} else if (sqlCommand.getErrorCode() == 0) {
+			if (GUIUtilities.question_YES_NO  (Constantes.MESSAGE_TABLE_EXISTE_DEJA) == JOptionPane.YES_OPTION ) {
+				new SwingWorker<Boolean, Void>() {
+					protected Boolean doInBackground() {
+						return sqlCommand.execRequest(true);
+					}
+
+					protected void done() {
+						if (resultat(this))
+							GUIUtilities.messageHTML(Utilities.getLangueMessage(Constantes.MESSAGE_TABLE_CREATION_OK), true, 300, 250);
+						else
+							GUIUtilities.error(Utilities.getLangueMessage(Constantes.MESSAGE_IMPOSSIBLE_CREER_TABLE));
+					}
+				}.execute();
+			}
+		} else {
+			GUIUtilities.error(Utilities.getLangueMessage(Constantes.MESSAGE_IMPOSSIBLE_CREER_TABLE));
+		}
+	}
+
+	private static boolean resultat(SwingWorker<Boolean, ?> worker) {
+		try {
+			return worker.get();
+		} catch (InterruptedException | ExecutionException e) {
+			return false;
 		}
 	}
 
@@ -299,8 +376,6 @@ public class SQLPanel extends AnalysePanel
 	private class ActionHandler implements ActionListener {
 		public void actionPerformed(ActionEvent e) {
 			String action = e.getActionCommand();
-			String str, textFinal, text, oldStr;
-			boolean firstAlter = false ;
 
 			if (action.equals("CONN")) {
 				if (sqlCommand.getState() == SQLCommand.DECONNECTED)
@@ -314,55 +389,15 @@ public class SQLPanel extends AnalysePanel
 				if (sqlCommand.getState() == SQLCommand.DECONNECTED) {
 					GUIUtilities.error("Veuillez-vous connecter avant d'exécuter les requêtes.");
 				} else {
-					SwingWorker worker = new SwingWorker() {
-						public Object construct() {
-							execRequest();
-
-							return null;
-						}
-					};
-					worker.start();
-
+					execRequest();
 				}
 			} else if (action.equals("SAVESQL")) {
-				oldStr = "";
 				String fileName = chooseFile();
 				if (fileName == null)
 					return;
 
 				try {
-					PrintStream out = new PrintStream(new FileOutputStream(
-							fileName));
-
-					textFinal = "";
-					text = sqlCommand.getRequests();
-					firstAlter = false ;
-					
-					for (StringTokenizer st = new StringTokenizer(text, ";",
-							true); st.hasMoreElements();) {
-						str = st.nextToken();
-						str = str.replace(",", "," + Utilities.newLine() ) ;
-
-						if (str.equals(";"))
-							if ( oldStr.startsWith("DROP") || oldStr.startsWith("ALTER") )
-								
-								if ( ( oldStr.startsWith("ALTER") ) && ( firstAlter == false ) ) {
-									textFinal += ";" + Utilities.newLine() + Utilities.newLine();
-									firstAlter = true ; 
-								} else
-									textFinal += ";" + Utilities.newLine() ;
-							else
-								textFinal += ";" + Utilities.newLine() + Utilities.newLine(); 
-						else {
-							textFinal += str;
-							oldStr = str ; 
-						}
-					}
-
-					out.print(textFinal);
-
-					out.close();
-
+					sqlCommand.writeScript(new File(fileName));
 				} catch (IOException err) {
 					GUIUtilities.error("Impossible de sauvegarder le fichier "
 							+ fileName);
@@ -380,7 +415,7 @@ public class SQLPanel extends AnalysePanel
 
     /**
      * Returns the selected SQL syntax.
-     * @return SQL syntax: 'MySQL' or 'PostgreSQL'
+     * @return name of the selected dialect, see DialectesSQL
      */
     public String getSQLSyntax(){
         return jrbSQLSyntax.getSelectedItem().toString();
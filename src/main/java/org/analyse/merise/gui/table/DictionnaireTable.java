@@ -34,14 +34,13 @@ import java.util.*;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 
-import org.analyse.core.gui.zgraph.ZElement;
 import org.analyse.core.util.Constantes;
 import org.analyse.core.util.Utilities;
-import org.analyse.main.Main;
-import org.analyse.merise.main.MeriseModule;
 import org.analyse.merise.mcd.composant.MCDObjet;
+import org.analyse.merise.mcd.modele.Dictionnaire;
 
 /**
  * Cette table contient les informations utilisables par le MCD.
@@ -79,10 +78,40 @@ public class DictionnaireTable extends AbstractTableModel
     /** Données contenu dans la table. */
     private ArrayList<Object[]> rows = new ArrayList<Object[]>();
 
+    /**
+     * Index des lignes par code d'information. Chaque code pointe vers la
+     * première ligne qui le porte, comme le faisait le parcours linéaire.
+     */
+    private Map<String, Integer> index = new HashMap<String, Integer>();
+
+    /**
+     * Objets du MCD qui utilisent chaque code, avec leur nombre de références.
+     * Les objets sont conservés dans l'ordre où ils ont commencé à utiliser
+     * l'information.
+     */
+    private Map<String, Map<MCDObjet, Integer>> owners = new HashMap<String, Map<MCDObjet, Integer>>();
+
+    /** Nombre de lignes dont la colonne USE est à faux. */
+    private int nbUnused = 0;
+
     /** Différents types de données possibles. */
     private List<String> types;
 
-    private Observable observable;
+    /**
+     * Observateurs de la table (les objets du MCD), dans l'ordre
+     * d'inscription. Un ensemble plutôt qu'un <code>Observable</code> pour
+     * que l'inscription reste en temps constant sur les gros modèles.
+     */
+    private Set<Observer> observateurs = new LinkedHashSet<Observer>();
+
+    /** Profondeur des lots ouverts par beginBatch() */
+    private int lot;
+
+    /** Indique si la table a changé depuis l'ouverture du lot */
+    private boolean lotModifie;
+
+    /** Nombre de modifications de la table */
+    private long modifications;
 
     /**
      * Créer une nouvelle <code>DictionnaireTable</code>.
@@ -96,20 +125,6 @@ public class DictionnaireTable extends AbstractTableModel
 
         //sizeRow = 0;
         addNewLine();
-
-        observable = new Observable() {
-            public void notifyObservers()
-            {
-                setChanged();
-                super.notifyObservers();
-            }
-
-            public void notifyObservers(Object arg)
-            {
-                setChanged();
-                super.notifyObservers(arg);
-            }
-        };
     }
 
     /**
@@ -117,7 +132,9 @@ public class DictionnaireTable extends AbstractTableModel
      */
     public void addObserver(Observer obs)
     {
-        observable.addObserver(obs);
+        if (obs == null)
+            throw new NullPointerException();
+        observateurs.add(obs);
     }
 
     /**
@@ -125,7 +142,107 @@ public class DictionnaireTable extends AbstractTableModel
      */
     public void deleteObserver(Observer obs)
     {
-        observable.deleteObserver(obs);
+        observateurs.remove(obs);
+    }
+
+    /**
+     * Prévient les observateurs, du dernier inscrit au premier comme le fait
+     * <code>java.util.Observable</code>.
+     */
+    private void notifyObservers(Object arg)
+    {
+        Observer[] copie = observateurs.toArray(new Observer[observateurs
+                .size()]);
+        for (int i = copie.length - 1; i >= 0; i--)
+            copie[i].update(null, arg);
+    }
+
+    /**
+     * Ouvre un lot, typiquement pour un chargement : jusqu'au commitBatch()
+     * correspondant, la table ne prévient plus ses écouteurs Swing. Les lots
+     * peuvent être imbriqués.
+     */
+    public void beginBatch()
+    {
+        lot++;
+    }
+
+    /**
+     * Ferme le lot ouvert par beginBatch(). A la fermeture du lot le plus
+     * externe, un seul événement de changement des données est envoyé si la
+     * table a changé.
+     */
+    public void commitBatch()
+    {
+        if (lot == 0)
+            throw new IllegalStateException("Aucun lot ouvert");
+
+        if (--lot == 0 && lotModifie) {
+            lotModifie = false;
+            fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Pendant un lot, les événements sont retenus jusqu'à sa fermeture.
+     */
+    public void fireTableChanged(TableModelEvent e)
+    {
+        modifications++;
+        if (lot > 0)
+            lotModifie = true;
+        else
+            super.fireTableChanged(e);
+    }
+
+    /**
+     * Retourne le nombre de modifications de la table depuis sa création.
+     */
+    public long getModifications()
+    {
+        return modifications;
+    }
+
+    /**
+     * Retourne une copie des informations, pour la transformation du MCD et
+     * la génération du SQL hors de l'interface.
+     */
+    public Dictionnaire instantane()
+    {
+        Dictionnaire dico = new Dictionnaire();
+        dico.setToutUtilise(allUse());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            if (!verifySize(i))
+                dico.addTailleIncorrecte((String) row[NAME]);
+            dico.addInformation((String) row[ID], (String) row[NAME],
+                    (String) row[TYPE], ((Integer) row[SIZE]).intValue());
+        }
+        return dico;
+    }
+
+    /**
+     * Remplace les données de la table par celles de <code>source</code>, qui
+     * se retrouve vide. Les observateurs ne sont pas repris : les objets du MCD
+     * s'inscrivent lorsque leur MCD est repris à son tour.
+     */
+    public void reprendre(DictionnaireTable source)
+    {
+        if (lot > 0 || source.lot > 0)
+            throw new IllegalStateException("Lot ouvert");
+
+        rows = source.rows;
+        index = source.index;
+        owners = source.owners;
+        nbUnused = source.nbUnused;
+
+        source.rows = new ArrayList<Object[]>();
+        source.index = new HashMap<String, Integer>();
+        source.owners = new HashMap<String, Map<MCDObjet, Integer>>();
+        source.nbUnused = 0;
+        source.addNewLine();
+
+        fireTableDataChanged();
     }
 
     /**
@@ -154,9 +271,59 @@ public class DictionnaireTable extends AbstractTableModel
         tab[5] = "";
 
         rows.add(tab);
+        indexer(tab, rows.size() - 1);
+        countUnused(tab, 1);
         fireTableDataChanged();
     }
 
+    /**
+     * Remplace la dernière ligne (la ligne vide) par la ligne passée en
+     * paramètre et met à jour l'index.
+     */
+    private void setLastLine(Object[] tab)
+    {
+        int last = rows.size() - 1;
+        Object[] old = rows.set(last, tab);
+        countUnused(old, -1);
+        countUnused(tab, 1);
+
+        Integer row = index.get((String) old[ID]);
+        if (row != null && row.intValue() == last)
+            index.remove((String) old[ID]);
+        indexer(tab, last);
+    }
+
+    /**
+     * Met à jour le nombre de lignes non utilisées.
+     */
+    private void countUnused(Object[] tab, int delta)
+    {
+        if (!((Boolean) tab[USE]).booleanValue())
+            nbUnused += delta;
+    }
+
+    /**
+     * Indexe le code de la ligne, sauf pour la ligne vide, qui n'en a pas.
+     */
+    private void indexer(Object[] tab, int row)
+    {
+        String code = (String) tab[ID];
+        if (code != null && !code.isEmpty())
+            index.putIfAbsent(code, row);
+    }
+
+    /**
+     * Reconstruit entièrement l'index des codes. Utilisé après une
+     * modification de la structure de la table (suppression, déplacement,
+     * renommage).
+     */
+    private void reindex()
+    {
+        index.clear();
+        for (int i = 0; i < rows.size(); i++)
+            indexer(rows.get(i), i);
+    }
+
     /**
      * Ajoute une nouvelle donnée dans le tableau
      */
@@ -177,7 +344,7 @@ public class DictionnaireTable extends AbstractTableModel
 
         tab[4] = Boolean.valueOf(utilise);
         tab[5] = "";
-        rows.set(rows.size()-1, tab);
+        setLastLine(tab);
         addNewLine();
     }
 
@@ -199,7 +366,7 @@ public class DictionnaireTable extends AbstractTableModel
             tab[3] = tailleInt;
             tab[4] = Boolean.valueOf(false);
             tab[5] = entity;
-            rows.set(rows.size()-1, tab);
+            setLastLine(tab);
             addNewLine();
         }
     }
@@ -213,10 +380,11 @@ public class DictionnaireTable extends AbstractTableModel
         //la fonction remove d'une arraylist effectue également un rétractage
         //indiceRow contient des indices "erronés" d'où l'intéret de delay
         for (int i = indexRows.length - 1; i >=0 ; i--) {
-            observable.notifyObservers(new ArgObserverTable(
+            notifyObservers(new ArgObserverTable(
                     ArgObserverTable.DELETE, (String) rows.get(indexRows[i])[1]));
-            rows.remove(indexRows[i]);
+            countUnused(rows.remove(indexRows[i]), -1);
         }
+        reindex();
 
         //Actualise le tableau
         fireTableDataChanged();
@@ -245,6 +413,7 @@ public class DictionnaireTable extends AbstractTableModel
             rows.add(firstIndex, rows.remove(lastIndex+1));
 
         }
+        reindex();
         //Actualise le tableau
         fireTableDataChanged();
     }
@@ -257,10 +426,7 @@ public class DictionnaireTable extends AbstractTableModel
      */
     public boolean contains(String code)
     {
-        /*for (int i = 0; i < rows.size(); i++)
-            if (code.equals((String) (rows.get(i)[1])))
-                return true;*/
-        return false;
+        return index.containsKey(code);
     }
 
     /**
@@ -318,16 +484,88 @@ public class DictionnaireTable extends AbstractTableModel
 
     /**
      * Modifie la valeur USE dans la table. <br>
-     * Utilisé par le MCD
+     * Passer par addUse() et removeUse(), qui tiennent le compte des objets
+     * du MCD utilisant l'information.
      */
-    public void setUse(String ID, boolean use)
+    private void setUse(String ID, boolean use)
     {
         int row = getIndex(ID);
         if (row == -1)
             return;
 
+        countUnused(rows.get(row), -1);
         rows.get(row)[USE] = Boolean.valueOf(use);
+        countUnused(rows.get(row), 1);
+        // sans événement, mais le journal doit voir le changement
+        modifications++;
+    }
+
+    /**
+     * Enregistre une utilisation de l'information par un objet du MCD. La
+     * colonne USE passe à vrai dès la première utilisation.
+     *
+     * @param ID
+     *            identifiant de la donnée
+     * @param objet
+     *            objet du MCD qui utilise l'information
+     */
+    public void addUse(String ID, MCDObjet objet)
+    {
+        Map<MCDObjet, Integer> refs = owners.get(ID);
+        if (refs == null) {
+            refs = new LinkedHashMap<MCDObjet, Integer>();
+            owners.put(ID, refs);
+            setUse(ID, true);
+        }
+        refs.merge(objet, 1, Integer::sum);
+    }
 
+    /**
+     * Retire une utilisation de l'information par un objet du MCD. La
+     * colonne USE repasse à faux lorsque plus aucun objet ne l'utilise.
+     *
+     * @param ID
+     *            identifiant de la donnée
+     * @param objet
+     *            objet du MCD qui n'utilise plus l'information
+     */
+    public void removeUse(String ID, MCDObjet objet)
+    {
+        Map<MCDObjet, Integer> refs = owners.get(ID);
+        if (refs == null)
+            return;
+
+        Integer nb = refs.get(objet);
+        if (nb == null)
+            return;
+        if (nb.intValue() > 1) {
+            refs.put(objet, nb.intValue() - 1);
+            return;
+        }
+
+        refs.remove(objet);
+        if (refs.isEmpty()) {
+            owners.remove(ID);
+            setUse(ID, false);
+        }
+    }
+
+    /**
+     * Retourne le nombre de références à une information dans le MCD.
+     *
+     * @param ID
+     *            identifiant de la donnée
+     */
+    public int sizeUse(String ID)
+    {
+        Map<MCDObjet, Integer> refs = owners.get(ID);
+        if (refs == null)
+            return 0;
+
+        int nb = 0;
+        for (Integer i : refs.values())
+            nb += i.intValue();
+        return nb;
     }
 
     /**
@@ -339,10 +577,8 @@ public class DictionnaireTable extends AbstractTableModel
      */
     public int getIndex(String ID)
     {
-        for (int i = 0; i < rows.size(); i++)
-            if (ID.equals(rows.get(i)[1]))
-                return i;
-        return -1;
+        Integer row = index.get(ID);
+        return row == null ? -1 : row.intValue();
     }
 
     /**
@@ -350,10 +586,9 @@ public class DictionnaireTable extends AbstractTableModel
      */
     public boolean allUse()
     {
-        for (int i = 0; i < rows.size() - 1; i++)
-            if (!((Boolean) rows.get(i)[4]).booleanValue())
-                return false;
-        return true;
+        // la dernière ligne (ligne vide) n'est pas prise en compte
+        int last = ((Boolean) rows.get(rows.size() - 1)[USE]).booleanValue() ? 0 : 1;
+        return nbUnused - last == 0;
     }
 
     /**
@@ -486,10 +721,16 @@ public class DictionnaireTable extends AbstractTableModel
             if (col == NAME) {
                 rows.get(row)[ID] = Utilities.normaliseString(
                         (String) (rows.get(row)[NAME]), Constantes.LOWER);
-                observable
-                        .notifyObservers(new ArgObserverTable(
-                                ArgObserverTable.RENAME, oldID,
-                                (String) rows.get(row)[ID]));
+                reindex();
+
+                // les objets qui utilisaient l'ancien code utilisent le nouveau
+                Map<MCDObjet, Integer> refs = owners.remove(oldID);
+                if (refs != null)
+                    owners.put((String) rows.get(row)[ID], refs);
+
+                notifyObservers(new ArgObserverTable(
+                        ArgObserverTable.RENAME, oldID,
+                        (String) rows.get(row)[ID]));
                 fireTableCellUpdated(row, ID);
             }
 
@@ -506,9 +747,12 @@ public class DictionnaireTable extends AbstractTableModel
     public void clear()
     {
         rows.clear();
+        index.clear();
+        owners.clear();
+        nbUnused = 0;
         addNewLine();
 
-        observable.deleteObservers();
+        observateurs.clear();
 
         fireTableDataChanged();
     }
@@ -524,17 +768,10 @@ public class DictionnaireTable extends AbstractTableModel
      */
     private String getEntityNameOfProperty(int row)
     {
-        MeriseModule meriseModule = (MeriseModule)Main.getModule("MERISE");
-
-        for(Iterator<ZElement> e = meriseModule.getMCDComponent().enumElements(); e.hasNext();) {
-            MCDObjet o = (MCDObjet)e.next();
-            for (int i = 0; i < o.sizeInformation(); i++) {
-                if (rows.get(row)[ID] != null && o.getCodeInformation(i).equals(rows.get(row)[ID])) {
-                    return o.getName();
-                }
-            }
-        }
+        Map<MCDObjet, Integer> refs = owners.get((String) rows.get(row)[ID]);
+        if (refs == null)
+            return "";
 
-        return "";
+        return refs.keySet().iterator().next().getName();
     }
 }
@@ -43,6 +43,8 @@ import org.analyse.merise.mcd.composant.MLDComponent;
 import org.analyse.merise.mcd.composant.MPDComponent;
 import org.analyse.merise.rapport.MeriseRapport;
 import org.analyse.merise.save.FiltreMeriseASI;
+import org.analyse.merise.save.FiltreMeriseASIB;
+import org.analyse.merise.save.JournalMerise;
 import org.analyse.merise.sql.SQLCommand;
 
 public class MeriseModule extends AnalyseModule
@@ -75,30 +77,43 @@ public class MeriseModule extends AnalyseModule
         super();
     }
 
-    public void initGUI(AnalyseFrame analyseFrame)
+    /**
+     * Crée le dictionnaire, les modèles, les filtres ASI et ASIB et le
+     * journal, sans aucune fenêtre. Suffit pour charger un fichier et générer le MPD, le MLD et le SQL.
+     */
+    public void initModele()
     {
         sqlCommand = new SQLCommand();
         mldCommand = new MLDCommand();
         
         dictionnaireTable = new DictionnaireTable(sqlCommand.getTypes());
-        dictionnairePanel = new DictionnairePanel(dictionnaireTable);
 
         mcdComponent = new MCDComponent(dictionnaireTable);
         mpdComponent = new MPDComponent();     
         mldComponent = new MLDComponent();
+
+        filtres.add(new FiltreMeriseASI(this));
+        filtres.add(new FiltreMeriseASIB(this));
+        filtres.add(new JournalMerise(this));
+    }
+
+    public void initGUI(AnalyseFrame analyseFrame)
+    {
+        initModele();
+
+        dictionnairePanel = new DictionnairePanel(dictionnaireTable);
         
         meriseRapport = new MeriseRapport(this);
         
-        mcdPanel = new MCDPanel(mcdComponent, mpdComponent, sqlCommand, mldComponent, mldCommand);        
+        // le MCD génère le script dans le dialecte choisi dans l'onglet SQL
+        sqlPanel = new SQLPanel(sqlCommand);
+        mcdPanel = new MCDPanel(mcdComponent, mpdComponent, sqlCommand, sqlPanel, mldComponent, mldCommand);        
         mpdPanel = new MPDPanel(mpdComponent);
      
-        sqlPanel = new SQLPanel(sqlCommand);
         mldPanel = new MLDPanel(mldCommand);
         
         rapportPanel = new RapportPanel(meriseRapport);
 
-        filtres.add(new FiltreMeriseASI(this));
-
         NavigationActionFactory factory = analyseFrame.getNavigationActionFactory();
          
         tableAction = factory.buildNavigationAction(GUIUtilities.getImageIcon(Constantes.FILE_PNG_TABLE), "Dictionnaire", Utilities.getLangueMessage(Constantes.MESSAGE_DICTIONNAIRE_DONNEES) , dictionnairePanel);
@@ -198,6 +213,31 @@ public class MeriseModule extends AnalyseModule
         return sqlCommand;
     }
 
+    public MLDCommand getMLDCommand()
+    {
+        return mldCommand;
+    }
+
+    public AnalyseModule creerModuleChargement()
+    {
+        MeriseModule module = new MeriseModule();
+        module.initModele();
+        return module;
+    }
+
+    /**
+     * Reprend le dictionnaire et le MCD chargés dans un module créé par
+     * creerModuleChargement(). Le MPD, le MLD et le SQL sont effacés.
+     */
+    public void reprendre(AnalyseModule charge)
+    {
+        MeriseModule source = (MeriseModule) charge;
+
+        clear();
+        dictionnaireTable.reprendre(source.dictionnaireTable);
+        mcdComponent.reprendre(source.mcdComponent);
+    }
+
     public void clear()
     {
         mcdComponent.clear();
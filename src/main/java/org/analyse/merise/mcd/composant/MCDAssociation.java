@@ -21,34 +21,30 @@
 package org.analyse.merise.mcd.composant;
 
 import java.awt.Color;
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.RoundRectangle2D;
 import java.util.List;
 
-import org.analyse.merise.gui.table.DictionnaireTable;
-
 public class MCDAssociation extends MCDObjet
 {
-    /** Font de l'association */
-    private Font font;
+    /** Espacement entre deux lignes d'informations */
+    private int interligne;
 
-    /** Permet de calculer la taille */
-    private FontMetrics fm;
+    /** Largeur du nom, pour le centrer */
+    private int largeurNom;
 
     public MCDAssociation(MCDComponent mcd)
     {
-        this(mcd, "Association " + (getIndex() + 1), 
-        		getIndex() * 20 % 200, getIndex() * 20 % 200);
+        this(mcd, "Association " + (mcd.getIndex() + 1), 
+        		mcd.getIndex() * 20 % 200, mcd.getIndex() * 20 % 200);
     }
 
     public MCDAssociation(MCDComponent mcd, int x, int y)
     {
     	
-        this(mcd, "Association " + (getIndex ()+ 1), x, y);
+        this(mcd, "Association " + (mcd.getIndex()+ 1), x, y);
     }
     
     public MCDAssociation(MCDComponent mcd, String name, int x, int y)
@@ -57,24 +53,23 @@ public class MCDAssociation extends MCDObjet
     }
 
     /**
-     * Recalcule la taille de l'association.
+     * Recalcule la taille de l'association. Appelée lors de la phase de mise
+     * en page, uniquement lorsque le nom, les informations ou leurs libellés
+     * ont changé.
      */
     public void updateSize()
     {
-        if (fm == null) {
-            this.font = mcd.getFont();
-            this.fm = mcd.getFontMetrics(font);
-        }
+        if (!preparerMiseEnPage())
+            return;
 
-        int gw = fm.stringWidth(name);
+        largeurNom = fm.stringWidth(name);
+        int gw = largeurNom;
 
-        for (int i = 0; i < sizeInformation(); i++)
-            gw = fm.stringWidth((String) (data.getValue(getCodeInformation(i),
-                    DictionnaireTable.NAME))) < gw ? gw : fm
-                    .stringWidth((String) (data.getValue(getCodeInformation(i),
-                            DictionnaireTable.NAME)));
+        for (int i = 0; i < libelles.length; i++)
+            gw = Math.max(gw, fm.stringWidth(libelles[i]));
 
-        int gh = (fm.getMaxDescent() + 15) * sizeInformation();
+        interligne = fm.getMaxDescent() + 15;
+        int gh = interligne * libelles.length;
 
         this.setWidth(gw + 50);
         this.setHeight(40 + gh);
@@ -84,12 +79,6 @@ public class MCDAssociation extends MCDObjet
      * Affichage de l'association.
      */
     public void paint(Graphics g) {
-        if (fm == null) {
-            this.font = mcd.getFont();
-            this.fm = mcd.getFontMetrics(font);
-        }
-
-        updateSize();
         Graphics2D g2d = (Graphics2D) g;
         g2d.setFont(font);
 
@@ -104,11 +93,11 @@ public class MCDAssociation extends MCDObjet
         g2d.draw(l);
 
         g2d.setColor(Color.black);
-        g2d.drawString(name, (getX() + getWidth() / 2) - fm.stringWidth(name)
+        g2d.drawString(name, (getX() + getWidth() / 2) - largeurNom
                 / 2, getY() + 15);
 
-        for (int i = 0; i < sizeInformation(); i++) {
-            g2d.drawString((String) (data.getValue(getCodeInformation(i), DictionnaireTable.NAME)), getX() + 10, getY() + 40 + i * (fm.getMaxDescent() + 15));
+        for (int i = 0; i < libelles.length; i++) {
+            g2d.drawString(libelles[i], getX() + 10, getY() + 40 + i * interligne);
         }
     }
 
@@ -121,7 +110,13 @@ public class MCDAssociation extends MCDObjet
         return informations;
     }
     public void setInformations( List<String> v ) {
+        for (String code : informations)
+            data.removeUse(code, this);
         this.informations = v ; 
+        for (String code : informations)
+            data.addUse(code, this);
+        invaliderMiseEnPage();
+        notifyZElement();
     }
 
     public String toString()
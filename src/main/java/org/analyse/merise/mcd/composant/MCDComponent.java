@@ -28,12 +28,16 @@
 
 package org.analyse.merise.mcd.composant;
 
-import java.awt.Point;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.Map;
+import java.util.Observable;
 import java.util.Observer;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.analyse.core.gui.zgraph.ZElement;
 import org.analyse.core.gui.zgraph.ZGraphique;
@@ -42,6 +46,12 @@ import org.analyse.core.util.GUIUtilities;
 import org.analyse.core.util.Utilities;
 import org.analyse.core.util.Constantes;
 import org.analyse.merise.gui.table.DictionnaireTable;
+import org.analyse.merise.mcd.modele.AssociationMCD;
+import org.analyse.merise.mcd.modele.EntiteMCD;
+import org.analyse.merise.mcd.modele.ModeleMCD;
+import org.analyse.merise.mcd.modele.ModeleMPD;
+import org.analyse.merise.mcd.modele.ObjetMCD;
+import org.analyse.merise.mcd.modele.TransformationMCD;
 
 /**
  * Composant Graphique représentant un MCD.
@@ -59,6 +69,29 @@ public class MCDComponent extends ZGraphique implements Observer {
 
 	private String msg;
 
+	/** Index des <code>MCDObjet</code> par nom */
+	private Map<String, MCDObjet> objets = new HashMap<String, MCDObjet>();
+
+	/**
+	 * Nombre de <code>MCDObjet</code> créés pour ce MCD, qui sert à nommer et
+	 * placer les nouveaux objets.
+	 */
+	private int index;
+
+	/** MPD construits à partir de ce MCD, mis à jour ensuite partiellement */
+	private Map<MPDComponent, ConstructionMPD> constructions = new WeakHashMap<MPDComponent, ConstructionMPD>();
+
+	/**
+	 * Etat d'un MPD construit par buildMPD() : le modèle dérivé, et les objets
+	 * du MCD modifiés depuis.
+	 */
+	private static class ConstructionMPD {
+		ModeleMPD modele;
+
+		/** Objets ajoutés, supprimés ou modifiés, y compris par leurs liens */
+		final Set<MCDObjet> modifies = Collections.newSetFromMap(new IdentityHashMap<MCDObjet, Boolean>());
+	}
+
 	/**
 	 * Créer un nouveau <code>MCDComponent</code>
 	 * 
@@ -79,7 +112,7 @@ public class MCDComponent extends ZGraphique implements Observer {
 	 */
 	public void addObjet(MCDObjet obj) {
 		data.addObserver(obj);
-		super.addElement(obj);
+		addElement(obj);
 	}
 
 	/**
@@ -93,7 +126,7 @@ public class MCDComponent extends ZGraphique implements Observer {
 		//bug : 347422 
 		ent = new MCDEntite(this, x, y) ; 
 		
-		super.addElement(ent);
+		addElement(ent);
 		
 		data.addObserver(ent);
 		return ent;
@@ -106,7 +139,7 @@ public class MCDComponent extends ZGraphique implements Observer {
 	 */
 	public MCDAssociation addAssociation(int x, int y) {
 		MCDAssociation ass;
-		super.addElement(ass = new MCDAssociation(this, x, y));
+		addElement(ass = new MCDAssociation(this, x, y));
 		data.addObserver(ass);
 		return ass;
 	}
@@ -131,6 +164,17 @@ public class MCDComponent extends ZGraphique implements Observer {
 		MCDObjet elem2 = (MCDObjet) (lien.getElement(Constantes.MCDENTITE2));
 		elem2.delLink((MCDLien) lien);
 		super.removeLien(lien);
+		modifie(elem1);
+		modifie(elem2);
+	}
+
+	/**
+	 * Ajoute un lien ; ses deux objets sont à reporter dans le MPD.
+	 */
+	public void addLien(ZLien lien) {
+		super.addLien(lien);
+		modifie(lien.getElement(Constantes.MCDENTITE1));
+		modifie(lien.getElement(Constantes.MCDENTITE2));
 	}
 
 	/**
@@ -147,7 +191,7 @@ public class MCDComponent extends ZGraphique implements Observer {
 	public void removeObjet(ZElement element) {
 		MCDObjet obj = (MCDObjet) element;
 		obj.clearInformations();
-		super.removeElement(element);
+		removeElement(element);
 	}
 
 	/**
@@ -177,20 +221,126 @@ public class MCDComponent extends ZGraphique implements Observer {
 	 *  
 	 */
 	public void clear() {
+		clearAll();
+		index = 0;
+	}
+
+	/**
+	 * Remplace le MCD par celui de <code>source</code>, qui se retrouve vide.
+	 * Les objets repris sont rattachés à ce MCD et à son dictionnaire, qui doit
+	 * déjà avoir repris celui de la source.
+	 */
+	public void reprendre(MCDComponent source) {
+		super.reprendre(source);
+
+		objets = source.objets;
+		index = source.index;
+		source.objets = new HashMap<String, MCDObjet>();
+		source.index = 0;
+		constructions.clear();
+
+		for (Iterator<ZElement> e = enumElements(); e.hasNext();)
+			((MCDObjet) e.next()).rattacher(this);
+	}
+
+	/**
+	 * Retourne le nombre de <code>MCDObjet</code> créés depuis le dernier
+	 * <code>clear()</code>. Utilisé pour numéroter les objets.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	void incrementerIndex() {
+		index++;
+	}
+
+	public void addElement(ZElement element) {
+		super.addElement(element);
+		referencer((MCDObjet) element);
+		modifie(element);
+	}
+
+	public void removeElement(ZElement element) {
+		super.removeElement(element);
+		dereferencer(((MCDObjet) element).getName(), (MCDObjet) element);
+		modifie(element);
+	}
+
+	public void clearAll() {
+		objets.clear();
+		constructions.clear();
 		super.clearAll();
 	}
 
+	/**
+	 * Note les modifications des objets (nom, informations, position, liens
+	 * et cardinalités, signalés par l'association) pour les MPD construits.
+	 */
+	public void update(Observable o, Object arg) {
+		modifie(arg);
+		super.update(o, arg);
+	}
+
+	private void modifie(Object objet) {
+		if (objet instanceof MCDObjet)
+			for (ConstructionMPD c : constructions.values())
+				c.modifies.add((MCDObjet) objet);
+	}
+
 	/**
 	 * Retourne le <code>MCDObjet</code> correspondant au nom passé en
 	 * paramètre.
 	 */
 	public MCDObjet getElement(String name) {
+		return objets.get(name);
+	}
+
+	/**
+	 * Met à jour l'index des noms après le renommage d'un
+	 * <code>MCDObjet</code>.
+	 */
+	void renommerObjet(MCDObjet obj, String oldName) {
+		if (objets.get(oldName) == obj) {
+			dereferencer(oldName, obj);
+			referencer(obj);
+		} else {
+			reindexer(oldName);
+			reindexer(obj.getName());
+		}
+	}
+
+	/**
+	 * Ajoute l'objet dans l'index. En cas de doublon, c'est le premier objet
+	 * du MCD qui est conservé.
+	 */
+	private void referencer(MCDObjet obj) {
+		MCDObjet autre = objets.putIfAbsent(obj.getName(), obj);
+		if (autre != null && autre != obj)
+			reindexer(obj.getName());
+	}
+
+	/**
+	 * Retire l'objet de l'index et le remplace par un éventuel homonyme.
+	 */
+	private void dereferencer(String name, MCDObjet obj) {
+		if (objets.get(name) == obj) {
+			objets.remove(name);
+			reindexer(name);
+		}
+	}
+
+	private void reindexer(String name) {
+		if (name == null)
+			return;
+		objets.remove(name);
 		for (Iterator<ZElement> e = enumElements(); e.hasNext();) {
 			MCDObjet o = (MCDObjet) e.next();
-			if (o.getName().equals(name))
-				return o;
+			if (name.equals(o.getName())) {
+				objets.put(name, o);
+				return;
+			}
 		}
-		return null;
 	}
 
 	/**
@@ -216,54 +366,17 @@ public class MCDComponent extends ZGraphique implements Observer {
 	 * Retourne vrai si le MCD est correct.
 	 */
 	public boolean isCorrect(int showErrors) {
-		MCDObjet obj;
-		boolean correct = true;
-		boolean dicoCorrect = true;
-		msg = "";
-
-		// Vérification du dictionnaire
-		if (!data.allUse())
-			msg += "<b style=\"color: blue;\"><br/>/!\\Attention</b><br>" + 
-			 Utilities.getLangueMessage ("information_non_utilisee") + "<br>";
-
-		for (int i = 0; i < data.getRowCount(); i++) {
-			if(!data.verifySize(i))
-			{
-				dicoCorrect = false;
-				msg += "<b style=\"color: red;\"><br/>/!\\Attention</b><br>La taille de l'information "
-						+ data.getValueAt(i, DictionnaireTable.NAME)
-						+ " est incorrecte.<br>";
-			}
-		}
+		return verifier(modele(), showErrors);
+	}
 
-		if (dicoCorrect) {
-			msg += Utilities.getLangueMessage ("dictionnaire_correct") + "<br>";
-		} else {
-			msg += Utilities.getLangueMessage ("dictionnaire_erreur") + "<br>";
-		}
-		//-----------------------------
-
-		if (dicoCorrect) {
-			for (Iterator<ZElement> e = this.elementsZElements(); e.hasNext();) {
-				obj = (MCDObjet) e.next();
-
-				if (obj instanceof MCDAssociation) {
-					if (!correct)
-						associationCorrect((MCDAssociation) obj);
-					else
-						correct = associationCorrect((MCDAssociation) obj);
-				} else if (obj instanceof MCDEntite) {
-					if (obj.sizeInformation() < 1) {
-						correct = false;
-						msg += "<b style=\"color: red;\"><br/>/!\\</b> L'entité \""
-								+ obj.getName()
-								+ "\" n'a pas d'identifiant ...<br>";
-					}
-				}
-			}
-		} else {
-			correct = false;
-		}
+	/**
+	 * Vérifie <code>mcd</code>, instantané de ce MCD, avec le dictionnaire et
+	 * affiche le compte rendu suivant <code>showErrors</code>.
+	 */
+	private boolean verifier(ModeleMCD mcd, int showErrors) {
+		TransformationMCD.Verification verification = TransformationMCD.verifier(mcd, data.instantane());
+		boolean correct = verification.isCorrect();
+		msg = verification.getMessage();
 
 		if (correct && (showErrors == Constantes.SHOW_ALL)) {
 			GUIUtilities.messageHTML(msg
@@ -289,546 +402,75 @@ public class MCDComponent extends ZGraphique implements Observer {
 	}
 
 	/**
-	 * Vérifie les cardinalitées des associations.
+	 * Retourne le compte rendu (HTML) de la dernière vérification.
 	 */
-	private boolean associationCorrect(MCDAssociation ass) {
-
-		// L'association à plus de 2 liens
-		// ou l'association est une association porteuse d'informations
-		if (ass.sizeLink() > 2 || ass.sizeInformation() > 0) {
-			// Vérifie que l'association a au moins deux liens dans
-			// le cas de la porteuse.
-			if (ass.sizeLink() < 2) {
-				msg += "<b style=\"color: red;\">/!\\</b> Le nombre de liens de l'association \""
-						+ ass.getName() + "\" est inférieur à deux.<br>";
-				return false;
-			}
-		
-		} /* else if (ass.sizeLink() < 2) {
-			msg += "<b style=\"color: red;\">/!\\</b> Le nombre de liens de l'association \""
-					+ ass.getName() + "\" est inférieur à deux.<br>";
-			return false;
-		} */
-
-		return true;
+	public String getMessage() {
+		return msg;
 	}
 
 	/**
-	 * Retourne vrai lorsque une nouvelle table va etre crée à partir de
-	 * l'association.
-	 */
-	private boolean newTable(MCDAssociation ass) {
-		if (ass.sizeLink() > 2 || ass.sizeInformation() > 0)
-			return true;
-
-		boolean porteuse = true;
-		for (Iterator<MCDLien> e = ass.links(); e.hasNext();)
-			if (!e.next().getCardMax().equals("N"))
-				porteuse = false;
-
-		return porteuse;
-	}
-
-	/**
-	 * Retourne le type de l'association
-	 */
-	private String typeAssociation(MCDAssociation ass) {
-		
-		//@TODO private String typeAssociation(MCDAssociation ass) :  ce bout de code laisse à désirer - le modifier rapidement
-		 /*
-		  * * -> la fonction donne plusieurs résultats possibles à analyser par la fonction appelante. C'est source à quelques ennuis 
-		  */
-		 
-		
-		if (ass.sizeLink() > 2 || ass.sizeInformation() > 0)
-			return Constantes.PORTEUSE;
-
-		boolean porteuse = true;
-		boolean un_un = true;
-		boolean zero_n = false ; 
-		boolean zero_un = false ;
-		
-		for (Iterator<MCDLien> e = ass.links(); e.hasNext();) {
-			MCDLien lien = e.next();
-			
-			if (!lien.getCardMax().equals("N"))
-				porteuse = false;
-			
-			if (!lien.getCardMax().equals("1"))
-				un_un = false;
-			
-			if ( lien.getCardMin().equals("0") ) {
-				if ( ! lien.getCardMax().equals("1") ) 
-					zero_n = true ;
-				else 
-					zero_un = true ;
-			}
-			
-		}
-
-		if (porteuse)
-			return Constantes.PORTEUSE;  // a vérifier 
-
-		if (zero_un)
-			return Constantes.ZERO_UN;
-		
-		if (un_un)
-			return Constantes.UN_UN;
-		
-		if ( zero_n )
-			return Constantes.ZERO_N;
-		
-		return Constantes.UN_N;
-	}
-
-	/**
-	 * Retourne l'objet <code>MCDEntite</code> lié à l'association
-	 * @author bruno.dabo@lywoonsoftware.com
-	 * @param ass association
-	 *            
-	 * 
-	 */
-	private MCDEntite getMCDEntite( MCDAssociation ass )  {
-		for (Iterator<ZLien> e = elementsZLiens(); e.hasNext();) {
-			MCDLien lien = (MCDLien) (e.next());
-
-			if (lien.getElement(  Constantes.MCDENTITE1 ).equals(ass) )
-				return (MCDEntite) (lien.getElement(  Constantes.MCDENTITE2 ));
-		}
-		return null;
-	}
-	
-	/**
-	 * Retourne l'objet <code>MCDEntite</code> lié à l'association
-	 * 
-	 * @param ass
-	 *            association
-	 * @param card
-	 *            Cardinalité
+	 * Retourne un instantané du MCD, indépendant de l'affichage : ses entités
+	 * et ses associations dans l'ordre du composant, chacune ayant pour
+	 * origine son <code>MCDObjet</code>, puis les liens de chaque association.
 	 */
-	private MCDEntite getMCDEntite(MCDAssociation ass, String card) {
-		for (Iterator<ZLien> e = elementsZLiens(); e.hasNext();) {
-			MCDLien lien = (MCDLien) (e.next());
+	public ModeleMCD modele() {
+		ModeleMCD mcd = new ModeleMCD();
+		Map<MCDObjet, ObjetMCD> objetsMCD = new IdentityHashMap<MCDObjet, ObjetMCD>();
 
-			if (lien.getElement(  Constantes.MCDENTITE1 ).equals(ass)
-					&& lien.getCardMax().equals(card))
-				return (MCDEntite) (lien.getElement( Constantes.MCDENTITE2 ));
+		for (Iterator<ZElement> e = elementsZElements(); e.hasNext();) {
+			MCDObjet obj = (MCDObjet) e.next();
+			ObjetMCD objet;
+			if (obj instanceof MCDAssociation)
+				objet = mcd.addAssociation(obj.getName(), obj.getX(), obj.getY(), obj);
+			else
+				objet = mcd.addEntite(obj.getName(), obj.getX(), obj.getY(), obj);
+			for (int i = 0; i < obj.sizeInformation(); i++)
+				objet.addInformation(obj.getCodeInformation(i));
+			objetsMCD.put(obj, objet);
 		}
-		return null;
-	}
-	
 
-	/**
-	 * Retourne l'objet <code>MCDEntite</code> lié à l'association
-	 * 
-	 * @param ass
-	 *            association
-	 * @param num
-	 *            index
-	 */
-	private MCDEntite getMCDEntite(MCDAssociation ass, int num) {
-		int tmp = 0;
-		for (Iterator<ZLien> e = elementsZLiens(); e.hasNext();) {
-			MCDLien lien = (MCDLien) (e.next());
-
-			if (lien.getElement ( Constantes.MCDENTITE1 ).equals(ass) && tmp == num)
-				return (MCDEntite) (lien.getElement ( Constantes.MCDENTITE2 ));
-			else if (lien.getElement( Constantes.MCDENTITE1 ).equals(ass))
-				tmp++;
+		for (Iterator<ZElement> e = elementsZElements(); e.hasNext();) {
+			MCDObjet obj = (MCDObjet) e.next();
+			if (!(obj instanceof MCDAssociation))
+				continue;
+			for (Iterator<MCDLien> e2 = obj.links(); e2.hasNext();) {
+				MCDLien lien = e2.next();
+				ObjetMCD entite = objetsMCD.get(lien.getMCDObjet(Constantes.MCDENTITE2));
+				if (entite instanceof EntiteMCD)
+					mcd.lier((AssociationMCD) objetsMCD.get(obj), (EntiteMCD) entite,
+							lien.getCardMin(), lien.getCardMax());
+			}
 		}
-		return null;
+		return mcd;
 	}
 
 	/**
-	 * Créer le MPD correspondant au MCD.
+	 * Construit le MPD à partir du MCD, s'il est correct. La première fois, et
+	 * après que le MPD a été vidé ou remplacé, le MPD est dérivé en entier.
+	 * Ensuite, seules les tables touchées par les objets modifiés depuis sont
+	 * dérivées de nouveau. Les entités déjà présentes dans le MPD pour les
+	 * mêmes objets du MCD y restent, avec leur position ; seules celles dont
+	 * la table a changé sont redessinées.
 	 */
 	public boolean buildMPD(MPDComponent mpd, int showErrors) {
-		if (!this.isCorrect(showErrors))
+		ModeleMCD mcd = modele();
+		if (!verifier(mcd, showErrors))
 			return false;
 
-		mpd.clearAll();
 		mpd.setWidth(this.getPreferredSize().getWidth());
 
-		// Création des MPDEntite à partir des MCDEntite et traitement des associations
-		return createMPDEntitiesFromMCDEntities(mpd);
-	}
-
-	/**
-	 * Crée les entités MPD à partir des entités MCD et traite les associations
-	 */
-	private boolean createMPDEntitiesFromMCDEntities(MPDComponent mpd) {
-		for (Iterator<ZElement> e = this.elementsZElements(); e.hasNext();) {
-			MCDObjet obj = (MCDObjet) e.next();
-
-			if (obj instanceof MCDEntite) {
-				MPDEntite ent = new MPDEntite(mpd, Utilities.normaliseString(obj.getName(), Constantes.LOWER));
-				ent.setPosition(new Point(obj.getX(), obj.getY()));
-				ent.addIdentifiant(obj.getCodeInformation(0));
-				ent.addInformations(obj.getInformations());
-				mpd.addMPDEntite(ent);
-			}
-		}
-
-		// Variables déclarées pour le traitement des associations
-		MCDObjet obj;
-		MPDEntite ent = null;
-		MPDEntite ent2;
-		MCDLien mcdLienAssociation;
-		MPDLien mpdLien;
-
-		for (Iterator<ZElement> e = this.elementsZElements(); e.hasNext();) {
-			obj = (MCDObjet) e.next();
-			
-			if (obj instanceof MCDAssociation) {
-				
-				String ws_typeAssociation = typeAssociation ((MCDAssociation) obj) ; 
-				
-				
-				if ( ws_typeAssociation.equals ( Constantes.PORTEUSE) ) {
-					ent = new MPDEntite(mpd, Utilities.normaliseString(obj.getName(), Constantes.LOWER));
-
-					ent.setPosition(new Point(obj.getX(), obj.getY()));
-
-					List<MCDLien> vLinks = ( (MCDAssociation) obj ).links ;  // Les liens de l'association sont dans un vecteur
-
-					// Initialisation de ent2 et mcdLienAssociation avant la boucle
-					ent2 = null;
-					mcdLienAssociation = null;
-
-					for ( int k=0; k < vLinks.size() ; k++ ) {
-						// récupération des différents liens de l'association
-						mcdLienAssociation = vLinks.get( k );
-
-						MCDEntite mcdEntite = ( MCDEntite ) mcdLienAssociation.getElement ( Constantes.MCDENTITE2 ) ;
-
-						ent2 = mpd.getMPDEntite(Utilities.normaliseString (mcdEntite.getName() , Constantes.LOWER));
-						if ( ent2 == null )
-							ent2 = new MPDEntite(mpd, Utilities.normaliseString(mcdEntite.getName(), Constantes.LOWER));
-
-						mpdLien = new MPDLien();
-							//ent2 = mpd.getMPDEntite(Utilities.normaliseString(mcdLienAssociation.getMCDObjet ( Constantes.MCDENTITE2 ).getName(), Constantes.LOWER));
-						//ent.addForeignKey(ent2.getCodeInformation(0), Utilities.normaliseString( ent2.getName(), Constantes.LOWER) ) ;  
-						mpdLien.setElement(ent, Constantes.MCDENTITE2);
-						
-						//ent2.addForeignKey(ent.getCodeInformation(0), Utilities.normaliseString( ent.getName(), Constantes.LOWER) ) ;  
-						mpdLien.setElement(ent2, Constantes.MCDENTITE1);
-
-						mpd.addLien(mpdLien);
- 
-						ent.addIdentifiant(mcdLienAssociation.getMCDObjet ( Constantes.MCDENTITE2 ).getCodeInformation(0));
-						ent.addForeignKey(ent2.getCodeInformation(0), Utilities.normaliseString( ent2.getName(), Constantes.LOWER) ) ;						
-					}
-					
-					ent.addInformations(obj.getInformations());   // les propriétés de la relation
-					
-					if ( vLinks.size() == 1 && ent2 != null && mcdLienAssociation != null) { //liaison reflexive
-
-						MCDAssociation mCDAssociation = ( MCDAssociation ) vLinks.get(0).getElement ( Constantes.MCDENTITE1 ) ;
-						String str = Utilities.normaliseString(ent2.getCodeInformation(0),  Constantes.LOWER) + "_" + Utilities.normaliseString(mCDAssociation.getName() , Constantes.LOWER) ;
-						if ( mcdLienAssociation.getCardMin().equals( "1" ) ) {
-							ent.addIdentifiant ( str ) ;
-						} else {
-							ent.addInformation ( str ) ;
-						}
-					} 
-                    
-					
-					mpd.addMPDEntite(ent);
-					
-				} 
-				
-				
-				if ( ws_typeAssociation.equals( Constantes.UN_UN ) || ws_typeAssociation.equals( Constantes.ZERO_UN ) ) {									                       
-					
-					mpdLien = new MPDLien();
-					int numEntite = -1; 
-					
-					List<MCDLien> vLinks = ( (MCDAssociation) obj ).links ;  // Les liens de l'association sont dans un vecteur 
-					boolean traitement = false ; 
-					int k = 0 ; 
-					MCDEntite mcdEntiteAssociee = null ; 
-					
-					for ( k=0; k < vLinks.size() ; k++ ) {
-						
-						// récupération des différents liens de l'association 
-						mcdLienAssociation = vLinks.get( k );
-						 
-						MCDEntite mcdEntite = ( MCDEntite ) mcdLienAssociation.getElement ( Constantes.MCDENTITE2 ) ;
-						
-						ent = mpd.getMPDEntite(Utilities.normaliseString (mcdEntite.getName() , Constantes.LOWER));
-						if (ent == null) {
-							continue; // Skip this iteration if entity not found
-						}
-						ent.setForeignKeyCanBeNull ( true ) ;
-						
-						// #693487 if ( mcdLienAssociation.getCardMin().equals( "1" )  && mcdLienAssociation.getCardMax().equals( "1" )  ) { 
-						if ( mcdLienAssociation.getCardMax().equals( "1" )  ) {  // #693487
-							traitement = true  ;
-							// récupération de la primary key de l'entité associée pour la passer en foreign key dans l'entité courante
-							numEntite = ( k == 0 ) ? 1 : 0 ; 
-														
-							if ( vLinks.size () == 1 ) numEntite = 0 ;   //liaison reflexive
-							
-							MCDLien ws_lien = vLinks.get( numEntite );
-							
-							mcdEntiteAssociee = ( MCDEntite )  ws_lien.getElement( Constantes.MCDENTITE2 )  ; 
-							//String nameEntiteAssociee = mcdEntiteAssociee.getName() ;
-							
-							if ( vLinks.size() == 1 ) { //liaison reflexive
-								MCDAssociation mCDAssociation = ( MCDAssociation ) vLinks.get(0).getElement ( Constantes.MCDENTITE1 ) ;
-								ent.addIdentifiant ( mcdEntiteAssociee.getCodeInformation(0) + "_" + Utilities.normaliseString(mCDAssociation.getName() , Constantes.LOWER)  ) ;
-									
-							} else {
-
-                                /*
-                                 * Traiter le cas des nom d'attributs utilisés plusieurs fois
-                                 */
-                                String nomTable = Utilities.normaliseString( mcdEntiteAssociee.getName(), Constantes.LOWER) ;
-                                String ws_foreignkey = ( nomTable+"_"+ mcdEntiteAssociee.getCodeInformation(0) ).toLowerCase() ;
-
-                                ent.addForeignKey(ws_foreignkey, nomTable) ;  // Bug #520410
-                                if ( ws_typeAssociation.equals( Constantes.ZERO_UN ) )
-                                	ent.setForeignKeyCanBeNull ( true ) ;
-                                else 
-									if ( ws_lien.getCardMin().equals("0")) {				
-										ent.setForeignKeyCanBeNull ( true ) ;
-									} else
-										ent.setForeignKeyCanBeNull ( false ) ;
-
-								
-								ent.addInformation(ws_foreignkey) ;
-								
-								if (ws_typeAssociation.equals( Constantes.ZERO_N ) )
-									return true ;
-							}							
-						} 
-						
-						if ( k < 1 )
-							mpdLien.setElement(ent, Constantes.MCDENTITE2);
-						else 
-							mpdLien.setElement(ent, Constantes.MCDENTITE1);
-					
-					}
-					
-					if ( vLinks.size () == 1 )  {  //liaison reflexive
-						
-						if ( ws_typeAssociation.equals( Constantes.ZERO_UN ) && ent != null) {
-							MCDAssociation mCDAssociation = ( MCDAssociation ) vLinks.get(0).getElement ( Constantes.MCDENTITE1 ) ;
-							MCDLien ws_lien = vLinks.get( 0 );
-							mcdEntiteAssociee = ( MCDEntite )  ws_lien.getElement( Constantes.MCDENTITE2 )  ;
-							ent.addInformation( mcdEntiteAssociee.getCodeInformation(0) + "_" + Utilities.normaliseString(mCDAssociation.getName() , Constantes.LOWER) ) ;
-						}
-						
-					} else {
-						
-						if ( ! traitement ) {
-							// cas des relations ( 0, 1 ) - ( 0 , 1 ) 
-							
-							//traitement de la "1ere" entite
-							MCDLien ws_lien = vLinks.get( 0 );
-							MCDEntite mcdEntite = ( MCDEntite )  ws_lien.getElement( Constantes.MCDENTITE2 )  ;
-							String nameEntite = mcdEntite.getName() ;
-								
-							MCDLien ws_lienAssocie = vLinks.get( 1 );
-							mcdEntiteAssociee = ( MCDEntite )  ws_lienAssocie.getElement( Constantes.MCDENTITE2 )  ;
-								
-							ent = mpd.getMPDEntite(Utilities.normaliseString (nameEntite , Constantes.LOWER));
-							if (ent == null) {
-								return true; // Skip if entity not found
-							}
-
-                                                        /*
-                                                         * Bug #520410 - voir test-007.asi
-							ent.addForeignKey(mcdEntiteAssociee.getCodeInformation(0), Utilities.normaliseString( mcdEntiteAssociee.getName(), Constantes.LOWER) ) ;
-							ent.addInformation( mcdEntiteAssociee.getCodeInformation(0) ) ;
-							*/
-
-							mpdLien.setElement(ent, Constantes.MCDENTITE1);												
-							
-							//traitement de la "2eme" entite
-							
-							numEntite = 1 ;
-							ws_lien = vLinks.get( 1 );
-							mcdEntite = ( MCDEntite )  ws_lien.getElement( Constantes.MCDENTITE2 )  ;
-							nameEntite = mcdEntite.getName() ;
-							
-							ws_lienAssocie = vLinks.get( 0 );
-							mcdEntiteAssociee = ( MCDEntite )  ws_lienAssocie.getElement( Constantes.MCDENTITE2 )  ;
-							
-							ent = mpd.getMPDEntite(Utilities.normaliseString (nameEntite , Constantes.LOWER));
-							if (ent == null) {
-								return true; // Skip if entity not found
-							}
-
-							ent.addForeignKey(mcdEntiteAssociee.getCodeInformation(0), Utilities.normaliseString( mcdEntiteAssociee.getName(), Constantes.LOWER) ) ;
-							ent.addInformation( mcdEntiteAssociee.getCodeInformation(0)) ;
-							
-							mpdLien.setElement(ent, Constantes.MCDENTITE2 );
-						}
-					}
-					
-				} 
-				
-				if ( ws_typeAssociation.equals ( Constantes.UN_N ) ||  ws_typeAssociation.equals ( Constantes.ZERO_N ) ) {
-				
-					mpdLien = new MPDLien();
-					List<MCDLien> vLinks = ( (MCDAssociation) obj ).links ;  // Les liens de l'association sont dans un vecteur 
-					
-					for ( int k=0; k < vLinks.size() ; k++ ) {
-						// récupération des différents liens de l'association 
-						mcdLienAssociation = vLinks.get( k );
-						 
-						MCDEntite mcdEntite = ( MCDEntite ) mcdLienAssociation.getElement ( Constantes.MCDENTITE2 ) ;
-						
-						ent = mpd.getMPDEntite(Utilities.normaliseString (mcdEntite.getName() , Constantes.LOWER));
-						if (ent == null) {
-							continue; // Skip this iteration if entity not found
-						}
-
-						if ( mcdLienAssociation.getCardMin().equals( "0" ) )
-							ent.setForeignKeyCanBeNull ( true ) ;
-						else
-							ent.setForeignKeyCanBeNull ( false ) ;
-						
-						if ( ! mcdLienAssociation.getCardMax().equals( "N" ) ) {
-						
-							// traitement des relations ternaires
-							
-							if ( isPartOfTernaire ( mcdLienAssociation ) )
-								ent.addInformation(getMCDEntite((MCDAssociation) obj, "N").getCodeInformation(0)+ "_" +
-										Utilities.normaliseString(obj.getName() , Constantes.LOWER) );
-							else  {
-								if ( ! ent.existInformation(getMCDEntite((MCDAssociation) obj, "N").getCodeInformation(0) )) { 
-									ent.addInformation(getMCDEntite((MCDAssociation) obj, "N").getCodeInformation(0));
-									ent.addForeignKey(getMCDEntite((MCDAssociation) obj, "N").getCodeInformation(0) ,
-										Utilities.normaliseString(getMCDEntite((MCDAssociation) obj, "N").getName(), Constantes.LOWER));
-								} else {
-									
-									ent.addInformation(getMCDEntite((MCDAssociation) obj, "N").getCodeInformation(0)+ "_" +
-											Utilities.normaliseString(obj.getName() , Constantes.LOWER) );
-									
-
-                                    ent.addForeignKey(getMCDEntite((MCDAssociation) obj, "N").getCodeInformation(0) + "_" +
-									Utilities.normaliseString( obj.getName(), Constantes.LOWER)  ,
-									Utilities.normaliseString(getMCDEntite((MCDAssociation) obj, "N").getName(), Constantes.LOWER));
-                                     
-								}
-							}
-				
-							if ( ! ws_typeAssociation.equals ( Constantes.ZERO_N ) ) {	
-									
-								if ( isPartOfTernaire ( mcdLienAssociation ) ) {
-									
-									MCDAssociation mCDAssociation = null ;
-									if ( vLinks.size() == 1 ) { //liaison reflexive
-										mCDAssociation = ( MCDAssociation ) vLinks.get(0).getElement ( Constantes.MCDENTITE2 ) ;
-										ent.addInformation( mcdEntite.getCodeInformation(0) + "_" + Utilities.normaliseString(mCDAssociation.getName() , Constantes.LOWER) ) ;
-									}
-
-                                            ent.addForeignKey(getMCDEntite((MCDAssociation) obj, "N").getCodeInformation(0) + "_" +
-											Utilities.normaliseString( obj.getName(), Constantes.LOWER)  ,
-											Utilities.normaliseString(getMCDEntite((MCDAssociation) obj, "N").getName(), Constantes.LOWER));
-
-
-								} else 				
-									ent.addForeignKey(getMCDEntite((MCDAssociation) obj, "N").getCodeInformation(0),
-										Utilities.normaliseString(getMCDEntite((MCDAssociation) obj, "N").getName(), Constantes.LOWER));
-							}
-							
-						} else {
-
-							MCDAssociation mCDAssociation = null ;
-							if ( vLinks.size() == 1 ) { //liaison reflexive
-								mCDAssociation = ( MCDAssociation ) vLinks.get(0).getElement ( Constantes.MCDENTITE2 ) ;
-								ent.addInformation( mcdEntite.getCodeInformation(0) + "_" + Utilities.normaliseString(mCDAssociation.getName() , Constantes.LOWER) ) ;
-							} 
-						}
-						
-						mpdLien.setElement(ent, Constantes.MCDENTITE2);
-					
-					}
-
-					MCDEntite nEntity = getMCDEntite((MCDAssociation) obj, "N");
-					if (nEntity != null) {
-						ent = mpd.getMPDEntite(Utilities.normaliseString(
-								nEntity.getName(), Constantes.LOWER));
-						if (ent != null) {
-							mpdLien.setElement(ent, Constantes.MCDENTITE1);
-						}
-					}
-
-					mpd.addLien(mpdLien);
-				}
-			}
+		ConstructionMPD c = constructions.get(mpd);
+		ModeleMPD derive;
+		if (c != null && c.modele == mpd.getModele()) {
+			derive = TransformationMCD.deriver(mcd, c.modifies, c.modele);
+		} else {
+			c = new ConstructionMPD();
+			constructions.put(mpd, c);
+			derive = TransformationMCD.deriver(mcd);
 		}
-
-		/*
-		 * Suppression des MPDEntite ne contenant qu'un identifiant
-		 */
-		/*
-		 * Vector elementsToDel = new Vector(); for (Enumeration e =
-		 * mpd.elementsZElements(); e.hasMoreElements();) { ent = (MPDEntite)
-		 * e.nextElement(); if (ent.sizeInformation() == 1 &&
-		 * ent.sizeIdentifiant() == 1) {
-		 * 
-		 * for (Enumeration e2 = mpd.elementsZElements(); e .hasMoreElements();) {
-		 * ent2 = (MPDEntite) e.nextElement();
-		 * ent2.removeForeignKey(ent.getCodeInformation(0)); }
-		 * elementsToDel.add(ent); } } for (Enumeration e =
-		 * elementsToDel.elements(); e.hasMoreElements();) {
-		 * mpd.removeElement((ZElement) e.nextElement()); }
-		 */
+		mpd.afficher(derive);
+		c.modele = derive;
+		c.modifies.clear();
 		return true;
 	}
-	
-
-	
-	private Boolean isPartOfTernaire ( MCDLien mcdLien )  {
-		
-		// la cardinalité est 1,1 sur ce lien
-		
-		Boolean ternaire = false  ;
-		
-		MCDAssociation association = ( MCDAssociation ) mcdLien.getElement ( Constantes.MCDENTITE1 ) ;
-		MCDLien entiteLink = null, ws_lien = null  ;
-		String v0_name, v1_name, entite0_name = null , entite1_name = null ;
-		MCDObjet obj ; 
-		List<MCDLien> vLinks = null, vLinks_rech = null ; 
-		
-		// on récupère l'entité associée 
-		vLinks = association.links ;
-		for ( int k=0; k < vLinks.size() ; k++ ) 
-			if ( ! vLinks.get( k ).equals( mcdLien ) ) {
-				entiteLink = vLinks.get( k );
-				entite0_name = (( MCDEntite )  mcdLien.getElement( Constantes.MCDENTITE2 )).getName ()  ; 
-				entite1_name = (( MCDEntite )  entiteLink.getElement( Constantes.MCDENTITE2 )).getName ()  ; 
-				break ;
-			}
-		
-		// on cherche une autre association reliant les 2 entités
-		for (Iterator<ZElement> e = this.elementsZElements(); e.hasNext();) {
-			obj = (MCDObjet) e.next();
-				
-			if (obj instanceof MCDAssociation) {
-				vLinks_rech = ( (MCDAssociation) obj ).links ;  // Les liens de l'association sont dans un vecteur 
-				
-				if ( ! obj.equals( association ) ) {
-					ws_lien = vLinks_rech.get( 0 );
-					v0_name = (( MCDEntite )  ws_lien.getElement( Constantes.MCDENTITE2 )).getName ()  ;
-					ws_lien = vLinks.get( 1 );
-					v1_name = (( MCDEntite )  ws_lien.getElement( Constantes.MCDENTITE2 )).getName ()  ;
-					
-					if ( ( v0_name.equals ( entite0_name ) &&  v1_name.equals ( entite1_name ) ) || 
-						( v0_name.equals ( entite1_name ) &&  v1_name.equals ( entite0_name ) ) ) {
-						ternaire = true ; 
-						break ;
-					}
-				}
-				
-			}
-		}
-		
-		ternaire = false ; // je sais ... un bug en suspens pour ceux qui ont suivi le pb des relations ternaires
-		return ternaire  ; 
-	}
 }
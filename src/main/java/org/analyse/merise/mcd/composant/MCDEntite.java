@@ -21,8 +21,6 @@
 package org.analyse.merise.mcd.composant;
 
 import java.awt.Color;
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.geom.Line2D;
@@ -30,27 +28,25 @@ import java.awt.geom.RoundRectangle2D;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.analyse.merise.gui.table.DictionnaireTable;
-
 public class MCDEntite extends MCDObjet
 {
-    /** Police de l'objet */
-    private Font font;
+    /** Espacement entre deux lignes d'informations */
+    private int interligne;
 
-    /** Permet de calculer la taille des objets */
-    private FontMetrics fm;
+    /** Largeur du libellé de l'identifiant, pour le soulignement */
+    private int largeurIdentifiant;
 
     
     public MCDEntite(MCDComponent mcd)
     {
-        this(mcd, "Entite " + (getIndex ()+ 1),
-                getIndex () * 20 % 200,  getIndex () * 20 % 200);
+        this(mcd, "Entite " + (mcd.getIndex()+ 1),
+                mcd.getIndex() * 20 % 200,  mcd.getIndex() * 20 % 200);
     }
     
     public MCDEntite(MCDComponent mcd, int x, int y)
     {
     	
-        this(mcd, "Entite " + (getIndex ()+ 1), x, y);
+        this(mcd, "Entite " + (mcd.getIndex()+ 1), x, y);
     }
 
     public MCDEntite(MCDComponent mcd, String name, int x, int y)
@@ -63,12 +59,6 @@ public class MCDEntite extends MCDObjet
      */
     public void paint(Graphics g)
     {
-        if (fm == null) {
-            this.font = mcd.getFont();
-            this.fm = mcd.getFontMetrics(font);
-        }
-
-        updateSize();
         Graphics2D g2d = (Graphics2D) g;
         g2d.setFont(font);
 
@@ -87,34 +77,37 @@ public class MCDEntite extends MCDObjet
         g2d.setColor(Color.black);
         g2d.drawString(name, getX() + 10, getY() + 15);
 
-        for (int i = 0; i < sizeInformation(); i++)
-            g2d.drawString((String) (data.getValue(getCodeInformation(i),
-                    DictionnaireTable.NAME)), getX() + 10, getY() + 40 + i
-                    * (fm.getMaxDescent() + 15));
+        for (int i = 0; i < libelles.length; i++)
+            g2d.drawString(libelles[i], getX() + 10, getY() + 40 + i
+                    * interligne);
 
-        if (sizeInformation() > 0) {
-            String nom = (String) (data.getValue(getCodeInformation(0),
-                    DictionnaireTable.NAME));
+        if (libelles.length > 0) {
             l = new Line2D.Double(getX() + 10, 45 + getY(), getX()
-                    + fm.stringWidth(nom) + 10, 45 + getY());
+                    + largeurIdentifiant + 10, 45 + getY());
             g2d.draw(l);
         }
     }
 
     /**
-     * Calcul la taille de l'entité à n'éxécuter que lors du repaint
+     * Calcul la taille de l'entité. Appelée lors de la phase de mise en page,
+     * uniquement lorsque le nom, les informations ou leurs libellés ont changé.
      */
     public void updateSize()
     {
+        if (!preparerMiseEnPage())
+            return;
+
         int gw = fm.stringWidth(name);
 
-        for (int i = 0; i < sizeInformation(); i++)
-            gw = fm.stringWidth((String) (data.getValue(getCodeInformation(i),
-                    DictionnaireTable.NAME))) < gw ? gw : fm
-                    .stringWidth((String) (data.getValue(getCodeInformation(i),
-                            DictionnaireTable.NAME)));
+        for (int i = 0; i < libelles.length; i++) {
+            int largeur = fm.stringWidth(libelles[i]);
+            if (i == 0)
+                largeurIdentifiant = largeur;
+            gw = Math.max(gw, largeur);
+        }
 
-        int gh = (fm.getMaxDescent() + 15) * (sizeInformation() - 1);
+        interligne = fm.getMaxDescent() + 15;
+        int gh = interligne * (libelles.length - 1);
 
         this.setWidth(gw + 20);
         this.setHeight(50 + gh);
@@ -39,12 +39,6 @@ public abstract class MCDObjet extends ZElement implements Observer
 
     protected List<MCDLien> links = new ArrayList<MCDLien>();
 
-    /**
-     * Numéro qui permet de donner un nom temporaire au MCDEntité et
-     * MCDAssociation
-     */
-    private static int index = 0 ;
-
     /** Nom de l'objet */
     protected String name;
 
@@ -59,6 +53,12 @@ public abstract class MCDObjet extends ZElement implements Observer
     /** Permet de calculer la taille */
     protected FontMetrics fm;
 
+    /**
+     * Libellés des informations, résolus dans le dictionnaire lors de la
+     * dernière mise en page.
+     */
+    protected String[] libelles = new String[0];
+
     /** Table dicos des infos */
     protected DictionnaireTable data;
 
@@ -73,7 +73,7 @@ public abstract class MCDObjet extends ZElement implements Observer
         this.nameSave = name;
         this.mcd = mcd;
         this.data = mcd.getData();
-        index++;
+        mcd.incrementerIndex();
         sizeSave = 0;
     }
 
@@ -82,6 +82,43 @@ public abstract class MCDObjet extends ZElement implements Observer
      */
     public abstract void updateSize();
 
+    /**
+     * Prépare le calcul de la taille : récupère la police du MCD et résout les
+     * libellés des informations dans le dictionnaire. Retourne faux si le MCD
+     * n'a pas encore de police, la mise en page reste alors à faire.
+     */
+    protected boolean preparerMiseEnPage()
+    {
+        Font courante = mcd.getFont();
+        if (courante == null) {
+            invaliderMiseEnPage();
+            return false;
+        }
+
+        if (fm == null || !courante.equals(font)) {
+            font = courante;
+            fm = mcd.getFontMetrics(font);
+        }
+
+        libelles = new String[informations.size()];
+        for (int i = 0; i < libelles.length; i++)
+            libelles[i] = (String) data.getValue(informations.get(i),
+                    DictionnaireTable.NAME);
+        return true;
+    }
+
+    /**
+     * Rattache l'objet à un autre MCD et à son dictionnaire, lorsque ce MCD
+     * reprend le contenu de celui qui l'a créé.
+     */
+    void rattacher(MCDComponent mcd)
+    {
+        data.deleteObserver(this);
+        this.mcd = mcd;
+        this.data = mcd.getData();
+        data.addObserver(this);
+    }
+
     /**
      * Retourne le MCD contenant le <code>MCDObjet</code>.
      */
@@ -135,15 +172,6 @@ public abstract class MCDObjet extends ZElement implements Observer
         return links.size();
     }
 
-    /**
-     * Retourne le numéro de l'objet <br>
-     * Utilisé pour numéroté les objets.
-     */
-    public static int getIndex()
-    {
-        return index;
-    }
-
     /**
      * Ajouter plusieurs informations en indiquant leur code provenant du
      * dictionnaire des informations.
@@ -169,6 +197,8 @@ public abstract class MCDObjet extends ZElement implements Observer
     public void addInformation(String code)
     {
         informations.add(code);
+        data.addUse(code, this);
+        invaliderMiseEnPage();
         notifyZElement();
     }
 
@@ -187,6 +217,7 @@ public abstract class MCDObjet extends ZElement implements Observer
             informations.set(info1, informations.get(info2));
             informations.set(info2, temp);
         }
+        invaliderMiseEnPage();
         notifyZElement();
     }
 
@@ -196,9 +227,10 @@ public abstract class MCDObjet extends ZElement implements Observer
     public void clearInformations()
     {
         for (Iterator<String> e = informations.iterator(); e.hasNext();) {
-            data.setUse(e.next(), false);
+            data.removeUse(e.next(), this);
         }
         informations.clear();
+        invaliderMiseEnPage();
         notifyZElement();
     }
 
@@ -225,9 +257,11 @@ public abstract class MCDObjet extends ZElement implements Observer
      */
     public void deleteInformation(String code)
     {
-        data.setUse(code, false);
-        if (informations.remove(code))
+        if (informations.remove(code)) {
+            data.removeUse(code, this);
+            invaliderMiseEnPage();
             notifyZElement();
+        }
     }
 
     /**
@@ -272,19 +306,13 @@ public abstract class MCDObjet extends ZElement implements Observer
      */
     public void setName(String name)
     {
+        String oldName = this.name;
         this.name = name;
+        mcd.renommerObjet(this, oldName);
+        invaliderMiseEnPage();
         notifyZElement();
     }
 
-    /**
-     * Initialise les numéros des MCDObjet à 1 lorsqu'un nouveau fichier est
-     * créé
-     */
-    public static void clearIndex()
-    {
-        index = 0;
-    }
-
     public String toString()
     {
         return "MCDObjet : " + info();
@@ -307,6 +335,10 @@ public abstract class MCDObjet extends ZElement implements Observer
                 if (informations.get(i).equals(arg
                         .getOldName()))
                     informations.set(i, arg.getNewName());
+            if (informations.contains(arg.getNewName())) {
+                invaliderMiseEnPage();
+                notifyZElement();
+            }
         } else if (arg.getType() == ArgObserverTable.DELETE) {
             deleteInformation(arg.getName());
         }
@@ -23,12 +23,14 @@
 
 package org.analyse.merise.mcd.composant;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
 
+import org.analyse.core.util.Utilities;
+
 
 public class MLDCommand {
 	
@@ -38,9 +40,19 @@ public class MLDCommand {
 	private ObservableMDL observableMDL;
 	private List<String> requests;
 
+	/** Concaténation des requêtes, tenue à jour au fil des ajouts */
+	private StringBuilder texteRequests;
+
+	/** Profondeur des lots ouverts par beginBatch() */
+	private int lot;
+
+	/** Indique si les requêtes ont changé depuis l'ouverture du lot */
+	private boolean lotModifie;
+
 	public MLDCommand() {
 		observableMDL = new ObservableMDL();
 		requests = new ArrayList<String>();	
+		texteRequests = new StringBuilder();
 	}
 
 	/**
@@ -63,20 +75,68 @@ public class MLDCommand {
 	 */
 	public void clear() {
 		requests.clear();
-		observableMDL.notifyObservers();
+		texteRequests.setLength(0);
+		requestsChanged();
 	}
 
 	public String getRequests() {
-		String res = "";
-		for (Iterator<String> e = requests.iterator(); e.hasNext();) {
-			res += e.next();
-		}
-		return res;
+		return texteRequests.toString();
 	}
 
 	public void addRequest(String request) {
 		requests.add(request);
-		observableMDL.notifyObservers();
+		texteRequests.append(request);
+		requestsChanged();
+	}
+
+	/**
+	 * Ajoute plusieurs requêtes en ne prévenant les observateurs qu'une fois.
+	 */
+	public void addRequests(List<String> requests) {
+		beginBatch();
+		try {
+			for (String request : requests)
+				addRequest(request);
+		} finally {
+			commitBatch();
+		}
+	}
+
+	/**
+	 * Ouvre un lot : jusqu'au commitBatch() correspondant, les observateurs ne
+	 * sont plus prévenus. Les lots peuvent être imbriqués.
+	 */
+	public void beginBatch() {
+		lot++;
+	}
+
+	/**
+	 * Ferme le lot ouvert par beginBatch() et prévient une seule fois les
+	 * observateurs si les requêtes ont changé.
+	 */
+	public void commitBatch() {
+		if (lot == 0)
+			throw new IllegalStateException("Aucun lot ouvert");
+
+		if (--lot == 0 && lotModifie) {
+			lotModifie = false;
+			observableMDL.notifyObservers();
+		}
+	}
+
+	private void requestsChanged() {
+		if (lot > 0)
+			lotModifie = true;
+		else
+			observableMDL.notifyObservers();
+	}
+
+	/**
+	 * Ecrit les requêtes, une par ligne.
+	 */
+	public void writeScript(Appendable out) throws IOException {
+		for (String request : requests)
+			out.append(request).append(Utilities.newLine());
 	}
 
 	/**
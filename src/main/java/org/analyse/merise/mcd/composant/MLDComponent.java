@@ -27,11 +27,11 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 
 import org.analyse.core.gui.zgraph.ZElement;
 import org.analyse.core.gui.zgraph.ZGraphique;
-import org.analyse.core.util.Constantes;
-import org.analyse.core.util.Utilities;
+import org.analyse.merise.mcd.modele.GenerateurMLD;
 
 public class MLDComponent extends ZGraphique {
 	private static final long serialVersionUID = -464810270266166396L;
@@ -108,50 +108,18 @@ public class MLDComponent extends ZGraphique {
     }
 
     /**
-     * Construit les requêtes SQL.
+     * Construit le MLD du modèle affiché par <code>mpdComponent</code>.
      */
     public void buildMLD (MPDComponent mpdComponent, MLDCommand mld) {
-        String text, info;
-        MPDEntite ent, oldEnt ;
-        int cmp, nbId;
-        
-        boolean isFirst;
-  
-        mld.clear();
-
-        text = "# Modèle créé le : " + new java.util.Date() + " ;";
-        mld.addRequest(text);
-        oldEnt = null ; 
-        for (Iterator<ZElement> e = mpdComponent.enumElements(); e.hasNext();) {
-        	
-        	ent = (MPDEntite) (e.next());
-        	if ( ! ent.equals (oldEnt) ) {        		
-        		oldEnt = ent ; 
-        		isFirst = true ; 
-        	} else 
-        		isFirst = false ; 
-        		
-            text = Utilities.normaliseString( ent.getName(), Constantes.LOWER) + " (";
-            
-            for (Iterator<String> e2 = ent.elementsInformations(); e2.hasNext() ; ) {            	
-                info = e2.next();
-                info = Utilities.normaliseString(info, Constantes.LOWER);  
-                if (ent.identifiants.containsKey(info) )
-                	text += "<u>" + info +"</u>";
-                else
-                	if (ent.getForeignKey(info) != null)
-                		text += "#" + info ;
-                	else 
-                		text += info ; 
-                text += ", " ;
-            }
-           
-            text += ") ;";
-            
-            text=text.replace (", )", ")") ;
-            
-            mld.addRequest(text);
-
+        List<String> requetes = GenerateurMLD.generer(mpdComponent.getModele());
+
+        // Un seul rafraîchissement de MLDPanel pour toute la génération
+        mld.beginBatch();
+        try {
+            mld.clear();
+            mld.addRequests(requetes);
+        } finally {
+            mld.commitBatch();
         }
     }
 
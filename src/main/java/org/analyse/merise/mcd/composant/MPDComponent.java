@@ -27,18 +27,30 @@ package org.analyse.merise.mcd.composant;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.analyse.core.gui.zgraph.ZElement;
 import org.analyse.core.gui.zgraph.ZGraphique;
+import org.analyse.core.gui.zgraph.ZLien;
 import org.analyse.core.util.Constantes;
-import org.analyse.core.util.Utilities;
-import org.analyse.main.Main;
-import org.analyse.merise.gui.panel.SQLPanel;
 import org.analyse.merise.gui.table.DictionnaireTable;
-import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.modele.LienMPD;
+import org.analyse.merise.mcd.modele.ModeleMPD;
+import org.analyse.merise.mcd.modele.TableMPD;
+import org.analyse.merise.sql.GenerateurSQL;
 import org.analyse.merise.sql.SQLCommand;
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
 
 public class MPDComponent extends ZGraphique {
 
@@ -49,6 +61,12 @@ public class MPDComponent extends ZGraphique {
 	private double width;
     protected Hashtable<String, String> foreignKeys;
 
+    /** Index des entités par nom */
+    private Map<String, MPDEntite> entites = new HashMap<String, MPDEntite>();
+
+    /** Modèle affiché, dont sont générés le SQL et le MLD */
+    private ModeleMPD modele = new ModeleMPD();
+
     public MPDComponent() {
         super();
 
@@ -77,13 +95,7 @@ public class MPDComponent extends ZGraphique {
      *            Nom de l'entité à retourner
      */
     public MPDEntite getMPDEntite(String name) {
-        for (Iterator<ZElement> e = enumElements(); e.hasNext();) {
-            MPDEntite o = (MPDEntite) e.next();
-            if (o.getName().equals(name)) {
-                return o;
-            }
-        }
-        return null;
+        return entites.get(name);
     }
 
     public MPDEntite getMPDEntite(int i) {
@@ -106,303 +118,168 @@ public class MPDComponent extends ZGraphique {
         repaint();
     }
 
-    public void addForeignKey(String cleEtrangere, String table) {
-        foreignKeys.put(cleEtrangere, table);
+    public void addElement(ZElement element) {
+        super.addElement(element);
+        entites.putIfAbsent(((MPDEntite) element).getName(), (MPDEntite) element);
     }
 
-    public String toString() {
-        String res = "{\n";
-        for (Iterator<ZElement> e = enumElements(); e.hasNext();) {
-            res += e.next() + "\n";
-        }
-        return "}" + res;
+    public void removeElement(ZElement element) {
+        super.removeElement(element);
+        desindexer(((MPDEntite) element).getName(), (MPDEntite) element);
     }
 
     /**
-     * Construit les requêtes SQL.
+     * Retire <code>ent</code> de l'index des noms ; le nom revient à une
+     * autre entité du même nom, s'il y en a.
      */
-    public void buildSQL(DictionnaireTable data, SQLCommand sql) {
-        String text, info;
-        MPDEntite ent;
-        int cmp, nbId;
-
-        // SQL syntax.
-        MeriseModule meriseModule = (MeriseModule) Main.getModule("MERISE");
-        String sqlSyntax = ((SQLPanel)meriseModule.getSQLPanel()).getSQLSyntax();
-
-        sql.clear();
-
-        for (Iterator<ZElement> e = enumElements(); e.hasNext();) {
-            ent = (MPDEntite) (e.next());
-                        
-            /* Edité par B. Bouffet le 18/05/2016
-             * "DROP TABLE IF EXISTS" non supporté par Oracle
-             * -> Adaptation de la syntaxe
-             * Un saut de ligne en trop après chaque point-virgule -> à corriger
-             */
-            text = "";
-            if ( sqlSyntax.equals(SQLCommand.SQLsyntax.OracleDB.toString()) )
-            {
-            	text = "DECLARE \n";
-            	text += "  existe_";
-            	text +=	Utilities.normaliseString(ent.getName(), Constantes.LOWER);
-            	text += " INTEGER ;";
-            	text += "BEGIN \n";
-            	text += "  SELECT count(*) INTO existe_";
-                text +=	Utilities.normaliseString(ent.getName(), Constantes.LOWER);
-            	text += " FROM user_tables WHERE table_name = upper('";
-            	text +=	Utilities.normaliseString(ent.getName(), Constantes.LOWER);
-            	text += "') ;";
-            	text += "  IF existe_";
-            	text +=	Utilities.normaliseString(ent.getName(), Constantes.LOWER);
-            	text += " > 0 THEN \n";
-            	text += "    EXECUTE IMMEDIATE 'DROP TABLE ";
-            	text +=	Utilities.normaliseString(ent.getName(), Constantes.LOWER);
-            	text += " CASCADE CONSTRAINTS' ;";
-            	text += "  END IF ;";
-            	text += "END ;";
-            }
-            else
-            {
-                text = "DROP TABLE IF EXISTS " + Utilities.normaliseString(ent.getName(), Constantes.LOWER) + " ;";
-            }
-            sql.addRequest(text);
-            
-            text = "CREATE TABLE " + Utilities.normaliseString(ent.getName(), Constantes.LOWER) + " (";
-            
-            cmp = 0;
-            nbId = ent.sizeIdentifiant();
-            
-            // Stocke les identifiants d'une table qui sont AUTO_INCREMENT
-            Hashtable<String, String> autoIncrementIds = new Hashtable<String, String>();
-            int nbAutoIncrement = 0;
-
-            /*
-             * bruno
-             * date : mars 2009
-             * je rajoute une surcouche pour la gestion des relations reflexives. 
-             * Code à améliorer progressivement lors de la refonte  
-             */
-            Boolean premierefois = true, premier_auto_increment = true;
-            String defautType = "";
-            String defautSize = "";
-            String type = "";
-
-            for (Iterator<String> e2 = ent.elementsInformations(); e2.hasNext(); cmp++) {
-
-                info = e2.next();
-
-                if (premierefois) {  // ajout des relations reflexives
-                    premierefois = false;
-                    defautType = (String) data.getValue(info, DictionnaireTable.TYPE);
-
-                    if (((Integer) data.getValue(info, DictionnaireTable.SIZE)).intValue() != 0
-                            && !sql.getTypesWithoutSize().contains(data.getValue(info, DictionnaireTable.TYPE))) {
-                        defautSize = String.valueOf(data.getValue(info, DictionnaireTable.SIZE));
-                    }
-                }
-
-                String w_info = (ent.getForeignKeys().containsKey(info)) ? info.substring(info.indexOf("_")+1) : info ;
-
-                try {
-                    type = (String) data.getValue(w_info, DictionnaireTable.TYPE);
-                } catch (Exception ex) {
-                    type = defautType;
-                }
-
-                // PostgreSQL specific auto increment: SERIAL
-                if (premier_auto_increment && sqlSyntax.equals(SQLCommand.SQLsyntax.PostgreSQL.toString())) {
-                    if(type.equals(Constantes.INT)) {
-                        type = Constantes.INT_AUTO_INCREMENT_POSTGRESQL;
-                    } else if(type.equals(Constantes.BIGINT)) {
-                        type = Constantes.BIGINT_AUTO_INCREMENT_POSTGRESQL;
-                    }
-                }
-
-			/*
-			 * Edité par B. Bouffet le 13/05/2016
-			 * Si syntaxe Oracle Database, mémorisation des clés primaires de type AUTO_INCREMENT.
-			 * Cela va permettre la création de triggers.
-			 */
-			if (premier_auto_increment && sqlSyntax.equals(SQLCommand.SQLsyntax.OracleDB.toString())) {
-				nbAutoIncrement++;
-				autoIncrementIds.put("Id # " + nbAutoIncrement, Utilities.normaliseString(ent.getCodeInformation(0), Constantes.LOWER));
-			}
-        	/*
-        	 * Fin de l'édition
-        	 */
-        	 
-                // PostgreSQL: convert DATETIME to TIMESTAMP
-                if (sqlSyntax.equals(SQLCommand.SQLsyntax.PostgreSQL.toString())) {
-
-                    if (type.equals(Constantes.DATETIME)) {
-                        type = Constantes.TIMESTAMP_POSTGRESQL;
-                    }
-                }
-
-                if (premier_auto_increment) {
-                	/* 
-                	 * traiter le cas des relations ternaires   
-                	 */
-                	
-                    if ("INT_AUTO_INCREMENT".equals(type)) {
-			            info = Utilities.normaliseString(info, Constantes.LOWER);
-                        type = Constantes.INT_AUTO_INCREMENT ;  // Bug #567501
-                    }
-                    if ("BIGINT_AUTO_INCREMENT".equals(type)) {
-			            info = Utilities.normaliseString(info, Constantes.LOWER);
-                        type = Constantes.BIGINT_AUTO_INCREMENT;  // Bug #567501
-                    }
-                } else {
-                    //w_info = (ent.getForeignKeys().containsKey(info)) ? info.substring(info.indexOf("_")+1) : info ;
-                    //info = String.valueOf(data.getValue(info, DictionnaireTable.NAME));
-                    if ("BIGINT_AUTO_INCREMENT".equals(type)) {
-                        info = Utilities.normaliseString(info, Constantes.LOWER);
-			            type = "BIGINT";
-                    }   // evite de se retrouver avec AUTO_INCREMENT sur une clé étrangère
-                    if ("INT_AUTO_INCREMENT".equals(type)) {
-                        info = Utilities.normaliseString(info, Constantes.LOWER);
-			            type = "INT";
-                    }   // evite de se retrouver avec AUTO_INCREMENT sur une clé étrangère
-
-                }
-                
-                //info = Utilities.normaliseString(info, Constantes.LOWER);  // Bug #622229
-                text += info + " " + type;
-
-                try {
-                    w_info = (ent.getForeignKeys().containsKey(info)) ? info.substring(info.indexOf("_")+1) : info ;
-
-                    if (((Integer) data.getValue(w_info, DictionnaireTable.SIZE)).intValue() != 0
-                            && !sql.getTypesWithoutSize().contains(data.getValue(w_info, DictionnaireTable.TYPE))) {
-                        text += "(" + data.getValue(w_info, DictionnaireTable.SIZE) + ")";
-                    }
-                } catch (Exception ex) {
-
-                    if (!defautSize.equals("")) {
-                        text += "(" + defautSize + ")";
-                    }
+    private void desindexer(String name, MPDEntite ent) {
+        if (entites.get(name) == ent) {
+            entites.remove(name);
+            for (Iterator<ZElement> e = enumElements(); e.hasNext();) {
+                MPDEntite o = (MPDEntite) e.next();
+                if (o != ent && o.getName().equals(name)) {
+                    entites.put(name, o);
+                    break;
                 }
+            }
+        }
+    }
 
-                if (premier_auto_increment) {
-                    // Only for MySQL syntax.
-                    if (sqlSyntax.equals(SQLCommand.SQLsyntax.MySQL.toString())) {
-                        text += " AUTO_INCREMENT";
-                    }
-                }
+    public void clearAll() {
+        entites.clear();
+        modele = new ModeleMPD();
+        super.clearAll();
+    }
 
-                if (cmp < nbId) {
-                    text += " NOT NULL";
-                } else {
-                    if (!ent.isForeignKeyCanBeNull()) {
+    /**
+     * Retourne le modèle affiché.
+     */
+    public ModeleMPD getModele() {
+        return modele;
+    }
 
-                        if (ent.getForeignKey(info) != null) // on a affaire à une clé étrangère
-                        {
-                            //text += " NOT NULL";
-                        }
-                    }
-                }
+    /**
+     * Affiche <code>cible</code> à la place du modèle actuel. Une entité déjà
+     * affichée pour la même origine, ou à défaut pour le même nom, est
+     * conservée avec sa position : elle n'est redessinée que si sa table a
+     * changé. Les nouvelles tables sont placées à la position proposée par le
+     * modèle ; les entités et les liens qui ne sont plus dans le modèle sont
+     * supprimés.
+     */
+    public void afficher(ModeleMPD cible) {
+        Map<Object, MPDEntite> parOrigine = new IdentityHashMap<Object, MPDEntite>();
+        Map<String, MPDEntite> parNom = new HashMap<String, MPDEntite>();
+        Set<MPDEntite> libres = Collections.newSetFromMap(new IdentityHashMap<MPDEntite, Boolean>());
+        for (Iterator<ZElement> e = enumElements(); e.hasNext();) {
+            MPDEntite ent = (MPDEntite) e.next();
+            libres.add(ent);
+            if (ent.getTable().getOrigine() != null)
+                parOrigine.putIfAbsent(ent.getTable().getOrigine(), ent);
+            parNom.putIfAbsent(ent.getName(), ent);
+        }
 
-                if (e2.hasNext()) {
-                    text += ",";
-                    premier_auto_increment = false;
-                }
+        Map<TableMPD, MPDEntite> affichees = new IdentityHashMap<TableMPD, MPDEntite>();
+        List<MPDEntite> nouvelles = new ArrayList<MPDEntite>();
+        for (TableMPD table : cible.getTables()) {
+            MPDEntite ent = table.getOrigine() == null ? null : parOrigine.get(table.getOrigine());
+            if (ent == null || !libres.contains(ent))
+                ent = parNom.get(table.getNom());
+            if (ent != null && libres.remove(ent)) {
+                ent.afficher(table);
+            } else {
+                ent = new MPDEntite(this, table);
+                ent.setPosition(new Point(table.getX(), table.getY()));
+                nouvelles.add(ent);
             }
+            affichees.put(table, ent);
+        }
 
+        for (MPDEntite ent : libres)
+            removeElement(ent);
+        for (MPDEntite ent : nouvelles)
+            addElement(ent);
 
-            nbId = ent.sizeIdentifiant();
-            //liaison reflexive
-            //  if ( ent.informations.size() != nbId )
-            //	  continue ;
-
-            text += ",PRIMARY KEY (";
-            
-            cmp = 0;
-            nbId = ent.sizeIdentifiant();
+        afficherLiens(cible, affichees);
 
-            for (Iterator<String> e2 = ent.elementsInformations(); e2.hasNext()
-                    && cmp < nbId;) {
+        entites.clear();
+        for (Iterator<ZElement> e = enumElements(); e.hasNext();) {
+            MPDEntite ent = (MPDEntite) e.next();
+            entites.putIfAbsent(ent.getName(), ent);
+        }
+        modele = cible;
+        repaint();
+    }
 
-                text += Utilities.normaliseString(e2.next(), Constantes.LOWER);  // Bug #622229
-                cmp++;
-                if (cmp < nbId) {
-                    text += ", ";
-                }
-            }
+    /**
+     * Garde les liens déjà affichés entre les mêmes entités, ajoute les
+     * autres et supprime ceux qui ne sont plus dans le modèle.
+     */
+    private void afficherLiens(ModeleMPD cible, Map<TableMPD, MPDEntite> affichees) {
+        Map<List<MPDEntite>, List<ZLien>> existants = new HashMap<List<MPDEntite>, List<ZLien>>();
+        for (Iterator<ZLien> e = elementsZLiens(); e.hasNext();) {
+            ZLien lien = e.next();
+            List<MPDEntite> cle = Arrays.asList((MPDEntite) lien.getElement(Constantes.MCDENTITE1),
+                    (MPDEntite) lien.getElement(Constantes.MCDENTITE2));
+            existants.computeIfAbsent(cle, k -> new ArrayList<ZLien>()).add(lien);
+        }
 
-            text += "))";
+        for (LienMPD lienMPD : cible.getLiens()) {
+            MPDEntite ent1 = affichees.get(lienMPD.getTable1());
+            MPDEntite ent2 = affichees.get(lienMPD.getTable2());
+            if (ent1 == null || ent2 == null)
+                continue;
 
-            // MySQL syntax
-            if (sqlSyntax.equals(SQLCommand.SQLsyntax.MySQL.toString()))
-            {
-                text += " ENGINE=InnoDB;";
-            }
-            else {  // other syntax (PostgreSQL, ...)
-                text += ";";
+            List<ZLien> memes = existants.get(Arrays.asList(ent1, ent2));
+            if (memes != null && !memes.isEmpty()) {
+                memes.remove(memes.size() - 1);
+                continue;
             }
-
-        	sql.addRequest(text);
-        	
-       		/* Edité par B. Bouffet le 13/05/2016
-        	 * Syntaxe Oracle : création d'un trigger en cas d'identifiant de type AUTO_INCREMENT
-        	 * Un saut de ligne en trop après chaque point-virgule -> à corriger
-        	 */
-        	if ( sqlSyntax.equals(SQLCommand.SQLsyntax.OracleDB.toString()) && (!autoIncrementIds.isEmpty()) )
-        	{
-        		text = "\n";
-        		text += "CREATE SEQUENCE SEQ_";
-        		text += Utilities.normaliseString(ent.getName(), Constantes.LOWER) ;
-        		text += " ;";
-        		sql.addRequest(text);
-        		
-        		text = "";
-        		text += "CREATE TRIGGER TRIG_";
-        		text += Utilities.normaliseString(ent.getName(), Constantes.LOWER) ;
-        		text += " BEFORE INSERT ON ";
-        		text += Utilities.normaliseString(ent.getName(), Constantes.LOWER) ;
-        		text += " FOR EACH ROW \n";
-        		text += " BEGIN \n";
-        		text += " SELECT SEQ_";
-        		text += Utilities.normaliseString(ent.getName(), Constantes.LOWER) ;
-        		text += ".NEXTVAL";
-        		text += " INTO :new.";
-        		text += autoIncrementIds.get("Id # 1");
-        		text += " FROM DUAL ;";
-        		text += " END ;";
-        		sql.addRequest(text);
-        	}
-        	/*
-        	 * Fin de l'édition
-        	 */
+            MPDLien lien = new MPDLien();
+            lien.setElement(ent1, Constantes.MCDENTITE1);
+            lien.setElement(ent2, Constantes.MCDENTITE2);
+            addLien(lien);
         }
 
+        for (List<ZLien> restants : existants.values())
+            removeLiens(restants);
+    }
 
-        info = "";
+    public void addForeignKey(String cleEtrangere, String table) {
+        foreignKeys.put(cleEtrangere, table);
+    }
 
+    public String toString() {
+        String res = "{\n";
         for (Iterator<ZElement> e = enumElements(); e.hasNext();) {
-           
-            ent = (MPDEntite) (e.next());
-
-            if (!ent.foreignKeysIsEmpty()) {
-                for (Iterator<String> e2 = ent.elementsInformations(); e2.hasNext();) {
-
-                    info = e2.next();
-
-                    if (ent.getTableForeignKey(info) != null) {
-                    		
-                                // Bug #622229
-                                text = "ALTER TABLE "
-                                        + Utilities.normaliseString(ent.getName(),
-                                        Constantes.LOWER) + " ADD CONSTRAINT FK_"
-                                        + Utilities.normaliseString(ent.getName(),
-                                        Constantes.LOWER) + "_" + Utilities.normaliseString(info, Constantes.LOWER)
-                                        + " FOREIGN KEY (" + Utilities.normaliseString(info, Constantes.LOWER) + ") REFERENCES "
-                                        + ent.getTableForeignKey(info) + " (" + Utilities.normaliseString( this.getMPDEntite ( ent.getTableForeignKey(info) ).getCodeInformation(0), Constantes.LOWER)
-                                        + ");";
-                        sql.addRequest(text);
-                    }
-                }
-            }
+            res += e.next() + "\n";
+        }
+        return "}" + res;
+    }
+
+    /**
+     * Construit les requêtes SQL du MPD affiché dans le dialecte de ce nom
+     * (voir <code>DialectesSQL</code>).
+     */
+    public void buildSQL(DictionnaireTable data, SQLCommand sql, String sqlSyntax) {
+        DialecteSQL dialecte = DialectesSQL.get(sqlSyntax);
+        if (dialecte == null)
+            throw new IllegalArgumentException("Dialecte SQL inconnu : " + sqlSyntax);
+        buildSQL(data, sql, dialecte);
+    }
+
+    /**
+     * Construit les requêtes SQL du MPD affiché dans le dialecte indiqué.
+     */
+    public void buildSQL(DictionnaireTable data, SQLCommand sql, DialecteSQL dialecte) {
+        List<String> requetes = new GenerateurSQL(data.instantane(), dialecte).generer(modele);
+
+        // Un seul rafraîchissement de SQLPanel pour toute la génération
+        sql.beginBatch();
+        try {
+            sql.clear();
+            sql.addRequests(requetes);
+        } finally {
+            sql.commitBatch();
         }
     }
 
@@ -411,6 +288,6 @@ public class MPDComponent extends ZGraphique {
      */
     public void clear() {
         foreignKeys.clear();
-        super.clearAll();
+        clearAll();
     }
 }
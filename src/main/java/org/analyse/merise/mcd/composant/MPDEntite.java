@@ -34,46 +34,34 @@ import java.awt.Graphics2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.RoundRectangle2D;
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.analyse.core.gui.zgraph.ZElement;
+import org.analyse.merise.mcd.modele.TableMPD;
 
+/**
+ * Représentation d'une <code>TableMPD</code> dans le MPD. Les méthodes de
+ * modification modifient la table affichée.
+ */
 public class MPDEntite extends ZElement
 {
+    /** Table affichée */
+    private TableMPD table;
 
-    /** Nombre d'identifiant */
-    private int nbIdentifiant = 0;
-
-    /** Nombre d'information sans les identifiants */
-    private int nbInformation = 0;
-    
-    private boolean foreignKeyCanBeNull  ;
-
-    public Hashtable<String, String> getForeignKeys() {
-        return foreignKeys;
-    }
-
-    /** Nombre de MCDEntite */
-    private static int nbMPDEntite;
-
-    /** Vecteur contenant les informations de l'objet */
-    protected List<String> informations = new ArrayList<String>() ;
-
-    /** Vecteur contenant les identifiants de l'objet ==> Préparation des clés multiples */
-    protected Hashtable<String,String> identifiants ;
-
-    protected List<MPDLien> links = new ArrayList<MPDLien>() ;
-
-    /** Nom de l'objet */
-    private String name;
-    private boolean porteuse ;
     private Font font;
 
     private FontMetrics fm;
 
-    private Hashtable<String,String> foreignKeys;
+    /** Largeur du plus long texte de l'entité (nom ou information) */
+    private int largeurTexte;
+
+    /** Espacement entre deux lignes d'informations */
+    private int interligne;
+
+    /** Indique que la table affichée a changé depuis le dernier dessin */
+    private boolean change;
 
     public MPDEntite(MPDComponent mpd, String name)
     {
@@ -82,67 +70,94 @@ public class MPDEntite extends ZElement
 
     public MPDEntite(MPDComponent mpd, String name, List<String> identifiants,
     		List<String> infos)
+    {
+        this(mpd, new TableMPD(name, 10, 10, null));
+
+        addInformations(identifiants);
+        addIdentifiant(infos);
+    }
+
+    public MPDEntite(MPDComponent mpd, TableMPD table)
     {
         super(mpd, 10, 10, 10, 10);
 
-        foreignKeys = new Hashtable<String,String>();
-        this.identifiants  = new Hashtable<String,String>();
-        
         this.font = mpd.getFont();
         this.fm = mpd.getFontMetrics(font);
-        this.setPorteuse (true ) ;
-
-        this.name = name;
+        this.interligne = fm.getMaxDescent() + 15;
+        afficher(table);
+    }
 
-        addInformations(identifiants);
-        addIdentifiant(infos);
+    /**
+     * Retourne la table affichée.
+     */
+    public TableMPD getTable()
+    {
+        return table;
+    }
 
+    /**
+     * Affiche <code>table</code> à la place de la table actuelle, à la même
+     * position. L'entité n'est redessinée que si le contenu de la table
+     * diffère.
+     */
+    void afficher(TableMPD table)
+    {
+        boolean modifiee = this.table == null
+                || (this.table != table && !this.table.memeContenu(table));
+        this.table = table;
+        if (!modifiee)
+            return;
+
+        largeurTexte = fm.stringWidth(table.getNom());
+        for (String info : table.getInformations())
+            mesurer(info);
+        change = true;
         updateSize();
-
-        nbMPDEntite++;
     }
-    
 
     public boolean isPorteuse () {
-    	return porteuse;  
+    	return table.isPorteuse();
     }
 
-
     public void setPorteuse ( boolean b ) {
-    	porteuse = b ;  
+    	table.setPorteuse(b);
     }
 
     public void setForeignKeyCanBeNull ( boolean bool ) {
-    	foreignKeyCanBeNull = bool ; 
+    	table.setForeignKeyCanBeNull(bool);
     }
 
     public boolean isForeignKeyCanBeNull () {
-    	return foreignKeyCanBeNull  ; 
+    	return table.isForeignKeyCanBeNull();
     }
     
     public void addForeignKey(String foreignKey, String table)
     {
-        foreignKeys.put(foreignKey, table);
+        this.table.addForeignKey(foreignKey, table);
     }
 
     public Object getForeignKey( String key )
     {
-        return foreignKeys.get ( key );
+        return table.getTableForeignKey(key);
     }
     
     public void removeForeignKey(String foreignKey)
     {
-        foreignKeys.remove(foreignKey);
+        table.removeForeignKey(foreignKey);
+    }
+
+    public Map<String, String> getForeignKeys() {
+        return table.getForeignKeys();
     }
 
     public boolean foreignKeysIsEmpty()
     {
-        return foreignKeys.isEmpty();
+        return table.foreignKeysIsEmpty();
     }
 
     public String getTableForeignKey(String foreignKey)
     {
-        return foreignKeys.get(foreignKey);
+        return table.getTableForeignKey(foreignKey);
     }
 
     /** Affichage du MPDEntite */
@@ -150,7 +165,6 @@ public class MPDEntite extends ZElement
     {
         Graphics2D g2d = (Graphics2D) g;
         g2d.setFont(font);
-        updateSize();
         RoundRectangle2D r = new RoundRectangle2D.Double(getX(), getY(),
                 getWidth(), getHeight(), 1, 1);
         Line2D l = new Line2D.Double(getX(), 25 + getY(), getWidth() + getX(),
@@ -164,60 +178,62 @@ public class MPDEntite extends ZElement
         g2d.setColor(Color.black);
         g2d.drawString(getName(), getX() + 10, getY() + 15);
 
-        for (int i = 0; i < informations.size(); i++)
+        for (int i = 0; i < table.sizeInformation(); i++)
             g2d.drawString(getCodeInformation(i), getX() + 10, getY() + 40 + i
-                    * (fm.getMaxDescent() + 15));
+                    * interligne);
 
-        for (int i = 0; i < nbIdentifiant; i++) {
+        for (int i = 0; i < table.sizeIdentifiant(); i++) {
             String nom = getCodeInformation(i);
             l = new Line2D.Double(getX() + 10, 45 + getY() + i
-                    * (fm.getMaxDescent() + 15), getX() + fm.stringWidth(nom)
-                    + 10, 45 + getY() + i * (fm.getMaxDescent() + 15));
+                    * interligne, getX() + fm.stringWidth(nom)
+                    + 10, 45 + getY() + i * interligne);
             g2d.draw(l);
         }
     }
 
+    /**
+     * Indique si la table affichée a changé depuis le dernier appel.
+     */
     public boolean isChanged()
     {
+        if (change) {
+            change = false;
+            return true;
+        }
         return false;
     }
 
     public String getName()
     {
-        return name;
+        return table.getNom();
     }
 
-    /** Calcul de la taille du MCDEntite */
+    /**
+     * Calcul de la taille du MCDEntite. Les textes sont mesurés une seule fois,
+     * lors de leur ajout.
+     */
     public void updateSize()
     {
-        String info;
-        int gw = fm.stringWidth(getName());
-
-        for (Iterator<String> e = informations.iterator(); e.hasNext();) {
-            info = e.next();
-            gw = fm.stringWidth(info) < gw ? gw : fm.stringWidth(info);
-        }
-
-        int gh = (fm.getMaxDescent() + 15) * (informations.size() - 1);
+        int gh = interligne * (table.sizeInformation() - 1);
 
-        this.setWidth(gw + 20);
+        this.setWidth(largeurTexte + 20);
         this.setHeight(50 + gh);
     }
 
     /**
-     * Calcul la position du MCDEntite suivant
+     * Prend en compte la largeur d'un texte ajouté à l'entité.
      */
-    public int nextPosition()
+    private void mesurer(String texte)
     {
-        return getX() + getWidth() + 30;
+        largeurTexte = Math.max(largeurTexte, fm.stringWidth(texte));
     }
 
     /**
-     * Reinitialise les paramètres static
+     * Calcul la position du MCDEntite suivant
      */
-    public static void empty()
+    public int nextPosition()
     {
-        nbMPDEntite = 0;
+        return getX() + getWidth() + 30;
     }
 
     /**
@@ -226,11 +242,9 @@ public class MPDEntite extends ZElement
      */
     public void addInformations(List<String> list)
     {
+        table.addInformations(list);
     	for(String info : list)
-            informations.add(info);
-        //nbInformation += code.size();
-        
-        nbInformation = informations.size();  // source à problème
+            mesurer(info);
         updateSize();
     }
 
@@ -239,8 +253,8 @@ public class MPDEntite extends ZElement
      */
     public void addInformation(String code)
     {
-        informations.add(code);
-        nbInformation++;
+        table.addInformation(code);
+        mesurer(code);
         updateSize();
     }
 
@@ -249,8 +263,7 @@ public class MPDEntite extends ZElement
      */
     public boolean  existInformation(String code)
     {
-        return informations.contains (code);
-        
+        return table.existInformation(code);
     }
 
     /**
@@ -260,31 +273,25 @@ public class MPDEntite extends ZElement
      */
     public void addIdentifiant(List<String> codes)
     {
-    	for(String code : codes) {
-            informations.add(code);
-            identifiants.put(code, code ) ;
-    	}
-    	
-        //ajouterIdentifiant((String)(code.elementAt(i)));
-        nbInformation += codes.size();
+        table.addIdentifiant(codes);
+    	for(String code : codes)
+            mesurer(code);
         updateSize();
     }
 
-
     public void removeIdentifiant( String code )
     {
-    	identifiants.remove(code) ;
+    	table.removeIdentifiant(code);
     }
 
-    public Hashtable<String,String> getIdentifiants()
+    public Map<String,String> getIdentifiants()
     {
-    	return identifiants ;
+    	return table.getIdentifiants();
     }
     
     public Object getIdentifiant(String code)
     {
-    	return  identifiants.get ( code ); 
-    		
+    	return table.getIdentifiants().get(code);
     }
 
     /**
@@ -293,9 +300,8 @@ public class MPDEntite extends ZElement
      */
     public void addIdentifiant(String code)
     {
-        informations.add(nbIdentifiant, code);
-        identifiants.put(code, code) ;  // ajout de la clé primaire --> Préparation des clés multiples / liens avec le MLD        
-        nbIdentifiant++;
+        table.addIdentifiant(code);
+        mesurer(code);
         updateSize();        
     }
 
@@ -304,12 +310,12 @@ public class MPDEntite extends ZElement
      */
     public int sizeInformation()
     {
-        return informations.size();
+        return table.sizeInformation();
     }
 
     public int sizeIdentifiant()
     {
-        return nbIdentifiant;
+        return table.sizeIdentifiant();
     }
 
     /**
@@ -320,16 +326,16 @@ public class MPDEntite extends ZElement
      */
     public String getCodeInformation(int i)
     {
-        return informations.get(i);
+        return table.getCodeInformation(i);
     }
 
     public Iterator<String> elementsInformations()
     {
-        return informations.iterator();
+        return table.getInformations().iterator();
     }
 
     public String toString()
     {
-        return name;
+        return getName();
     }
 }
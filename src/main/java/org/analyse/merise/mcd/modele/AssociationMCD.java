@@ -0,0 +1,39 @@
+/*
+ * AssociationMCD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+import java.util.List;
+
+/**
+ * Association d'un <code>ModeleMCD</code>. Ses informations, s'il y en a, en
+ * font une association porteuse.
+ */
+public class AssociationMCD extends ObjetMCD
+{
+    public AssociationMCD(String nom, int x, int y, Object origine)
+    {
+        super(nom, x, y, origine);
+    }
+
+    public List<String> getInformations()
+    {
+        return toutesInformations();
+    }
+}
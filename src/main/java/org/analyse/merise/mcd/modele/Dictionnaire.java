@@ -0,0 +1,116 @@
+/*
+ * Dictionnaire.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copie du dictionnaire des informations utilisée par la transformation et
+ * la génération, sans dépendance à Swing. <code>DictionnaireTable</code>
+ * en donne une avec <code>instantane()</code>. Une fois remplie, elle n'est
+ * plus que lue.
+ */
+public class Dictionnaire
+{
+    /**
+     * Type d'une information absente du dictionnaire, la valeur que retourne
+     * <code>DictionnaireTable.getValue()</code> dans ce cas.
+     */
+    public static final String INCONNU = "**NOT FOUND**";
+
+    private final Map<String, String> noms = new HashMap<String, String>();
+
+    private final Map<String, String> types = new HashMap<String, String>();
+
+    private final Map<String, Integer> tailles = new HashMap<String, Integer>();
+
+    /** Noms des informations dont la taille est incorrecte */
+    private final List<String> taillesIncorrectes = new ArrayList<String>();
+
+    private boolean toutUtilise = true;
+
+    /**
+     * Ajoute une information. Si le code est déjà présent, c'est la première
+     * information ajoutée qui reste.
+     */
+    public void addInformation(String code, String nom, String type, int taille)
+    {
+        if (types.containsKey(code))
+            return;
+        noms.put(code, nom);
+        types.put(code, type);
+        tailles.put(code, Integer.valueOf(taille));
+    }
+
+    public boolean contains(String code)
+    {
+        return types.containsKey(code);
+    }
+
+    public String getNom(String code)
+    {
+        return noms.get(code);
+    }
+
+    /**
+     * Retourne le type de l'information, <code>INCONNU</code> si elle est
+     * absente.
+     */
+    public String getType(String code)
+    {
+        String type = types.get(code);
+        return type == null ? INCONNU : type;
+    }
+
+    /**
+     * Retourne la taille de l'information, null si elle est absente.
+     */
+    public Integer getTaille(String code)
+    {
+        return tailles.get(code);
+    }
+
+    public void addTailleIncorrecte(String nom)
+    {
+        taillesIncorrectes.add(nom);
+    }
+
+    public List<String> getTaillesIncorrectes()
+    {
+        return Collections.unmodifiableList(taillesIncorrectes);
+    }
+
+    /**
+     * Indique si toutes les informations sont utilisées dans le MCD.
+     */
+    public boolean isToutUtilise()
+    {
+        return toutUtilise;
+    }
+
+    public void setToutUtilise(boolean toutUtilise)
+    {
+        this.toutUtilise = toutUtilise;
+    }
+}
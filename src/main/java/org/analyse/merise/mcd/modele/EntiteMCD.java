@@ -0,0 +1,43 @@
+/*
+ * EntiteMCD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+import java.util.List;
+
+/**
+ * Entité d'un <code>ModeleMCD</code> : sa première information est son
+ * identifiant.
+ */
+public class EntiteMCD extends ObjetMCD
+{
+    public EntiteMCD(String nom, int x, int y, Object origine)
+    {
+        super(nom, x, y, origine);
+    }
+
+    /**
+     * Retourne les informations sans l'identifiant.
+     */
+    public List<String> getInformations()
+    {
+        List<String> toutes = toutesInformations();
+        return toutes.subList(Math.min(1, toutes.size()), toutes.size());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * GenerateurMLD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.analyse.core.util.Constantes;
+import org.analyse.core.util.Utilities;
+
+/**
+ * Génère le MLD d'un <code>ModeleMPD</code> : une ligne par table, les
+ * identifiants soulignés et les clés étrangères précédées de #.
+ */
+public final class GenerateurMLD
+{
+    private GenerateurMLD() {}
+
+    public static List<String> generer(ModeleMPD mpd)
+    {
+        List<String> requetes = new ArrayList<String>(mpd.size() + 1);
+        requetes.add("# Modèle créé le : " + new Date() + " ;");
+
+        for (TableMPD table : mpd.getTables()) {
+            StringBuilder text = new StringBuilder();
+            text.append(Utilities.normaliseString(table.getNom(), Constantes.LOWER)).append(" (");
+
+            for (String code : table.getInformations()) {
+                String info = Utilities.normaliseString(code, Constantes.LOWER);
+                if (table.isIdentifiant(info))
+                    text.append("<u>").append(info).append("</u>");
+                else if (table.getTableForeignKey(info) != null)
+                    text.append('#').append(info);
+                else
+                    text.append(info);
+                text.append(", ");
+            }
+
+            text.append(") ;");
+            requetes.add(text.toString().replace(", )", ")"));
+        }
+        return requetes;
+    }
+}
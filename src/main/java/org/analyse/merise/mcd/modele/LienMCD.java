@@ -0,0 +1,67 @@
+/*
+ * LienMCD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+/**
+ * Lien entre une association et une entité d'un <code>ModeleMCD</code>, avec
+ * ses cardinalités ("0" ou "1", "1" ou "N").
+ */
+public class LienMCD
+{
+    private final AssociationMCD association;
+
+    private final EntiteMCD entite;
+
+    private final String cardMin, cardMax;
+
+    LienMCD(AssociationMCD association, EntiteMCD entite, String cardMin,
+            String cardMax)
+    {
+        this.association = association;
+        this.entite = entite;
+        this.cardMin = cardMin;
+        this.cardMax = cardMax;
+    }
+
+    public AssociationMCD getAssociation()
+    {
+        return association;
+    }
+
+    public EntiteMCD getEntite()
+    {
+        return entite;
+    }
+
+    public String getCardMin()
+    {
+        return cardMin;
+    }
+
+    public String getCardMax()
+    {
+        return cardMax;
+    }
+
+    public String toString()
+    {
+        return association + " (" + cardMin + "," + cardMax + ") " + entite;
+    }
+}
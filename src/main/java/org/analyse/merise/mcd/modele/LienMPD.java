@@ -0,0 +1,54 @@
+/*
+ * LienMPD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+/**
+ * Lien entre deux tables d'un <code>ModeleMPD</code>, orienté comme
+ * <code>MPDLien</code> : <code>table1</code> est l'élément MCDENTITE1.
+ */
+public class LienMPD
+{
+    private final TableMPD table1, table2;
+
+    /** Association du MCD dont le lien est dérivé, ou null */
+    private final Object origine;
+
+    LienMPD(TableMPD table1, TableMPD table2, Object origine)
+    {
+        this.table1 = table1;
+        this.table2 = table2;
+        this.origine = origine;
+    }
+
+    public TableMPD getTable1()
+    {
+        return table1;
+    }
+
+    public TableMPD getTable2()
+    {
+        return table2;
+    }
+
+    public Object getOrigine()
+    {
+        return origine;
+    }
+}
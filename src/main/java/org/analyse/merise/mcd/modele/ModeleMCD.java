@@ -0,0 +1,75 @@
+/*
+ * ModeleMCD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Modèle conceptuel sans dépendance à AWT ni à Swing : entités, associations
+ * et liens, dans l'ordre du diagramme. <code>MCDComponent.modele()</code> en
+ * donne une copie ; il peut aussi être construit directement, sans
+ * diagramme, puis transformé par <code>TransformationMCD</code>.
+ */
+public class ModeleMCD
+{
+    private final List<ObjetMCD> objets = new ArrayList<ObjetMCD>();
+
+    public EntiteMCD addEntite(String nom, int x, int y, Object origine)
+    {
+        EntiteMCD entite = new EntiteMCD(nom, x, y, origine);
+        objets.add(entite);
+        return entite;
+    }
+
+    public AssociationMCD addAssociation(String nom, int x, int y, Object origine)
+    {
+        AssociationMCD association = new AssociationMCD(nom, x, y, origine);
+        objets.add(association);
+        return association;
+    }
+
+    /**
+     * Lie l'association à l'entité. Le lien est ajouté à la fin des liens de
+     * chacune.
+     */
+    public LienMCD lier(AssociationMCD association, EntiteMCD entite,
+            String cardMin, String cardMax)
+    {
+        LienMCD lien = new LienMCD(association, entite, cardMin, cardMax);
+        association.addLien(lien);
+        entite.addLien(lien);
+        return lien;
+    }
+
+    /**
+     * Retourne les entités et les associations, dans l'ordre d'ajout.
+     */
+    public List<ObjetMCD> getObjets()
+    {
+        return Collections.unmodifiableList(objets);
+    }
+
+    public int size()
+    {
+        return objets.size();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * ModeleMPD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modèle physique produit par <code>TransformationMCD</code> : les tables,
+ * dans l'ordre de leur dérivation, et leurs liens. Les scripts SQL et le MLD
+ * en sont générés ; <code>MPDComponent</code> l'affiche.
+ */
+public class ModeleMPD
+{
+    private final List<TableMPD> tables = new ArrayList<TableMPD>();
+
+    /** Index des tables par nom ; le nom désigne la première table qui le porte */
+    private final Map<String, TableMPD> index = new HashMap<String, TableMPD>();
+
+    private final List<LienMPD> liens = new ArrayList<LienMPD>();
+
+    public void addTable(TableMPD table)
+    {
+        tables.add(table);
+        if (!index.containsKey(table.getNom()))
+            index.put(table.getNom(), table);
+    }
+
+    /**
+     * Retourne la première table nommée <code>nom</code>, ou null.
+     */
+    public TableMPD getTable(String nom)
+    {
+        return index.get(nom);
+    }
+
+    public List<TableMPD> getTables()
+    {
+        return Collections.unmodifiableList(tables);
+    }
+
+    public int size()
+    {
+        return tables.size();
+    }
+
+    /**
+     * Ajoute un lien entre deux tables. Comme dans <code>ZGraphique</code>,
+     * un lien dont une extrémité manque ou qui relie une table à elle-même
+     * est ignoré.
+     */
+    public void addLien(TableMPD table1, TableMPD table2)
+    {
+        addLien(table1, table2, null);
+    }
+
+    /**
+     * Ajoute un lien dérivé de l'association d'origine <code>origine</code>.
+     */
+    public void addLien(TableMPD table1, TableMPD table2, Object origine)
+    {
+        if (table1 != null && table2 != null && table1 != table2)
+            liens.add(new LienMPD(table1, table2, origine));
+    }
+
+    public List<LienMPD> getLiens()
+    {
+        return Collections.unmodifiableList(liens);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * ObjetMCD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entité ou association d'un <code>ModeleMCD</code>. Contrairement à
+ * <code>MCDObjet</code>, elle ne dépend ni d'AWT ni de Swing.
+ */
+public abstract class ObjetMCD
+{
+    private final String nom;
+
+    private final int x, y;
+
+    /** Objet représenté, par exemple le <code>MCDObjet</code> du diagramme */
+    private final Object origine;
+
+    /** Codes des informations, dans l'ordre ; pour une entité, le premier est l'identifiant */
+    private final List<String> informations = new ArrayList<String>();
+
+    private final List<LienMCD> liens = new ArrayList<LienMCD>();
+
+    protected ObjetMCD(String nom, int x, int y, Object origine)
+    {
+        this.nom = nom;
+        this.x = x;
+        this.y = y;
+        this.origine = origine;
+    }
+
+    public String getNom()
+    {
+        return nom;
+    }
+
+    public int getX()
+    {
+        return x;
+    }
+
+    public int getY()
+    {
+        return y;
+    }
+
+    /**
+     * Retourne l'objet représenté, transmis aux tables du MPD dérivées de
+     * celui-ci, ou null.
+     */
+    public Object getOrigine()
+    {
+        return origine;
+    }
+
+    public void addInformation(String code)
+    {
+        informations.add(code);
+    }
+
+    public void addInformations(List<String> codes)
+    {
+        informations.addAll(codes);
+    }
+
+    public String getCodeInformation(int i)
+    {
+        return informations.get(i);
+    }
+
+    public int sizeInformation()
+    {
+        return informations.size();
+    }
+
+    /**
+     * Retourne les informations à reporter dans la table de l'objet, comme
+     * <code>MCDObjet.getInformations()</code>.
+     */
+    public abstract List<String> getInformations();
+
+    protected List<String> toutesInformations()
+    {
+        return Collections.unmodifiableList(informations);
+    }
+
+    void addLien(LienMCD lien)
+    {
+        liens.add(lien);
+    }
+
+    /**
+     * Retourne les liens de l'objet, dans l'ordre de leur création.
+     */
+    public List<LienMCD> getLiens()
+    {
+        return Collections.unmodifiableList(liens);
+    }
+
+    public int sizeLien()
+    {
+        return liens.size();
+    }
+
+    public String toString()
+    {
+        return nom;
+    }
+}
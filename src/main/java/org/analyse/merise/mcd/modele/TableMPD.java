@@ -0,0 +1,239 @@
+/*
+ * TableMPD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table d'un <code>ModeleMPD</code> : colonnes, identifiants et clés
+ * étrangères, sans dépendance à AWT. <code>MPDEntite</code> en est la
+ * représentation dans le diagramme.
+ * <p>
+ * Une table est modifiée pendant sa dérivation puis n'est plus que lue : des
+ * générateurs peuvent alors la lire depuis plusieurs threads.
+ */
+public class TableMPD
+{
+    private final String nom;
+
+    private final int x, y;
+
+    /** Objet du MCD dont la table est dérivée, ou null */
+    private final Object origine;
+
+    /** Colonnes, les identifiants ajoutés un à un en tête */
+    private final List<String> informations = new ArrayList<String>();
+
+    /** Nombre d'identifiants en tête des colonnes */
+    private int nbIdentifiant;
+
+    private final Map<String, String> identifiants = new HashMap<String, String>();
+
+    /** Table référencée par chaque clé étrangère */
+    private final Map<String, String> foreignKeys = new HashMap<String, String>();
+
+    private boolean foreignKeyCanBeNull;
+
+    private boolean porteuse = true;
+
+    public TableMPD(String nom, int x, int y, Object origine)
+    {
+        this.nom = nom;
+        this.x = x;
+        this.y = y;
+        this.origine = origine;
+    }
+
+    public String getNom()
+    {
+        return nom;
+    }
+
+    /**
+     * Retourne la position proposée pour la table : celle de l'objet du MCD.
+     */
+    public int getX()
+    {
+        return x;
+    }
+
+    public int getY()
+    {
+        return y;
+    }
+
+    public Object getOrigine()
+    {
+        return origine;
+    }
+
+    public boolean isPorteuse()
+    {
+        return porteuse;
+    }
+
+    public void setPorteuse(boolean porteuse)
+    {
+        this.porteuse = porteuse;
+    }
+
+    public boolean isForeignKeyCanBeNull()
+    {
+        return foreignKeyCanBeNull;
+    }
+
+    public void setForeignKeyCanBeNull(boolean foreignKeyCanBeNull)
+    {
+        this.foreignKeyCanBeNull = foreignKeyCanBeNull;
+    }
+
+    public void addForeignKey(String foreignKey, String table)
+    {
+        foreignKeys.put(foreignKey, table);
+    }
+
+    public void removeForeignKey(String foreignKey)
+    {
+        foreignKeys.remove(foreignKey);
+    }
+
+    /**
+     * Retourne la table référencée par la clé étrangère, ou null si
+     * <code>foreignKey</code> n'en est pas une.
+     */
+    public String getTableForeignKey(String foreignKey)
+    {
+        return foreignKeys.get(foreignKey);
+    }
+
+    public Map<String, String> getForeignKeys()
+    {
+        return Collections.unmodifiableMap(foreignKeys);
+    }
+
+    public boolean foreignKeysIsEmpty()
+    {
+        return foreignKeys.isEmpty();
+    }
+
+    /**
+     * Ajoute des colonnes à la fin.
+     */
+    public void addInformations(List<String> codes)
+    {
+        informations.addAll(codes);
+    }
+
+    /**
+     * Ajoute une colonne à la fin.
+     */
+    public void addInformation(String code)
+    {
+        informations.add(code);
+    }
+
+    public boolean existInformation(String code)
+    {
+        return informations.contains(code);
+    }
+
+    /**
+     * Ajoute des identifiants à la fin des colonnes, sans les compter dans la
+     * clé primaire, comme <code>MPDEntite.addIdentifiant(List)</code>.
+     */
+    public void addIdentifiant(List<String> codes)
+    {
+        for (String code : codes) {
+            informations.add(code);
+            identifiants.put(code, code);
+        }
+    }
+
+    /**
+     * Ajoute un identifiant à la suite des précédents, en tête des colonnes.
+     */
+    public void addIdentifiant(String code)
+    {
+        informations.add(nbIdentifiant, code);
+        identifiants.put(code, code);
+        nbIdentifiant++;
+    }
+
+    public void removeIdentifiant(String code)
+    {
+        identifiants.remove(code);
+    }
+
+    public boolean isIdentifiant(String code)
+    {
+        return identifiants.containsKey(code);
+    }
+
+    public Map<String, String> getIdentifiants()
+    {
+        return Collections.unmodifiableMap(identifiants);
+    }
+
+    public String getCodeInformation(int i)
+    {
+        return informations.get(i);
+    }
+
+    public List<String> getInformations()
+    {
+        return Collections.unmodifiableList(informations);
+    }
+
+    /**
+     * Retourne le nombre de colonnes, identifiants compris.
+     */
+    public int sizeInformation()
+    {
+        return informations.size();
+    }
+
+    public int sizeIdentifiant()
+    {
+        return nbIdentifiant;
+    }
+
+    /**
+     * Indique si <code>autre</code> a le même nom et le même contenu, sans
+     * tenir compte de la position ni de l'origine.
+     */
+    public boolean memeContenu(TableMPD autre)
+    {
+        return nom.equals(autre.nom) && nbIdentifiant == autre.nbIdentifiant
+                && foreignKeyCanBeNull == autre.foreignKeyCanBeNull
+                && porteuse == autre.porteuse
+                && informations.equals(autre.informations)
+                && identifiants.equals(autre.identifiants)
+                && foreignKeys.equals(autre.foreignKeys);
+    }
+
+    public String toString()
+    {
+        return nom;
+    }
+}
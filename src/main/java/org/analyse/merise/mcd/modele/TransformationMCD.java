@@ -0,0 +1,553 @@
+/*
+ * TransformationMCD.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package org.analyse.merise.mcd.modele;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.analyse.core.util.Constantes;
+import org.analyse.core.util.Utilities;
+
+/**
+ * Vérification d'un <code>ModeleMCD</code> et dérivation du
+ * <code>ModeleMPD</code> correspondant. Ni l'une ni l'autre ne touche à AWT
+ * ou à Swing : elles s'exécutent dans une JVM headless, et sur plusieurs
+ * modèles à la fois. Seules les constantes de <code>Constantes</code> sont
+ * utilisées, recopiées à la compilation.
+ */
+public final class TransformationMCD
+{
+    private TransformationMCD() {}
+
+    /**
+     * Résultat de <code>verifier()</code> : le MCD est-il correct, et le
+     * compte rendu HTML des problèmes relevés.
+     */
+    public static class Verification
+    {
+        private final boolean correct;
+
+        private final String message;
+
+        Verification(boolean correct, String message)
+        {
+            this.correct = correct;
+            this.message = message;
+        }
+
+        public boolean isCorrect()
+        {
+            return correct;
+        }
+
+        public String getMessage()
+        {
+            return message;
+        }
+    }
+
+    /**
+     * Vérifie le dictionnaire puis le MCD : chaque entité a un identifiant,
+     * chaque association porteuse au moins deux liens.
+     */
+    public static Verification verifier(ModeleMCD mcd, Dictionnaire dico)
+    {
+        boolean correct = true;
+        boolean dicoCorrect = true;
+        String msg = "";
+
+        // Vérification du dictionnaire
+        if (!dico.isToutUtilise())
+            msg += "<b style=\"color: blue;\"><br/>/!\\Attention</b><br>"
+                    + Utilities.getLangueMessage("information_non_utilisee") + "<br>";
+
+        for (String nom : dico.getTaillesIncorrectes()) {
+            dicoCorrect = false;
+            msg += "<b style=\"color: red;\"><br/>/!\\Attention</b><br>La taille de l'information "
+                    + nom + " est incorrecte.<br>";
+        }
+
+        if (dicoCorrect)
+            msg += Utilities.getLangueMessage("dictionnaire_correct") + "<br>";
+        else
+            msg += Utilities.getLangueMessage("dictionnaire_erreur") + "<br>";
+
+        if (!dicoCorrect)
+            return new Verification(false, msg);
+
+        for (ObjetMCD obj : mcd.getObjets()) {
+            if (obj instanceof AssociationMCD) {
+                AssociationMCD ass = (AssociationMCD) obj;
+                // Une association porteuse doit avoir au moins deux liens
+                if ((ass.sizeLien() > 2 || ass.sizeInformation() > 0) && ass.sizeLien() < 2) {
+                    correct = false;
+                    msg += "<b style=\"color: red;\">/!\\</b> Le nombre de liens de l'association \""
+                            + ass.getNom() + "\" est inférieur à deux.<br>";
+                }
+            } else if (obj.sizeInformation() < 1) {
+                correct = false;
+                msg += "<b style=\"color: red;\"><br/>/!\\</b> L'entité \""
+                        + obj.getNom() + "\" n'a pas d'identifiant ...<br>";
+            }
+        }
+
+        return new Verification(correct, msg);
+    }
+
+    /**
+     * Dérive le MPD du MCD, supposé correct. Chaque entité donne une table ;
+     * une association porteuse donne une table, les autres des clés
+     * étrangères dans les tables de leurs entités.
+     */
+    public static ModeleMPD deriver(ModeleMCD mcd)
+    {
+        ModeleMPD mpd = new ModeleMPD();
+
+        for (ObjetMCD obj : mcd.getObjets())
+            if (obj instanceof EntiteMCD) {
+                TableMPD table = new TableMPD(nom(obj), obj.getX(), obj.getY(), obj.getOrigine());
+                table.addIdentifiant(obj.getCodeInformation(0));
+                table.addInformations(obj.getInformations());
+                mpd.addTable(table);
+            }
+
+        for (ObjetMCD obj : mcd.getObjets())
+            if (obj instanceof AssociationMCD && !deriverAssociation(mpd, (AssociationMCD) obj))
+                break;
+
+        return mpd;
+    }
+
+    /**
+     * Dérive le MPD du MCD en repartant de <code>precedent</code>, dérivé
+     * d'une version antérieure du même MCD. Seules les tables des objets dont
+     * l'origine est dans <code>modifies</code>, des associations qui les
+     * touchent et des entités que relient ces associations sont dérivées de
+     * nouveau ; les autres tables de <code>precedent</code> sont reprises
+     * telles quelles, sans être modifiées.
+     * <p>
+     * <code>modifies</code> contient les origines des objets ajoutés,
+     * supprimés, renommés ou dont les informations ont changé, ainsi que
+     * celles des deux objets de chaque lien ajouté, supprimé ou dont une
+     * cardinalité a changé. Sans <code>precedent</code>, ou si deux entités
+     * donnent le même nom de table, le MPD est dérivé en entier. Le résultat
+     * a les mêmes tables et les mêmes liens, dans le même ordre, que celui
+     * de <code>deriver(mcd)</code>.
+     */
+    public static ModeleMPD deriver(ModeleMCD mcd, Set<?> modifies, ModeleMPD precedent)
+    {
+        if (precedent == null)
+            return deriver(mcd);
+
+        Map<Object, TableMPD> anciennes = new IdentityHashMap<Object, TableMPD>();
+        for (TableMPD table : precedent.getTables())
+            if (table.getOrigine() != null)
+                anciennes.putIfAbsent(table.getOrigine(), table);
+
+        // objets modifiés ou sans table, puis leurs voisins par les associations
+        Set<ObjetMCD> aDeriver = Collections.newSetFromMap(new IdentityHashMap<ObjetMCD, Boolean>());
+        for (ObjetMCD obj : mcd.getObjets()) {
+            Object origine = obj.getOrigine();
+            if (origine == null || modifies.contains(origine)
+                    || (aUneTable(obj) && !anciennes.containsKey(origine))) {
+                aDeriver.add(obj);
+                for (LienMCD lien : obj.getLiens()) {
+                    AssociationMCD ass = lien.getAssociation();
+                    aDeriver.add(ass);
+                    for (LienMCD lien2 : ass.getLiens())
+                        aDeriver.add(lien2.getEntite());
+                }
+            }
+        }
+
+        // Les associations à reporter touchent une entité à dériver. Elles
+        // modifient aussi les tables de leurs autres entités : celles qui sont
+        // reprises sont remplacées par un brouillon, jeté ensuite.
+        ModeleMPD mpd = new ModeleMPD();
+        ModeleMPD travail = new ModeleMPD();
+        Map<TableMPD, TableMPD> brouillons = new IdentityHashMap<TableMPD, TableMPD>();
+        Set<String> noms = new HashSet<String>();
+        for (ObjetMCD obj : mcd.getObjets())
+            if (obj instanceof EntiteMCD) {
+                TableMPD table;
+                if (aDeriver.contains(obj)) {
+                    table = new TableMPD(nom(obj), obj.getX(), obj.getY(), obj.getOrigine());
+                    table.addIdentifiant(obj.getCodeInformation(0));
+                    table.addInformations(obj.getInformations());
+                    travail.addTable(table);
+                } else {
+                    table = anciennes.get(obj.getOrigine());
+                }
+                // les tables homonymes partagent leurs clés étrangères
+                if (!noms.add(table.getNom()))
+                    return deriver(mcd);
+                mpd.addTable(table);
+            }
+
+        Set<AssociationMCD> aReporter = new LinkedHashSet<AssociationMCD>();
+        for (ObjetMCD obj : mcd.getObjets())
+            if (obj instanceof AssociationMCD && aReporter((AssociationMCD) obj, aDeriver)) {
+                aReporter.add((AssociationMCD) obj);
+                for (LienMCD lien : obj.getLiens()) {
+                    EntiteMCD entite = lien.getEntite();
+                    if (aDeriver.contains(entite) || travail.getTable(nom(entite)) != null)
+                        continue;
+                    TableMPD brouillon = new TableMPD(nom(entite), entite.getX(), entite.getY(), entite.getOrigine());
+                    brouillon.addIdentifiant(entite.getCodeInformation(0));
+                    travail.addTable(brouillon);
+                    brouillons.put(brouillon, anciennes.get(entite.getOrigine()));
+                }
+            }
+
+        int nbEntites = travail.size();
+        for (AssociationMCD ass : aReporter)
+            if (!deriverAssociation(travail, ass))
+                return deriver(mcd);
+
+        // tables des associations porteuses, dans l'ordre du MCD : celles des
+        // associations reportées suivent les entités dans travail
+        Iterator<TableMPD> porteuses = travail.getTables().subList(nbEntites, travail.size()).iterator();
+        for (ObjetMCD obj : mcd.getObjets())
+            if (obj instanceof AssociationMCD && aUneTable(obj))
+                mpd.addTable(aReporter.contains(obj) ? porteuses.next() : anciennes.get(obj.getOrigine()));
+
+        // liens de chaque association dans l'ordre du MCD : repris de
+        // precedent, ou ceux du report, les brouillons remplacés
+        Map<Object, List<LienMPD>> liensRepris = liensParOrigine(precedent);
+        Map<Object, List<LienMPD>> liensReportes = liensParOrigine(travail);
+        for (ObjetMCD obj : mcd.getObjets()) {
+            if (!(obj instanceof AssociationMCD))
+                continue;
+            List<LienMPD> liens = (aReporter.contains(obj) ? liensReportes : liensRepris)
+                    .get(obj.getOrigine());
+            if (liens != null)
+                for (LienMPD lien : liens)
+                    mpd.addLien(brouillons.getOrDefault(lien.getTable1(), lien.getTable1()),
+                            brouillons.getOrDefault(lien.getTable2(), lien.getTable2()),
+                            lien.getOrigine());
+        }
+
+        return mpd;
+    }
+
+    /**
+     * Retourne les liens du MPD par association d'origine, dans leur ordre.
+     */
+    private static Map<Object, List<LienMPD>> liensParOrigine(ModeleMPD mpd)
+    {
+        Map<Object, List<LienMPD>> liens = new IdentityHashMap<Object, List<LienMPD>>();
+        for (LienMPD lien : mpd.getLiens()) {
+            if (lien.getOrigine() == null)
+                continue;
+            List<LienMPD> association = liens.get(lien.getOrigine());
+            if (association == null) {
+                association = new ArrayList<LienMPD>();
+                liens.put(lien.getOrigine(), association);
+            }
+            association.add(lien);
+        }
+        return liens;
+    }
+
+    /**
+     * Indique si l'objet donne une table : une entité, ou une association
+     * porteuse.
+     */
+    private static boolean aUneTable(ObjetMCD obj)
+    {
+        return obj instanceof EntiteMCD
+                || typeAssociation((AssociationMCD) obj).equals(Constantes.PORTEUSE);
+    }
+
+    /**
+     * Indique si l'association est à reporter dans le MPD : elle est à
+     * dériver, ou touche une entité à dériver.
+     */
+    private static boolean aReporter(AssociationMCD ass, Set<ObjetMCD> aDeriver)
+    {
+        if (aDeriver.contains(ass))
+            return true;
+        for (LienMCD lien : ass.getLiens())
+            if (aDeriver.contains(lien.getEntite()))
+                return true;
+        return false;
+    }
+
+    /**
+     * Reporte l'association dans le MPD. Retourne faux si la dérivation
+     * s'arrête là, faute de trouver la table d'une entité.
+     */
+    private static boolean deriverAssociation(ModeleMPD mpd, AssociationMCD ass)
+    {
+        String type = typeAssociation(ass);
+        List<LienMCD> liens = ass.getLiens();
+
+        if (type.equals(Constantes.PORTEUSE)) {
+            TableMPD table = new TableMPD(nom(ass), ass.getX(), ass.getY(), ass.getOrigine());
+            TableMPD table2 = null;
+            LienMCD lien = null;
+
+            for (int k = 0; k < liens.size(); k++) {
+                lien = liens.get(k);
+                EntiteMCD entite = lien.getEntite();
+
+                table2 = mpd.getTable(nom(entite));
+                if (table2 == null)
+                    table2 = new TableMPD(nom(entite), entite.getX(), entite.getY(), entite.getOrigine());
+
+                mpd.addLien(table2, table, ass.getOrigine());
+
+                table.addIdentifiant(entite.getCodeInformation(0));
+                table.addForeignKey(table2.getCodeInformation(0),
+                        Utilities.normaliseString(table2.getNom(), Constantes.LOWER));
+            }
+
+            table.addInformations(ass.getInformations()); // les propriétés de la relation
+
+            if (liens.size() == 1 && table2 != null) { // liaison reflexive
+                String str = Utilities.normaliseString(table2.getCodeInformation(0), Constantes.LOWER)
+                        + "_" + Utilities.normaliseString(ass.getNom(), Constantes.LOWER);
+                if (lien.getCardMin().equals("1"))
+                    table.addIdentifiant(str);
+                else
+                    table.addInformation(str);
+            }
+
+            mpd.addTable(table);
+        }
+
+        if (type.equals(Constantes.UN_UN) || type.equals(Constantes.ZERO_UN)) {
+            boolean traitement = false;
+            TableMPD table = null;
+
+            for (int k = 0; k < liens.size(); k++) {
+                LienMCD lien = liens.get(k);
+
+                table = mpd.getTable(nom(lien.getEntite()));
+                if (table == null)
+                    continue;
+                table.setForeignKeyCanBeNull(true);
+
+                // #693487
+                if (lien.getCardMax().equals("1")) {
+                    traitement = true;
+                    // la clé primaire de l'entité associée devient une clé étrangère de l'entité courante
+                    int numEntite = (k == 0) ? 1 : 0;
+                    if (liens.size() == 1)
+                        numEntite = 0; // liaison reflexive
+
+                    LienMCD lienAssocie = liens.get(numEntite);
+                    EntiteMCD associee = lienAssocie.getEntite();
+
+                    if (liens.size() == 1) { // liaison reflexive
+                        table.addIdentifiant(associee.getCodeInformation(0) + "_"
+                                + Utilities.normaliseString(ass.getNom(), Constantes.LOWER));
+                    } else {
+                        // noms d'attributs utilisés plusieurs fois
+                        String nomTable = Utilities.normaliseString(associee.getNom(), Constantes.LOWER);
+                        String foreignKey = (nomTable + "_" + associee.getCodeInformation(0)).toLowerCase();
+
+                        table.addForeignKey(foreignKey, nomTable); // Bug #520410
+                        if (type.equals(Constantes.ZERO_UN))
+                            table.setForeignKeyCanBeNull(true);
+                        else
+                            table.setForeignKeyCanBeNull(lienAssocie.getCardMin().equals("0"));
+
+                        table.addInformation(foreignKey);
+                    }
+                }
+            }
+
+            if (liens.size() == 1) { // liaison reflexive
+                if (type.equals(Constantes.ZERO_UN) && table != null)
+                    table.addInformation(liens.get(0).getEntite().getCodeInformation(0) + "_"
+                            + Utilities.normaliseString(ass.getNom(), Constantes.LOWER));
+            } else if (!traitement) {
+                // cas des relations (0,1) - (0,1) : la "1ere" entité ne
+                // reçoit rien (Bug #520410, voir test-007.asi)
+                if (mpd.getTable(nom(liens.get(0).getEntite())) == null)
+                    return false;
+
+                EntiteMCD associee = liens.get(0).getEntite();
+                table = mpd.getTable(nom(liens.get(1).getEntite()));
+                if (table == null)
+                    return false;
+
+                table.addForeignKey(associee.getCodeInformation(0),
+                        Utilities.normaliseString(associee.getNom(), Constantes.LOWER));
+                table.addInformation(associee.getCodeInformation(0));
+            }
+        }
+
+        if (type.equals(Constantes.UN_N) || type.equals(Constantes.ZERO_N)) {
+            EntiteMCD nEntite = getEntite(ass, "N");
+            TableMPD table2 = null;
+
+            for (LienMCD lien : liens) {
+                EntiteMCD entite = lien.getEntite();
+
+                TableMPD table = mpd.getTable(nom(entite));
+                if (table == null)
+                    continue;
+
+                table.setForeignKeyCanBeNull(lien.getCardMin().equals("0"));
+
+                if (!lien.getCardMax().equals("N")) {
+                    String code = nEntite.getCodeInformation(0);
+                    String suffixe = "_" + Utilities.normaliseString(ass.getNom(), Constantes.LOWER);
+                    String nomTable = Utilities.normaliseString(nEntite.getNom(), Constantes.LOWER);
+
+                    // traitement des relations ternaires
+                    if (isPartOfTernaire(lien)) {
+                        table.addInformation(code + suffixe);
+                    } else if (!table.existInformation(code)) {
+                        table.addInformation(code);
+                        table.addForeignKey(code, nomTable);
+                    } else {
+                        table.addInformation(code + suffixe);
+                        table.addForeignKey(code + suffixe, nomTable);
+                    }
+
+                    if (!type.equals(Constantes.ZERO_N)) {
+                        if (isPartOfTernaire(lien)) {
+                            if (liens.size() == 1) // liaison reflexive
+                                table.addInformation(entite.getCodeInformation(0) + suffixe);
+                            table.addForeignKey(code + suffixe, nomTable);
+                        } else
+                            table.addForeignKey(code, nomTable);
+                    }
+                } else if (liens.size() == 1) { // liaison reflexive
+                    table.addInformation(entite.getCodeInformation(0) + "_"
+                            + Utilities.normaliseString(ass.getNom(), Constantes.LOWER));
+                }
+
+                table2 = table;
+            }
+
+            if (nEntite != null)
+                mpd.addLien(mpd.getTable(nom(nEntite)), table2, ass.getOrigine());
+        }
+
+        return true;
+    }
+
+    private static String nom(ObjetMCD obj)
+    {
+        return Utilities.normaliseString(obj.getNom(), Constantes.LOWER);
+    }
+
+    /**
+     * Retourne le type de l'association : <code>PORTEUSE</code>,
+     * <code>ZERO_UN</code>, <code>UN_UN</code>, <code>ZERO_N</code> ou
+     * <code>UN_N</code>.
+     */
+    public static String typeAssociation(AssociationMCD ass)
+    {
+        if (ass.sizeLien() > 2 || ass.sizeInformation() > 0)
+            return Constantes.PORTEUSE;
+
+        boolean porteuse = true;
+        boolean unUn = true;
+        boolean zeroN = false;
+        boolean zeroUn = false;
+
+        for (LienMCD lien : ass.getLiens()) {
+            if (!lien.getCardMax().equals("N"))
+                porteuse = false;
+
+            if (!lien.getCardMax().equals("1"))
+                unUn = false;
+
+            if (lien.getCardMin().equals("0")) {
+                if (!lien.getCardMax().equals("1"))
+                    zeroN = true;
+                else
+                    zeroUn = true;
+            }
+        }
+
+        if (porteuse)
+            return Constantes.PORTEUSE;
+        if (zeroUn)
+            return Constantes.ZERO_UN;
+        if (unUn)
+            return Constantes.UN_UN;
+        if (zeroN)
+            return Constantes.ZERO_N;
+        return Constantes.UN_N;
+    }
+
+    /**
+     * Retourne la première entité liée à l'association avec la cardinalité
+     * maximale <code>card</code>, ou null.
+     */
+    private static EntiteMCD getEntite(AssociationMCD ass, String card)
+    {
+        for (LienMCD lien : ass.getLiens())
+            if (lien.getCardMax().equals(card))
+                return lien.getEntite();
+        return null;
+    }
+
+    /**
+     * Indique si le lien, de cardinalité 1,1, fait partie d'une relation
+     * ternaire : une autre association relie les deux mêmes entités.
+     */
+    private static boolean isPartOfTernaire(LienMCD lien)
+    {
+        boolean ternaire = false;
+
+        AssociationMCD association = lien.getAssociation();
+        EntiteMCD entite0 = lien.getEntite();
+        EntiteMCD entite1 = null;
+
+        // on récupère l'entité associée
+        for (LienMCD autre : association.getLiens())
+            if (autre != lien) {
+                entite1 = autre.getEntite();
+                break;
+            }
+
+        // on cherche une autre association reliant les 2 entités, en ne
+        // parcourant que les liens de la première entité
+        if (entite1 != null) {
+            for (int i = 0; i < entite0.sizeLien() && !ternaire; i++) {
+                AssociationMCD autre = entite0.getLiens().get(i).getAssociation();
+                if (autre == association)
+                    continue;
+                for (LienMCD l : autre.getLiens())
+                    if (l.getEntite() == entite1) {
+                        ternaire = true;
+                        break;
+                    }
+            }
+        }
+
+        ternaire = false; // je sais ... un bug en suspens pour ceux qui ont suivi le pb des relations ternaires
+        return ternaire;
+    }
+}
@@ -34,7 +34,6 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URL;
-import java.util.List;
 import java.util.StringTokenizer;
 
 import javax.imageio.stream.FileImageOutputStream;
@@ -165,6 +164,8 @@ public class MeriseRapport
         /* MCD */
         mcd.enleverFocus();
         mcd.repaint();
+        // la passe de mise en page planifiée n'a peut-être pas encore eu lieu
+        mcd.mettreEnPage();
         mcd.setSize(mcd.getPreferredSize());
         
         imageFile = new File(tempDir + "MCD.png");
@@ -193,6 +194,7 @@ public class MeriseRapport
         
         /* MPD */
 		mcd.buildMPD(mpd, Constantes.HIDE_ALL);
+		mpd.mettreEnPage();
 		
         imageFile = new File(tempDir + "MPD.png");
         img = new BufferedImage(
@@ -226,8 +228,6 @@ public class MeriseRapport
         
         String name, str, text, textFinal, requete;
 
-        List<String> keywords = sql.getKeywords();
-        List<String> types = sql.getTypes();
 
         text = sql.getRequests();
 
@@ -235,9 +235,9 @@ public class MeriseRapport
                 .hasMoreElements();) {
             str = st.nextToken();
 
-            if (keywords.contains(str))
+            if (sql.isKeyword(str))
                 out.println("<b style=\"color: blue;\">" + str + "</b>");
-            else if (types.contains(str))
+            else if (sql.isType(str))
                 out.println("<b style=\"color: red;\">" + str + "</b>");
             else if (str.equals("(") || str.equals(")"))
                 out.println("<b>" + str + "</b>");
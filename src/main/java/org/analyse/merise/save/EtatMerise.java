@@ -0,0 +1,414 @@
+/*
+ * EtatMerise.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.save;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import org.analyse.core.save.journal.EtatJournal;
+
+/**
+ * Etat du dictionnaire et du MCD pour le journal : les objets et les liens y
+ * sont désignés par l'identifiant que leur donne <code>JournalMerise</code>.
+ * Un état capturé n'est plus modifié ; seul l'état reconstruit par
+ * appliquer() évolue, enregistrement après enregistrement.
+ * <p>
+ * Opérations écrites par ecrireDifferences(), un octet de code puis :
+ * <pre>
+ * DICO_REMPLACE   première ligne, lignes supprimées, lignes insérées et
+ *                 pour chacune code, nom, type, taille, utilisé
+ * OBJET_AJOUT     id, entité (boolean), nom, x, y, codes des informations
+ * OBJET_SUPPR     id
+ * OBJET_POSITION  id, x, y
+ * OBJET_NOM       id, nom
+ * OBJET_INFOS     id, codes des informations
+ * LIEN_AJOUT      id, id des deux objets, cardinalités minimale et maximale
+ * LIEN_SUPPR      id
+ * LIEN_CARTES     id, cardinalités minimale et maximale
+ * </pre>
+ * Les chaînes sont précédées d'un boolean, faux pour null.
+ */
+class EtatMerise implements EtatJournal
+{
+    static final byte DICO_REMPLACE = 1, OBJET_AJOUT = 2, OBJET_SUPPR = 3,
+            OBJET_POSITION = 4, OBJET_NOM = 5, OBJET_INFOS = 6,
+            LIEN_AJOUT = 7, LIEN_SUPPR = 8, LIEN_CARTES = 9;
+
+    private static final EtatMerise VIDE = new EtatMerise();
+
+    /** Lignes du dictionnaire, dans l'ordre */
+    final List<Ligne> lignes;
+
+    /** Objets du MCD par id, dans l'ordre du MCD */
+    final Map<Integer, Objet> objets;
+
+    /** Liens du MCD par id, dans l'ordre du MCD */
+    final Map<Integer, Lien> liens;
+
+    /**
+     * Etat vide, à compléter par appliquer().
+     */
+    EtatMerise()
+    {
+        this(new ArrayList<Ligne>(), new LinkedHashMap<Integer, Objet>(),
+                new LinkedHashMap<Integer, Lien>());
+    }
+
+    EtatMerise(List<Ligne> lignes, Map<Integer, Objet> objets, Map<Integer, Lien> liens)
+    {
+        this.lignes = lignes;
+        this.objets = objets;
+        this.liens = liens;
+    }
+
+    static final class Ligne
+    {
+        final String code, nom, type;
+
+        final int taille;
+
+        final boolean utilise;
+
+        Ligne(String code, String nom, String type, int taille, boolean utilise)
+        {
+            this.code = code;
+            this.nom = nom;
+            this.type = type;
+            this.taille = taille;
+            this.utilise = utilise;
+        }
+
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Ligne))
+                return false;
+            Ligne l = (Ligne) o;
+            return taille == l.taille && utilise == l.utilise
+                    && Objects.equals(code, l.code) && Objects.equals(nom, l.nom)
+                    && Objects.equals(type, l.type);
+        }
+
+        public int hashCode()
+        {
+            return Objects.hash(code, nom, type, Integer.valueOf(taille));
+        }
+    }
+
+    static final class Objet
+    {
+        final boolean entite;
+
+        final String nom;
+
+        final int x, y;
+
+        final String[] codes;
+
+        Objet(boolean entite, String nom, int x, int y, String[] codes)
+        {
+            this.entite = entite;
+            this.nom = nom;
+            this.x = x;
+            this.y = y;
+            this.codes = codes;
+        }
+    }
+
+    static final class Lien
+    {
+        final int elem1, elem2;
+
+        final String cardMin, cardMax;
+
+        Lien(int elem1, int elem2, String cardMin, String cardMax)
+        {
+            this.elem1 = elem1;
+            this.elem2 = elem2;
+            this.cardMin = cardMin;
+            this.cardMax = cardMax;
+        }
+    }
+
+    public boolean ecrireDifferences(EtatJournal precedent, DataOutputStream out)
+            throws IOException
+    {
+        EtatMerise avant = precedent != null ? (EtatMerise) precedent : VIDE;
+        boolean ecrit = ecrireDictionnaire(avant, out);
+
+        for (Iterator<Integer> e = avant.liens.keySet().iterator(); e.hasNext();) {
+            Integer id = e.next();
+            if (!liens.containsKey(id)) {
+                out.writeByte(LIEN_SUPPR);
+                out.writeInt(id.intValue());
+                ecrit = true;
+            }
+        }
+
+        for (Iterator<Integer> e = avant.objets.keySet().iterator(); e.hasNext();) {
+            Integer id = e.next();
+            if (!objets.containsKey(id)) {
+                out.writeByte(OBJET_SUPPR);
+                out.writeInt(id.intValue());
+                ecrit = true;
+            }
+        }
+
+        for (Iterator<Entry<Integer, Objet>> e = objets.entrySet().iterator(); e.hasNext();) {
+            Entry<Integer, Objet> entry = e.next();
+            int id = entry.getKey().intValue();
+            Objet o = entry.getValue();
+            Objet a = avant.objets.get(entry.getKey());
+            if (a == null || a.entite != o.entite) {
+                if (a != null) {
+                    out.writeByte(OBJET_SUPPR);
+                    out.writeInt(id);
+                }
+                out.writeByte(OBJET_AJOUT);
+                out.writeInt(id);
+                out.writeBoolean(o.entite);
+                ecrireChaine(out, o.nom);
+                out.writeInt(o.x);
+                out.writeInt(o.y);
+                ecrireCodes(out, o.codes);
+                ecrit = true;
+                continue;
+            }
+            if (a.x != o.x || a.y != o.y) {
+                out.writeByte(OBJET_POSITION);
+                out.writeInt(id);
+                out.writeInt(o.x);
+                out.writeInt(o.y);
+                ecrit = true;
+            }
+            if (!Objects.equals(a.nom, o.nom)) {
+                out.writeByte(OBJET_NOM);
+                out.writeInt(id);
+                ecrireChaine(out, o.nom);
+                ecrit = true;
+            }
+            if (!Arrays.equals(a.codes, o.codes)) {
+                out.writeByte(OBJET_INFOS);
+                out.writeInt(id);
+                ecrireCodes(out, o.codes);
+                ecrit = true;
+            }
+        }
+
+        for (Iterator<Entry<Integer, Lien>> e = liens.entrySet().iterator(); e.hasNext();) {
+            Entry<Integer, Lien> entry = e.next();
+            int id = entry.getKey().intValue();
+            Lien l = entry.getValue();
+            Lien a = avant.liens.get(entry.getKey());
+            if (a != null && a.elem1 == l.elem1 && a.elem2 == l.elem2) {
+                if (!Objects.equals(a.cardMin, l.cardMin)
+                        || !Objects.equals(a.cardMax, l.cardMax)) {
+                    out.writeByte(LIEN_CARTES);
+                    out.writeInt(id);
+                    ecrireChaine(out, l.cardMin);
+                    ecrireChaine(out, l.cardMax);
+                    ecrit = true;
+                }
+                continue;
+            }
+            if (a != null) {
+                out.writeByte(LIEN_SUPPR);
+                out.writeInt(id);
+            }
+            out.writeByte(LIEN_AJOUT);
+            out.writeInt(id);
+            out.writeInt(l.elem1);
+            out.writeInt(l.elem2);
+            ecrireChaine(out, l.cardMin);
+            ecrireChaine(out, l.cardMax);
+            ecrit = true;
+        }
+        return ecrit;
+    }
+
+    /**
+     * Ecrit les lignes qui diffèrent entre le début et la fin communs aux
+     * deux dictionnaires.
+     */
+    private boolean ecrireDictionnaire(EtatMerise avant, DataOutputStream out)
+            throws IOException
+    {
+        int n = lignes.size(), m = avant.lignes.size();
+        int min = Math.min(n, m);
+        int debut = 0;
+        while (debut < min && lignes.get(debut).equals(avant.lignes.get(debut)))
+            debut++;
+        int fin = 0;
+        while (fin < min - debut
+                && lignes.get(n - 1 - fin).equals(avant.lignes.get(m - 1 - fin)))
+            fin++;
+        if (debut + fin == n && debut + fin == m)
+            return false;
+
+        out.writeByte(DICO_REMPLACE);
+        out.writeInt(debut);
+        out.writeInt(m - debut - fin);
+        out.writeInt(n - debut - fin);
+        for (Ligne l : lignes.subList(debut, n - fin)) {
+            ecrireChaine(out, l.code);
+            ecrireChaine(out, l.nom);
+            ecrireChaine(out, l.type);
+            out.writeInt(l.taille);
+            out.writeBoolean(l.utilise);
+        }
+        return true;
+    }
+
+    /**
+     * Applique les opérations d'un enregistrement à cet état.
+     */
+    void appliquer(DataInputStream in) throws IOException
+    {
+        int op;
+        while ((op = in.read()) != -1) {
+            switch (op) {
+            case DICO_REMPLACE: {
+                int debut = in.readInt();
+                int supprimees = in.readInt();
+                int n = in.readInt();
+                if (debut < 0 || supprimees < 0 || n < 0
+                        || debut + (long) supprimees > lignes.size())
+                    throw new IOException("Lignes du journal hors du dictionnaire");
+                List<Ligne> inserees = new ArrayList<Ligne>();
+                for (int i = 0; i < n; i++)
+                    inserees.add(new Ligne(lireChaine(in), lireChaine(in),
+                            lireChaine(in), in.readInt(), in.readBoolean()));
+                List<Ligne> remplacees = lignes.subList(debut, debut + supprimees);
+                remplacees.clear();
+                remplacees.addAll(inserees);
+                break;
+            }
+            case OBJET_AJOUT: {
+                Integer id = Integer.valueOf(in.readInt());
+                if (objets.containsKey(id))
+                    throw new IOException("Objet du journal déjà présent : " + id);
+                objets.put(id, new Objet(in.readBoolean(), lireChaine(in),
+                        in.readInt(), in.readInt(), lireCodes(in)));
+                break;
+            }
+            case OBJET_SUPPR:
+                objets.remove(lireObjet(in));
+                break;
+            case OBJET_POSITION: {
+                Integer id = lireObjet(in);
+                Objet a = objets.get(id);
+                objets.put(id, new Objet(a.entite, a.nom, in.readInt(), in.readInt(), a.codes));
+                break;
+            }
+            case OBJET_NOM: {
+                Integer id = lireObjet(in);
+                Objet a = objets.get(id);
+                objets.put(id, new Objet(a.entite, lireChaine(in), a.x, a.y, a.codes));
+                break;
+            }
+            case OBJET_INFOS: {
+                Integer id = lireObjet(in);
+                Objet a = objets.get(id);
+                objets.put(id, new Objet(a.entite, a.nom, a.x, a.y, lireCodes(in)));
+                break;
+            }
+            case LIEN_AJOUT: {
+                Integer id = Integer.valueOf(in.readInt());
+                if (liens.containsKey(id))
+                    throw new IOException("Lien du journal déjà présent : " + id);
+                liens.put(id, new Lien(in.readInt(), in.readInt(), lireChaine(in),
+                        lireChaine(in)));
+                break;
+            }
+            case LIEN_SUPPR:
+                liens.remove(lireLien(in));
+                break;
+            case LIEN_CARTES: {
+                Integer id = lireLien(in);
+                Lien a = liens.get(id);
+                liens.put(id, new Lien(a.elem1, a.elem2, lireChaine(in), lireChaine(in)));
+                break;
+            }
+            default:
+                throw new IOException("Opération de journal inconnue : " + op);
+            }
+        }
+    }
+
+    /**
+     * Lit l'id d'un objet présent dans l'état.
+     */
+    private Integer lireObjet(DataInputStream in) throws IOException
+    {
+        Integer id = Integer.valueOf(in.readInt());
+        if (!objets.containsKey(id))
+            throw new IOException("Objet du journal inconnu : " + id);
+        return id;
+    }
+
+    /**
+     * Lit l'id d'un lien présent dans l'état.
+     */
+    private Integer lireLien(DataInputStream in) throws IOException
+    {
+        Integer id = Integer.valueOf(in.readInt());
+        if (!liens.containsKey(id))
+            throw new IOException("Lien du journal inconnu : " + id);
+        return id;
+    }
+
+    private static void ecrireChaine(DataOutputStream out, String s) throws IOException
+    {
+        out.writeBoolean(s != null);
+        if (s != null)
+            out.writeUTF(s);
+    }
+
+    private static String lireChaine(DataInputStream in) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void ecrireCodes(DataOutputStream out, String[] codes) throws IOException
+    {
+        out.writeInt(codes.length);
+        for (String code : codes)
+            ecrireChaine(out, code);
+    }
+
+    private static String[] lireCodes(DataInputStream in) throws IOException
+    {
+        int n = in.readInt();
+        if (n < 0 || n > in.available())
+            throw new EOFException("Informations du journal tronquées");
+        String[] codes = new String[n];
+        for (int i = 0; i < n; i++)
+            codes[i] = lireChaine(in);
+        return codes;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * FiltreMeriseASIB.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.save;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.analyse.core.save.FiltreASIB;
+import org.analyse.core.save.asib.ConteneurASIB;
+import org.analyse.core.save.asib.FilterASIBModule;
+import org.analyse.core.save.asib.InstantaneASIB;
+import org.analyse.core.save.asib.TableChaines;
+import org.analyse.core.util.Constantes;
+import org.analyse.merise.gui.table.DictionnaireTable;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDAssociation;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.merise.mcd.composant.MCDEntite;
+import org.analyse.merise.mcd.composant.MCDLien;
+import org.analyse.merise.mcd.composant.MCDObjet;
+
+/**
+ * Filtre enregistrant la partie Merise dans un fichier ASIB. Chaque section
+ * commence par son nombre d'enregistrements (<code>int</code>) ; les chaînes
+ * sont des indices dans la section <code>chaines</code> :
+ * <pre>
+ * dictionnaire  code, nom, type, taille (int), utilisé (byte), 3 octets nuls
+ * objets        type (byte : ENTITE ou ASSOCIATION), 3 octets nuls, nom, x, y,
+ *               largeur, hauteur, première information, nombre d'informations
+ * informations  code de chaque information des objets, bout à bout
+ * liens         rang de l'élément 1, rang de l'élément 2, cardinalité
+ *               minimale et maximale (byte : le caractère ASCII), 2 octets nuls
+ * cardinalites  facultative : rang du lien, cardinalité minimale et maximale
+ *               des liens dont une cardinalité n'est pas un caractère ASCII
+ * </pre>
+ * Le contenu est celui du fichier ASI, plus la taille des objets : la
+ * conversion est sans perte dans les deux sens.
+ */
+public class FiltreMeriseASIB extends FilterASIBModule
+{
+    static final String CHAINES = "chaines";
+
+    static final String DICTIONNAIRE = "dictionnaire";
+
+    static final String OBJETS = "objets";
+
+    static final String INFORMATIONS = "informations";
+
+    static final String LIENS = "liens";
+
+    static final String CARDINALITES = "cardinalites";
+
+    static final byte ENTITE = 0;
+
+    static final byte ASSOCIATION = 1;
+
+    /** Taille des enregistrements, en octets */
+    private static final int TAILLE_INFORMATION = 20, TAILLE_OBJET = 32,
+            TAILLE_LIEN = 12;
+
+    public FiltreMeriseASIB(MeriseModule module)
+    {
+        super(FiltreASIB.ID_ASIB, module);
+    }
+
+    /**
+     * Copie le dictionnaire et le MCD dans un <code>InstantaneMerise</code>.
+     */
+    public InstantaneASIB instantane()
+    {
+        return new InstantaneMerise(((MeriseModule) module).getDictionnaireTable(),
+                ((MeriseModule) module).getMCDComponent());
+    }
+
+    /**
+     * Construit le dictionnaire et le MCD en un lot, directement depuis les
+     * enregistrements. Un module absent du fichier reste vide.
+     */
+    public int charger(ConteneurASIB in) throws IOException
+    {
+        String id = module.getID();
+        ByteBuffer table = in.section(id, CHAINES);
+        if (table == null)
+            return 0;
+        String[] chaines = TableChaines.lire(table);
+
+        DictionnaireTable dictionnaireTable = ((MeriseModule) module).getDictionnaireTable();
+        MCDComponent mcd = ((MeriseModule) module).getMCDComponent();
+
+        dictionnaireTable.beginBatch();
+        mcd.beginBatch();
+        try {
+            chargerDictionnaire(section(in, DICTIONNAIRE), chaines, dictionnaireTable);
+            MCDObjet[] objets = chargerObjets(section(in, OBJETS),
+                    section(in, INFORMATIONS), chaines, mcd);
+            int liens = chargerLiens(section(in, LIENS), in.section(id, CARDINALITES),
+                    chaines, objets, mcd);
+            mcd.setPreferredSize(mcd.getPreferredSize());
+            return objets.length + liens;
+        } finally {
+            try {
+                mcd.commitBatch();
+            } finally {
+                dictionnaireTable.commitBatch();
+            }
+        }
+    }
+
+    private ByteBuffer section(ConteneurASIB in, String nom) throws IOException
+    {
+        ByteBuffer section = in.section(module.getID(), nom);
+        if (section == null)
+            throw new IOException("Section ASIB manquante : " + nom);
+        return section;
+    }
+
+    /**
+     * Vérifie que la section contient ses n enregistrements et retourne n.
+     */
+    private static int nombre(ByteBuffer section, int taille) throws IOException
+    {
+        int n = section.getInt(0);
+        if (n < 0 || 4 + (long) n * taille > section.limit())
+            throw new IOException("Section ASIB tronquée");
+        return n;
+    }
+
+    private static void chargerDictionnaire(ByteBuffer dico, String[] chaines,
+            DictionnaireTable dictionnaireTable) throws IOException
+    {
+        int n = nombre(dico, TAILLE_INFORMATION);
+        for (int i = 0, p = 4; i < n; i++, p += TAILLE_INFORMATION) {
+            dictionnaireTable.addData(
+                    TableChaines.get(chaines, dico.getInt(p)),
+                    TableChaines.get(chaines, dico.getInt(p + 4)),
+                    TableChaines.get(chaines, dico.getInt(p + 8)),
+                    Integer.toString(dico.getInt(p + 12)),
+                    dico.get(p + 16) != 0 ? "true" : "false");
+        }
+    }
+
+    private static MCDObjet[] chargerObjets(ByteBuffer objets, ByteBuffer informations,
+            String[] chaines, MCDComponent mcd) throws IOException
+    {
+        int n = nombre(objets, TAILLE_OBJET);
+        int nInformations = nombre(informations, 4);
+
+        MCDObjet[] lus = new MCDObjet[n];
+        for (int i = 0, p = 4; i < n; i++, p += TAILLE_OBJET) {
+            String nom = TableChaines.get(chaines, objets.getInt(p + 4));
+            int x = objets.getInt(p + 8);
+            int y = objets.getInt(p + 12);
+            MCDObjet obj = objets.get(p) == ENTITE
+                    ? new MCDEntite(mcd, nom, x, y)
+                    : new MCDAssociation(mcd, nom, x, y);
+            obj.setWidth(objets.getInt(p + 16));
+            obj.setHeight(objets.getInt(p + 20));
+            mcd.addObjet(obj);
+
+            int premiere = objets.getInt(p + 24);
+            int nombre = objets.getInt(p + 28);
+            if (premiere < 0 || nombre < 0 || premiere + (long) nombre > nInformations)
+                throw new IOException("Informations ASIB hors de la section");
+            for (int j = 0; j < nombre; j++)
+                obj.addInformation(TableChaines.get(chaines,
+                        informations.getInt(4 + (premiere + j) * 4)));
+            lus[i] = obj;
+        }
+        return lus;
+    }
+
+    private static int chargerLiens(ByteBuffer liens, ByteBuffer cardinalites,
+            String[] chaines, MCDObjet[] objets, MCDComponent mcd) throws IOException
+    {
+        int n = nombre(liens, TAILLE_LIEN);
+        MCDLien[] lus = new MCDLien[n];
+        for (int i = 0, p = 4; i < n; i++, p += TAILLE_LIEN) {
+            MCDLien lien = new MCDLien();
+            lien.setElement(objet(objets, liens.getInt(p)), Constantes.MCDENTITE1);
+            lien.setElement(objet(objets, liens.getInt(p + 4)), Constantes.MCDENTITE2);
+            lien.setCardMin(carte(liens.get(p + 8)));
+            lien.setCardMax(carte(liens.get(p + 9)));
+            lus[i] = lien;
+        }
+
+        if (cardinalites != null) {
+            int m = nombre(cardinalites, 12);
+            for (int i = 0, p = 4; i < m; i++, p += 12) {
+                int rang = cardinalites.getInt(p);
+                if (rang < 0 || rang >= n)
+                    throw new IOException("Lien ASIB inconnu : " + rang);
+                lus[rang].setCardMin(TableChaines.get(chaines, cardinalites.getInt(p + 4)));
+                lus[rang].setCardMax(TableChaines.get(chaines, cardinalites.getInt(p + 8)));
+            }
+        }
+
+        // la géométrie est calculée à la fermeture du lot
+        for (MCDLien lien : lus)
+            mcd.addLien(lien);
+        return n;
+    }
+
+    private static MCDObjet objet(MCDObjet[] objets, int rang) throws IOException
+    {
+        if (rang < 0 || rang >= objets.length)
+            throw new IOException("Objet ASIB inconnu : " + rang);
+        return objets[rang];
+    }
+
+    private static String carte(byte carte)
+    {
+        return carte == InstantaneMerise.CARTE_AUTRE ? null
+                : String.valueOf((char) carte);
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * InstantaneMerise.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.save;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.analyse.core.gui.zgraph.ZElement;
+import org.analyse.core.gui.zgraph.ZLien;
+import org.analyse.core.modules.SaveModule;
+import org.analyse.core.save.asib.EcritureASIB;
+import org.analyse.core.save.asib.InstantaneASIB;
+import org.analyse.core.save.asib.TableChaines;
+import org.analyse.core.util.Constantes;
+import org.analyse.merise.gui.table.DictionnaireTable;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.merise.mcd.composant.MCDEntite;
+import org.analyse.merise.mcd.composant.MCDLien;
+import org.analyse.merise.mcd.composant.MCDObjet;
+import org.analyse.xml.XmlWriter;
+
+/**
+ * Etat du dictionnaire et du MCD au moment de la sauvegarde : uniquement
+ * des chaînes et des entiers, copiés sur l'EDT et écrits ensuite en XML
+ * (<code>FiltreMeriseASI</code>) ou en binaire (<code>FiltreMeriseASIB</code>).
+ */
+class InstantaneMerise implements SaveModule, InstantaneASIB
+{
+    /** Octet d'une cardinalité qui n'est pas un seul caractère ASCII */
+    static final byte CARTE_AUTRE = 0;
+
+    /** code, nom et type de chaque information */
+    private final String[] codesDico, nomsDico, typesDico;
+
+    private final int[] tailles;
+
+    private final boolean[] utilises;
+
+    /** nom de chaque objet du MCD, entités puis associations mélangées */
+    private final String[] noms;
+
+    private final boolean[] entites;
+
+    private final int[] x, y, largeurs, hauteurs;
+
+    /** codes des informations de chaque objet */
+    private final String[][] codes;
+
+    /** cardinalités de chaque lien */
+    private final String[] cardMins, cardMaxs;
+
+    /** rang dans noms des deux éléments de chaque lien */
+    private final int[] elems1, elems2;
+
+    InstantaneMerise(DictionnaireTable dico, MCDComponent mcd)
+    {
+        int n = dico.getRowCount() - 1;
+        codesDico = new String[n];
+        nomsDico = new String[n];
+        typesDico = new String[n];
+        tailles = new int[n];
+        utilises = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            String id = dico.getID(i);
+            codesDico[i] = id;
+            nomsDico[i] = String.valueOf(dico.getValue(id, DictionnaireTable.NAME));
+            typesDico[i] = String.valueOf(dico.getValue(id, DictionnaireTable.TYPE));
+            tailles[i] = ((Integer) dico.getValue(id, DictionnaireTable.SIZE)).intValue();
+            utilises[i] = ((Boolean) dico.getValue(id, DictionnaireTable.USE)).booleanValue();
+        }
+
+        n = mcd.sizeElements();
+        noms = new String[n];
+        entites = new boolean[n];
+        x = new int[n];
+        y = new int[n];
+        largeurs = new int[n];
+        hauteurs = new int[n];
+        codes = new String[n][];
+        Map<ZElement, Integer> rangs = new IdentityHashMap<ZElement, Integer>(n);
+        int i = 0;
+        for (Iterator<ZElement> e = mcd.enumElements(); e.hasNext(); i++) {
+            MCDObjet o = (MCDObjet) e.next();
+            rangs.put(o, Integer.valueOf(i));
+            noms[i] = o.getName();
+            entites[i] = o instanceof MCDEntite;
+            x[i] = o.getX();
+            y[i] = o.getY();
+            largeurs[i] = o.getWidth();
+            hauteurs[i] = o.getHeight();
+            codes[i] = new String[o.sizeInformation()];
+            for (int j = 0; j < codes[i].length; j++)
+                codes[i][j] = o.getCodeInformation(j);
+        }
+
+        n = mcd.sizeLien();
+        cardMins = new String[n];
+        cardMaxs = new String[n];
+        elems1 = new int[n];
+        elems2 = new int[n];
+        i = 0;
+        for (Iterator<ZLien> e = mcd.enumLiens(); e.hasNext(); i++) {
+            MCDLien l = (MCDLien) e.next();
+            cardMins[i] = l.getCardMin();
+            cardMaxs[i] = l.getCardMax();
+            elems1[i] = rangs.get(l.getElement(Constantes.MCDENTITE1)).intValue();
+            elems2[i] = rangs.get(l.getElement(Constantes.MCDENTITE2)).intValue();
+        }
+    }
+
+    public void save(XmlWriter out) throws IOException
+    {
+        saveDictionnaire(out);
+        saveMCD(out);
+    }
+
+    public SaveModule instantane()
+    {
+        return this;
+    }
+
+    /**
+     * Sauvegarde du dictionnaire.
+     */
+    private void saveDictionnaire(XmlWriter out) throws IOException
+    {
+        out.startElement("dictionnaire");
+
+        for (int i = 0; i < codesDico.length; i++) {
+            out.startElement("information")
+                    .attribute("code", codesDico[i])
+                    .attribute("nom", nomsDico[i])
+                    .attribute("type", typesDico[i])
+                    .attribute("taille", tailles[i])
+                    .attribute("utilise", utilises[i])
+                    .endElement();
+        }
+
+        out.endElement();
+    }
+
+    /**
+     * Sauvegarde du MCD.
+     */
+    private void saveMCD(XmlWriter out) throws IOException
+    {
+        out.startElement("mcd");
+
+        for (int i = 0; i < noms.length; i++) {
+            out.startElement(entites[i] ? "entite" : "association")
+                    .attribute("nom", noms[i])
+                    .attribute("x", x[i])
+                    .attribute("y", y[i]);
+
+            for (String code : codes[i])
+                out.startElement("information").attribute("code", code)
+                        .endElement();
+
+            out.endElement();
+        }
+
+        for (int i = 0; i < cardMins.length; i++) {
+            out.startElement("lien")
+                    .attribute("cardmin", cardMins[i])
+                    .attribute("cardmax", cardMaxs[i])
+                    .attribute("elem1", noms[elems1[i]])
+                    .attribute("elem2", noms[elems2[i]])
+                    .endElement();
+        }
+
+        out.endElement();
+    }
+
+    /**
+     * Ecrit les sections binaires ; voir <code>FiltreMeriseASIB</code> pour
+     * leur format.
+     */
+    public void save(EcritureASIB out, String module) throws IOException
+    {
+        TableChaines chaines = new TableChaines();
+        // la table est remplie au fil des sections, mais placée en tête
+        DataOutputStream table = out.section(module, FiltreMeriseASIB.CHAINES);
+
+        DataOutputStream dico = out.section(module, FiltreMeriseASIB.DICTIONNAIRE);
+        dico.writeInt(codesDico.length);
+        for (int i = 0; i < codesDico.length; i++) {
+            dico.writeInt(chaines.indice(codesDico[i]));
+            dico.writeInt(chaines.indice(nomsDico[i]));
+            dico.writeInt(chaines.indice(typesDico[i]));
+            dico.writeInt(tailles[i]);
+            dico.writeByte(utilises[i] ? 1 : 0);
+            dico.write(new byte[3]);
+        }
+
+        DataOutputStream objets = out.section(module, FiltreMeriseASIB.OBJETS);
+        DataOutputStream informations = out.section(module, FiltreMeriseASIB.INFORMATIONS);
+        int premiere = 0;
+        objets.writeInt(noms.length);
+        for (String[] c : codes)
+            premiere += c.length;
+        informations.writeInt(premiere);
+        premiere = 0;
+        for (int i = 0; i < noms.length; i++) {
+            objets.writeByte(entites[i] ? FiltreMeriseASIB.ENTITE : FiltreMeriseASIB.ASSOCIATION);
+            objets.write(new byte[3]);
+            objets.writeInt(chaines.indice(noms[i]));
+            objets.writeInt(x[i]);
+            objets.writeInt(y[i]);
+            objets.writeInt(largeurs[i]);
+            objets.writeInt(hauteurs[i]);
+            objets.writeInt(premiere);
+            objets.writeInt(codes[i].length);
+            for (String code : codes[i])
+                informations.writeInt(chaines.indice(code));
+            premiere += codes[i].length;
+        }
+
+        DataOutputStream liens = out.section(module, FiltreMeriseASIB.LIENS);
+        List<Integer> autres = new ArrayList<Integer>();
+        liens.writeInt(cardMins.length);
+        for (int i = 0; i < cardMins.length; i++) {
+            byte min = carte(cardMins[i]);
+            byte max = carte(cardMaxs[i]);
+            if (min == CARTE_AUTRE || max == CARTE_AUTRE)
+                autres.add(Integer.valueOf(i));
+            liens.writeInt(elems1[i]);
+            liens.writeInt(elems2[i]);
+            liens.writeByte(min);
+            liens.writeByte(max);
+            liens.write(new byte[2]);
+        }
+
+        // cardinalités hors du commun, saisies à la main dans un fichier ASI
+        if (!autres.isEmpty()) {
+            DataOutputStream cartes = out.section(module, FiltreMeriseASIB.CARDINALITES);
+            cartes.writeInt(autres.size());
+            for (Integer i : autres) {
+                cartes.writeInt(i.intValue());
+                cartes.writeInt(chaines.indice(cardMins[i.intValue()]));
+                cartes.writeInt(chaines.indice(cardMaxs[i.intValue()]));
+            }
+        }
+
+        chaines.ecrire(table);
+    }
+
+    /**
+     * Code une cardinalité sur un octet : son caractère s'il est seul et
+     * ASCII, CARTE_AUTRE sinon.
+     */
+    static byte carte(String carte)
+    {
+        if (carte != null && carte.length() == 1 && carte.charAt(0) > 0
+                && carte.charAt(0) < 0x80)
+            return (byte) carte.charAt(0);
+        return CARTE_AUTRE;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * JournalMerise.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.save;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.analyse.core.gui.zgraph.ZElement;
+import org.analyse.core.gui.zgraph.ZLien;
+import org.analyse.core.save.JournalASI;
+import org.analyse.core.save.journal.EtatJournal;
+import org.analyse.core.save.journal.FilterJournalModule;
+import org.analyse.core.util.Constantes;
+import org.analyse.merise.gui.table.DictionnaireTable;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDAssociation;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.merise.mcd.composant.MCDEntite;
+import org.analyse.merise.mcd.composant.MCDLien;
+import org.analyse.merise.mcd.composant.MCDObjet;
+
+/**
+ * Filtre journalisant le dictionnaire et le MCD. Chaque objet et chaque lien
+ * du MCD reçoit un identifiant à sa première capture et le garde tant qu'il
+ * est dans le MCD : le journal compare ainsi deux captures objet par objet
+ * (voir <code>EtatMerise</code>). L'état capturé d'un objet est conservé avec
+ * sa version et n'est refait que si l'objet a changé depuis : sur l'EDT, une
+ * capture ne coûte que le parcours du MCD et la copie de ce qui a été modifié.
+ */
+public class JournalMerise extends FilterJournalModule
+{
+    /** Suivi des objets et des liens présents à la dernière capture */
+    private Map<Object, Suivi> suivis = new IdentityHashMap<Object, Suivi>();
+
+    private int prochainId;
+
+    /** Numéro de la capture en cours */
+    private int capture;
+
+    /** Lignes du dictionnaire à la dernière capture, et leur version */
+    private List<EtatMerise.Ligne> lignes;
+
+    private long versionLignes = -1;
+
+    /**
+     * Identifiant, version et dernier état capturé d'un objet ou d'un lien.
+     */
+    private static final class Suivi
+    {
+        final Integer id;
+
+        long version = -1;
+
+        Object etat;
+
+        /** Dernière capture où l'objet était dans le MCD */
+        int capture;
+
+        Suivi(Integer id)
+        {
+            this.id = id;
+        }
+    }
+
+    public JournalMerise(MeriseModule module)
+    {
+        super(JournalASI.ID_JOURNAL, module);
+    }
+
+    public long getModifications()
+    {
+        return ((MeriseModule) module).getDictionnaireTable().getModifications()
+                + ((MeriseModule) module).getMCDComponent().getModifications();
+    }
+
+    public EtatJournal capturer()
+    {
+        DictionnaireTable dico = ((MeriseModule) module).getDictionnaireTable();
+        MCDComponent mcd = ((MeriseModule) module).getMCDComponent();
+        capture++;
+
+        if (lignes == null || versionLignes != dico.getModifications()) {
+            versionLignes = dico.getModifications();
+            lignes = capturerLignes(dico);
+        }
+
+        Map<Integer, EtatMerise.Objet> objets = new LinkedHashMap<Integer, EtatMerise.Objet>();
+        for (Iterator<ZElement> e = mcd.enumElements(); e.hasNext();) {
+            MCDObjet o = (MCDObjet) e.next();
+            Suivi suivi = suivi(o);
+            if (suivi.version != o.getVersion()) {
+                String[] codes = new String[o.sizeInformation()];
+                for (int j = 0; j < codes.length; j++)
+                    codes[j] = o.getCodeInformation(j);
+                suivi.etat = new EtatMerise.Objet(o instanceof MCDEntite,
+                        o.getName(), o.getX(), o.getY(), codes);
+                suivi.version = o.getVersion();
+            }
+            objets.put(suivi.id, (EtatMerise.Objet) suivi.etat);
+        }
+
+        Map<Integer, EtatMerise.Lien> liens = new LinkedHashMap<Integer, EtatMerise.Lien>();
+        for (Iterator<ZLien> e = mcd.enumLiens(); e.hasNext();) {
+            MCDLien l = (MCDLien) e.next();
+            Suivi suivi = suivi(l);
+            if (suivi.version != l.getVersion()) {
+                suivi.etat = new EtatMerise.Lien(
+                        suivi(l.getElement(Constantes.MCDENTITE1)).id.intValue(),
+                        suivi(l.getElement(Constantes.MCDENTITE2)).id.intValue(),
+                        l.getCardMin(), l.getCardMax());
+                suivi.version = l.getVersion();
+            }
+            liens.put(suivi.id, (EtatMerise.Lien) suivi.etat);
+        }
+
+        // les objets disparus du MCD perdent leur identifiant
+        if (suivis.size() > objets.size() + liens.size())
+            suivis.values().removeIf(suivi -> suivi.capture != capture);
+
+        return new EtatMerise(lignes, objets, liens);
+    }
+
+    private Suivi suivi(Object o)
+    {
+        Suivi suivi = suivis.get(o);
+        if (suivi == null) {
+            suivi = new Suivi(Integer.valueOf(prochainId++));
+            suivis.put(o, suivi);
+        }
+        suivi.capture = capture;
+        return suivi;
+    }
+
+    private static List<EtatMerise.Ligne> capturerLignes(DictionnaireTable dico)
+    {
+        int n = dico.getRowCount() - 1;
+        List<EtatMerise.Ligne> lignes = new ArrayList<EtatMerise.Ligne>(n);
+        for (int i = 0; i < n; i++) {
+            String id = dico.getID(i);
+            lignes.add(new EtatMerise.Ligne(id,
+                    String.valueOf(dico.getValue(id, DictionnaireTable.NAME)),
+                    String.valueOf(dico.getValue(id, DictionnaireTable.TYPE)),
+                    ((Integer) dico.getValue(id, DictionnaireTable.SIZE)).intValue(),
+                    ((Boolean) dico.getValue(id, DictionnaireTable.USE)).booleanValue()));
+        }
+        return lignes;
+    }
+
+    /**
+     * Rejoue les enregistrements sur un état vide, puis construit le
+     * dictionnaire et le MCD en un lot.
+     */
+    public int rejouer(List<DataInputStream> enregistrements) throws IOException
+    {
+        EtatMerise etat = new EtatMerise();
+        for (DataInputStream in : enregistrements)
+            etat.appliquer(in);
+
+        DictionnaireTable dictionnaireTable = ((MeriseModule) module).getDictionnaireTable();
+        MCDComponent mcd = ((MeriseModule) module).getMCDComponent();
+
+        dictionnaireTable.beginBatch();
+        mcd.beginBatch();
+        try {
+            for (EtatMerise.Ligne l : etat.lignes)
+                dictionnaireTable.addData(l.code, l.nom, l.type,
+                        Integer.toString(l.taille), l.utilise ? "true" : "false");
+
+            Map<Integer, MCDObjet> crees = new HashMap<Integer, MCDObjet>();
+            for (Iterator<Entry<Integer, EtatMerise.Objet>> e = etat.objets.entrySet().iterator(); e.hasNext();) {
+                Entry<Integer, EtatMerise.Objet> entry = e.next();
+                EtatMerise.Objet o = entry.getValue();
+                MCDObjet obj = o.entite ? new MCDEntite(mcd, o.nom, o.x, o.y)
+                        : new MCDAssociation(mcd, o.nom, o.x, o.y);
+                mcd.addObjet(obj);
+                for (String code : o.codes)
+                    obj.addInformation(code);
+                crees.put(entry.getKey(), obj);
+            }
+
+            // la géométrie est calculée à la fermeture du lot
+            for (EtatMerise.Lien l : etat.liens.values()) {
+                MCDLien lien = new MCDLien();
+                lien.setElement(objet(crees, l.elem1), Constantes.MCDENTITE1);
+                lien.setElement(objet(crees, l.elem2), Constantes.MCDENTITE2);
+                lien.setCardMin(l.cardMin);
+                lien.setCardMax(l.cardMax);
+                mcd.addLien(lien);
+            }
+            mcd.setPreferredSize(mcd.getPreferredSize());
+            return etat.objets.size() + etat.liens.size();
+        } finally {
+            try {
+                mcd.commitBatch();
+            } finally {
+                dictionnaireTable.commitBatch();
+            }
+        }
+    }
+
+    private static MCDObjet objet(Map<Integer, MCDObjet> objets, int id) throws IOException
+    {
+        MCDObjet o = objets.get(Integer.valueOf(id));
+        if (o == null)
+            throw new IOException("Objet du journal inconnu : " + id);
+        return o;
+    }
+}
@@ -65,6 +65,26 @@ public class ASIMeriseHandler extends ASIModuleHandler
         hashtable.put(aname, value);
     }
 
+    /**
+     * Le chargement se fait en lot : le dictionnaire et le MCD ne sont
+     * rafraîchis qu'une fois, à la fin du module.
+     */
+    public void startModule()
+    {
+        hashtable.clear();
+        dictionnaireTable.beginBatch();
+        mcd.beginBatch();
+    }
+
+    public void endModule()
+    {
+        try {
+            mcd.commitBatch();
+        } finally {
+            dictionnaireTable.commitBatch();
+        }
+    }
+
     public void startElement(String name)
     {
         if ("DICTIONNAIRE".equalsIgnoreCase(name))
@@ -72,10 +92,7 @@ public class ASIMeriseHandler extends ASIModuleHandler
         else if ("MCD".equalsIgnoreCase(name))
             etape = MCD;
 
-        if (etape == DICTIONNAIRE)
-            return;
-
-        if ("ENTITE".equalsIgnoreCase(name)) {
+        if (etape == MCD && "ENTITE".equalsIgnoreCase(name)) {
             lastObj = new MCDEntite(mcd, hashtable.get("nom"),
                     Integer.parseInt(hashtable.get("x")),
                     Integer.parseInt(hashtable.get("y")));
@@ -84,7 +101,7 @@ public class ASIMeriseHandler extends ASIModuleHandler
                     .get("y"))));
             mcd.addObjet(lastObj);
 
-        } else if ("ASSOCIATION".equalsIgnoreCase(name)) {
+        } else if (etape == MCD && "ASSOCIATION".equalsIgnoreCase(name)) {
             lastObj = new MCDAssociation(mcd, hashtable.get("nom"),
                     Integer.parseInt(hashtable.get("x")),
                     Integer.parseInt(hashtable.get("y")));
@@ -93,6 +110,12 @@ public class ASIMeriseHandler extends ASIModuleHandler
                     .get("y"))));
             mcd.addObjet(lastObj);
         }
+
+        // les attributs ne doivent pas déborder sur l'élément suivant ; ceux
+        // des feuilles servent à leur fermeture
+        if (!"INFORMATION".equalsIgnoreCase(name)
+                && !"LIEN".equalsIgnoreCase(name))
+            hashtable.clear();
     }
 
     public void endElement(String name)
@@ -122,13 +145,13 @@ public class ASIMeriseHandler extends ASIModuleHandler
                     lien.setCardMin(hashtable.get("cardmin"));
                     lien.setCardMax(hashtable.get("cardmax"));
 
-                    lien.updateLocation();
-
+                    // la géométrie est calculée à la fermeture du lot
                     mcd.addLien(lien);
                 } else if ("MCD".equalsIgnoreCase(name)) {
                     mcd.setPreferredSize(mcd.getPreferredSize());
                 }
                 break;
         }
+        hashtable.clear();
     }
 }
\ No newline at end of file
@@ -0,0 +1,283 @@
+/*
+ * DeploiementSQL.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+
+/**
+ * Exécute un script SQL sur une connexion JDBC, par lots de
+ * <code>addBatch()</code> / <code>executeBatch()</code> : un aller-retour
+ * avec la base par lot plutôt que par requête.
+ * <p>
+ * Si le dialecte a un DDL transactionnel, le script est exécuté dans une
+ * seule transaction, annulée en cas d'erreur ou d'annulation ; sinon chaque
+ * requête est validée dès son exécution, comme auparavant.
+ * <p>
+ * <code>deployer()</code> s'exécute hors de l'EDT ; <code>annuler()</code>
+ * peut être appelé depuis un autre thread.
+ */
+public class DeploiementSQL
+{
+    /** Nombre de requêtes envoyées par défaut dans un lot */
+    public static final int TAILLE_LOT = 500;
+
+    /**
+     * Suivi du déploiement, prévenu dans le thread du déploiement.
+     */
+    public interface Suivi
+    {
+        /**
+         * Prévient que <code>requete</code>, la <code>executees</code>-ième
+         * du script sur <code>total</code>, a été exécutée.
+         */
+        void requeteExecutee(int executees, int total, String requete);
+    }
+
+    private final Connection con;
+
+    private final List<String> requetes;
+
+    private final boolean transactionnel;
+
+    private int tailleLot = TAILLE_LOT;
+
+    private Suivi suivi;
+
+    private int executees;
+
+    private volatile boolean annule;
+
+    /** Requête en cours d'exécution, que annuler() interrompt */
+    private volatile Statement enCours;
+
+    /**
+     * Déploiement sans transaction : chaque requête est validée dès son
+     * exécution.
+     */
+    public DeploiementSQL(Connection con, List<String> requetes)
+    {
+        this(con, requetes, false);
+    }
+
+    /**
+     * Déploiement dans une transaction si <code>dialecte</code> a un DDL
+     * transactionnel.
+     */
+    public DeploiementSQL(Connection con, List<String> requetes, DialecteSQL dialecte)
+    {
+        this(con, requetes, dialecte.isDDLTransactionnel());
+    }
+
+    private DeploiementSQL(Connection con, List<String> requetes, boolean transactionnel)
+    {
+        this.con = con;
+        this.requetes = new ArrayList<String>(requetes);
+        this.transactionnel = transactionnel;
+    }
+
+    /**
+     * Modifie le nombre de requêtes envoyées dans un lot ; 1 exécute les
+     * requêtes une à une.
+     */
+    public void setTailleLot(int tailleLot)
+    {
+        if (tailleLot < 1)
+            throw new IllegalArgumentException("Taille de lot incorrecte : " + tailleLot);
+        this.tailleLot = tailleLot;
+    }
+
+    public int getTailleLot()
+    {
+        return tailleLot;
+    }
+
+    public void setSuivi(Suivi suivi)
+    {
+        this.suivi = suivi;
+    }
+
+    public boolean isTransactionnel()
+    {
+        return transactionnel;
+    }
+
+    /**
+     * Retourne le nombre de requêtes du script.
+     */
+    public int getTotal()
+    {
+        return requetes.size();
+    }
+
+    /**
+     * Retourne le nombre de requêtes exécutées sans erreur.
+     */
+    public int getExecutees()
+    {
+        return executees;
+    }
+
+    public boolean isAnnule()
+    {
+        return annule;
+    }
+
+    /**
+     * Demande l'arrêt du déploiement : le lot en cours est interrompu par
+     * <code>Statement.cancel()</code> et les lots suivants ne sont pas
+     * envoyés.
+     */
+    public void annuler()
+    {
+        annule = true;
+        Statement stmt = enCours;
+        if (stmt != null) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                // la requête se termine d'elle-même ; le lot suivant n'est pas envoyé
+            }
+        }
+    }
+
+    /**
+     * Exécute le script.
+     *
+     * @return false si le déploiement a été annulé ; dans une transaction,
+     *         rien n'a alors été modifié
+     * @throws SQLException
+     *             à la première requête en erreur, dont le texte suit le
+     *             message de la base ; dans une transaction, rien n'a été
+     *             modifié
+     */
+    public boolean deployer() throws SQLException
+    {
+        executees = 0;
+        boolean autoCommit = con.getAutoCommit();
+        boolean parLots = tailleLot > 1 && con.getMetaData().supportsBatchUpdates();
+
+        if (transactionnel)
+            con.setAutoCommit(false);
+        try {
+            Statement stmt = con.createStatement();
+            enCours = stmt;
+            try {
+                for (int debut = 0; debut < requetes.size() && !annule; debut += tailleLot) {
+                    List<String> lot = requetes.subList(debut,
+                            Math.min(debut + tailleLot, requetes.size()));
+                    if (parLots)
+                        executerLot(stmt, lot);
+                    else
+                        for (String requete : lot) {
+                            if (annule)
+                                break;
+                            executer(stmt, requete);
+                        }
+                }
+            } finally {
+                enCours = null;
+                stmt.close();
+            }
+
+            if (annule) {
+                annulerTransaction();
+                return false;
+            }
+            if (transactionnel)
+                con.commit();
+            return true;
+        } catch (SQLException e) {
+            annulerTransaction();
+            if (annule)
+                return false;
+            throw e;
+        } finally {
+            if (transactionnel)
+                con.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void executer(Statement stmt, String requete) throws SQLException
+    {
+        try {
+            stmt.execute(requete);
+        } catch (SQLException e) {
+            throw erreur(e, requete);
+        }
+        executee(requete);
+    }
+
+    private void executerLot(Statement stmt, List<String> lot) throws SQLException
+    {
+        for (String requete : lot)
+            stmt.addBatch(requete);
+
+        try {
+            stmt.executeBatch();
+        } catch (BatchUpdateException e) {
+            // les requêtes qui précèdent la première en erreur ont abouti
+            int[] resultats = e.getUpdateCounts();
+            int n = 0;
+            while (resultats != null && n < resultats.length && n < lot.size()
+                    && resultats[n] != Statement.EXECUTE_FAILED)
+                executee(lot.get(n++));
+            throw erreur(e, lot.get(Math.min(n, lot.size() - 1)));
+        } finally {
+            stmt.clearBatch();
+        }
+
+        for (String requete : lot)
+            executee(requete);
+    }
+
+    private void executee(String requete)
+    {
+        executees++;
+        if (suivi != null)
+            suivi.requeteExecutee(executees, requetes.size(), requete);
+    }
+
+    /**
+     * Retourne l'erreur de la base suivie du texte de la requête en erreur,
+     * avec le même code d'erreur.
+     */
+    private static SQLException erreur(SQLException e, String requete)
+    {
+        return new SQLException(e.getMessage() + "\n" + requete, e.getSQLState(),
+                e.getErrorCode(), e);
+    }
+
+    private void annulerTransaction()
+    {
+        if (!transactionnel)
+            return;
+        try {
+            con.rollback();
+        } catch (SQLException e) {
+            // la connexion est perdue : la transaction n'a pas été validée
+        }
+    }
+}
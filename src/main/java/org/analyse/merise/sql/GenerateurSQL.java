@@ -0,0 +1,233 @@
+/*
+ * GenerateurSQL.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.analyse.core.util.Constantes;
+import org.analyse.core.util.Utilities;
+import org.analyse.merise.mcd.modele.Dictionnaire;
+import org.analyse.merise.mcd.modele.ModeleMPD;
+import org.analyse.merise.mcd.modele.TableMPD;
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+
+/**
+ * Génère le script SQL d'un <code>ModeleMPD</code> dans un
+ * <code>DialecteSQL</code> : pour chaque table, sa suppression et sa création
+ * (suivie par exemple de la séquence et du trigger d'Oracle), puis les
+ * contraintes de clés étrangères. Ne dépend ni d'AWT ni de Swing.
+ * <p>
+ * Le script d'une table ne dépend que de la table et du dictionnaire : sur un
+ * grand modèle, les tables sont générées en parallèle. Le modèle et le
+ * dictionnaire ne doivent pas être modifiés pendant la génération.
+ */
+public class GenerateurSQL
+{
+    /** Nombre de tables à partir duquel les tables sont générées en parallèle */
+    static final int SEUIL_PARALLELE = 64;
+
+    private final Dictionnaire dico;
+
+    private final DialecteSQL dialecte;
+
+    public GenerateurSQL(Dictionnaire dico, DialecteSQL dialecte)
+    {
+        this.dico = dico;
+        this.dialecte = dialecte;
+    }
+
+    /**
+     * Requêtes d'une table : sa création, puis ses contraintes de clés
+     * étrangères, placées après la création de toutes les tables.
+     */
+    private static final class Fragment
+    {
+        final List<String> creation = new ArrayList<String>(4);
+
+        final List<String> contraintes = new ArrayList<String>(0);
+    }
+
+    /**
+     * Retourne les requêtes du script, dans l'ordre des tables du modèle.
+     */
+    public List<String> generer(ModeleMPD mpd)
+    {
+        return generer(mpd, mpd.size() >= SEUIL_PARALLELE);
+    }
+
+    /**
+     * Génère un fragment par table, en parallèle sur le pool fork/join commun
+     * si <code>parallele</code>, puis les assemble dans l'ordre des tables :
+     * le script est le même que celui d'une génération séquentielle.
+     */
+    List<String> generer(ModeleMPD mpd, boolean parallele)
+    {
+        Stream<TableMPD> tables = parallele ? mpd.getTables().parallelStream()
+                : mpd.getTables().stream();
+        List<Fragment> fragments = tables.map(table -> genererFragment(mpd, table))
+                .collect(Collectors.toList());
+
+        int taille = 0;
+        for (Fragment fragment : fragments)
+            taille += fragment.creation.size() + fragment.contraintes.size();
+
+        List<String> requetes = new ArrayList<String>(taille);
+        for (Fragment fragment : fragments)
+            requetes.addAll(fragment.creation);
+        for (Fragment fragment : fragments)
+            requetes.addAll(fragment.contraintes);
+        return requetes;
+    }
+
+    private Fragment genererFragment(ModeleMPD mpd, TableMPD table)
+    {
+        Fragment fragment = new Fragment();
+        genererTable(mpd, table, fragment.creation);
+        genererClesEtrangeres(mpd, table, fragment.contraintes);
+        return fragment;
+    }
+
+    private void genererTable(ModeleMPD mpd, TableMPD table, List<String> requetes)
+    {
+        String nom = Utilities.normaliseString(table.getNom(), Constantes.LOWER);
+
+        requetes.add(dialecte.supprimerTable(nom));
+
+        StringBuilder text = new StringBuilder("CREATE TABLE ").append(dialecte.identifiant(nom)).append(" (");
+
+        int cmp = 0;
+        int nbId = table.sizeIdentifiant();
+
+        // la première colonne porte l'auto-incrément ; son type et sa taille
+        // servent par défaut aux colonnes absentes du dictionnaire
+        boolean premiereFois = true, premierAutoIncrement = true;
+        String defautSize = "";
+
+        for (Iterator<String> e = table.getInformations().iterator(); e.hasNext(); cmp++) {
+            String info = e.next();
+
+            if (premiereFois) {
+                premiereFois = false;
+                Integer taille = dico.getTaille(info);
+                if (taille != null && taille.intValue() != 0
+                        && dialecte.avecTaille(dico.getType(info)))
+                    defautSize = String.valueOf(taille);
+            }
+
+            String typeDictionnaire = dico.getType(codeDictionnaire(mpd, table, info));
+            // Bug #567501 ; pas d'AUTO_INCREMENT sur une clé étrangère
+            if ("INT_AUTO_INCREMENT".equals(typeDictionnaire)
+                    || "BIGINT_AUTO_INCREMENT".equals(typeDictionnaire))
+                info = Utilities.normaliseString(info, Constantes.LOWER);
+            String type = dialecte.type(typeDictionnaire, premierAutoIncrement);
+
+            text.append(dialecte.identifiant(info)).append(' ').append(type);
+
+            String wInfo = codeDictionnaire(mpd, table, info);
+            Integer taille = dico.getTaille(wInfo);
+            if (taille == null) {
+                if (!defautSize.equals(""))
+                    text.append('(').append(defautSize).append(')');
+            } else if (taille.intValue() != 0 && dialecte.avecTaille(dico.getType(wInfo))) {
+                text.append('(').append(taille).append(')');
+            }
+
+            if (premierAutoIncrement)
+                text.append(dialecte.autoIncrement(type));
+
+            if (cmp < nbId)
+                text.append(" NOT NULL");
+
+            if (e.hasNext()) {
+                text.append(',');
+                premierAutoIncrement = false;
+            }
+        }
+
+        text.append(",PRIMARY KEY (");
+        for (int i = 0; i < nbId && i < table.sizeInformation(); i++) {
+            if (i > 0)
+                text.append(", ");
+            text.append(dialecte.identifiant(Utilities.normaliseString(table.getCodeInformation(i), Constantes.LOWER))); // Bug #622229
+        }
+        text.append(')');
+
+        if (dialecte.isClesEtrangeresEnLigne())
+            for (String info : table.getInformations()) {
+                String reference = table.getTableForeignKey(info);
+                if (reference != null)
+                    text.append(",FOREIGN KEY (").append(colonneEtrangere(info, reference, mpd)).append(')');
+            }
+
+        text.append(')').append(dialecte.finCreation());
+        requetes.add(text.toString());
+
+        if (table.sizeInformation() > 0)
+            requetes.addAll(dialecte.apresCreation(nom,
+                    Utilities.normaliseString(table.getCodeInformation(0), Constantes.LOWER)));
+    }
+
+    private void genererClesEtrangeres(ModeleMPD mpd, TableMPD table, List<String> requetes)
+    {
+        if (table.foreignKeysIsEmpty() || dialecte.isClesEtrangeresEnLigne())
+            return;
+
+        String nom = Utilities.normaliseString(table.getNom(), Constantes.LOWER);
+        for (String info : table.getInformations()) {
+            String reference = table.getTableForeignKey(info);
+            if (reference == null)
+                continue;
+
+            // Bug #622229
+            String colonne = Utilities.normaliseString(info, Constantes.LOWER);
+            requetes.add("ALTER TABLE " + dialecte.identifiant(nom) + " ADD CONSTRAINT FK_" + nom + "_" + colonne
+                    + " FOREIGN KEY (" + colonneEtrangere(info, reference, mpd) + ");");
+        }
+    }
+
+    /**
+     * Retourne la colonne <code>info</code>, suivie de la table et de la
+     * colonne qu'elle référence : <code>colonne) REFERENCES table (cle</code>.
+     */
+    private String colonneEtrangere(String info, String reference, ModeleMPD mpd)
+    {
+        return dialecte.identifiant(Utilities.normaliseString(info, Constantes.LOWER))
+                + ") REFERENCES " + dialecte.identifiant(reference) + " ("
+                + dialecte.identifiant(Utilities.normaliseString(
+                        mpd.getTable(reference).getCodeInformation(0), Constantes.LOWER));
+    }
+
+    /**
+     * Retourne le code de l'information du dictionnaire d'une colonne : pour
+     * une clé étrangère, celui de l'identifiant de la table référencée, quel
+     * que soit le préfixe ou le suffixe de rôle de la colonne.
+     */
+    private static String codeDictionnaire(ModeleMPD mpd, TableMPD table, String info)
+    {
+        String reference = table.getTableForeignKey(info);
+        if (reference == null)
+            return info;
+        TableMPD cible = mpd.getTable(reference);
+        return cible == null || cible.sizeInformation() == 0 ? info : cible.getCodeInformation(0);
+    }
+}
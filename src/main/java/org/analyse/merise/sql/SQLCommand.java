@@ -23,18 +23,31 @@
 
 package org.analyse.merise.sql;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.Set;
 import java.util.StringTokenizer;
 
+import org.analyse.core.util.Utilities;
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+import org.analyse.merise.sql.dialecte.DialecteSQLStandard;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+
 /**
  * Cette classe fait le lien avec une base de donnée. Elle contient permet
  * d'exécuter les requêtes avec la base de données.
@@ -60,14 +73,23 @@ public class SQLCommand {
 
 	private List<String> requests;
 
+	/** Concaténation des requêtes, tenue à jour au fil des ajouts */
+	private StringBuilder texteRequests;
+
+	/** Profondeur des lots ouverts par beginBatch() */
+	private int lot;
+
+	/** Indique si les requêtes ont changé depuis l'ouverture du lot */
+	private boolean lotModifie;
+
 	private List<String> keywords;
 
 	private List<String> types;
 
-	private List<String> typesWithoutSize;
+	/** Index des mots clés et des types, pour la coloration du script */
+	private Set<String> keywordsIndex, typesIndex;
 
-    // Syntaxes SQL disponibles
-    public enum SQLsyntax { MySQL, PostgreSQL, OracleDB}
+	private List<String> typesWithoutSize;
 
     public SQLCommand() {
 		observableSQL = new ObservableSQL();
@@ -75,60 +97,23 @@ public class SQLCommand {
 		state = DECONNECTED;
 
 		requests = new ArrayList<String>();
+		texteRequests = new StringBuilder();
 		initKeywords();
 		initTypes();
 	}
 
 	/**
-	 * Initialise le Vector contenant les différents mots clé.
+	 * Initialise les mots clés : ceux de tous les dialectes, le script pouvant
+	 * être écrit dans n'importe lequel.
 	 */
-	
 	private void initKeywords() {
-		keywords = new ArrayList<String>();
-		keywords.add("CREATE");
-		keywords.add("ALTER");
-		keywords.add("SELECT");
-		keywords.add("INSERT");
-
-		keywords.add("TABLE");
-		keywords.add("VIEW");
-
-		keywords.add("ADD");
-		keywords.add("NOT");
-		keywords.add("IN");
-		keywords.add("AS");
-		keywords.add("NULL");
-		keywords.add("PRIMARY");
-		keywords.add("CONSTRAINT");
-		keywords.add("REFERENCES");
-		keywords.add("FOREIGN");
-		keywords.add("KEY");
-		/*
-		 * Edité par B. Bouffet le 20/05/2016
-		 * Mots-clés spécifiques Oracle Database
-		 * Permettent de définir l'équivalent du type MySQL AUTO_INCREMENT
-		 * ainsi que de la requête MySQL DROP TABLE IF EXISTS
-		 * Génération de code compatible avec Oracle : à venir... 
-		 */
-		keywords.add("TRIGGER");
-		keywords.add("SEQUENCE");
-		keywords.add("BEFORE");
-		keywords.add("ON");
-		keywords.add("FOR");
-		keywords.add("EACH");
-		keywords.add("ROW");
-		keywords.add("BEGIN");
-		keywords.add("INTO");
-		keywords.add("FROM");
-		keywords.add("END");
-		
-		keywords.add("DECLARE");
-		keywords.add("WHERE");
-		keywords.add("IF");
-		keywords.add("THEN");
-		keywords.add("EXECUTE");
-		keywords.add("IMMEDIATE");
-		keywords.add("DROP");
+		Set<String> mots = new HashSet<String>();
+		for (DialecteSQL dialecte : DialectesSQL.tous())
+			mots.addAll(dialecte.getMotsCles());
+
+		keywords = new ArrayList<String>(mots);
+		Collections.sort(keywords);
+		keywordsIndex = mots;
 	}
 
 	/**
@@ -191,30 +176,13 @@ public class SQLCommand {
 		types.add("BINARY_DOUBLE");
 	    
 	    // les types sans taille
-		typesWithoutSize = new ArrayList<String>();
-
-	    typesWithoutSize.add("BIT") ; 
-	    typesWithoutSize.add("BOOL") ; 
-	    typesWithoutSize.add("BOOLEAN") ; 
-	    typesWithoutSize.add("BLOB") ; 
-		typesWithoutSize.add("DATE") ; 
-	    typesWithoutSize.add("DATETIME") ; 
-	    typesWithoutSize.add("ENUM") ; 
-	    typesWithoutSize.add("LONGBLOB") ; 
-	    typesWithoutSize.add("LONGTEXT") ; 
-	    typesWithoutSize.add("MEDIUMBLOB") ; 
-	    typesWithoutSize.add("MEDIUMTEXT") ; 
-	    typesWithoutSize.add("SET") ; 
-		typesWithoutSize.add("TEXT") ; 
-		typesWithoutSize.add("TIME") ; 
-		typesWithoutSize.add("TINYTEXT") ; 
-	    typesWithoutSize.add("YEAR") ; 
+		typesWithoutSize = new ArrayList<String>(DialecteSQLStandard.TYPES_SANS_TAILLE);
 	    
 		// tri des données pour affichage ultérieur
 		
 		Collections.sort(types);
 		Collections.sort(typesWithoutSize);
-		
+		typesIndex = new HashSet<String>(types);
 	}
 
 	/**
@@ -230,20 +198,116 @@ public class SQLCommand {
 	 */
 	public void clear() {
 		requests.clear();
-		observableSQL.notifyObservers();
+		texteRequests.setLength(0);
+		requestsChanged();
 	}
 
 	public String getRequests() {
-		String res = "";
-		for (Iterator<String> e = requests.iterator(); e.hasNext();) {
-			res += e.next();
-		}
-		return res;
+		return texteRequests.toString();
 	}
 
 	public void addRequest(String request) {
 		requests.add(request);
-		observableSQL.notifyObservers();
+		texteRequests.append(request);
+		requestsChanged();
+	}
+
+	/**
+	 * Ajoute plusieurs requêtes en ne prévenant les observateurs qu'une fois.
+	 */
+	public void addRequests(List<String> requests) {
+		beginBatch();
+		try {
+			for (String request : requests)
+				addRequest(request);
+		} finally {
+			commitBatch();
+		}
+	}
+
+	/**
+	 * Ouvre un lot : jusqu'au commitBatch() correspondant, les ajouts et les
+	 * suppressions ne préviennent plus les observateurs. Les lots peuvent être
+	 * imbriqués.
+	 */
+	public void beginBatch() {
+		lot++;
+	}
+
+	/**
+	 * Ferme le lot ouvert par beginBatch(). A la fermeture du lot le plus
+	 * externe, les observateurs sont prévenus une seule fois si les requêtes
+	 * ont changé.
+	 */
+	public void commitBatch() {
+		if (lot == 0)
+			throw new IllegalStateException("Aucun lot ouvert");
+
+		if (--lot == 0 && lotModifie) {
+			lotModifie = false;
+			observableSQL.notifyObservers();
+		}
+	}
+
+	private void requestsChanged() {
+		if (lot > 0)
+			lotModifie = true;
+		else
+			observableSQL.notifyObservers();
+	}
+
+	/**
+	 * Ecrit le script SQL dans le fichier, au travers d'un tampon.
+	 */
+	public void writeScript(File file) throws IOException {
+		Writer out = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file)));
+		try {
+			writeScript(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Ecrit le script SQL mis en forme : un saut de ligne après chaque
+	 * virgule, une ligne vide après chaque instruction sauf entre les DROP et
+	 * entre les ALTER qui suivent le premier. Les requêtes sont écrites l'une
+	 * après l'autre, sans construire le script complet en mémoire.
+	 */
+	public void writeScript(Appendable out) throws IOException {
+		String newLine = Utilities.newLine();
+		StringBuilder instruction = new StringBuilder();
+		String oldStr = "";
+		boolean firstAlter = false;
+
+		for (String request : requests) {
+			for (int i = 0; i < request.length(); i++) {
+				char c = request.charAt(i);
+				if (c != ';') {
+					instruction.append(c);
+					continue;
+				}
+
+				if (instruction.length() > 0) {
+					oldStr = instruction.toString();
+					out.append(oldStr.replace(",", "," + newLine));
+					instruction.setLength(0);
+				}
+
+				if (oldStr.startsWith("DROP") || oldStr.startsWith("ALTER"))
+					if (oldStr.startsWith("ALTER") && !firstAlter) {
+						out.append(";").append(newLine).append(newLine);
+						firstAlter = true;
+					} else
+						out.append(";").append(newLine);
+				else
+					out.append(";").append(newLine).append(newLine);
+			}
+		}
+
+		if (instruction.length() > 0)
+			out.append(instruction.toString().replace(",", "," + newLine));
 	}
 
 	public boolean execRequest() {
@@ -251,11 +315,46 @@ public class SQLCommand {
 	}
 
 	/**
-	 * Exécute les différentes requêtes.
+	 * Retourne le déploiement des requêtes actuelles sur la base connectée,
+	 * dans le dialecte indiqué, ou null si la base n'est pas connectée.
+	 */
+	public DeploiementSQL deploiement(DialecteSQL dialecte) {
+		if (con == null)
+			return null;
+		return new DeploiementSQL(con, requests, dialecte);
+	}
+
+	/**
+	 * Exécute le déploiement. En cas d'erreur, getError() et getErrorCode()
+	 * retournent l'erreur de la base.
+	 *
+	 * @return Indique si toutes les requêtes ont été exécutées
+	 */
+	public boolean execRequest(DeploiementSQL deploiement) {
+		error = null;
+
+		if (deploiement == null) {
+			error = "Non connecté à la base ...";
+			return false;
+		}
+
+		try {
+			return deploiement.deployer();
+		} catch (SQLException e) {
+			error = e.getMessage();
+			errorCode = e.getErrorCode();
+
+			return false;
+		}
+	}
+
+	/**
+	 * Exécute les différentes requêtes. Avec <code>deleteTable</code>, les
+	 * requêtes sont exécutées une à une et une table existante est supprimée
+	 * avant d'être recréée.
 	 */
 	public boolean execRequest(boolean deleteTable) {
 		String line;
-		boolean returnTemp = true;
 		error = null;
 
 		if (stmt == null) {
@@ -264,18 +363,7 @@ public class SQLCommand {
 		}
 
 		if (!deleteTable) {
-			try {
-				for (Iterator<String> e = requests.iterator(); e.hasNext();) {
-					stmt.executeUpdate(e.next());
-				}
-			} catch (SQLException e) {
-				//e.printStackTrace();
-
-				error = e.getMessage();
-				errorCode = e.getErrorCode();
-
-				return false;
-			}
+			return execRequest(new DeploiementSQL(con, requests));
 		} else {
 			Iterator<String> e = requests.iterator();
 			line = e.next();
@@ -414,6 +502,13 @@ public class SQLCommand {
 		return keywords;
 	}
 
+	/**
+	 * Indique si <code>mot</code> est un mot clé SQL.
+	 */
+	public boolean isKeyword(String mot) {
+		return keywordsIndex.contains(mot);
+	}
+
 	/**
 	 * Retourne les différents types SQL.
 	 */
@@ -421,6 +516,13 @@ public class SQLCommand {
 		return types;
 	}
 
+	/**
+	 * Indique si <code>mot</code> est un type SQL.
+	 */
+	public boolean isType(String mot) {
+		return typesIndex.contains(mot);
+	}
+
 	/**
 	 * Retourne les types SQL ne nécessitant pas de tailles
 	 * 
@@ -0,0 +1,76 @@
+/*
+ * DialecteH2.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql.dialecte;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * H2, pour valider un schéma dans une base embarquée : types MySQL traduits
+ * en types standard, première colonne entière en identité.
+ */
+public class DialecteH2 extends DialecteSQLStandard
+{
+    /** Types traduits pouvant porter une identité */
+    private static final Set<String> TYPES_ENTIERS = new HashSet<String>(Arrays.asList(
+            "TINYINT", "SMALLINT", "INT", "INTEGER", "BIGINT"));
+
+    public DialecteH2()
+    {
+        super("H2");
+        motsCles("EXISTS", "CASCADE", "GENERATED", "BY", "DEFAULT", "IDENTITY");
+
+        traduire("MEDIUMINT", "INT");
+        traduire("SERIAL", "INT");
+        traduire("BIGSERIAL", "BIGINT");
+        traduire("BOOL", "BOOLEAN");
+        traduire("DOUBLE", "DOUBLE PRECISION");
+        traduire("BINARY_FLOAT", "REAL");
+        traduire("BINARY_DOUBLE", "DOUBLE PRECISION");
+        traduire("DATETIME", "TIMESTAMP");
+        traduire("YEAR", "SMALLINT");
+        traduire("VARCHAR2", "VARCHAR");
+        traduire("ENUM", "VARCHAR");
+        traduire("SET", "VARCHAR");
+        traduire("TINYTEXT", "CLOB");
+        traduire("TEXT", "CLOB");
+        traduire("MEDIUMTEXT", "CLOB");
+        traduire("LONGTEXT", "CLOB");
+        traduire("TINYBLOB", "BLOB");
+        traduire("MEDIUMBLOB", "BLOB");
+        traduire("LONGBLOB", "BLOB");
+
+        // H2 n'accepte pas de largeur d'affichage sur ces types
+        sansTaille("TINYINT", "SMALLINT", "MEDIUMINT", "INT", "INTEGER", "BIGINT",
+                "INT_AUTO_INCREMENT", "BIGINT_AUTO_INCREMENT", "AUTO_INCREMENT", "SERIAL", "BIGSERIAL",
+                "DOUBLE", "DOUBLE PRECISION", "REAL", "BINARY_FLOAT", "BINARY_DOUBLE",
+                "TIMESTAMP", "TINYBLOB");
+    }
+
+    public String autoIncrement(String type)
+    {
+        return TYPES_ENTIERS.contains(type) ? " GENERATED BY DEFAULT AS IDENTITY" : "";
+    }
+
+    public String supprimerTable(String table)
+    {
+        return "DROP TABLE IF EXISTS " + identifiant(table) + " CASCADE ;";
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * DialecteMySQL.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql.dialecte;
+
+/**
+ * MySQL : tables InnoDB, auto-incrément de la première colonne, identifiants
+ * entre accents graves.
+ */
+public class DialecteMySQL extends DialecteSQLStandard
+{
+    public DialecteMySQL()
+    {
+        super("MySQL");
+        motsCles("EXISTS", "AUTO_INCREMENT", "ENGINE");
+    }
+
+    protected String delimiter(String nom)
+    {
+        return '`' + nom + '`';
+    }
+
+    public String autoIncrement(String type)
+    {
+        return " AUTO_INCREMENT";
+    }
+
+    public String finCreation()
+    {
+        return " ENGINE=InnoDB;";
+    }
+}
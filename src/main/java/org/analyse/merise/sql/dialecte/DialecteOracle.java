@@ -0,0 +1,79 @@
+/*
+ * DialecteOracle.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql.dialecte;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Oracle Database : pas de <code>DROP TABLE IF EXISTS</code>, auto-incrément
+ * par une séquence et un trigger.
+ */
+public class DialecteOracle extends DialecteSQLStandard
+{
+    public DialecteOracle()
+    {
+        super("OracleDB");
+        motsCles("TRIGGER", "SEQUENCE", "BEFORE", "FOR", "EACH", "ROW", "BEGIN",
+                "END", "DECLARE", "THEN", "EXECUTE", "IMMEDIATE");
+    }
+
+    /**
+     * Les identifiants sans délimiteurs sont en majuscules pour Oracle : un
+     * identifiant délimité l'est aussi, pour désigner le même objet.
+     */
+    protected String delimiter(String nom)
+    {
+        return super.delimiter(nom.toUpperCase(Locale.ROOT));
+    }
+
+    /* Edité par B. Bouffet le 18/05/2016
+     * "DROP TABLE IF EXISTS" non supporté par Oracle
+     * -> Adaptation de la syntaxe
+     */
+    public String supprimerTable(String table)
+    {
+        return "DECLARE \n"
+                + "  existe_" + table + " INTEGER ;"
+                + "BEGIN \n"
+                + "  SELECT count(*) INTO existe_" + table
+                + " FROM user_tables WHERE table_name = upper('" + table + "') ;"
+                + "  IF existe_" + table + " > 0 THEN \n"
+                + "    EXECUTE IMMEDIATE 'DROP TABLE " + identifiant(table) + " CASCADE CONSTRAINTS' ;"
+                + "  END IF ;"
+                + "END ;";
+    }
+
+    /* Edité par B. Bouffet le 13/05/2016
+     * Syntaxe Oracle : création d'un trigger pour l'identifiant AUTO_INCREMENT
+     */
+    public List<String> apresCreation(String table, String premiereColonne)
+    {
+        return Arrays.asList(
+                "\nCREATE SEQUENCE SEQ_" + table + " ;",
+                "CREATE TRIGGER TRIG_" + table
+                        + " BEFORE INSERT ON " + identifiant(table) + " FOR EACH ROW \n"
+                        + " BEGIN \n"
+                        + " SELECT SEQ_" + table + ".NEXTVAL"
+                        + " INTO :new." + identifiant(premiereColonne)
+                        + " FROM DUAL ;"
+                        + " END ;");
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * DialectePostgreSQL.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql.dialecte;
+
+import org.analyse.core.util.Constantes;
+
+/**
+ * PostgreSQL : auto-incrément de la première colonne par SERIAL, DATETIME
+ * écrit TIMESTAMP.
+ */
+public class DialectePostgreSQL extends DialecteSQLStandard
+{
+    public DialectePostgreSQL()
+    {
+        super("PostgreSQL");
+        motsCles("EXISTS");
+
+        traduirePremiereColonne(Constantes.INT, Constantes.INT_AUTO_INCREMENT_POSTGRESQL);
+        traduirePremiereColonne(Constantes.BIGINT, Constantes.BIGINT_AUTO_INCREMENT_POSTGRESQL);
+        traduire(Constantes.DATETIME, Constantes.TIMESTAMP_POSTGRESQL);
+    }
+
+    public boolean isDDLTransactionnel()
+    {
+        return true;
+    }
+}
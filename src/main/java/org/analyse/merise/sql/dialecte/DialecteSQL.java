@@ -0,0 +1,105 @@
+/*
+ * DialecteSQL.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql.dialecte;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Syntaxe SQL d'un SGBD, utilisée par <code>GenerateurSQL</code>. Les
+ * dialectes sont découverts par <code>ServiceLoader</code> (voir
+ * <code>DialectesSQL</code>) : un dialecte supplémentaire est une classe
+ * publique avec un constructeur sans argument, déclarée dans
+ * <code>META-INF/services/org.analyse.merise.sql.dialecte.DialecteSQL</code>.
+ * <p>
+ * Les tables et les mots clés d'un dialecte sont calculés une fois pour
+ * toutes : ses méthodes sont appelées pour chaque colonne, depuis plusieurs
+ * threads.
+ */
+public interface DialecteSQL
+{
+    /**
+     * Retourne le nom du dialecte, affiché dans l'interface et accepté par
+     * l'option <code>--dialect</code> de la ligne de commande.
+     */
+    String getNom();
+
+    /**
+     * Retourne les mots clés du dialecte, en majuscules.
+     */
+    Set<String> getMotsCles();
+
+    /**
+     * Retourne <code>nom</code> tel qu'il s'écrit dans un script : entre
+     * délimiteurs si c'est un mot clé du dialecte.
+     */
+    String identifiant(String nom);
+
+    /**
+     * Retourne le type de colonne à écrire pour un type du dictionnaire.
+     *
+     * @param premiereColonne
+     *            vrai pour la première colonne de la table, qui porte
+     *            l'auto-incrément
+     */
+    String type(String type, boolean premiereColonne);
+
+    /**
+     * Indique si la taille du dictionnaire est écrite après le type de
+     * colonne correspondant à <code>type</code>.
+     */
+    boolean avecTaille(String type);
+
+    /**
+     * Retourne ce qui suit le type de la première colonne, de type
+     * <code>type</code> (déjà traduit), pour en faire un auto-incrément.
+     */
+    String autoIncrement(String type);
+
+    /**
+     * Retourne la requête qui supprime la table si elle existe.
+     */
+    String supprimerTable(String table);
+
+    /**
+     * Retourne la fin de la requête <code>CREATE TABLE</code>, point-virgule
+     * compris.
+     */
+    String finCreation();
+
+    /**
+     * Retourne les requêtes qui suivent la création de la table, dont la
+     * première colonne est <code>premiereColonne</code>.
+     */
+    List<String> apresCreation(String table, String premiereColonne);
+
+    /**
+     * Indique si les clés étrangères sont déclarées dans le
+     * <code>CREATE TABLE</code> plutôt que par des <code>ALTER TABLE</code>
+     * après la création de toutes les tables.
+     */
+    boolean isClesEtrangeresEnLigne();
+
+    /**
+     * Indique si les requêtes de création et de suppression de tables
+     * peuvent être annulées par un rollback : le script est alors déployé
+     * dans une seule transaction.
+     */
+    boolean isDDLTransactionnel();
+}
@@ -0,0 +1,172 @@
+/*
+ * DialecteSQLStandard.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql.dialecte;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base des dialectes : <code>DROP TABLE IF EXISTS</code>, identifiants entre
+ * guillemets, clés étrangères par <code>ALTER TABLE</code>, pas
+ * d'auto-incrément, DDL validé requête par requête. Les sous-classes
+ * complètent les tables de types, les mots clés et les types sans taille
+ * dans leur constructeur, par <code>traduire()</code>,
+ * <code>motsCles()</code> et <code>sansTaille()</code>.
+ */
+public abstract class DialecteSQLStandard implements DialecteSQL
+{
+    /** Mots clés communs aux dialectes */
+    public static final List<String> MOTS_CLES = Collections.unmodifiableList(Arrays.asList(
+            "CREATE", "ALTER", "SELECT", "INSERT", "TABLE", "VIEW", "ADD",
+            "NOT", "IN", "AS", "NULL", "PRIMARY", "CONSTRAINT", "REFERENCES",
+            "FOREIGN", "KEY", "ON", "INTO", "FROM", "WHERE", "IF", "DROP"));
+
+    /** Types du dictionnaire écrits sans leur taille */
+    public static final List<String> TYPES_SANS_TAILLE = Collections.unmodifiableList(Arrays.asList(
+            "BIT", "BOOL", "BOOLEAN", "BLOB", "DATE", "DATETIME", "ENUM",
+            "LONGBLOB", "LONGTEXT", "MEDIUMBLOB", "MEDIUMTEXT", "SET", "TEXT",
+            "TIME", "TINYTEXT", "YEAR"));
+
+    private final String nom;
+
+    private final Set<String> motsCles = new HashSet<String>(MOTS_CLES);
+
+    private final Set<String> typesSansTaille = new HashSet<String>(TYPES_SANS_TAILLE);
+
+    /** Traduction des types du dictionnaire, pour les colonnes suivantes */
+    private final Map<String, String> types = new HashMap<String, String>();
+
+    /** Traduction des types du dictionnaire, pour la première colonne */
+    private final Map<String, String> typesPremiereColonne = new HashMap<String, String>();
+
+    protected DialecteSQLStandard(String nom)
+    {
+        this.nom = nom;
+
+        // types du dictionnaire propres à AnalyseSI
+        traduire("INT_AUTO_INCREMENT", "INT");
+        traduire("BIGINT_AUTO_INCREMENT", "BIGINT");
+        // type des anciens fichiers, voir Constantes.AUTO_INCREMENT
+        traduire("AUTO_INCREMENT", "INT");
+    }
+
+    /**
+     * Traduit <code>type</code> du dictionnaire en <code>traduction</code>
+     * pour toutes les colonnes.
+     */
+    protected final void traduire(String type, String traduction)
+    {
+        types.put(type, traduction);
+        typesPremiereColonne.put(type, traduction);
+    }
+
+    /**
+     * Traduit <code>type</code> du dictionnaire en <code>traduction</code>
+     * pour la première colonne seulement.
+     */
+    protected final void traduirePremiereColonne(String type, String traduction)
+    {
+        typesPremiereColonne.put(type, traduction);
+    }
+
+    protected final void motsCles(String... mots)
+    {
+        motsCles.addAll(Arrays.asList(mots));
+    }
+
+    protected final void sansTaille(String... typesDictionnaire)
+    {
+        typesSansTaille.addAll(Arrays.asList(typesDictionnaire));
+    }
+
+    public String getNom()
+    {
+        return nom;
+    }
+
+    public Set<String> getMotsCles()
+    {
+        return Collections.unmodifiableSet(motsCles);
+    }
+
+    public String identifiant(String nom)
+    {
+        return motsCles.contains(nom.toUpperCase(Locale.ROOT)) ? delimiter(nom) : nom;
+    }
+
+    /**
+     * Met <code>nom</code> entre les délimiteurs d'identifiant du dialecte.
+     */
+    protected String delimiter(String nom)
+    {
+        return '"' + nom + '"';
+    }
+
+    public String type(String type, boolean premiereColonne)
+    {
+        String traduction = (premiereColonne ? typesPremiereColonne : types).get(type);
+        return traduction != null ? traduction : type;
+    }
+
+    public boolean avecTaille(String type)
+    {
+        return !typesSansTaille.contains(type);
+    }
+
+    public String autoIncrement(String type)
+    {
+        return "";
+    }
+
+    public String supprimerTable(String table)
+    {
+        return "DROP TABLE IF EXISTS " + identifiant(table) + " ;";
+    }
+
+    public String finCreation()
+    {
+        return ";";
+    }
+
+    public List<String> apresCreation(String table, String premiereColonne)
+    {
+        return Collections.emptyList();
+    }
+
+    public boolean isClesEtrangeresEnLigne()
+    {
+        return false;
+    }
+
+    public boolean isDDLTransactionnel()
+    {
+        return false;
+    }
+
+    public String toString()
+    {
+        return nom;
+    }
+}
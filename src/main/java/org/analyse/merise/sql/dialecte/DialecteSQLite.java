@@ -0,0 +1,48 @@
+/*
+ * DialecteSQLite.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql.dialecte;
+
+/**
+ * SQLite, pour valider un schéma dans une base embarquée : SQLite n'ajoute
+ * pas de contrainte à une table existante, les clés étrangères sont donc
+ * déclarées dans le <code>CREATE TABLE</code>. La clé primaire pouvant être
+ * composée, la première colonne n'est pas auto-incrémentée.
+ */
+public class DialecteSQLite extends DialecteSQLStandard
+{
+    public DialecteSQLite()
+    {
+        super("SQLite");
+        motsCles("EXISTS", "AUTOINCREMENT");
+
+        traduire("INT_AUTO_INCREMENT", "INTEGER");
+        traduire("BIGINT_AUTO_INCREMENT", "INTEGER");
+        traduire("AUTO_INCREMENT", "INTEGER");
+    }
+
+    public boolean isClesEtrangeresEnLigne()
+    {
+        return true;
+    }
+
+    public boolean isDDLTransactionnel()
+    {
+        return true;
+    }
+}
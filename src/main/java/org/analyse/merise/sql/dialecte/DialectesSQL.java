@@ -0,0 +1,79 @@
+/*
+ * DialectesSQL.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.merise.sql.dialecte;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Dialectes SQL disponibles, chargés une fois par <code>ServiceLoader</code>
+ * dans l'ordre de leur déclaration.
+ */
+public final class DialectesSQL
+{
+    private static final List<DialecteSQL> DIALECTES = charger();
+
+    private DialectesSQL() {}
+
+    private static List<DialecteSQL> charger()
+    {
+        List<DialecteSQL> dialectes = new ArrayList<DialecteSQL>();
+        for (DialecteSQL dialecte : ServiceLoader.load(DialecteSQL.class,
+                DialecteSQL.class.getClassLoader()))
+            dialectes.add(dialecte);
+        return Collections.unmodifiableList(dialectes);
+    }
+
+    /**
+     * Retourne tous les dialectes ; le premier est celui par défaut.
+     */
+    public static List<DialecteSQL> tous()
+    {
+        return DIALECTES;
+    }
+
+    /**
+     * Retourne le dialecte de ce nom, sans tenir compte de la casse, ou null.
+     */
+    public static DialecteSQL get(String nom)
+    {
+        for (DialecteSQL dialecte : DIALECTES)
+            if (dialecte.getNom().equalsIgnoreCase(nom))
+                return dialecte;
+        return null;
+    }
+
+    /**
+     * Retourne le premier dialecte dont le nom commence par
+     * <code>prefixe</code>, sans tenir compte de la casse
+     * (<code>oracle</code> pour OracleDB), ou null.
+     */
+    public static DialecteSQL chercher(String prefixe)
+    {
+        if (prefixe.isEmpty())
+            return null;
+
+        for (DialecteSQL dialecte : DIALECTES)
+            if (dialecte.getNom().toLowerCase().startsWith(prefixe.toLowerCase()))
+                return dialecte;
+        return null;
+    }
+}
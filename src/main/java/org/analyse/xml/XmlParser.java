@@ -1626,94 +1626,32 @@ public class XmlParser
      */
     void parseCharRef() throws java.lang.Exception
     {
-    	 return ;
-    	 
-    	/*
         int value = 0;
+        int radix = tryRead('x') ? 16 : 10;
         char c;
 
-        if (tryRead('x')) {
-            loop1: while (true) {
-                c = readCh();
-                switch (c) {
-                    case '0':
-                    case '1':
-                    case '2':
-                    case '3':
-                    case '4':
-                    case '5':
-                    case '6':
-                    case '7':
-                    case '8':
-                    case '9':
-                    case 'a':
-                    case 'A':
-                    case 'b':
-                    case 'B':
-                    case 'c':
-                    case 'C':
-                    case 'd':
-                    case 'D':
-                    case 'e':
-                    case 'E':
-                    case 'f':
-                    case 'F':
-                        value *= 16;
-                        value += Integer.parseInt(Character.toString(c),
-                                16);
-                        break;
-                    case ';':
-                        break loop1;
-                    default:
-                        error("illegal character in character reference", c,
-                                null);
-                        break loop1;
-                }
+        while ((c = readCh()) != ';') {
+            int digit = Character.digit(c, radix);
+            if (digit < 0) {
+                error("illegal character in character reference", c, null);
+                return;
             }
-        } else {
-            loop2: while (true) {
-                c = readCh();
-                switch (c) {
-                    case '0':
-                    case '1':
-                    case '2':
-                    case '3':
-                    case '4':
-                    case '5':
-                    case '6':
-                    case '7':
-                    case '8':
-                    case '9':
-                        value *= 10;
-                        value += Integer.parseInt(Character.toString(c),
-                                10);
-                        break;
-                    case ';':
-                        break loop2;
-                    default:
-                        error("illegal character in character reference", c,
-                                null);
-                        break loop2;
-                }
+            value = value * radix + digit;
+            if (value > Character.MAX_CODE_POINT) {
+                error("character reference " + value
+                        + " is too large for UTF-16", Integer.toString(value),
+                        null);
+                return;
             }
         }
 
-        // Check for surrogates: 00000000 0000xxxx yyyyyyyy zzzzzzzz
-        //  (1101|10xx|xxyy|yyyy + 1101|11yy|zzzz|zzzz:
-        if (value <= 0x0000ffff) {
-            // no surrogates needed
-            dataBufferAppend((char) value);
-        } else if (value <= 0x000fffff) {
-            // > 16 bits, surrogate needed
-            dataBufferAppend((char) (0xd8 | ((value & 0x000ffc00) >> 10)));
-            dataBufferAppend((char) (0xdc | (value & 0x0003ff)));
+        // beyond 16 bits, a surrogate pair is needed
+        if (Character.isSupplementaryCodePoint(value)) {
+            dataBufferAppend(Character.highSurrogate(value));
+            dataBufferAppend(Character.lowSurrogate(value));
         } else {
-            // too big for surrogate
-            error("character reference " + value + " is too large for UTF-16",
-                    Integer.toString(value), null);
+            dataBufferAppend((char) value);
         }
-        
-        */
     }
 
     /**
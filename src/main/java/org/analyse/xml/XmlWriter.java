@@ -0,0 +1,223 @@
+/*
+ * XmlWriter.java -
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package org.analyse.xml;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ecriture d'un document XML en flux, un élément par ligne, sans chaîne
+ * intermédiaire : les noms et les valeurs sont copiés directement dans le
+ * <code>Writer</code>, par morceaux entre les caractères à échapper. Le
+ * <code>Writer</code> doit être bufferisé.
+ * <p>
+ * <pre>
+ * out.startElement("entite").attribute("nom", nom).attribute("x", x);
+ * out.startElement("information").attribute("code", code).endElement();
+ * out.endElement();
+ * </pre>
+ */
+public class XmlWriter
+{
+    private final Writer out;
+
+    /** Noms des éléments ouverts, du plus externe au plus interne */
+    private final List<String> ouverts = new ArrayList<String>();
+
+    /** Vrai tant que la balise de début du dernier élément n'est pas fermée */
+    private boolean baliseOuverte;
+
+    /** Tampon pour écrire les entiers */
+    private final char[] chiffres = new char[11];
+
+    public XmlWriter(Writer out)
+    {
+        this.out = out;
+    }
+
+    /**
+     * Ecrit la déclaration XML.
+     */
+    public XmlWriter declaration(String encoding) throws IOException
+    {
+        out.write("<?xml version=\"1.0\" encoding=\"");
+        out.write(encoding);
+        out.write("\"?>\n");
+        return this;
+    }
+
+    /**
+     * Ouvre un élément. Ses attributs suivent, avant tout contenu.
+     */
+    public XmlWriter startElement(String name) throws IOException
+    {
+        if (baliseOuverte)
+            out.write(">\n");
+        out.write('<');
+        out.write(name);
+        ouverts.add(name);
+        baliseOuverte = true;
+        return this;
+    }
+
+    /**
+     * Ajoute un attribut à l'élément qui vient d'être ouvert.
+     */
+    public XmlWriter attribute(String name, String value) throws IOException
+    {
+        debutAttribut(name);
+        escape(value, true);
+        out.write('"');
+        return this;
+    }
+
+    public XmlWriter attribute(String name, int value) throws IOException
+    {
+        debutAttribut(name);
+        entier(value);
+        out.write('"');
+        return this;
+    }
+
+    public XmlWriter attribute(String name, boolean value) throws IOException
+    {
+        debutAttribut(name);
+        out.write(value ? "true" : "false");
+        out.write('"');
+        return this;
+    }
+
+    private void debutAttribut(String name) throws IOException
+    {
+        if (!baliseOuverte)
+            throw new IllegalStateException("Attribut " + name
+                    + " hors d'une balise de début");
+        out.write(' ');
+        out.write(name);
+        out.write("=\"");
+    }
+
+    /**
+     * Ecrit du texte dans l'élément ouvert, sur la même ligne que lui.
+     */
+    public XmlWriter text(String value) throws IOException
+    {
+        if (baliseOuverte) {
+            out.write('>');
+            baliseOuverte = false;
+        }
+        escape(value, false);
+        return this;
+    }
+
+    /**
+     * Ferme le dernier élément ouvert, en balise vide s'il n'a pas de contenu.
+     */
+    public XmlWriter endElement() throws IOException
+    {
+        if (ouverts.isEmpty())
+            throw new IllegalStateException("Aucun élément ouvert");
+
+        String name = ouverts.remove(ouverts.size() - 1);
+        if (baliseOuverte) {
+            out.write(" />\n");
+            baliseOuverte = false;
+        } else {
+            out.write("</");
+            out.write(name);
+            out.write(">\n");
+        }
+        return this;
+    }
+
+    /**
+     * Ecrit une valeur en échappant les caractères réservés. Dans un attribut,
+     * les guillemets et les fins de ligne sont aussi échappés pour être relus
+     * à l'identique.
+     */
+    public void escape(String value, boolean attribut) throws IOException
+    {
+        if (value == null)
+            value = "null";
+
+        int debut = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String entite;
+            switch (value.charAt(i)) {
+            case '&':
+                entite = "&amp;";
+                break;
+            case '<':
+                entite = "&lt;";
+                break;
+            case '>':
+                entite = "&gt;";
+                break;
+            case '"':
+                entite = attribut ? "&quot;" : null;
+                break;
+            case '\n':
+                entite = attribut ? "&#10;" : null;
+                break;
+            case '\r':
+                entite = "&#13;";
+                break;
+            case '\t':
+                entite = attribut ? "&#9;" : null;
+                break;
+            default:
+                entite = null;
+            }
+            if (entite != null) {
+                out.write(value, debut, i - debut);
+                out.write(entite);
+                debut = i + 1;
+            }
+        }
+        out.write(value, debut, value.length() - debut);
+    }
+
+    /**
+     * Ecrit un entier en décimal sans passer par une chaîne.
+     */
+    private void entier(int value) throws IOException
+    {
+        if (value == Integer.MIN_VALUE) {
+            out.write(Integer.toString(value));
+            return;
+        }
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        int i = chiffres.length;
+        do {
+            chiffres[--i] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.write(chiffres, i, chiffres.length - i);
+    }
+
+    public void flush() throws IOException
+    {
+        out.flush();
+    }
+}
@@ -0,0 +1,116 @@
+package org.analyse.cli;
+
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConvertLotTest {
+
+    private static final String[] CAS = {"test-001.asi", "test-002.asi", "test-003.asi",
+            "test-004.asi", "test-005.asi", "test-006.asi", "test-007.asi", "test-008.asi",
+            "test-009.asi"};
+
+    @TempDir
+    Path dir;
+
+    private Path modeles;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        modeles = dir.resolve("modeles");
+        for (String sousRepertoire : new String[] {"a", "b/c"}) {
+            Path cible = Files.createDirectories(modeles.resolve(sousRepertoire));
+            for (String nom : CAS)
+                Files.copy(cas(nom), cible.resolve(nom));
+        }
+    }
+
+    private static Path cas(String nom) throws Exception {
+        return new File(ConvertLotTest.class.getClassLoader().getResource("cases/" + nom).toURI()).toPath();
+    }
+
+    private static String lire(Path fichier) throws Exception {
+        return new String(Files.readAllBytes(fichier), StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("Parallel Conversion Tests")
+    class ParallelConversionTests {
+
+        @Test
+        @DisplayName("Should convert every model of the tree in order")
+        void shouldConvertEveryModelInOrder() {
+            List<ConvertLot.Resultat> resultats = ConvertLot.convertir(modeles.toFile(), null,
+                    DialectesSQL.get("MySQL"), 4);
+
+            assertEquals(2 * CAS.length, resultats.size());
+            assertEquals("test-001.asi", resultats.get(0).getSource().getName());
+            for (ConvertLot.Resultat r : resultats) {
+                assertNull(r.getErreur(), r.getSource() + " : " + r.getErreur());
+                assertTrue(r.getDuree() > 0);
+            }
+            assertTrue(Files.exists(modeles.resolve("b/c/test-009.sql")));
+            assertTrue(Files.exists(modeles.resolve("b/c/test-009.mld")));
+        }
+
+        @Test
+        @DisplayName("Should produce the same scripts as sequential conversions")
+        void shouldProduceSameScriptsAsSequentialConversions() throws Exception {
+            Path generes = dir.resolve("generes");
+            ConvertLot.convertir(modeles.toFile(), generes.toFile(), DialectesSQL.get("PostgreSQL"), 8);
+
+            for (String nom : CAS) {
+                Path attendu = dir.resolve(nom + ".sql");
+                assertEquals(Convert.OK, Convert.run(new String[] {cas(nom).toString(), "--dialect",
+                        "postgresql", "--out", attendu.toString()}, System.out, System.err));
+
+                String base = nom.replace(".asi", ".sql");
+                assertEquals(lire(attendu), lire(generes.resolve("a").resolve(base)), nom);
+                assertEquals(lire(attendu), lire(generes.resolve("b/c").resolve(base)), nom);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Summary Tests")
+    class SummaryTests {
+
+        @Test
+        @DisplayName("Should report timings, errors and throughput")
+        void shouldReportTimingsErrorsAndThroughput() throws Exception {
+            Files.write(modeles.resolve("a/casse.asi"), "pas un fichier ASI".getBytes(StandardCharsets.UTF_8));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            int code = ConvertLot.run(new String[] {modeles.toString(), "--threads", "2"},
+                    new PrintStream(out, true), System.err);
+
+            assertEquals(ConvertLot.ECHEC, code);
+            String bilan = out.toString();
+            assertTrue(bilan.contains("ERREUR"), bilan);
+            assertTrue(bilan.contains("a/casse.asi"), bilan);
+            assertTrue(bilan.contains("ms  b/c/test-005.asi"), bilan);
+            assertTrue(bilan.contains("19 fichier(s), 18 converti(s), 1 en erreur"), bilan);
+            assertTrue(bilan.contains("fichiers/s"), bilan);
+        }
+
+        @Test
+        @DisplayName("Should reject an invalid thread count")
+        void shouldRejectInvalidThreadCount() {
+            assertEquals(Convert.ERREUR, ConvertLot.run(new String[] {modeles.toString(), "--threads", "0"},
+                    System.out, new PrintStream(new ByteArrayOutputStream())));
+        }
+    }
+}
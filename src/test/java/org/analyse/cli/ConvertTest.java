@@ -0,0 +1,113 @@
+package org.analyse.cli;
+
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConvertTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private int run(String... args) {
+        return Convert.run(args, new PrintStream(out, true), new PrintStream(err, true));
+    }
+
+    private static String cas(String nom) throws Exception {
+        return new File(ConvertTest.class.getClassLoader().getResource("cases/" + nom).toURI()).getPath();
+    }
+
+    @Nested
+    @DisplayName("Conversion Tests")
+    class ConversionTests {
+
+        @Test
+        @DisplayName("Should write the SQL script and the MLD of a model")
+        void shouldWriteSqlScriptAndMld(@TempDir Path dir) throws Exception {
+            Path sql = dir.resolve("schema.sql");
+            Path mld = dir.resolve("model.mld");
+
+            int code = run(cas("test-001.asi"), "--out", sql.toString(), "--mld", mld.toString());
+
+            assertEquals(Convert.OK, code, err.toString());
+            String script = new String(Files.readAllBytes(sql), StandardCharsets.UTF_8);
+            assertTrue(script.contains("CREATE TABLE SOCIETE ("), script);
+            assertTrue(script.contains("CREATE TABLE EMPLOYE ("), script);
+            assertTrue(script.contains("REFERENCES SOCIETE (id_societe)"), script);
+            assertTrue(script.contains("ENGINE=InnoDB"), script);
+
+            String modele = new String(Files.readAllBytes(mld), StandardCharsets.UTF_8);
+            assertTrue(modele.contains("EMPLOYE (<u>id_employe</u>, nom_employe, #societe_id_societe) ;"), modele);
+        }
+
+        @Test
+        @DisplayName("Should write the script to the standard output in the chosen dialect")
+        void shouldWriteScriptToStandardOutputInDialect() throws Exception {
+            int code = run(cas("test-001.asi"), "--dialect", "postgresql");
+
+            assertEquals(Convert.OK, code, err.toString());
+            String script = out.toString();
+            assertTrue(script.contains("CREATE TABLE SOCIETE ("), script);
+            assertFalse(script.contains("ENGINE=InnoDB"), script);
+        }
+
+        @Test
+        @DisplayName("Should keep models of successive conversions apart")
+        void shouldKeepModelsApart() throws Exception {
+            assertEquals(Convert.OK, run(cas("test-001.asi")));
+            out.reset();
+            assertEquals(Convert.OK, run(cas("test-001.asi")));
+
+            String script = out.toString();
+            assertEquals(script.indexOf("CREATE TABLE SOCIETE ("),
+                    script.lastIndexOf("CREATE TABLE SOCIETE ("));
+        }
+    }
+
+    @Nested
+    @DisplayName("Argument Tests")
+    class ArgumentTests {
+
+        @Test
+        @DisplayName("Should reject a missing model")
+        void shouldRejectMissingModel() {
+            assertEquals(Convert.ERREUR, run("--dialect", "mysql"));
+            assertTrue(err.toString().contains("usage"));
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown dialect")
+        void shouldRejectUnknownDialect() throws Exception {
+            assertEquals(Convert.ERREUR, run(cas("test-001.asi"), "--dialect", "db2"));
+        }
+
+        @Test
+        @DisplayName("Should report an unreadable model")
+        void shouldReportUnreadableModel(@TempDir Path dir) {
+            assertEquals(Convert.ERREUR, run(dir.resolve("absent.asi").toString()));
+        }
+
+        @Test
+        @DisplayName("Should accept every dialect by a prefix of its name")
+        void shouldAcceptEveryDialectByPrefix() throws Exception {
+            for (DialecteSQL dialecte : DialectesSQL.tous()) {
+                String prefixe = dialecte.getNom().substring(0, 2).toLowerCase();
+                assertSame(dialecte, DialectesSQL.chercher(prefixe));
+                assertEquals(Convert.OK, run(cas("test-001.asi"), "--dialect", prefixe), err.toString());
+            }
+            assertEquals(Convert.ERREUR, run(cas("test-001.asi"), "--dialect", ""));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package org.analyse.cli;
+
+import org.analyse.core.gui.zgraph.ZElement;
+import org.analyse.core.gui.zgraph.ZLien;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDAssociation;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.merise.mcd.composant.MCDEntite;
+import org.analyse.merise.mcd.modele.TransformationMCD;
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerateurModeleTest {
+
+    private static GenerateurModele generateur(long graine) {
+        GenerateurModele generateur = new GenerateurModele();
+        generateur.setGraine(graine);
+        generateur.setEntites(60);
+        generateur.setBinaires(70);
+        generateur.setTernaires(8);
+        generateur.setReflexives(6);
+        generateur.setAttributs(1, 6);
+        generateur.setAttributsAssociation(0, 2);
+        generateur.setCardinalites(2, 1, 1);
+        return generateur;
+    }
+
+    private static String xml(GenerateurModele generateur) throws Exception {
+        StringBuilder xml = new StringBuilder();
+        generateur.ecrire(xml);
+        return xml.toString();
+    }
+
+    private static String sql(MeriseModule module) {
+        TransformationMCD.Verification verification = Convert.generer(module, DialectesSQL.get("PostgreSQL"));
+        assertTrue(verification.isCorrect(), verification.getMessage());
+        return module.getSQLCommand().getRequests();
+    }
+
+    @Nested
+    @DisplayName("Reproducibility Tests")
+    class ReproducibilityTests {
+
+        @Test
+        @DisplayName("Should produce the same file for the same seed")
+        void shouldProduceSameFileForSameSeed() throws Exception {
+            assertEquals(xml(generateur(7)), xml(generateur(7)));
+            assertNotEquals(xml(generateur(7)), xml(generateur(8)));
+        }
+
+        @Test
+        @DisplayName("Should build in memory the model written to the file")
+        void shouldBuildInMemoryTheWrittenModel() throws Exception {
+            MeriseModule lu = Convert.charger(new StringReader(xml(generateur(3))));
+            MeriseModule construit = generateur(3).construire();
+
+            assertEquals(sql(lu), sql(construit));
+        }
+    }
+
+    @Nested
+    @DisplayName("Model Shape Tests")
+    class ModelShapeTests {
+
+        @Test
+        @DisplayName("Should create the requested objects and links")
+        void shouldCreateRequestedObjects() {
+            MCDComponent mcd = generateur(1).construire().getMCDComponent();
+
+            int entites = 0, associations = 0, reflexives = 0, ternaires = 0;
+            for (Iterator<ZElement> e = mcd.enumElements(); e.hasNext();) {
+                ZElement element = e.next();
+                if (element instanceof MCDEntite) {
+                    entites++;
+                    assertTrue(((MCDEntite) element).sizeInformation() >= 1);
+                } else if (element instanceof MCDAssociation) {
+                    associations++;
+                    int liens = ((MCDAssociation) element).sizeLink();
+                    if (liens == 1)
+                        reflexives++;
+                    else if (liens == 3)
+                        ternaires++;
+                }
+            }
+            int liens = 0;
+            for (Iterator<ZLien> e = mcd.enumLiens(); e.hasNext(); e.next())
+                liens++;
+
+            assertEquals(60, entites);
+            assertEquals(84, associations);
+            assertEquals(6, reflexives);
+            assertEquals(8, ternaires);
+            assertEquals(70 * 2 + 8 * 3 + 6, liens);
+        }
+
+        @Test
+        @DisplayName("Should generate a correct model in every dialect")
+        void shouldGenerateCorrectModelInEveryDialect() {
+            for (DialecteSQL dialecte : DialectesSQL.tous()) {
+                MeriseModule module = generateur(11).construire();
+                TransformationMCD.Verification verification = Convert.generer(module, dialecte);
+                assertTrue(verification.isCorrect(), verification.getMessage());
+                assertTrue(module.getSQLCommand().getRequests().contains("CREATE TABLE E0"));
+            }
+        }
+
+        @Test
+        @DisplayName("Should pad the dictionary with unused information")
+        void shouldPadDictionaryWithUnusedInformation() throws Exception {
+            GenerateurModele generateur = new GenerateurModele();
+            generateur.setEntites(2);
+            generateur.setBinaires(1);
+            generateur.setAttributs(2, 2);
+            generateur.setDictionnaire(10);
+
+            String xml = xml(generateur);
+            assertEquals(6, xml.split("utilise=\"false\"", -1).length - 1, xml);
+
+            MeriseModule module = generateur.construire();
+            assertEquals(10, module.getDictionnaireTable().getRowCount() - 1);
+            assertTrue(Convert.generer(module, DialectesSQL.get("MySQL")).isCorrect());
+        }
+
+        @Test
+        @DisplayName("Should keep entities inside the canvas")
+        void shouldKeepEntitiesInsideCanvas() {
+            GenerateurModele generateur = generateur(5);
+            generateur.setEtendue(500, 300);
+            MCDComponent mcd = generateur.construire().getMCDComponent();
+
+            for (Iterator<ZElement> e = mcd.enumElements(); e.hasNext();) {
+                ZElement element = e.next();
+                if (element instanceof MCDEntite) {
+                    assertTrue(element.getX() >= 0 && element.getX() < 500);
+                    assertTrue(element.getY() >= 0 && element.getY() < 300);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject impossible parameters")
+        void shouldRejectImpossibleParameters() {
+            GenerateurModele generateur = new GenerateurModele();
+            assertThrows(IllegalArgumentException.class, () -> generateur.setEntites(0));
+            assertThrows(IllegalArgumentException.class, () -> generateur.setAttributs(0, 3));
+            assertThrows(IllegalArgumentException.class, () -> generateur.setCardinalites(0, 0, 0));
+
+            generateur.setEntites(2);
+            generateur.setTernaires(1);
+            assertThrows(IllegalArgumentException.class, generateur::construire);
+        }
+    }
+
+    @Nested
+    @DisplayName("Command Line Tests")
+    class CommandLineTests {
+
+        @Test
+        @DisplayName("Should write a compressed ASI file that converts")
+        void shouldWriteCompressedFileThatConverts(@TempDir Path dir) throws Exception {
+            Path fichier = dir.resolve("gros.asi");
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+            int code = GenerateurModele.run(new String[] {"--entities", "200",
+                    "--binary", "250", "--ternary", "10", "--reflexive", "5",
+                    "--attributes", "2-4", "--cardinalities", "3,1,1",
+                    "--canvas", "4000x3000", "--seed", "9", "--out", fichier.toString()},
+                    new PrintStream(new ByteArrayOutputStream()), new PrintStream(err, true));
+
+            assertEquals(Convert.OK, code, err.toString());
+            MeriseModule module = Convert.charger(fichier.toFile());
+            assertTrue(sql(module).contains("CREATE TABLE E199"));
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed range")
+        void shouldRejectMalformedRange() {
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+            int code = GenerateurModele.run(new String[] {"--attributes", "deux"},
+                    new PrintStream(new ByteArrayOutputStream()), new PrintStream(err, true));
+
+            assertEquals(Convert.ERREUR, code);
+            assertTrue(err.toString().contains("Nombre invalide"));
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package org.analyse.core.gui.zgraph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.analyse.core.util.Constantes;
+
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Observable;
+
+import javax.swing.SwingUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZGraphiqueTest {
+
+    private ZGraphique graphique;
+
+    private static class Boite extends ZElement {
+        Boite(ZGraphique zgraph, int x, int y, int width, int height) {
+            super(zgraph, x, y, width, height);
+        }
+
+        int dessins;
+
+        public void paint(Graphics g) {
+            dessins++;
+        }
+
+        public boolean isChanged() {
+            return false;
+        }
+    }
+
+    private static class BoiteExtensible extends Boite {
+        int miseEnPages;
+
+        BoiteExtensible(ZGraphique zgraph, int x, int y) {
+            super(zgraph, x, y, 10, 10);
+        }
+
+        public void updateSize() {
+            miseEnPages++;
+            setWidth(300);
+        }
+    }
+
+    private static class Trait extends ZLien {
+        int dessins;
+
+        public void clearElement() {
+        }
+
+        public void paint(Graphics g) {
+            dessins++;
+            updateLocation();
+        }
+    }
+
+    /** Lien redressé hors du segment joignant les centres, comme MPDLien */
+    private static class TraitDecale extends Trait {
+        public void updateLocation() {
+            super.updateLocation();
+            y1 = 500;
+            y2 = 500;
+        }
+    }
+
+    private void dessiner(int x, int y, int width, int height) {
+        BufferedImage image = new BufferedImage(3000, 3000, BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.getGraphics();
+        g.setClip(x, y, width, height);
+        graphique.paintComponent(g);
+        g.dispose();
+    }
+
+    /**
+     * Lance une action sur l'EDT puis attend la mise en page qu'elle a
+     * planifiée.
+     */
+    private static void surEDT(Runnable action) throws Exception {
+        SwingUtilities.invokeAndWait(action);
+        SwingUtilities.invokeAndWait(() -> { });
+    }
+
+    private Boite boite(int x, int y, int width, int height) {
+        Boite boite = new Boite(graphique, x, y, width, height);
+        graphique.addElement(boite);
+        return boite;
+    }
+
+    private Trait trait(ZElement elem1, ZElement elem2) {
+        Trait trait = new Trait();
+        trait.setElement(elem1, Constantes.MCDENTITE1);
+        trait.setElement(elem2, Constantes.MCDENTITE2);
+        graphique.addLien(trait);
+        trait.updateLocation();
+        return trait;
+    }
+
+    @BeforeEach
+    void setUp() {
+        graphique = new ZGraphique();
+    }
+
+    @Nested
+    @DisplayName("Element Hit-Testing Tests")
+    class ElementHitTests {
+
+        @Test
+        @DisplayName("Should return the topmost of overlapping elements")
+        void shouldReturnTopmostElement() {
+            Boite dessous = boite(100, 100, 100, 50);
+            Boite dessus = boite(150, 120, 100, 50);
+
+            assertSame(dessus, graphique.chercheElement(160, 130));
+            assertSame(dessous, graphique.chercheElement(110, 110));
+            assertNull(graphique.chercheElement(500, 500));
+        }
+
+        @Test
+        @DisplayName("Should follow a moved element")
+        void shouldFollowMovedElement() {
+            Boite boite = boite(10, 10, 50, 30);
+
+            boite.setPosition(new Point(1000, 800));
+
+            assertNull(graphique.chercheElement(20, 20));
+            assertSame(boite, graphique.chercheElement(1010, 810));
+        }
+
+        @Test
+        @DisplayName("Should keep z-order after a removal")
+        void shouldKeepOrderAfterRemoval() {
+            Boite premier = boite(100, 100, 100, 50);
+            Boite second = boite(100, 100, 100, 50);
+            Boite troisieme = boite(100, 100, 100, 50);
+
+            graphique.removeElement(troisieme);
+            assertSame(second, graphique.chercheElement(150, 120));
+
+            graphique.removeElement(second);
+            assertSame(premier, graphique.chercheElement(150, 120));
+        }
+
+        @Test
+        @DisplayName("Should put an element added after removals on top")
+        void shouldAddOnTopAfterRemovals() {
+            Boite premier = boite(100, 100, 100, 50);
+            Boite second = boite(100, 100, 100, 50);
+            Boite troisieme = boite(100, 100, 100, 50);
+
+            graphique.removeElement(second);
+            Boite quatrieme = boite(100, 100, 100, 50);
+
+            assertSame(quatrieme, graphique.chercheElement(150, 120));
+            assertEquals(Arrays.asList(premier, troisieme, quatrieme),
+                    graphique.chercheElements(0, 0, 400, 400));
+            assertFalse(graphique.contient(second));
+
+            graphique.removeElement(quatrieme);
+            graphique.removeElement(premier);
+            assertSame(troisieme, graphique.getElement(0));
+            assertEquals(1, graphique.sizeElements());
+        }
+
+        @Test
+        @DisplayName("Should select elements inside a rectangle in display order")
+        void shouldSelectElementsInsideRectangle() {
+            Boite a = boite(300, 300, 20, 20);
+            Boite b = boite(10, 10, 20, 20);
+            boite(10, 10, 400, 20);
+
+            assertEquals(Arrays.asList(a, b), graphique.chercheElements(400, 400, 0, 0));
+        }
+
+        @Test
+        @DisplayName("Should forget every element on clear")
+        void shouldForgetElementsOnClear() {
+            boite(10, 10, 50, 30);
+
+            graphique.clearAll();
+
+            assertNull(graphique.chercheElement(20, 20));
+        }
+    }
+
+    @Nested
+    @DisplayName("Link Hit-Testing Tests")
+    class LinkHitTests {
+
+        @Test
+        @DisplayName("Should find a long link far from both elements")
+        void shouldFindLongLink() {
+            Boite a = boite(0, 0, 40, 40);
+            Boite b = boite(2000, 0, 40, 40);
+            Trait trait = trait(a, b);
+
+            assertSame(trait, graphique.chercheLien(1000, 22));
+            assertNull(graphique.chercheLien(1000, 300));
+        }
+
+        @Test
+        @DisplayName("Should move a link with its elements")
+        void shouldMoveLinkWithElements() {
+            Boite a = boite(0, 0, 40, 40);
+            Boite b = boite(1000, 0, 40, 40);
+            Trait trait = trait(a, b);
+
+            a.setPosition(new Point(0, 1000));
+            b.setPosition(new Point(1000, 1000));
+            trait.updateLocation();
+
+            assertNull(graphique.chercheLien(500, 20));
+            assertSame(trait, graphique.chercheLien(500, 1020));
+        }
+
+        @Test
+        @DisplayName("Should find a link where it is drawn, not between centres")
+        void shouldFindStraightenedLink() {
+            Boite a = boite(0, 0, 40, 40);
+            Boite b = boite(1000, 0, 40, 40);
+            TraitDecale trait = new TraitDecale();
+            trait.setElement(a, Constantes.MCDENTITE1);
+            trait.setElement(b, Constantes.MCDENTITE2);
+            graphique.addLien(trait);
+
+            assertSame(trait, graphique.chercheLien(500, 500));
+            assertNull(graphique.chercheLien(500, 20));
+        }
+
+        @Test
+        @DisplayName("Should drop links of a removed element")
+        void shouldDropLinksOfRemovedElement() {
+            Boite a = boite(0, 0, 40, 40);
+            Boite b = boite(1000, 0, 40, 40);
+            trait(a, b);
+
+            graphique.removeElement(b);
+
+            assertEquals(0, graphique.sizeLien());
+            assertNull(graphique.chercheLien(500, 20));
+        }
+    }
+
+    @Nested
+    @DisplayName("Clipped Painting Tests")
+    class ClippedPaintingTests {
+
+        @Test
+        @DisplayName("Should paint every element once, then only those in the clip")
+        void shouldPaintOnlyElementsInClip() {
+            graphique.setSize(3000, 3000);
+            Boite visible = boite(100, 100, 50, 50);
+            Boite cachee = boite(2000, 2000, 50, 50);
+
+            dessiner(0, 0, 3000, 3000);
+            dessiner(0, 0, 300, 300);
+
+            assertEquals(2, visible.dessins);
+            assertEquals(1, cachee.dessins);
+        }
+
+        @Test
+        @DisplayName("Should paint a link crossing the clip")
+        void shouldPaintLinkCrossingClip() {
+            graphique.setSize(3000, 3000);
+            Boite a = boite(0, 1000, 40, 40);
+            Boite b = boite(2500, 1000, 40, 40);
+            Trait traverse = trait(a, b);
+            Trait ailleurs = trait(boite(0, 2500, 40, 40), boite(40, 2800, 40, 40));
+
+            dessiner(1200, 900, 200, 200);
+
+            assertEquals(1, traverse.dessins);
+            assertEquals(0, ailleurs.dessins);
+        }
+    }
+
+    @Nested
+    @DisplayName("Layout Pass Tests")
+    class LayoutPassTests {
+
+        @Test
+        @DisplayName("Should lay out a new element once, before painting it")
+        void shouldLayOutOnceBeforePainting() throws Exception {
+            graphique.setSize(3000, 3000);
+            BoiteExtensible boite = new BoiteExtensible(graphique, 100, 100);
+            surEDT(() -> graphique.addElement(boite));
+            assertEquals(1, boite.miseEnPages);
+
+            dessiner(0, 0, 3000, 3000);
+            dessiner(0, 0, 3000, 3000);
+
+            assertEquals(1, boite.miseEnPages);
+            assertEquals(2, boite.dessins);
+            assertSame(boite, graphique.chercheElement(350, 105));
+        }
+
+        @Test
+        @DisplayName("Should lay out again only invalidated elements")
+        void shouldLayOutOnlyInvalidatedElements() throws Exception {
+            graphique.setSize(3000, 3000);
+            BoiteExtensible modifiee = new BoiteExtensible(graphique, 100, 100);
+            BoiteExtensible stable = new BoiteExtensible(graphique, 100, 500);
+            surEDT(() -> {
+                graphique.addElement(modifiee);
+                graphique.addElement(stable);
+            });
+            dessiner(0, 0, 3000, 3000);
+
+            surEDT(() -> {
+                modifiee.invaliderMiseEnPage();
+                modifiee.notifyZElement();
+            });
+            dessiner(0, 0, 3000, 3000);
+
+            assertEquals(2, modifiee.miseEnPages);
+            assertEquals(1, stable.miseEnPages);
+        }
+
+        @Test
+        @DisplayName("Should never lay out or notify observers from paintComponent")
+        void shouldNotLayOutWhilePainting() {
+            graphique.setSize(3000, 3000);
+            BoiteExtensible boite = new BoiteExtensible(graphique, 100, 100);
+            graphique.addElement(boite);
+            int[] notifications = new int[1];
+            boite.majObserver(new ZGraphique() {
+                public void update(Observable o, Object arg) {
+                    notifications[0]++;
+                }
+            });
+
+            dessiner(0, 0, 3000, 3000);
+
+            assertEquals(0, boite.miseEnPages);
+            assertEquals(0, notifications[0]);
+
+            graphique.mettreEnPage();
+
+            assertEquals(1, boite.miseEnPages);
+            assertEquals(1, notifications[0]);
+            assertSame(boite, graphique.chercheElement(350, 105));
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Tests")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should index elements and links once the batch is committed")
+        void shouldIndexOnCommit() {
+            graphique.beginBatch();
+            Boite a = boite(0, 0, 40, 40);
+            Boite b = boite(1000, 0, 40, 40);
+            Trait trait = trait(a, b);
+            b.setPosition(new Point(1000, 1000));
+
+            assertNull(graphique.chercheElement(20, 20));
+            assertNull(graphique.chercheLien(500, 500));
+
+            graphique.commitBatch();
+
+            assertSame(a, graphique.chercheElement(20, 20));
+            assertSame(b, graphique.chercheElement(1020, 1020));
+            assertSame(trait, graphique.chercheLien(520, 520));
+            assertEquals(1, graphique.sizeLien());
+        }
+
+        @Test
+        @DisplayName("Should rebuild only when the outermost batch is committed")
+        void shouldRebuildOnOutermostCommit() {
+            graphique.beginBatch();
+            graphique.beginBatch();
+            Boite boite = boite(10, 10, 50, 30);
+
+            graphique.commitBatch();
+            assertNull(graphique.chercheElement(20, 20));
+
+            graphique.commitBatch();
+            assertSame(boite, graphique.chercheElement(20, 20));
+        }
+
+        @Test
+        @DisplayName("Should reject a commit without a batch")
+        void shouldRejectCommitWithoutBatch() {
+            assertThrows(IllegalStateException.class, graphique::commitBatch);
+        }
+
+        @Test
+        @DisplayName("Should add a link only once")
+        void shouldAddLinkOnlyOnce() {
+            Boite a = boite(0, 0, 40, 40);
+            Boite b = boite(1000, 0, 40, 40);
+            Trait trait = trait(a, b);
+
+            graphique.addLien(trait);
+
+            assertEquals(1, graphique.sizeLien());
+        }
+    }
+
+    @Nested
+    @DisplayName("Take Over Tests")
+    class TakeOverTests {
+
+        @Test
+        @DisplayName("Should take over the elements, links and index of another component")
+        void shouldTakeOverContent() {
+            Boite a = boite(0, 0, 40, 40);
+            Boite b = boite(1000, 1000, 40, 40);
+            Trait trait = trait(a, b);
+            ZGraphique cible = new ZGraphique();
+
+            cible.reprendre(graphique);
+
+            assertEquals(0, graphique.sizeElements());
+            assertEquals(0, graphique.sizeLien());
+            assertNull(graphique.chercheElement(20, 20));
+            assertSame(a, cible.chercheElement(20, 20));
+            assertSame(trait, cible.chercheLien(520, 520));
+
+            a.setPosition(new Point(2000, 0));
+            assertSame(a, cible.chercheElement(2020, 20));
+            assertNull(cible.chercheElement(20, 20));
+        }
+
+        @Test
+        @DisplayName("Should refuse to take over during a batch")
+        void shouldRefuseDuringBatch() {
+            ZGraphique cible = new ZGraphique();
+            graphique.beginBatch();
+
+            assertThrows(IllegalStateException.class, () -> cible.reprendre(graphique));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.analyse.core.save;
+
+import org.analyse.cli.Convert;
+import org.analyse.cli.GenerateurModele;
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.merise.mcd.composant.MCDEntite;
+import org.analyse.merise.mcd.composant.MCDObjet;
+import org.analyse.merise.mcd.modele.TransformationMCD;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChargementASITest {
+
+    private MeriseModule module;
+
+    private MCDEntite ancienne;
+
+    private Map<String, AnalyseModule> modules;
+
+    /** Chargement qui note ce qu'il afficherait au lieu de l'afficher */
+    private static class Chargement extends ChargementASI {
+        final CountDownLatch fin = new CountDownLatch(1);
+        final List<long[]> progressions = new ArrayList<long[]>();
+        String message;
+        IOException erreur;
+        Boolean repris;
+
+        Chargement(File fichier, Map<String, AnalyseModule> modules) {
+            super(fichier, modules);
+            setSuite(r -> repris = r);
+        }
+
+        protected void progression(long lus, long taille, int elements) {
+            progressions.add(new long[] {lus, taille, elements});
+        }
+
+        protected void termine(String message) {
+            this.message = message;
+        }
+
+        protected void echec(IOException e) {
+            erreur = e;
+        }
+
+        public void finished() {
+            super.finished();
+            fin.countDown();
+        }
+
+        void attendre() throws InterruptedException {
+            assertTrue(fin.await(30, TimeUnit.SECONDS));
+        }
+    }
+
+    private static File fichier(Path dir) throws IOException {
+        GenerateurModele generateur = new GenerateurModele();
+        generateur.setGraine(4);
+        generateur.setEntites(300);
+        generateur.setBinaires(350);
+        generateur.setTernaires(10);
+        generateur.setAttributs(1, 4);
+        File fichier = dir.resolve("modele.asi").toFile();
+        generateur.ecrire(fichier);
+        return fichier;
+    }
+
+    private static String sql(MeriseModule module) {
+        TransformationMCD.Verification verification = Convert.generer(module, DialectesSQL.get("PostgreSQL"));
+        assertTrue(verification.isCorrect(), verification.getMessage());
+        return module.getSQLCommand().getRequests();
+    }
+
+    @BeforeEach
+    void setUp() {
+        module = new MeriseModule();
+        module.initModele();
+        ancienne = module.getMCDComponent().addEntite(10, 10);
+        modules = new HashMap<String, AnalyseModule>();
+        modules.put(module.getID(), module);
+    }
+
+    @Nested
+    @DisplayName("Publication Tests")
+    class PublicationTests {
+
+        @Test
+        @DisplayName("Should swap the loaded model into the application module")
+        void shouldSwapLoadedModel(@TempDir Path dir) throws Exception {
+            File fichier = fichier(dir);
+            Chargement chargement = new Chargement(fichier, modules);
+
+            chargement.start();
+            chargement.attendre();
+
+            MCDComponent mcd = module.getMCDComponent();
+            MCDObjet entite = mcd.getElement("E0");
+            assertNotNull(entite);
+            assertSame(mcd, entite.getMCD());
+            assertSame(entite, mcd.chercheElement(entite.getX() + 5, entite.getY() + 5));
+            assertNull(mcd.getElement(ancienne.getName()));
+            assertTrue(chargement.message.contains("éléments chargés"), chargement.message);
+            assertEquals(Boolean.TRUE, chargement.repris);
+            assertEquals(sql(Convert.charger(fichier)), sql(module));
+        }
+
+        @Test
+        @DisplayName("Should report the compressed bytes and elements read")
+        void shouldReportProgress(@TempDir Path dir) throws Exception {
+            File fichier = fichier(dir);
+            Chargement chargement = new Chargement(fichier, modules);
+
+            chargement.start();
+            chargement.attendre();
+
+            assertFalse(chargement.progressions.isEmpty());
+            long[] premiere = chargement.progressions.get(0);
+            assertTrue(premiere[0] > 0 && premiere[0] <= fichier.length());
+            assertEquals(fichier.length(), premiere[1]);
+            assertTrue(premiere[2] >= 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Cancellation Tests")
+    class CancellationTests {
+
+        @Test
+        @DisplayName("Should keep the current model when cancelled")
+        void shouldKeepModelWhenCancelled(@TempDir Path dir) throws Exception {
+            Chargement chargement = new Chargement(fichier(dir), modules);
+
+            chargement.annuler();
+            chargement.start();
+            chargement.attendre();
+
+            assertTrue(chargement.isAnnule());
+            assertSame(ancienne, module.getMCDComponent().getElement(ancienne.getName()));
+            assertNull(module.getMCDComponent().getElement("E0"));
+            assertTrue(chargement.message.contains("annulée"), chargement.message);
+            assertEquals(Boolean.FALSE, chargement.repris);
+        }
+
+        @Test
+        @DisplayName("Should keep the current model when the file cannot be read")
+        void shouldKeepModelOnReadError(@TempDir Path dir) throws Exception {
+            Chargement chargement = new Chargement(dir.resolve("absent.asi").toFile(), modules);
+
+            chargement.start();
+            chargement.attendre();
+
+            assertNotNull(chargement.erreur);
+            assertSame(ancienne, module.getMCDComponent().getElement(ancienne.getName()));
+            assertEquals(Boolean.FALSE, chargement.repris);
+        }
+
+        @Test
+        @DisplayName("Should keep the current model when the XML is malformed")
+        void shouldKeepModelOnMalformedXml(@TempDir Path dir) throws Exception {
+            File fichier = dir.resolve("invalide.asi").toFile();
+            try (Writer w = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(fichier)),
+                    StandardCharsets.UTF_8)) {
+                w.write("<analyse><module id=\"merise\"><dictionnaire></module>");
+            }
+            Chargement chargement = new Chargement(fichier, modules);
+
+            chargement.start();
+            chargement.attendre();
+
+            assertNotNull(chargement.erreur);
+            assertSame(ancienne, module.getMCDComponent().getElement(ancienne.getName()));
+            assertEquals(Boolean.FALSE, chargement.repris);
+        }
+    }
+}
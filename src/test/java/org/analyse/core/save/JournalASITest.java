@@ -0,0 +1,282 @@
+package org.analyse.core.save;
+
+import org.analyse.cli.GenerateurModele;
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.modules.SaveModule;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.merise.mcd.composant.MCDEntite;
+import org.analyse.merise.mcd.composant.MCDLien;
+import org.analyse.merise.mcd.composant.MCDObjet;
+import org.analyse.xml.XmlWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Point;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalASITest {
+
+    @TempDir
+    Path dir;
+
+    private MeriseModule module;
+
+    private JournalASI journal;
+
+    private File fichier;
+
+    @BeforeEach
+    void setUp() {
+        GenerateurModele generateur = new GenerateurModele();
+        generateur.setGraine(3);
+        generateur.setEntites(40);
+        generateur.setBinaires(45);
+        generateur.setTernaires(3);
+        generateur.setAttributs(1, 4);
+        module = generateur.construire();
+
+        Map<String, AnalyseModule> modules = new HashMap<String, AnalyseModule>();
+        modules.put(module.getID(), module);
+        journal = new JournalASI(modules);
+        fichier = JournalASI.getFichier(dir.resolve("modele.asi").toFile());
+        journal.reprendre(fichier, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.fermer();
+    }
+
+    /** Ecrit les modifications en attente, comme le ferait le timer */
+    private void ecrire() {
+        journal.verifier();
+        journal.attendre();
+    }
+
+    private static String xml(MeriseModule module) throws IOException {
+        Map<String, SaveModule> instantanes = new LinkedHashMap<String, SaveModule>();
+        instantanes.put(module.getID(), ((SaveModule) module.getFiltre("ASI")).instantane());
+        StringWriter out = new StringWriter();
+        SauvegardeASI.ecrire(new XmlWriter(out), instantanes);
+        return out.toString();
+    }
+
+    /** Restaure le journal dans un nouveau module */
+    private static MeriseModule restaurer(File journal, IOException[] erreur)
+            throws InterruptedException {
+        MeriseModule relu = new MeriseModule();
+        relu.initModele();
+        Map<String, AnalyseModule> modules = new HashMap<String, AnalyseModule>();
+        modules.put(relu.getID(), relu);
+        CountDownLatch fin = new CountDownLatch(1);
+        ChargementJournal chargement = new ChargementJournal(journal, modules) {
+            protected void termine(String message) {
+            }
+
+            protected void echec(IOException e) {
+                erreur[0] = e;
+            }
+        };
+        chargement.setSuite(repris -> fin.countDown());
+        chargement.start();
+        assertTrue(fin.await(30, TimeUnit.SECONDS));
+        return relu;
+    }
+
+    private void modifier(int i) {
+        MCDComponent mcd = module.getMCDComponent();
+        MCDEntite entite = mcd.addEntite(10 * i, 20 * i);
+        entite.setName("Nouvelle" + i);
+        mcd.getElement("E" + i).setPosition(new Point(500 + i, 600 + i));
+        ((MCDLien) mcd.getLien(i)).setCardMax("1");
+        module.getDictionnaireTable().addData("CODE_" + i, "Code " + i, "VARCHAR", "12", "false");
+        entite.addInformation("CODE_" + i);
+    }
+
+    @Nested
+    @DisplayName("Replay Tests")
+    class ReplayTests {
+
+        @Test
+        @DisplayName("Should not write anything while the model is unchanged")
+        void shouldNotWriteUnchangedModel() {
+            ecrire();
+
+            assertFalse(fichier.exists());
+        }
+
+        @Test
+        @DisplayName("Should replay the snapshot and the appended changes")
+        void shouldReplaySnapshotAndChanges() throws Exception {
+            modifier(1);
+            ecrire();
+            long snapshot = fichier.length();
+            modifier(2);
+            MCDObjet supprime = module.getMCDComponent().getElement("E7");
+            module.getMCDComponent().removeObjet(supprime);
+            module.getMCDComponent().getElement("Nouvelle1").setName("Renommee");
+            ecrire();
+            IOException[] erreur = new IOException[1];
+
+            MeriseModule relu = restaurer(fichier, erreur);
+
+            assertNull(erreur[0]);
+            assertTrue(fichier.length() > snapshot);
+            assertEquals(2, JournalASI.lire(fichier).get(module.getID()).size());
+            assertEquals(xml(module), xml(relu));
+            assertNull(relu.getMCDComponent().getElement("E7"));
+        }
+
+        @Test
+        @DisplayName("Should stop at a torn record")
+        void shouldStopAtTornRecord() throws Exception {
+            modifier(1);
+            ecrire();
+            String avant = xml(module);
+            long taille = fichier.length();
+            modifier(2);
+            ecrire();
+            byte[] octets = Files.readAllBytes(fichier.toPath());
+            Files.write(fichier.toPath(), Arrays.copyOf(octets, octets.length - 3));
+            IOException[] erreur = new IOException[1];
+
+            MeriseModule relu = restaurer(fichier, erreur);
+
+            assertNull(erreur[0]);
+            assertTrue(octets.length > taille);
+            assertEquals(avant, xml(relu));
+        }
+
+        @Test
+        @DisplayName("Should stop at a corrupted record")
+        void shouldStopAtCorruptedRecord() throws Exception {
+            modifier(1);
+            ecrire();
+            String avant = xml(module);
+            int taille = (int) fichier.length();
+            modifier(2);
+            ecrire();
+            byte[] octets = Files.readAllBytes(fichier.toPath());
+            octets[taille + 10] ^= 0x55;
+            Files.write(fichier.toPath(), octets);
+            IOException[] erreur = new IOException[1];
+
+            MeriseModule relu = restaurer(fichier, erreur);
+
+            assertNull(erreur[0]);
+            assertEquals(avant, xml(relu));
+        }
+
+        @Test
+        @DisplayName("Should reject a file that is not a journal")
+        void shouldRejectOtherFile() throws Exception {
+            Files.write(fichier.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+            IOException[] erreur = new IOException[1];
+
+            MeriseModule relu = restaurer(fichier, erreur);
+
+            assertNotNull(erreur[0]);
+            assertEquals(0, relu.getMCDComponent().sizeElements());
+        }
+    }
+
+    @Nested
+    @DisplayName("Lifecycle Tests")
+    class LifecycleTests {
+
+        @Test
+        @DisplayName("Should rewrite the journal as a single snapshot after reprendre")
+        void shouldCompactAfterReprendre() throws Exception {
+            modifier(1);
+            ecrire();
+            modifier(2);
+            ecrire();
+            assertEquals(2, JournalASI.lire(fichier).get(module.getID()).size());
+
+            journal.reprendre(fichier, true);
+            journal.attendre();
+            assertTrue(fichier.exists());
+            modifier(3);
+            ecrire();
+
+            assertEquals(1, JournalASI.lire(fichier).get(module.getID()).size());
+            assertEquals(xml(module), xml(restaurer(fichier, new IOException[1])));
+        }
+
+        @Test
+        @DisplayName("Should delete the journal when abandoned")
+        void shouldDeleteWhenAbandoned() {
+            modifier(1);
+            ecrire();
+            assertTrue(fichier.exists());
+
+            journal.abandonner();
+            modifier(2);
+            ecrire();
+
+            assertFalse(fichier.exists());
+        }
+
+        @Test
+        @DisplayName("Should keep the journal, with the last changes, when stopped without a save")
+        void shouldKeepJournalWhenStopped() throws Exception {
+            modifier(1);
+            ecrire();
+            modifier(2);
+
+            journal.arreter();
+            journal.fermer();
+
+            assertTrue(fichier.exists());
+            assertEquals(xml(module), xml(restaurer(fichier, new IOException[1])));
+        }
+
+        @Test
+        @DisplayName("Should delete the journal after saving an unchanged model")
+        void shouldDeleteAfterSave() {
+            modifier(1);
+            ecrire();
+            Runnable apres = journal.apresSauvegarde(dir.resolve("modele.asi").toFile());
+
+            apres.run();
+            journal.attendre();
+
+            assertFalse(fichier.exists());
+        }
+
+        @Test
+        @DisplayName("Should follow the saved file when the model changed meanwhile")
+        void shouldFollowSavedFile() throws Exception {
+            modifier(1);
+            ecrire();
+            File copie = dir.resolve("copie.asi").toFile();
+            Runnable apres = journal.apresSauvegarde(copie);
+            modifier(2);
+
+            apres.run();
+            journal.attendre();
+
+            File nouveau = JournalASI.getFichier(copie);
+            assertFalse(fichier.exists());
+            assertTrue(nouveau.exists());
+            assertEquals(xml(module), xml(restaurer(nouveau, new IOException[1])));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.analyse.core.save;
+
+import org.analyse.cli.Convert;
+import org.analyse.cli.GenerateurModele;
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.modules.SaveModule;
+import org.analyse.core.save.asib.FilterASIBModule;
+import org.analyse.core.save.asib.InstantaneASIB;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDLien;
+import org.analyse.merise.mcd.composant.MCDObjet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SauvegardeASIBTest {
+
+    private static MeriseModule modele() {
+        GenerateurModele generateur = new GenerateurModele();
+        generateur.setGraine(9);
+        generateur.setEntites(60);
+        generateur.setBinaires(70);
+        generateur.setTernaires(5);
+        generateur.setAttributs(1, 5);
+        return generateur.construire();
+    }
+
+    private static void ecrireASI(MeriseModule module, File fichier) throws IOException {
+        Map<String, SaveModule> instantanes = new LinkedHashMap<String, SaveModule>();
+        instantanes.put(module.getID(), ((SaveModule) module.getFiltre("ASI")).instantane());
+        SauvegardeASI.ecrire(fichier, instantanes);
+    }
+
+    private static void ecrireASIB(MeriseModule module, File fichier) throws IOException {
+        Map<String, InstantaneASIB> instantanes = new LinkedHashMap<String, InstantaneASIB>();
+        instantanes.put(module.getID(), ((FilterASIBModule) module.getFiltre(FiltreASIB.ID_ASIB)).instantane());
+        SauvegardeASIB.ecrireASIB(fichier, instantanes);
+    }
+
+    /** XML décompressé d'un fichier ASI */
+    private static String xml(File fichier) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(fichier.toPath()))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Nested
+    @DisplayName("Conversion Tests")
+    class ConversionTests {
+
+        @Test
+        @DisplayName("Should convert ASI to ASIB and back without any loss")
+        void shouldRoundTripThroughASIB(@TempDir Path dir) throws Exception {
+            File asi = dir.resolve("modele.asi").toFile();
+            File asib = dir.resolve("modele.asib").toFile();
+            File retour = dir.resolve("retour.asi").toFile();
+            ecrireASI(modele(), asi);
+
+            ecrireASIB(Convert.charger(asi), asib);
+            ecrireASI(Convert.charger(asib), retour);
+
+            assertEquals(xml(asi), xml(retour));
+        }
+
+        @Test
+        @DisplayName("Should keep object sizes and unusual values")
+        void shouldKeepSizesAndUnusualValues(@TempDir Path dir) throws Exception {
+            MeriseModule module = modele();
+            MCDObjet objet = module.getMCDComponent().getElement("E0");
+            objet.setName("Client \"VIP\" <é> 😀");
+            objet.setWidth(123);
+            objet.setHeight(45);
+            MCDLien lien = (MCDLien) module.getMCDComponent().getLien(0);
+            lien.setCardMin("0..n");
+            lien.setCardMax("é");
+            File asib = dir.resolve("modele.asib").toFile();
+
+            ecrireASIB(module, asib);
+            MeriseModule relu = Convert.charger(asib);
+
+            MCDObjet lu = relu.getMCDComponent().getElement("Client \"VIP\" <é> 😀");
+            assertNotNull(lu);
+            assertEquals(123, lu.getWidth());
+            assertEquals(45, lu.getHeight());
+            MCDLien lienLu = (MCDLien) relu.getMCDComponent().getLien(0);
+            assertEquals("0..n", lienLu.getCardMin());
+            assertEquals("é", lienLu.getCardMax());
+        }
+
+        @Test
+        @DisplayName("Should write an empty model")
+        void shouldWriteEmptyModel(@TempDir Path dir) throws Exception {
+            MeriseModule vide = new MeriseModule();
+            vide.initModele();
+            File asib = dir.resolve("vide.asib").toFile();
+
+            ecrireASIB(vide, asib);
+            MeriseModule relu = Convert.charger(asib);
+
+            assertEquals(0, relu.getMCDComponent().sizeElements());
+            assertEquals(1, relu.getDictionnaireTable().getRowCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Loading Tests")
+    class LoadingTests {
+
+        private ChargementASIB charger(File fichier, MeriseModule module,
+                IOException[] erreur) throws InterruptedException {
+            CountDownLatch fin = new CountDownLatch(1);
+            Map<String, AnalyseModule> modules = new HashMap<String, AnalyseModule>();
+            modules.put(module.getID(), module);
+            ChargementASIB chargement = new ChargementASIB(fichier, modules) {
+                protected void termine(String message) {
+                }
+
+                protected void echec(IOException e) {
+                    erreur[0] = e;
+                }
+
+                public void finished() {
+                    super.finished();
+                    fin.countDown();
+                }
+            };
+            chargement.start();
+            assertTrue(fin.await(30, TimeUnit.SECONDS));
+            return chargement;
+        }
+
+        @Test
+        @DisplayName("Should swap the mapped model into the application module")
+        void shouldSwapMappedModel(@TempDir Path dir) throws Exception {
+            MeriseModule source = modele();
+            File asib = dir.resolve("modele.asib").toFile();
+            ecrireASIB(source, asib);
+            MeriseModule module = new MeriseModule();
+            module.initModele();
+            IOException[] erreur = new IOException[1];
+
+            charger(asib, module, erreur);
+
+            assertNull(erreur[0]);
+            assertEquals(source.getMCDComponent().sizeElements(), module.getMCDComponent().sizeElements());
+            assertEquals(source.getMCDComponent().sizeLien(), module.getMCDComponent().sizeLien());
+            assertSame(module.getMCDComponent(), module.getMCDComponent().getElement("E0").getMCD());
+        }
+
+        @Test
+        @DisplayName("Should keep the current model when the file is corrupt")
+        void shouldKeepModelWhenCorrupt(@TempDir Path dir) throws Exception {
+            File asib = dir.resolve("modele.asib").toFile();
+            ecrireASIB(modele(), asib);
+            byte[] octets = Files.readAllBytes(asib.toPath());
+            Files.write(asib.toPath(), java.util.Arrays.copyOf(octets, octets.length / 2));
+            MeriseModule module = new MeriseModule();
+            module.initModele();
+            MCDObjet ancienne = module.getMCDComponent().addEntite(10, 10);
+            IOException[] erreur = new IOException[1];
+
+            charger(asib, module, erreur);
+
+            assertNotNull(erreur[0]);
+            assertSame(ancienne, module.getMCDComponent().getElement(ancienne.getName()));
+        }
+    }
+}
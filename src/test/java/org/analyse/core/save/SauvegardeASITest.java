@@ -0,0 +1,282 @@
+package org.analyse.core.save;
+
+import org.analyse.cli.Convert;
+import org.analyse.cli.GenerateurModele;
+import org.analyse.core.modules.SaveModule;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.modele.TransformationMCD;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+import org.analyse.xml.XmlWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import javax.swing.SwingUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SauvegardeASITest {
+
+    private static MeriseModule modele() {
+        GenerateurModele generateur = new GenerateurModele();
+        generateur.setGraine(6);
+        generateur.setEntites(40);
+        generateur.setBinaires(45);
+        generateur.setTernaires(3);
+        generateur.setAttributs(1, 4);
+        return generateur.construire();
+    }
+
+    private static Map<String, SaveModule> instantanes(MeriseModule module) {
+        Map<String, SaveModule> instantanes = new LinkedHashMap<String, SaveModule>();
+        instantanes.put(module.getID(), ((SaveModule) module.getFiltre("ASI")).instantane());
+        return instantanes;
+    }
+
+    private static String sql(MeriseModule module) {
+        TransformationMCD.Verification verification = Convert.generer(module, DialectesSQL.get("MySQL"));
+        assertTrue(verification.isCorrect(), verification.getMessage());
+        return module.getSQLCommand().getRequests();
+    }
+
+    private static long fichiers(Path dir) throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.count();
+        }
+    }
+
+    @Nested
+    @DisplayName("Atomic Write Tests")
+    class AtomicWriteTests {
+
+        @Test
+        @DisplayName("Should write a file that loads back into the same model")
+        void shouldWriteLoadableFile(@TempDir Path dir) throws Exception {
+            MeriseModule module = modele();
+            File fichier = dir.resolve("modele.asi").toFile();
+
+            SauvegardeASI.ecrire(fichier, instantanes(module));
+
+            assertEquals(sql(module), sql(Convert.charger(fichier)));
+            assertEquals(1, fichiers(dir));
+        }
+
+        @Test
+        @DisplayName("Should read back names holding reserved characters")
+        void shouldEscapeReservedCharacters(@TempDir Path dir) throws Exception {
+            MeriseModule module = modele();
+            String nom = "Client \"VIP\" <A & B>";
+            module.getMCDComponent().getElement("E0").setName(nom);
+            File fichier = dir.resolve("modele.asi").toFile();
+
+            SauvegardeASI.ecrire(fichier, instantanes(module));
+
+            assertNotNull(Convert.charger(fichier).getMCDComponent().getElement(nom));
+        }
+
+        @Test
+        @DisplayName("Should keep the permissions of the file it replaces")
+        void shouldKeepPermissions(@TempDir Path dir) throws Exception {
+            assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+            Path fichier = dir.resolve("modele.asi");
+            Files.write(fichier, "ancien".getBytes(StandardCharsets.UTF_8));
+            Set<PosixFilePermission> droits = PosixFilePermissions.fromString("rw-rw-r--");
+            Files.setPosixFilePermissions(fichier, droits);
+
+            SauvegardeASI.ecrire(fichier.toFile(), instantanes(modele()));
+
+            assertEquals(droits, Files.getPosixFilePermissions(fichier));
+        }
+
+        @Test
+        @DisplayName("Should give a new file the default permissions")
+        void shouldGiveDefaultPermissions(@TempDir Path dir) throws Exception {
+            assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+            Path fichier = dir.resolve("modele.asi");
+
+            SauvegardeASI.ecrire(fichier.toFile(), instantanes(modele()));
+
+            Path temoin = Files.createFile(dir.resolve("temoin"));
+            assertEquals(Files.getPosixFilePermissions(temoin), Files.getPosixFilePermissions(fichier));
+        }
+
+        @Test
+        @DisplayName("Should keep the previous file when writing fails")
+        void shouldKeepPreviousFileOnFailure(@TempDir Path dir) throws Exception {
+            Path fichier = dir.resolve("modele.asi");
+            Files.write(fichier, "ancien".getBytes(StandardCharsets.UTF_8));
+            Map<String, SaveModule> instantanes = new LinkedHashMap<String, SaveModule>();
+            instantanes.put("MERISE", new SaveModule() {
+                public void save(XmlWriter out) throws IOException {
+                    out.startElement("dictionnaire");
+                    throw new IOException("disque plein");
+                }
+
+                public SaveModule instantane() {
+                    return this;
+                }
+            });
+
+            assertThrows(IOException.class, () -> SauvegardeASI.ecrire(fichier.toFile(), instantanes));
+
+            assertEquals("ancien", new String(Files.readAllBytes(fichier), StandardCharsets.UTF_8));
+            assertEquals(1, fichiers(dir));
+        }
+    }
+
+    @Nested
+    @DisplayName("Snapshot Tests")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Should write the model as it was when the snapshot was taken")
+        void shouldWriteSnapshotState(@TempDir Path dir) throws Exception {
+            MeriseModule module = modele();
+            Map<String, SaveModule> instantanes = instantanes(module);
+            String avant = sql(modele());
+
+            module.getMCDComponent().addEntite(5000, 5000).setName("APRES");
+            module.getMCDComponent().getElement("E0").setName("RENOMMEE");
+
+            File fichier = dir.resolve("modele.asi").toFile();
+            SauvegardeASI.ecrire(fichier, instantanes);
+
+            MeriseModule relu = Convert.charger(fichier);
+            assertNull(relu.getMCDComponent().getElement("APRES"));
+            assertNotNull(relu.getMCDComponent().getElement("E0"));
+            assertEquals(avant, sql(relu));
+        }
+
+        @Test
+        @DisplayName("Should write successive saves in launch order")
+        void shouldWriteInLaunchOrder(@TempDir Path dir) throws Exception {
+            MeriseModule module = modele();
+            File fichier = dir.resolve("modele.asi").toFile();
+            CountDownLatch fin = new CountDownLatch(2);
+
+            Map<String, SaveModule> premier = instantanes(module);
+            module.getMCDComponent().addEntite(5000, 5000).setName("DERNIERE");
+            Map<String, SaveModule> second = instantanes(module);
+
+            SauvegardeASI a = new SauvegardeASI(fichier, premier, null) {
+                protected void reussite() {
+                    fin.countDown();
+                }
+            };
+            SauvegardeASI b = new SauvegardeASI(fichier, second, a) {
+                protected void reussite() {
+                    fin.countDown();
+                }
+            };
+            a.start();
+            b.start();
+            assertTrue(fin.await(30, TimeUnit.SECONDS));
+
+            assertNotNull(Convert.charger(fichier).getMCDComponent().getElement("DERNIERE"));
+            assertEquals(1, fichiers(dir));
+        }
+
+        @Test
+        @DisplayName("Should report a runtime failure raised while serialising")
+        void shouldReportRuntimeFailure(@TempDir Path dir) throws Exception {
+            Path fichier = dir.resolve("modele.asi");
+            Files.write(fichier, "ancien".getBytes(StandardCharsets.UTF_8));
+            Map<String, SaveModule> instantanes = new LinkedHashMap<String, SaveModule>();
+            instantanes.put("MERISE", new SaveModule() {
+                public void save(XmlWriter out) {
+                    throw new IllegalStateException("modele incoherent");
+                }
+
+                public SaveModule instantane() {
+                    return this;
+                }
+            });
+            CountDownLatch fin = new CountDownLatch(1);
+            IOException[] erreur = new IOException[1];
+
+            SauvegardeASI sauvegarde = new SauvegardeASI(fichier.toFile(), instantanes, null) {
+                protected void reussite() {
+                    fin.countDown();
+                }
+
+                protected void echec(IOException e) {
+                    erreur[0] = e;
+                    fin.countDown();
+                }
+            };
+            sauvegarde.start();
+            assertTrue(fin.await(30, TimeUnit.SECONDS));
+
+            assertInstanceOf(IllegalStateException.class, erreur[0].getCause());
+            assertEquals("ancien", new String(Files.readAllBytes(fichier), StandardCharsets.UTF_8));
+            assertEquals(1, fichiers(dir));
+        }
+
+        @Test
+        @DisplayName("Should tell a caller waiting on the EDT that the save failed, reporting it once")
+        void shouldReportFailureToWaitingCaller(@TempDir Path dir) throws Exception {
+            Map<String, SaveModule> instantanes = new LinkedHashMap<String, SaveModule>();
+            instantanes.put("MERISE", new SaveModule() {
+                public void save(XmlWriter out) throws IOException {
+                    throw new IOException("disque plein");
+                }
+
+                public SaveModule instantane() {
+                    return this;
+                }
+            });
+            AtomicInteger echecs = new AtomicInteger();
+            CountDownLatch fin = new CountDownLatch(1);
+            SauvegardeASI sauvegarde = new SauvegardeASI(dir.resolve("modele.asi").toFile(), instantanes, null) {
+                protected void echec(IOException e) {
+                    echecs.incrementAndGet();
+                }
+
+                public void finished() {
+                    super.finished();
+                    fin.countDown();
+                }
+            };
+            boolean[] ecrit = new boolean[1];
+
+            sauvegarde.start();
+            SwingUtilities.invokeAndWait(() -> ecrit[0] = sauvegarde.attendre());
+            assertTrue(fin.await(30, TimeUnit.SECONDS));
+
+            assertFalse(ecrit[0]);
+            assertEquals(1, echecs.get());
+        }
+
+        @Test
+        @DisplayName("Should tell a waiting caller that the file is written")
+        void shouldReportSuccessToWaitingCaller(@TempDir Path dir) throws Exception {
+            File fichier = dir.resolve("modele.asi").toFile();
+            SauvegardeASI sauvegarde = new SauvegardeASI(fichier, instantanes(modele()), null) {
+                protected void reussite() {
+                }
+            };
+
+            sauvegarde.start();
+
+            assertTrue(sauvegarde.attendre());
+            assertTrue(fichier.exists());
+        }
+    }
+}
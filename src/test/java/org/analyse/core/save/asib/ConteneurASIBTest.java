@@ -0,0 +1,118 @@
+package org.analyse.core.save.asib;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConteneurASIBTest {
+
+    private static File ecrire(Path dir, EcritureASIB ecriture) throws IOException {
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        ecriture.ecrire(octets);
+        File fichier = dir.resolve("test.asib").toFile();
+        Files.write(fichier.toPath(), octets.toByteArray());
+        return fichier;
+    }
+
+    @Nested
+    @DisplayName("Section Tests")
+    class SectionTests {
+
+        @Test
+        @DisplayName("Should read back each section at an aligned offset")
+        void shouldReadBackSections(@TempDir Path dir) throws Exception {
+            EcritureASIB ecriture = new EcritureASIB();
+            ecriture.section("MERISE", "a").writeByte(7);
+            DataOutputStream b = ecriture.section("MERISE", "b");
+            b.writeInt(42);
+            b.writeLong(-1L);
+
+            ConteneurASIB conteneur = ConteneurASIB.ouvrir(ecrire(dir, ecriture));
+
+            ByteBuffer a = conteneur.section("merise", "a");
+            assertEquals(1, a.remaining());
+            assertEquals(7, a.get(0));
+            ByteBuffer lu = conteneur.section("MERISE", "B");
+            assertEquals(12, lu.remaining());
+            assertEquals(42, lu.getInt(0));
+            assertEquals(-1L, lu.getLong(4));
+            assertTrue(lu.isReadOnly());
+            assertNull(conteneur.section("merise", "c"));
+            assertTrue(ConteneurASIB.estASIB(dir.resolve("test.asib").toFile()));
+        }
+
+        @Test
+        @DisplayName("Should reject duplicate and oversized section names")
+        void shouldRejectBadNames() {
+            EcritureASIB ecriture = new EcritureASIB();
+            ecriture.section("merise", "a");
+
+            assertThrows(IllegalArgumentException.class, () -> ecriture.section("MERISE", "A"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> ecriture.section("merise", "un-nom-bien-trop-long-pour-asib"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Validation Tests")
+    class ValidationTests {
+
+        @Test
+        @DisplayName("Should reject a gzip ASI file")
+        void shouldRejectOtherFiles(@TempDir Path dir) throws Exception {
+            File fichier = dir.resolve("modele.asi").toFile();
+            Files.write(fichier.toPath(), new byte[] {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0});
+
+            assertFalse(ConteneurASIB.estASIB(fichier));
+            assertThrows(IOException.class, () -> ConteneurASIB.ouvrir(fichier));
+        }
+
+        @Test
+        @DisplayName("Should reject a newer version")
+        void shouldRejectNewerVersion(@TempDir Path dir) throws Exception {
+            File fichier = ecrire(dir, new EcritureASIB());
+            byte[] octets = Files.readAllBytes(fichier.toPath());
+            octets[5] = (byte) (ConteneurASIB.VERSION + 1);
+            Files.write(fichier.toPath(), octets);
+
+            IOException e = assertThrows(IOException.class, () -> ConteneurASIB.ouvrir(fichier));
+            assertTrue(e.getMessage().contains("Version"));
+        }
+    }
+
+    @Nested
+    @DisplayName("String Table Tests")
+    class StringTableTests {
+
+        @Test
+        @DisplayName("Should store each string once and read all of them back")
+        void shouldRoundTripStrings(@TempDir Path dir) throws Exception {
+            TableChaines table = new TableChaines();
+            assertEquals(0, table.indice("client"));
+            assertEquals(1, table.indice("Année \"é\" 😀"));
+            assertEquals(0, table.indice("client"));
+            assertEquals(2, table.indice(""));
+            assertEquals(TableChaines.NULL, table.indice(null));
+            EcritureASIB ecriture = new EcritureASIB();
+            table.ecrire(ecriture.section("m", "chaines"));
+
+            String[] chaines = TableChaines.lire(ConteneurASIB.ouvrir(ecrire(dir, ecriture))
+                    .section("m", "chaines"));
+
+            assertArrayEquals(new String[] {"client", "Année \"é\" 😀", ""}, chaines);
+            assertNull(TableChaines.get(chaines, TableChaines.NULL));
+            assertThrows(IOException.class, () -> TableChaines.get(chaines, 3));
+        }
+    }
+}
@@ -5,9 +5,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 
+import org.analyse.cli.Convert;
 import org.analyse.core.save.FiltreASI;
 import org.analyse.core.modules.AnalyseModule;
 import org.analyse.core.context.ApplicationContext;
+import org.analyse.merise.main.MeriseModule;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -47,9 +49,12 @@ class ASIFileIntegrationTest {
             assertTrue(testFile.exists(), "Test file should exist: " + filename);
             assertTrue(testFile.canRead(), "Test file should be readable: " + filename);
 
-                // Load the file
-                assertDoesNotThrow(() -> filter.open(testFile),
-                    "Loading " + filename + " should not throw an exception");
+                // Load the file and compare with a direct headless load
+                MeriseModule module = OuvertureASI.ouvrir(filter, testFile);
+                assertNotNull(module, "MERISE module should exist after loading " + filename);
+                assertEquals(OuvertureASI.elements(Convert.charger(testFile)),
+                    OuvertureASI.elements(module),
+                    "Loading " + filename + " should take over the MCD of the file");
             }
         }
 
@@ -74,11 +79,15 @@ class ASIFileIntegrationTest {
             context.clearModules();
 
             // Load the ASI file
-            filter.open(testFile);
+            MeriseModule merise = OuvertureASI.ouvrir(filter, testFile);
 
             // Check that at least one module was loaded
             assertFalse(context.getModules().isEmpty(),
                 "At least one module should be loaded from " + filename);
+            assertFalse(OuvertureASI.elements(merise).isEmpty(),
+                "The MCD of " + filename + " should not be empty");
+            assertNotNull(merise.getMCDComponent().getData(),
+                "The MCD should keep its data dictionary");
 
             // Validate each loaded module
             for (AnalyseModule module : context.getModules().values()) {
@@ -133,13 +142,16 @@ class ASIFileIntegrationTest {
 
             ApplicationContext context = ApplicationContext.getInstance();
             context.clearModules();
-            filter.open(testFile);
+            MeriseModule module = OuvertureASI.ouvrir(filter, testFile);
 
             // test-001.asi should contain at least one module
             assertFalse(context.getModules().isEmpty(), "test-001.asi should contain modules");
 
-            // Basic validation that modules were loaded and are functional
-            assertTrue(context.getModules().size() >= 0, "Modules should be accessible after loading");
+            // The loaded model should match the file
+            assertEquals(OuvertureASI.elements(Convert.charger(testFile)),
+                OuvertureASI.elements(module), "test-001.asi MCD should be loaded");
+            assertTrue(module.getMCDComponent().getData().getRowCount() > 0,
+                "test-001.asi dictionary should be loaded");
         }
 
         @Test
@@ -152,17 +164,18 @@ class ASIFileIntegrationTest {
             File testFile = new File(resourceUrl.toURI());
 
             ApplicationContext context = ApplicationContext.getInstance();
-            int moduleCountBefore = context.getModules().size();
-
-            filter.open(testFile);
+            MeriseModule module = OuvertureASI.ouvrir(filter, testFile);
 
             // After loading, we should have modules
             assertFalse(context.getModules().isEmpty(),
                 filename + " should result in loaded modules");
 
-                // Validate that modules are properly initialized
-                for (AnalyseModule module : context.getModules().values()) {
-                    assertNotNull(module, "All modules should be non-null after loading " + filename);
+                // Each file replaces the model loaded from the previous one
+                assertEquals(OuvertureASI.elements(Convert.charger(testFile)),
+                    OuvertureASI.elements(module),
+                    filename + " should replace the previous model");
+                for (AnalyseModule loaded : context.getModules().values()) {
+                    assertNotNull(loaded, "All modules should be non-null after loading " + filename);
                 }
             }
         }
@@ -57,7 +57,7 @@ public class ASIFileSimpleTest {
 
         // Clear existing modules and load the file
         context.clearModules();
-        filter.open(testFile);
+        OuvertureASI.ouvrir(filter, testFile);
 
         System.out.println("   OK test-001.asi loaded successfully");
         System.out.println("   OK File size: " + testFile.length() + " bytes");
@@ -76,7 +76,7 @@ public class ASIFileSimpleTest {
                 File testFile = new File(resourceUrl.toURI());
 
                 context.clearModules();
-                filter.open(testFile);
+                OuvertureASI.ouvrir(filter, testFile);
 
                 System.out.println("   OK " + filename + " - Modules: " + context.getModules().size() +
                                    ", Size: " + testFile.length() + " bytes");
@@ -94,7 +94,7 @@ public class ASIFileSimpleTest {
         File testFile = new File(resourceUrl.toURI());
 
         context.clearModules();
-        filter.open(testFile);
+        OuvertureASI.ouvrir(filter, testFile);
 
         // Look for MCD components through MeriseModule
         MCDComponent mcdComponent = null;
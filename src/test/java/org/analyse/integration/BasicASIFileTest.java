@@ -82,7 +82,7 @@ public class BasicASIFileTest {
 
                 // Test that loading doesn't throw exceptions
                 try {
-                    filter.open(testFile);
+                    OuvertureASI.ouvrir(filter, testFile);
                     System.out.println("   OK " + filename + " loaded without exceptions");
                 } catch (Exception e) {
                     System.out.println("   WARNING " + filename + " - Load exception: " + e.getMessage());
@@ -0,0 +1,44 @@
+package org.analyse.integration;
+
+import org.analyse.core.context.ApplicationContext;
+import org.analyse.core.gui.zgraph.ZElement;
+import org.analyse.core.save.FiltreASI;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDObjet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ouvre un fichier ASI par FiltreASI et attend que le modèle chargé en tâche
+ * de fond ait été repris par les modules de l'application.
+ */
+final class OuvertureASI {
+
+    private OuvertureASI() {
+    }
+
+    static MeriseModule ouvrir(FiltreASI filtre, File fichier) throws InterruptedException {
+        CountDownLatch fin = new CountDownLatch(1);
+        filtre.open(fichier, repris -> fin.countDown());
+        if (!fin.await(30, TimeUnit.SECONDS))
+            throw new AssertionError("Opening " + fichier.getName() + " did not finish");
+        return (MeriseModule) ApplicationContext.getInstance().getModule("MERISE");
+    }
+
+    /**
+     * Noms des éléments du MCD du module, triés.
+     */
+    static List<String> elements(MeriseModule module) {
+        List<String> noms = new ArrayList<String>();
+        for (Iterator<ZElement> e = module.getMCDComponent().enumElements(); e.hasNext();)
+            noms.add(((MCDObjet) e.next()).getName());
+        Collections.sort(noms);
+        return noms;
+    }
+}
@@ -67,7 +67,7 @@ public class PlainASIFileTest {
                 assert testFile.length() > 0 : "Test file should not be empty: " + filename;
 
                 // Load the file - main test is that this doesn't throw exceptions
-                filter.open(testFile);
+                OuvertureASI.ouvrir(filter, testFile);
 
                 loadedCount++;
                 System.out.println("   [OK] " + filename + " loaded successfully (" + testFile.length() + " bytes)");
@@ -133,7 +133,7 @@ public class PlainASIFileTest {
             assert fileSize < 10000 : "File seems unusually large for test data: " + filename;
 
             // Verify the file can be opened
-            filter.open(testFile);
+            OuvertureASI.ouvrir(filter, testFile);
 
             System.out.println("   [OK] " + filename + " size validation passed (" + fileSize + " bytes)");
         }
@@ -145,7 +145,7 @@ public class PlainASIFileTest {
         // Test 1: Non-existent file
         File nonExistentFile = new File("non-existent.asi");
         try {
-            filter.open(nonExistentFile);
+            OuvertureASI.ouvrir(filter, nonExistentFile);
             System.out.println("   [OK] Non-existent file handled gracefully");
         } catch (Exception e) {
             System.out.println("   [OK] Non-existent file threw expected exception: " + e.getClass().getSimpleName());
@@ -160,7 +160,7 @@ public class PlainASIFileTest {
         }
 
         try {
-            filter.open(tempFile);
+            OuvertureASI.ouvrir(filter, tempFile);
             System.out.println("   [OK] Corrupted file handled gracefully");
         } catch (Exception e) {
             System.out.println("   [OK] Corrupted file threw expected exception: " + e.getClass().getSimpleName());
@@ -171,7 +171,7 @@ public class PlainASIFileTest {
         emptyFile.deleteOnExit();
 
         try {
-            filter.open(emptyFile);
+            OuvertureASI.ouvrir(filter, emptyFile);
             System.out.println("   [OK] Empty file handled gracefully");
         } catch (Exception e) {
             System.out.println("   [OK] Empty file threw expected exception: " + e.getClass().getSimpleName());
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 
 import org.analyse.core.save.FiltreASI;
+import org.analyse.merise.main.MeriseModule;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -45,9 +46,11 @@ class SimpleASIFileIntegrationTest {
             assertTrue(testFile.canRead(), "Test file should be readable: " + filename);
             assertTrue(testFile.length() > 0, "Test file should not be empty: " + filename);
 
-                // Load the file - main test is that this doesn't throw exceptions
-                assertDoesNotThrow(() -> filter.open(testFile),
-                    "Loading " + filename + " should not throw an exception");
+                // Load the file and wait for the model to be taken over
+                MeriseModule module = OuvertureASI.ouvrir(filter, testFile);
+                assertNotNull(module, "MERISE module should exist after loading " + filename);
+                assertFalse(OuvertureASI.elements(module).isEmpty(),
+                    "Loading " + filename + " should fill the MCD");
             }
         }
 
@@ -82,8 +85,9 @@ class SimpleASIFileIntegrationTest {
             assertTrue(fileSize < 10000, "File seems unusually large for test data: " + filename);
 
                 // Verify the file can be opened
-                assertDoesNotThrow(() -> filter.open(testFile),
-                    "File should open without exceptions: " + filename);
+                MeriseModule module = OuvertureASI.ouvrir(filter, testFile);
+                assertFalse(OuvertureASI.elements(module).isEmpty(),
+                    "File should open into a non-empty MCD: " + filename);
             }
         }
     }
@@ -0,0 +1,229 @@
+package org.analyse.merise.gui.table;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.util.Arrays;
+import java.util.Observer;
+
+import org.analyse.merise.mcd.composant.MCDAssociation;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.merise.mcd.composant.MCDEntite;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionnaireTableTest {
+
+    private DictionnaireTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new DictionnaireTable(Arrays.asList("INT", "VARCHAR"));
+        table.addData("id_client", "Id client", "INT", "0", "false");
+        table.addData("nom_client", "Nom client", "VARCHAR", "50", "false");
+        table.addData("id_commande", "Id commande", "INT", "0", "false");
+    }
+
+    @Nested
+    @DisplayName("Code Lookup Tests")
+    class CodeLookupTests {
+
+        @Test
+        @DisplayName("Should find rows by information code")
+        void shouldFindRowsByCode() {
+            assertEquals(0, table.getIndex("id_client"));
+            assertEquals(1, table.getIndex("nom_client"));
+            assertEquals(2, table.getIndex("id_commande"));
+            assertEquals(-1, table.getIndex("inconnu"));
+        }
+
+        @Test
+        @DisplayName("Should report contained codes")
+        void shouldReportContainedCodes() {
+            assertTrue(table.contains("nom_client"));
+            assertFalse(table.contains("inconnu"));
+        }
+
+        @Test
+        @DisplayName("Should not index the blank trailing row")
+        void shouldNotIndexBlankRow() {
+            assertFalse(table.contains(""));
+            assertFalse(table.contains(null));
+        }
+
+        @Test
+        @DisplayName("Should return values by code")
+        void shouldReturnValuesByCode() {
+            assertEquals("Nom client", table.getValue("nom_client", DictionnaireTable.NAME));
+            assertEquals(Integer.valueOf(50), table.getValue("nom_client", DictionnaireTable.SIZE));
+        }
+    }
+
+    @Nested
+    @DisplayName("Index Maintenance Tests")
+    class IndexMaintenanceTests {
+
+        @Test
+        @DisplayName("Should keep index after deleting rows")
+        void shouldKeepIndexAfterDelete() {
+            table.delLines(new int[] { 0 });
+
+            assertFalse(table.contains("id_client"));
+            assertEquals(0, table.getIndex("nom_client"));
+            assertEquals(1, table.getIndex("id_commande"));
+        }
+
+        @Test
+        @DisplayName("Should keep index after moving rows")
+        void shouldKeepIndexAfterMove() {
+            table.moveLines(new int[] { 2 }, DictionnaireTable.UP);
+
+            assertEquals(1, table.getIndex("id_commande"));
+            assertEquals(2, table.getIndex("nom_client"));
+        }
+
+        @Test
+        @DisplayName("Should keep index after renaming a row")
+        void shouldKeepIndexAfterRename() {
+            table.setValueAt("Prenom client", 1, DictionnaireTable.NAME);
+
+            assertFalse(table.contains("nom_client"));
+            assertEquals(1, table.getIndex("Prenom_client"));
+        }
+
+        @Test
+        @DisplayName("Should refuse a rename to an existing code")
+        void shouldRefuseRenameToExistingCode() {
+            table.setValueAt("id_client", 1, DictionnaireTable.NAME);
+
+            assertEquals("Nom client", table.getValueAt(1, DictionnaireTable.NAME));
+            assertEquals(0, table.getIndex("id_client"));
+        }
+
+        @Test
+        @DisplayName("Should empty index on clear")
+        void shouldEmptyIndexOnClear() {
+            table.clear();
+
+            assertFalse(table.contains("id_client"));
+            assertEquals(1, table.getRowCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Usage Index Tests")
+    class UsageIndexTests {
+
+        private MCDComponent mcd;
+        private MCDEntite client;
+        private MCDAssociation passe;
+
+        @BeforeEach
+        void setUp() {
+            mcd = new MCDComponent(table);
+            client = new MCDEntite(mcd, "Client", 10, 10);
+            passe = new MCDAssociation(mcd, "Passe", 100, 10);
+            mcd.addObjet(client);
+            mcd.addObjet(passe);
+        }
+
+        @Test
+        @DisplayName("Should mark information used and show owning object")
+        void shouldMarkInformationUsed() {
+            client.addInformation("id_client");
+
+            assertTrue(table.getUse(0));
+            assertEquals("Client", table.getValueAt(0, DictionnaireTable.ENTITY));
+            assertEquals("", table.getValueAt(1, DictionnaireTable.ENTITY));
+        }
+
+        @Test
+        @DisplayName("Should keep information used while another object references it")
+        void shouldCountReferences() {
+            client.addInformation("id_client");
+            passe.addInformation("id_client");
+            assertEquals(2, table.sizeUse("id_client"));
+
+            client.deleteInformation("id_client");
+            assertTrue(table.getUse(0));
+            assertEquals("Passe", table.getValueAt(0, DictionnaireTable.ENTITY));
+
+            passe.clearInformations();
+            assertFalse(table.getUse(0));
+            assertEquals(0, table.sizeUse("id_client"));
+        }
+
+        @Test
+        @DisplayName("Should report when every information is used")
+        void shouldReportAllUse() {
+            client.addInformation("id_client");
+            client.addInformation("nom_client");
+            assertFalse(table.allUse());
+
+            passe.addInformation("id_commande");
+            assertTrue(table.allUse());
+
+            table.delLines(new int[] { 2 });
+            assertTrue(table.allUse());
+            assertEquals(0, table.sizeUse("id_commande"));
+        }
+
+        @Test
+        @DisplayName("Should follow a renamed information")
+        void shouldFollowRename() {
+            client.addInformation("nom_client");
+
+            table.setValueAt("Raison sociale", 1, DictionnaireTable.NAME);
+
+            assertEquals("Raison_sociale", client.getCodeInformation(0));
+            assertEquals(1, table.sizeUse("Raison_sociale"));
+            assertEquals("Client", table.getValueAt(1, DictionnaireTable.ENTITY));
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Tests")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should fire a single table event per batch")
+        void shouldFireSingleEventPerBatch() {
+            int[] evenements = new int[1];
+            table.addTableModelListener(e -> evenements[0]++);
+
+            table.beginBatch();
+            table.beginBatch();
+            table.addData("id_produit", "Id produit", "INT", "0", "false");
+            table.commitBatch();
+            table.addData("nom_produit", "Nom produit", "VARCHAR", "30", "false");
+            assertEquals(0, evenements[0]);
+
+            table.commitBatch();
+            assertEquals(1, evenements[0]);
+            assertEquals(4, table.getIndex("nom_produit"));
+        }
+
+        @Test
+        @DisplayName("Should reject a commit without a batch")
+        void shouldRejectCommitWithoutBatch() {
+            assertThrows(IllegalStateException.class, table::commitBatch);
+        }
+
+        @Test
+        @DisplayName("Should notify each observer once, latest first")
+        void shouldNotifyObserversOnceLatestFirst() {
+            StringBuilder ordre = new StringBuilder();
+            Observer premier = (o, arg) -> ordre.append("1");
+            Observer second = (o, arg) -> ordre.append("2");
+            table.addObserver(premier);
+            table.addObserver(second);
+            table.addObserver(premier);
+
+            table.delLines(new int[] { 0 });
+
+            assertEquals("21", ordre.toString());
+        }
+    }
+}
@@ -93,6 +93,7 @@ class MCDAssociationTest {
         when(mockFontMetrics.getMaxDescent()).thenReturn(5);
         when(mockGraphics2D.create()).thenReturn(mockGraphics2D);
 
+        association.mettreEnPage();
         association.paint(mockGraphics2D);
 
         verify(mockGraphics2D).setFont(mockFont);
@@ -111,6 +112,7 @@ class MCDAssociationTest {
         when(mockFontMetrics.getMaxDescent()).thenReturn(5);
         when(mockDictionnaireTable.getValue("info1", DictionnaireTable.NAME)).thenReturn("Info1Name");
 
+        association.mettreEnPage();
         association.paint(mockGraphics2D);
 
         verify(mockGraphics2D).drawString(eq("TestAssoc"), anyInt(), anyInt());
@@ -159,6 +161,10 @@ class MCDAssociationTest {
 
     @Test
     void multipleAssociationsHaveDifferentDefaultNames() {
+        // Le compteur des noms par défaut est tenu par le MCD
+        doCallRealMethod().when(mockMcdComponent).incrementerIndex();
+        when(mockMcdComponent.getIndex()).thenCallRealMethod();
+
         MCDAssociation association1 = new MCDAssociation(mockMcdComponent);
         MCDAssociation association2 = new MCDAssociation(mockMcdComponent);
 
@@ -5,9 +5,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.analyse.merise.gui.table.DictionnaireTable;
+import org.analyse.merise.mcd.modele.Dictionnaire;
+import org.analyse.merise.mcd.modele.TableMPD;
 import org.analyse.core.gui.zgraph.ZElement;
+import org.analyse.core.util.Constantes;
 
+import java.awt.Font;
+import java.awt.Point;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +29,7 @@ class MCDComponentTest {
     @BeforeEach
     void setUp() {
         mockDictionnaire = mock(DictionnaireTable.class);
+        when(mockDictionnaire.instantane()).thenReturn(new Dictionnaire());
         mcdComponent = new MCDComponent(mockDictionnaire);
     }
 
@@ -99,6 +109,48 @@ class MCDComponentTest {
 
             assertNull(found);
         }
+
+        @Test
+        @DisplayName("Should find renamed entity by its new name only")
+        void shouldFindRenamedEntity() {
+            MCDEntite entite = new MCDEntite(mcdComponent, "Client", 100, 100);
+            mcdComponent.addObjet(entite);
+
+            entite.setName("Fournisseur");
+
+            assertNull(mcdComponent.getElement("Client"));
+            assertSame(entite, mcdComponent.getElement("Fournisseur"));
+        }
+
+        @Test
+        @DisplayName("Should forget removed and cleared entities")
+        void shouldForgetRemovedEntities() {
+            MCDEntite client = new MCDEntite(mcdComponent, "Client", 100, 100);
+            MCDEntite produit = new MCDEntite(mcdComponent, "Produit", 200, 100);
+            mcdComponent.addObjet(client);
+            mcdComponent.addObjet(produit);
+
+            mcdComponent.removeObjet(client);
+            assertNull(mcdComponent.getElement("Client"));
+            assertSame(produit, mcdComponent.getElement("Produit"));
+
+            mcdComponent.clear();
+            assertNull(mcdComponent.getElement("Produit"));
+        }
+
+        @Test
+        @DisplayName("Should fall back to the next homonym when the first is removed")
+        void shouldFallBackToHomonym() {
+            MCDEntite premier = new MCDEntite(mcdComponent, "Client", 100, 100);
+            MCDEntite second = new MCDEntite(mcdComponent, "Client", 200, 100);
+            mcdComponent.addObjet(premier);
+            mcdComponent.addObjet(second);
+
+            assertSame(premier, mcdComponent.getElement("Client"));
+
+            mcdComponent.removeObjet(premier);
+            assertSame(second, mcdComponent.getElement("Client"));
+        }
     }
 
     @Nested
@@ -147,6 +199,213 @@ class MCDComponentTest {
         }
     }
 
+    @Nested
+    @DisplayName("MPD Derivation Tests")
+    class MpdDerivationTests {
+
+        private MCDLien lier(MCDAssociation association, MCDEntite entite, String cardMin, String cardMax) {
+            MCDLien lien = new MCDLien();
+            lien.setElement(association, Constantes.MCDENTITE1);
+            lien.setElement(entite, Constantes.MCDENTITE2);
+            lien.setCardMin(cardMin);
+            lien.setCardMax(cardMax);
+            mcdComponent.addLien(lien);
+            return lien;
+        }
+
+        @Test
+        @DisplayName("Should migrate the key of the N side into the 1,1 side")
+        void shouldMigrateForeignKeyAcrossOneToMany() {
+            MCDEntite client = new MCDEntite(mcdComponent, "Client", 100, 100);
+            MCDEntite commande = new MCDEntite(mcdComponent, "Commande", 400, 100);
+            MCDAssociation passe = new MCDAssociation(mcdComponent, "Passe", 250, 100);
+            mcdComponent.addObjet(client);
+            mcdComponent.addObjet(commande);
+            mcdComponent.addObjet(passe);
+            client.addInformation("id_client");
+            commande.addInformation("id_commande");
+            lier(passe, client, "1", "N");
+            lier(passe, commande, "1", "1");
+
+            MPDComponent mpd = new MPDComponent();
+            mpd.setFont(new Font("Dialog", Font.PLAIN, 12));
+            assertTrue(mcdComponent.buildMPD(mpd, Constantes.HIDE_ALL));
+
+            MPDEntite table = mpd.getMPDEntite("Commande");
+            assertNotNull(table);
+            assertTrue(table.existInformation("id_client"));
+            assertEquals("Client", table.getTableForeignKey("id_client"));
+            assertTrue(mpd.getMPDEntite("Client").foreignKeysIsEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental MPD Derivation Tests")
+    class IncrementalMpdDerivationTests {
+
+        private MCDEntite client, commande, produit;
+        private MCDAssociation passe, contient;
+        private MPDComponent mpd;
+
+        @BeforeEach
+        void setUp() {
+            client = entite("Client", 100, 100, "id_client", "nom");
+            commande = entite("Commande", 400, 100, "id_commande", "date");
+            produit = entite("Produit", 700, 100, "id_produit", "libelle");
+            passe = association("Passe", 250, 100);
+            contient = association("Contient", 550, 100);
+            contient.addInformation("quantite");
+            lier(passe, client, "0", "N");
+            lier(passe, commande, "1", "1");
+            lier(contient, commande, "1", "N");
+            lier(contient, produit, "0", "N");
+
+            mpd = nouveauMPD();
+            assertTrue(mcdComponent.buildMPD(mpd, Constantes.HIDE_ALL));
+        }
+
+        private MCDEntite entite(String nom, int x, int y, String... informations) {
+            MCDEntite entite = new MCDEntite(mcdComponent, nom, x, y);
+            mcdComponent.addObjet(entite);
+            for (String information : informations)
+                entite.addInformation(information);
+            return entite;
+        }
+
+        private MCDAssociation association(String nom, int x, int y) {
+            MCDAssociation association = new MCDAssociation(mcdComponent, nom, x, y);
+            mcdComponent.addObjet(association);
+            return association;
+        }
+
+        private MCDLien lier(MCDAssociation association, MCDEntite entite, String cardMin, String cardMax) {
+            MCDLien lien = new MCDLien();
+            lien.setElement(association, Constantes.MCDENTITE1);
+            lien.setElement(entite, Constantes.MCDENTITE2);
+            lien.setCardMin(cardMin);
+            lien.setCardMax(cardMax);
+            mcdComponent.addLien(lien);
+            return lien;
+        }
+
+        private MPDComponent nouveauMPD() {
+            MPDComponent nouveau = new MPDComponent();
+            nouveau.setFont(new Font("Dialog", Font.PLAIN, 12));
+            return nouveau;
+        }
+
+        /** Tables, colonnes, identifiants, clés étrangères et nombre de liens. */
+        private String signature(MPDComponent composant) {
+            Map<String, String> tables = new TreeMap<>();
+            for (Iterator<ZElement> e = composant.elementsZElements(); e.hasNext();) {
+                MPDEntite table = (MPDEntite) e.next();
+                List<String> colonnes = new ArrayList<>();
+                table.elementsInformations().forEachRemaining(colonnes::add);
+                tables.put(table.getName(), colonnes + " " + new TreeMap<>(table.getIdentifiants())
+                        + " " + new TreeMap<>(table.getForeignKeys()) + " " + table.isForeignKeyCanBeNull());
+            }
+            return tables + " liens=" + composant.sizeLien();
+        }
+
+        private void verifierCommeConstructionComplete() {
+            assertTrue(mcdComponent.buildMPD(mpd, Constantes.HIDE_ALL));
+            MPDComponent complet = nouveauMPD();
+            assertTrue(mcdComponent.buildMPD(complet, Constantes.HIDE_ALL));
+            assertEquals(signature(complet), signature(mpd));
+        }
+
+        @Test
+        @DisplayName("Should keep every table when nothing changed")
+        void shouldKeepEveryTableWhenNothingChanged() {
+            MPDEntite table = mpd.getMPDEntite("Client");
+            long modifications = mpd.getModifications();
+
+            assertTrue(mcdComponent.buildMPD(mpd, Constantes.HIDE_ALL));
+
+            assertSame(table, mpd.getMPDEntite("Client"));
+            assertEquals(modifications, mpd.getModifications());
+        }
+
+        @Test
+        @DisplayName("Should keep unaffected tables and their position")
+        void shouldKeepUnaffectedTablesAndPosition() {
+            MPDEntite tableClient = mpd.getMPDEntite("Client");
+            MPDEntite tableProduit = mpd.getMPDEntite("Produit");
+            TableMPD derivee = mpd.getModele().getTable("Client");
+            tableClient.setPosition(new Point(10, 20));
+
+            produit.addInformation("prix");
+            verifierCommeConstructionComplete();
+
+            // la table de Client n'a pas été dérivée de nouveau
+            assertSame(derivee, mpd.getModele().getTable("Client"));
+
+            assertSame(tableClient, mpd.getMPDEntite("Client"));
+            assertEquals(new Point(10, 20), new Point(tableClient.getX(), tableClient.getY()));
+            assertSame(tableProduit, mpd.getMPDEntite("Produit"));
+            assertTrue(tableProduit.existInformation("prix"));
+        }
+
+        @Test
+        @DisplayName("Should follow a renamed entity into the foreign keys")
+        void shouldFollowRenamedEntity() {
+            client.setName("Acheteur");
+            verifierCommeConstructionComplete();
+
+            assertNull(mpd.getMPDEntite("Client"));
+            assertEquals("Acheteur", mpd.getMPDEntite("Commande").getTableForeignKey("id_client"));
+        }
+
+        @Test
+        @DisplayName("Should follow a cardinality change")
+        void shouldFollowCardinalityChange() {
+            passe.links().next().setCardMin("1");
+            verifierCommeConstructionComplete();
+
+            lier(passe, produit, "0", "N");
+            verifierCommeConstructionComplete();
+        }
+
+        @Test
+        @DisplayName("Should drop the table of a removed entity or association")
+        void shouldDropRemovedObjects() {
+            MPDEntite tableClient = mpd.getMPDEntite("Client");
+
+            mcdComponent.removeObjet(contient);
+            verifierCommeConstructionComplete();
+            assertNull(mpd.getMPDEntite("Contient"));
+
+            mcdComponent.removeObjet(produit);
+            verifierCommeConstructionComplete();
+            assertNull(mpd.getMPDEntite("Produit"));
+            assertSame(tableClient, mpd.getMPDEntite("Client"));
+        }
+
+        @Test
+        @DisplayName("Should add the table of a new entity")
+        void shouldAddNewEntity() {
+            MCDEntite livraison = entite("Livraison", 400, 300, "id_livraison");
+            MCDAssociation expedie = association("Expedie", 400, 200);
+            lier(expedie, commande, "0", "1");
+            lier(expedie, livraison, "1", "N");
+            verifierCommeConstructionComplete();
+
+            assertEquals(new Point(400, 300), new Point(mpd.getMPDEntite("Livraison").getX(),
+                    mpd.getMPDEntite("Livraison").getY()));
+        }
+
+        @Test
+        @DisplayName("Should rebuild entirely after the MPD was cleared")
+        void shouldRebuildAfterClear() {
+            mpd.clearAll();
+
+            assertTrue(mcdComponent.buildMPD(mpd, Constantes.HIDE_ALL));
+
+            assertNotNull(mpd.getMPDEntite("Client"));
+            assertNotNull(mpd.getMPDEntite("Contient"));
+        }
+    }
+
     @Nested
     @DisplayName("Component Properties Tests")
     class ComponentPropertiesTests {
@@ -198,6 +457,20 @@ class MCDComponentTest {
 
             assertEquals(0, count);
         }
+
+        @Test
+        @DisplayName("Should number default names per component and restart after clear")
+        void shouldNumberDefaultNamesPerComponent() {
+            MCDComponent autre = new MCDComponent(mockDictionnaire);
+            new MCDEntite(autre);
+            new MCDEntite(autre);
+
+            assertEquals("Entite 1", new MCDEntite(mcdComponent).getName());
+            assertEquals("Entite 3", new MCDEntite(autre).getName());
+
+            mcdComponent.clear();
+            assertEquals("Entite 1", new MCDEntite(mcdComponent).getName());
+        }
     }
 
     @Nested
@@ -242,12 +242,67 @@ class MCDEntiteTest {
         @DisplayName("Should paint entite without exceptions")
         void shouldPaintEntiteWithoutExceptions() {
             Graphics2D mockGraphics = mock(Graphics2D.class);
+            entite.mettreEnPage();
 
             assertDoesNotThrow(() -> entite.paint(mockGraphics));
 
             verify(mockGraphics, atLeastOnce()).setFont(any(Font.class));
         }
 
+        @Test
+        @DisplayName("Should not lay out or notify while painting")
+        void shouldPaintWithoutSideEffects() {
+            Graphics2D mockGraphics = mock(Graphics2D.class);
+            entite.addInformation("id_client");
+            int largeur = entite.getWidth();
+
+            entite.paint(mockGraphics);
+
+            assertEquals(largeur, entite.getWidth());
+            assertTrue(entite.isMiseEnPageInvalide());
+            verify(mockData, never()).getValue(anyString(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should measure and resolve labels only once between changes")
+        void shouldReuseLayoutBetweenPaints() {
+            Graphics2D mockGraphics = mock(Graphics2D.class);
+            FontMetrics fm = mockMCD.getFontMetrics(mockMCD.getFont());
+            when(mockData.getValue("id_client", DictionnaireTable.NAME)).thenReturn("Id client");
+            entite.addInformation("id_client");
+
+            for (int i = 0; i < 3; i++) {
+                entite.mettreEnPage();
+                entite.paint(mockGraphics);
+            }
+
+            verify(mockData, times(1)).getValue("id_client", DictionnaireTable.NAME);
+            verify(fm, times(1)).stringWidth("Id client");
+            verify(mockGraphics, times(3)).drawString(eq("Id client"), anyInt(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should lay out again after an information or font change")
+        void shouldInvalidateLayoutOnChange() {
+            when(mockData.getValue(anyString(), eq(DictionnaireTable.NAME))).thenReturn("Libelle");
+            entite.mettreEnPage();
+            int hauteur = entite.getHeight();
+
+            entite.addInformation("id_client");
+            entite.addInformation("nom_client");
+            entite.mettreEnPage();
+            assertTrue(entite.getHeight() > hauteur);
+
+            FontMetrics large = mock(FontMetrics.class);
+            Font autre = mock(Font.class);
+            when(large.stringWidth(anyString())).thenReturn(200);
+            when(mockMCD.getFont()).thenReturn(autre);
+            when(mockMCD.getFontMetrics(autre)).thenReturn(large);
+            entite.invaliderMiseEnPage();
+            entite.mettreEnPage();
+            assertEquals(220, entite.getWidth());
+        }
+
     }
 
     @Nested
@@ -0,0 +1,385 @@
+package org.analyse.merise.mcd.modele;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.analyse.merise.sql.GenerateurSQL;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformationMCDTest {
+
+    private ModeleMCD mcd;
+    private Dictionnaire dico;
+
+    @BeforeEach
+    void setUp() {
+        mcd = new ModeleMCD();
+        dico = new Dictionnaire();
+        dico.setToutUtilise(true);
+        dico.addInformation("id_client", "Identifiant du client", "INT", 0);
+        dico.addInformation("nom", "Nom du client", "VARCHAR", 30);
+        dico.addInformation("id_commande", "Identifiant de la commande", "INT", 0);
+        dico.addInformation("id_produit", "Identifiant du produit", "INT", 0);
+        dico.addInformation("quantite", "Quantité commandée", "INT", 0);
+    }
+
+    private EntiteMCD entite(String nom, String... informations) {
+        EntiteMCD entite = mcd.addEntite(nom, 10, 10, null);
+        entite.addInformations(Arrays.asList(informations));
+        return entite;
+    }
+
+    @Nested
+    @DisplayName("Verification Tests")
+    class VerificationTests {
+
+        @Test
+        @DisplayName("Should accept a MCD whose entities have an identifier")
+        void shouldAcceptCorrectMcd() {
+            entite("Client", "id_client", "nom");
+
+            assertTrue(TransformationMCD.verifier(mcd, dico).isCorrect());
+        }
+
+        @Test
+        @DisplayName("Should reject an entity without identifier")
+        void shouldRejectEntityWithoutIdentifier() {
+            entite("Client");
+
+            TransformationMCD.Verification verification = TransformationMCD.verifier(mcd, dico);
+
+            assertFalse(verification.isCorrect());
+            assertTrue(verification.getMessage().contains("\"Client\""));
+        }
+
+        @Test
+        @DisplayName("Should reject a dictionary with an incorrect size")
+        void shouldRejectIncorrectSize() {
+            entite("Client", "id_client");
+            dico.addTailleIncorrecte("Nom du client");
+
+            TransformationMCD.Verification verification = TransformationMCD.verifier(mcd, dico);
+
+            assertFalse(verification.isCorrect());
+            assertTrue(verification.getMessage().contains("Nom du client"));
+        }
+
+        @Test
+        @DisplayName("Should reject a carrying association with a single link")
+        void shouldRejectCarryingAssociationWithOneLink() {
+            EntiteMCD commande = entite("Commande", "id_commande");
+            AssociationMCD contient = mcd.addAssociation("Contient", 10, 10, null);
+            contient.addInformation("quantite");
+            mcd.lier(contient, commande, "1", "N");
+
+            assertFalse(TransformationMCD.verifier(mcd, dico).isCorrect());
+        }
+    }
+
+    @Nested
+    @DisplayName("Derivation Tests")
+    class DerivationTests {
+
+        @Test
+        @DisplayName("Should migrate the key of the N side into the 1,1 side")
+        void shouldMigrateForeignKeyAcrossOneToMany() {
+            EntiteMCD client = entite("Client", "id_client", "nom");
+            EntiteMCD commande = entite("Commande", "id_commande");
+            AssociationMCD passe = mcd.addAssociation("Passe", 10, 10, null);
+            mcd.lier(passe, client, "1", "N");
+            mcd.lier(passe, commande, "1", "1");
+
+            ModeleMPD mpd = TransformationMCD.deriver(mcd);
+
+            assertEquals(2, mpd.size());
+            TableMPD table = mpd.getTable("Commande");
+            assertEquals(Arrays.asList("id_commande", "id_client"), table.getInformations());
+            assertEquals("Client", table.getTableForeignKey("id_client"));
+            assertTrue(mpd.getTable("Client").foreignKeysIsEmpty());
+            assertEquals(1, mpd.getLiens().size());
+            assertSame(mpd.getTable("Client"), mpd.getLiens().get(0).getTable1());
+            assertSame(table, mpd.getLiens().get(0).getTable2());
+        }
+
+        @Test
+        @DisplayName("Should turn a carrying association into a table")
+        void shouldTurnCarryingAssociationIntoTable() {
+            EntiteMCD commande = entite("Commande", "id_commande");
+            EntiteMCD produit = entite("Produit", "id_produit");
+            AssociationMCD contient = mcd.addAssociation("Contient", 10, 10, null);
+            contient.addInformation("quantite");
+            mcd.lier(contient, commande, "1", "N");
+            mcd.lier(contient, produit, "0", "N");
+
+            ModeleMPD mpd = TransformationMCD.deriver(mcd);
+
+            TableMPD table = mpd.getTable("Contient");
+            assertNotNull(table);
+            assertEquals(Arrays.asList("id_commande", "id_produit", "quantite"), table.getInformations());
+            assertEquals(2, table.sizeIdentifiant());
+            assertEquals("Commande", table.getTableForeignKey("id_commande"));
+            assertEquals("Produit", table.getTableForeignKey("id_produit"));
+            assertEquals(2, mpd.getLiens().size());
+        }
+
+        @Test
+        @DisplayName("Should keep the MCD object as origin of its table")
+        void shouldKeepOrigin() {
+            Object origine = new Object();
+            mcd.addEntite("Client", 40, 60, origine).addInformation("id_client");
+
+            TableMPD table = TransformationMCD.deriver(mcd).getTable("Client");
+
+            assertSame(origine, table.getOrigine());
+            assertEquals(40, table.getX());
+            assertEquals(60, table.getY());
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental Derivation Tests")
+    class IncrementalDerivationTests {
+
+        private final Object client = new Object(), commande = new Object(), produit = new Object();
+        private final Object passe = new Object(), contient = new Object();
+        private ModeleMPD precedent;
+
+        /** Cardinalités tirées pour les liens des MCD aléatoires */
+        private static final String[][] CARDINALITES = {{"0", "1"}, {"1", "1"}, {"0", "N"}, {"1", "N"}};
+
+        @BeforeEach
+        void setUp() {
+            precedent = TransformationMCD.deriver(exemple(true, "Produit", "id_produit"));
+        }
+
+        /** Client -(0,N / 1,1)- Commande -(1,N / 0,N)- Produit, Contient portant la quantité */
+        private ModeleMCD exemple(boolean avecClient, String nomProduit, String... informationsProduit) {
+            ModeleMCD modele = new ModeleMCD();
+            EntiteMCD entiteClient = null;
+            if (avecClient) {
+                entiteClient = modele.addEntite("Client", 10, 10, client);
+                entiteClient.addInformations(Arrays.asList("id_client", "nom"));
+            }
+            EntiteMCD entiteCommande = modele.addEntite("Commande", 40, 10, commande);
+            entiteCommande.addInformation("id_commande");
+            EntiteMCD entiteProduit = modele.addEntite(nomProduit, 70, 10, produit);
+            entiteProduit.addInformations(Arrays.asList(informationsProduit));
+            if (avecClient) {
+                AssociationMCD associationPasse = modele.addAssociation("Passe", 25, 10, passe);
+                modele.lier(associationPasse, entiteClient, "0", "N");
+                modele.lier(associationPasse, entiteCommande, "1", "1");
+            }
+            AssociationMCD associationContient = modele.addAssociation("Contient", 55, 10, contient);
+            associationContient.addInformation("quantite");
+            modele.lier(associationContient, entiteCommande, "1", "N");
+            modele.lier(associationContient, entiteProduit, "0", "N");
+            return modele;
+        }
+
+        private Set<Object> modifies(Object... origines) {
+            return new HashSet<Object>(Arrays.asList(origines));
+        }
+
+        private void assertMemeMPD(ModeleMPD attendu, ModeleMPD obtenu) {
+            assertEquals(attendu.size(), obtenu.size());
+            for (int i = 0; i < attendu.size(); i++)
+                assertTrue(attendu.getTables().get(i).memeContenu(obtenu.getTables().get(i)),
+                        obtenu.getTables().get(i).toString());
+            assertEquals(liens(attendu), liens(obtenu));
+        }
+
+        private List<String> liens(ModeleMPD mpd) {
+            List<String> liens = new ArrayList<String>();
+            for (LienMPD lien : mpd.getLiens())
+                liens.add(lien.getTable1().getNom() + "-" + lien.getTable2().getNom());
+            return liens;
+        }
+
+        /**
+         * MCD de <code>noms.length</code> objets, les entités d'abord, chacune
+         * avec son identifiant ; une association relie les entités
+         * <code>liens[a][0]</code> et <code>liens[a][2]</code>, avec les
+         * cardinalités d'indices <code>liens[a][1]</code> et
+         * <code>liens[a][3]</code>.
+         */
+        private ModeleMCD aleatoire(Object[] origines, String[] noms, int nbEntites,
+                int[][] liens, boolean[] proprietes) {
+            ModeleMCD modele = new ModeleMCD();
+            List<EntiteMCD> entites = new ArrayList<EntiteMCD>();
+            for (int i = 0; i < nbEntites; i++) {
+                EntiteMCD entite = modele.addEntite(noms[i], i, 0, origines[i]);
+                entite.addInformation("id_e" + i);
+                entites.add(entite);
+            }
+            for (int a = 0; a < liens.length; a++) {
+                AssociationMCD association = modele.addAssociation(noms[nbEntites + a], a, 50,
+                        origines[nbEntites + a]);
+                if (proprietes[a])
+                    association.addInformation("date_" + a);
+                modele.lier(association, entites.get(liens[a][0]),
+                        CARDINALITES[liens[a][1]][0], CARDINALITES[liens[a][1]][1]);
+                modele.lier(association, entites.get(liens[a][2]),
+                        CARDINALITES[liens[a][3]][0], CARDINALITES[liens[a][3]][1]);
+            }
+            return modele;
+        }
+
+        @Test
+        @DisplayName("Should reuse every table when nothing changed")
+        void shouldReuseEveryTable() {
+            ModeleMPD mpd = TransformationMCD.deriver(exemple(true, "Produit", "id_produit"),
+                    modifies(), precedent);
+
+            assertEquals(precedent.getTables(), mpd.getTables());
+            assertMemeMPD(precedent, mpd);
+        }
+
+        @Test
+        @DisplayName("Should derive again only the tables around a modified entity")
+        void shouldDeriveAroundModifiedEntity() {
+            ModeleMCD modele = exemple(true, "Produit", "id_produit", "prix");
+
+            ModeleMPD mpd = TransformationMCD.deriver(modele, modifies(produit), precedent);
+
+            assertMemeMPD(TransformationMCD.deriver(modele), mpd);
+            assertSame(precedent.getTable("Client"), mpd.getTable("Client"));
+            assertNotSame(precedent.getTable("Produit"), mpd.getTable("Produit"));
+            assertTrue(mpd.getTable("Produit").existInformation("prix"));
+            // la table reprise n'a pas reçu une seconde fois ses clés étrangères
+            assertTrue(precedent.getTable("Client").memeContenu(mpd.getTable("Client")));
+        }
+
+        @Test
+        @DisplayName("Should carry a renamed entity into the foreign keys of its neighbours")
+        void shouldFollowRenamedEntity() {
+            ModeleMCD modele = exemple(true, "Article", "id_produit");
+
+            ModeleMPD mpd = TransformationMCD.deriver(modele, modifies(produit), precedent);
+
+            assertMemeMPD(TransformationMCD.deriver(modele), mpd);
+            assertNull(mpd.getTable("Produit"));
+            assertEquals("Article", mpd.getTable("Contient").getTableForeignKey("id_produit"));
+        }
+
+        @Test
+        @DisplayName("Should drop the tables and links of removed objects")
+        void shouldDropRemovedObjects() {
+            ModeleMCD modele = exemple(false, "Produit", "id_produit");
+
+            ModeleMPD mpd = TransformationMCD.deriver(modele, modifies(client, passe, commande), precedent);
+
+            assertMemeMPD(TransformationMCD.deriver(modele), mpd);
+            assertNull(mpd.getTable("Client"));
+            assertTrue(mpd.getTable("Commande").foreignKeysIsEmpty());
+        }
+
+        @Test
+        @DisplayName("Should give the tables and links of the full derivation, in order, on random models")
+        void shouldMatchFullDerivationOnRandomModels() {
+            for (int graine = 0; graine < 500; graine++) {
+                Random r = new Random(graine);
+                int nbEntites = 3 + r.nextInt(8), nbAssociations = 2 + r.nextInt(12);
+                Object[] origines = new Object[nbEntites + nbAssociations];
+                String[] noms = new String[origines.length];
+                for (int i = 0; i < origines.length; i++) {
+                    origines[i] = new Object();
+                    noms[i] = (i < nbEntites ? "E" : "A") + i;
+                }
+                int[][] liens = new int[nbAssociations][];
+                boolean[] proprietes = new boolean[nbAssociations];
+                for (int a = 0; a < nbAssociations; a++) {
+                    int e1 = r.nextInt(nbEntites);
+                    liens[a] = new int[] {e1, r.nextInt(4), (e1 + 1 + r.nextInt(nbEntites - 1)) % nbEntites,
+                            r.nextInt(4)};
+                    proprietes[a] = r.nextInt(4) == 0;
+                }
+                ModeleMPD avant = TransformationMCD.deriver(aleatoire(origines, noms, nbEntites, liens, proprietes));
+
+                Set<Object> modifies = new HashSet<Object>();
+                for (int k = 1 + r.nextInt(3); k > 0; k--) {
+                    int a = r.nextInt(nbAssociations);
+                    switch (r.nextInt(3)) {
+                    case 0:
+                        int e = r.nextInt(nbEntites);
+                        noms[e] += "b";
+                        modifies.add(origines[e]);
+                        break;
+                    case 1:
+                        liens[a][1] = r.nextInt(4);
+                        modifies.addAll(Arrays.asList(origines[nbEntites + a],
+                                origines[liens[a][0]], origines[liens[a][2]]));
+                        break;
+                    default:
+                        proprietes[a] = !proprietes[a];
+                        modifies.add(origines[nbEntites + a]);
+                    }
+                }
+                ModeleMCD modele = aleatoire(origines, noms, nbEntites, liens, proprietes);
+
+                assertMemeMPD(TransformationMCD.deriver(modele), TransformationMCD.deriver(modele, modifies, avant));
+            }
+        }
+
+        @Test
+        @DisplayName("Should derive entirely without a previous MPD")
+        void shouldDeriveEntirelyWithoutPrevious() {
+            ModeleMCD modele = exemple(true, "Produit", "id_produit");
+
+            assertMemeMPD(TransformationMCD.deriver(modele), TransformationMCD.deriver(modele, modifies(), null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Generation Tests")
+    class GenerationTests {
+
+        private ModeleMPD mpd;
+
+        @BeforeEach
+        void setUp() {
+            EntiteMCD client = entite("Client", "id_client", "nom");
+            EntiteMCD commande = entite("Commande", "id_commande");
+            AssociationMCD passe = mcd.addAssociation("Passe", 10, 10, null);
+            mcd.lier(passe, client, "1", "N");
+            mcd.lier(passe, commande, "1", "1");
+            mpd = TransformationMCD.deriver(mcd);
+        }
+
+        @Test
+        @DisplayName("Should generate the MySQL script")
+        void shouldGenerateMySqlScript() {
+            List<String> requetes = new GenerateurSQL(dico,
+                    DialectesSQL.get("MySQL")).generer(mpd);
+
+            assertEquals(5, requetes.size());
+            assertEquals("DROP TABLE IF EXISTS Client ;", requetes.get(0));
+            assertEquals("CREATE TABLE Client (id_client INT AUTO_INCREMENT NOT NULL,nom VARCHAR(30),"
+                    + "PRIMARY KEY (id_client)) ENGINE=InnoDB;", requetes.get(1));
+            assertEquals("DROP TABLE IF EXISTS Commande ;", requetes.get(2));
+            assertTrue(requetes.get(3).startsWith("CREATE TABLE Commande (id_commande INT AUTO_INCREMENT NOT NULL,id_client "));
+            assertEquals("ALTER TABLE Commande ADD CONSTRAINT FK_Commande_id_client FOREIGN KEY (id_client) "
+                    + "REFERENCES Client (id_client);", requetes.get(4));
+        }
+
+        @Test
+        @DisplayName("Should generate the MLD")
+        void shouldGenerateMld() {
+            List<String> lignes = GenerateurMLD.generer(mpd);
+
+            assertEquals(3, lignes.size());
+            assertTrue(lignes.get(0).startsWith("# Modèle créé le : "));
+            assertEquals("Client (<u>id_client</u>, nom) ;", lignes.get(1));
+            assertEquals("Commande (<u>id_commande</u>, #id_client) ;", lignes.get(2));
+        }
+    }
+}
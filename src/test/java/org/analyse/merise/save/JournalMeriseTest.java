@@ -0,0 +1,112 @@
+package org.analyse.merise.save;
+
+import org.analyse.cli.GenerateurModele;
+import org.analyse.core.save.JournalASI;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.merise.mcd.composant.MCDEntite;
+import org.analyse.merise.mcd.composant.MCDLien;
+import org.analyse.merise.mcd.composant.MCDObjet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalMeriseTest {
+
+    private MeriseModule module;
+
+    private JournalMerise journal;
+
+    @BeforeEach
+    void setUp() {
+        GenerateurModele generateur = new GenerateurModele();
+        generateur.setGraine(4);
+        generateur.setEntites(30);
+        generateur.setBinaires(30);
+        generateur.setTernaires(2);
+        generateur.setAttributs(1, 3);
+        module = generateur.construire();
+        journal = (JournalMerise) module.getFiltre(JournalASI.ID_JOURNAL);
+    }
+
+    /** Identifiants des états qui ne sont plus les mêmes instances */
+    private static <T> long recopies(Map<Integer, T> avant, Map<Integer, T> apres) {
+        return apres.entrySet().stream()
+                .filter(e -> avant.get(e.getKey()) != e.getValue())
+                .count();
+    }
+
+    @Nested
+    @DisplayName("Capture Tests")
+    class CaptureTests {
+
+        @Test
+        @DisplayName("Should reuse the captured state of unchanged objects and links")
+        void shouldReuseUnchangedState() {
+            EtatMerise avant = (EtatMerise) journal.capturer();
+            MCDComponent mcd = module.getMCDComponent();
+
+            mcd.getElement("E3").setPosition(new Point(900, 900));
+            ((MCDLien) mcd.getLien(2)).setCardMin("1");
+            EtatMerise apres = (EtatMerise) journal.capturer();
+
+            assertSame(avant.lignes, apres.lignes);
+            assertEquals(avant.objets.keySet(), apres.objets.keySet());
+            // la cardinalité notifie aussi le premier objet du lien
+            assertTrue(recopies(avant.objets, apres.objets) <= 2);
+            assertEquals(1, recopies(avant.liens, apres.liens));
+        }
+
+        @Test
+        @DisplayName("Should capture the dictionary again when its rows or usage change")
+        void shouldCaptureDictionaryOnChange() {
+            EtatMerise avant = (EtatMerise) journal.capturer();
+
+            module.getDictionnaireTable().addData("NOUVEAU", "Nouveau", "VARCHAR", "10", "false");
+            EtatMerise ajout = (EtatMerise) journal.capturer();
+            MCDObjet objet = module.getMCDComponent().getElement("E1");
+            objet.addInformation("NOUVEAU");
+            EtatMerise usage = (EtatMerise) journal.capturer();
+
+            assertNotSame(avant.lignes, ajout.lignes);
+            assertNotSame(ajout.lignes, usage.lignes);
+            assertEquals(avant.lignes.size() + 1, usage.lignes.size());
+            assertTrue(usage.lignes.get(usage.lignes.size() - 1).utilise);
+        }
+
+        @Test
+        @DisplayName("Should write the differences of reused states like full captures")
+        void shouldReplayIncrementalCaptures() throws Exception {
+            EtatMerise initial = (EtatMerise) journal.capturer();
+            MCDComponent mcd = module.getMCDComponent();
+            MCDEntite entite = mcd.addEntite(40, 40);
+            entite.setName("AJOUTEE");
+            mcd.removeObjet(mcd.getElement("E5"));
+            mcd.getElement("E6").setName("RENOMMEE");
+            EtatMerise apres = (EtatMerise) journal.capturer();
+
+            EtatMerise rejoue = new EtatMerise();
+            for (EtatMerise[] pas : new EtatMerise[][] {{null, initial}, {initial, apres}}) {
+                ByteArrayOutputStream octets = new ByteArrayOutputStream();
+                pas[1].ecrireDifferences(pas[0], new DataOutputStream(octets));
+                rejoue.appliquer(new DataInputStream(new ByteArrayInputStream(octets.toByteArray())));
+            }
+
+            assertEquals(apres.objets.keySet(), rejoue.objets.keySet());
+            assertEquals(apres.liens.keySet(), rejoue.liens.keySet());
+            for (Map.Entry<Integer, EtatMerise.Objet> e : apres.objets.entrySet())
+                assertEquals(e.getValue().nom, rejoue.objets.get(e.getKey()).nom);
+            assertEquals(apres.lignes, rejoue.lignes);
+        }
+    }
+}
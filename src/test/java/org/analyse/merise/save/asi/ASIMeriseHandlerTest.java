@@ -0,0 +1,81 @@
+package org.analyse.merise.save.asi;
+
+import org.analyse.cli.Convert;
+import org.analyse.core.modules.AnalyseModule;
+import org.analyse.core.save.asi.ASIHandler;
+import org.analyse.merise.gui.table.DictionnaireTable;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.composant.MCDComponent;
+import org.analyse.xml.XmlParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ASIMeriseHandlerTest {
+
+    private static final String MODELE = "<?xml version=\"1.0\"?>\n<analyse>\n<module id=\"merise\">\n"
+            + "<dictionnaire>\n"
+            + "<information code=\"id_client\" nom=\"id_client\" type=\"INT\" taille=\"0\" utilise=\"true\" />\n"
+            + "<information code=\"nom_client\" nom=\"nom_client\" type=\"VARCHAR\" taille=\"40\" utilise=\"true\" />\n"
+            + "<information code=\"note\" nom=\"note\" type=\"TEXT\" />\n"
+            + "</dictionnaire>\n"
+            + "<mcd>\n"
+            + "<entite nom=\"CLIENT\" x=\"100\" y=\"80\">\n"
+            + "<information code=\"id_client\" />\n"
+            + "<information code=\"nom_client\" />\n"
+            + "</entite>\n";
+
+    private static final String FIN = "</mcd>\n</module>\n</analyse>\n";
+
+    @Nested
+    @DisplayName("Bulk Load Tests")
+    class BulkLoadTests {
+
+        @Test
+        @DisplayName("Should index the loaded model once the module is read")
+        void shouldIndexLoadedModel() throws Exception {
+            MeriseModule module = Convert.charger(new StringReader(MODELE + FIN));
+            MCDComponent mcd = module.getMCDComponent();
+
+            assertSame(mcd.getElement("CLIENT"), mcd.chercheElement(105, 85));
+            assertEquals(3, module.getDictionnaireTable().getRowCount() - 1);
+            assertThrows(IllegalStateException.class, mcd::commitBatch);
+        }
+
+        @Test
+        @DisplayName("Should close the batch when the document is cut short")
+        void shouldCloseBatchOnTruncatedDocument() {
+            MeriseModule module = new MeriseModule();
+            module.initModele();
+            Map<String, AnalyseModule> modules = new HashMap<String, AnalyseModule>();
+            modules.put(module.getID(), module);
+            ASIHandler handler = new ASIHandler(modules);
+            XmlParser parser = new XmlParser();
+            parser.setHandler(handler);
+
+            assertThrows(Exception.class, () -> parser.parse(null, null, new StringReader(MODELE)));
+            handler.terminer();
+
+            MCDComponent mcd = module.getMCDComponent();
+            assertSame(mcd.getElement("CLIENT"), mcd.chercheElement(105, 85));
+            assertThrows(IllegalStateException.class, mcd::commitBatch);
+            assertThrows(IllegalStateException.class, module.getDictionnaireTable()::commitBatch);
+        }
+
+        @Test
+        @DisplayName("Should not carry attributes over to the next element")
+        void shouldNotCarryAttributesOver() throws Exception {
+            DictionnaireTable dictionnaire = Convert.charger(new StringReader(MODELE + FIN))
+                    .getDictionnaireTable();
+
+            assertEquals(Integer.valueOf(0), dictionnaire.getValue("note", DictionnaireTable.SIZE));
+            assertEquals(Boolean.FALSE, dictionnaire.getValue("note", DictionnaireTable.USE));
+        }
+    }
+}
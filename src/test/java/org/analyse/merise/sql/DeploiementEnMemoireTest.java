@@ -0,0 +1,127 @@
+package org.analyse.merise.sql;
+
+import org.analyse.cli.Convert;
+import org.analyse.merise.main.MeriseModule;
+import org.analyse.merise.mcd.modele.Dictionnaire;
+import org.analyse.merise.mcd.modele.ModeleMCD;
+import org.analyse.merise.mcd.modele.ModeleMPD;
+import org.analyse.merise.mcd.modele.TableMPD;
+import org.analyse.merise.mcd.modele.TransformationMCD;
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exécute les scripts générés pour les modèles de test sur des bases en
+ * mémoire, H2 et SQLite, dans leur dialecte.
+ */
+class DeploiementEnMemoireTest {
+
+    private static final String[] CAS = {"test-001.asi", "test-002.asi", "test-003.asi",
+            "test-004.asi", "test-005.asi", "test-006.asi", "test-007.asi", "test-008.asi",
+            "test-009.asi"};
+
+    private static File cas(String nom) throws Exception {
+        return new File(DeploiementEnMemoireTest.class.getClassLoader()
+                .getResource("cases/" + nom).toURI());
+    }
+
+    /**
+     * Déploie le script de chaque modèle de test deux fois sur une base neuve :
+     * la seconde fois, les DROP portent sur les tables créées par la première.
+     */
+    private static void deployerCas(DialecteSQL dialecte, String url) throws Exception {
+        for (String nom : CAS) {
+            MeriseModule module = Convert.charger(cas(nom));
+            ModeleMCD mcd = module.getMCDComponent().modele();
+            Dictionnaire dico = module.getDictionnaireTable().instantane();
+            assertTrue(TransformationMCD.verifier(mcd, dico).isCorrect(), nom);
+
+            ModeleMPD mpd = TransformationMCD.deriver(mcd);
+            List<String> requetes = new GenerateurSQL(dico, dialecte).generer(mpd);
+
+            try (Connection con = DriverManager.getConnection(url)) {
+                for (int i = 0; i < 2; i++) {
+                    DeploiementSQL deploiement = new DeploiementSQL(con, requetes, dialecte);
+                    try {
+                        assertTrue(deploiement.deployer(), nom);
+                    } catch (SQLException e) {
+                        fail(nom + " (" + dialecte.getNom() + ") : " + e.getMessage());
+                    }
+                    assertEquals(requetes.size(), deploiement.getExecutees(), nom);
+                }
+                assertEquals(mpd.size(), compterTables(con), nom);
+                assertEquals(compterClesEtrangeres(mpd), compterClesImportees(con), nom);
+            }
+        }
+    }
+
+    private static int compterTables(Connection con) throws SQLException {
+        int n = 0;
+        try (ResultSet tables = con.getMetaData().getTables(null, null, "%", new String[] {"TABLE"})) {
+            while (tables.next())
+                if (!systeme(tables))
+                    n++;
+        }
+        return n;
+    }
+
+    private static int compterClesEtrangeres(ModeleMPD mpd) {
+        int n = 0;
+        for (TableMPD table : mpd.getTables())
+            n += table.getForeignKeys().size();
+        return n;
+    }
+
+    /** Colonnes de clés étrangères déclarées dans la base */
+    private static int compterClesImportees(Connection con) throws SQLException {
+        DatabaseMetaData metaData = con.getMetaData();
+        int n = 0;
+        try (ResultSet tables = metaData.getTables(null, null, "%", new String[] {"TABLE"})) {
+            while (tables.next()) {
+                if (systeme(tables))
+                    continue;
+                try (ResultSet cles = metaData.getImportedKeys(tables.getString("TABLE_CAT"),
+                        tables.getString("TABLE_SCHEM"), tables.getString("TABLE_NAME"))) {
+                    while (cles.next())
+                        n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    /** Tables du catalogue de H2, listées avec celles du modèle */
+    private static boolean systeme(ResultSet tables) throws SQLException {
+        return "INFORMATION_SCHEMA".equalsIgnoreCase(tables.getString("TABLE_SCHEM"));
+    }
+
+    @Nested
+    @DisplayName("In-Memory Deployment Tests")
+    class InMemoryDeploymentTests {
+
+        @Test
+        @DisplayName("Should create every table and foreign key of the test models in H2")
+        void shouldDeployTestModelsInH2() throws Exception {
+            deployerCas(DialectesSQL.get("H2"), "jdbc:h2:mem:");
+        }
+
+        @Test
+        @DisplayName("Should create every table and foreign key of the test models in SQLite")
+        void shouldDeployTestModelsInSQLite() throws Exception {
+            deployerCas(DialectesSQL.get("SQLite"), "jdbc:sqlite::memory:");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.analyse.merise.sql;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+import org.mockito.InOrder;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeploiementSQLTest {
+
+    private Connection con;
+    private Statement stmt;
+    private DatabaseMetaData metaData;
+    private List<String> requetes;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        con = mock(Connection.class);
+        stmt = mock(Statement.class);
+        metaData = mock(DatabaseMetaData.class);
+        when(con.createStatement()).thenReturn(stmt);
+        when(con.getMetaData()).thenReturn(metaData);
+        when(con.getAutoCommit()).thenReturn(true);
+        when(metaData.supportsBatchUpdates()).thenReturn(true);
+        when(stmt.executeBatch()).thenReturn(new int[0]);
+
+        requetes = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+            requetes.add("CREATE TABLE t" + i + " (id INT);");
+    }
+
+    @Nested
+    @DisplayName("Batch Tests")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should send the requests in batches of the configured size")
+        void shouldSendBatches() throws SQLException {
+            DeploiementSQL deploiement = new DeploiementSQL(con, requetes);
+            deploiement.setTailleLot(5);
+
+            assertTrue(deploiement.deployer());
+
+            verify(stmt, times(12)).addBatch(anyString());
+            verify(stmt, times(3)).executeBatch();
+            verify(stmt, never()).execute(anyString());
+            verify(stmt).close();
+            assertEquals(12, deploiement.getExecutees());
+        }
+
+        @Test
+        @DisplayName("Should report every executed request in order")
+        void shouldReportProgress() throws SQLException {
+            List<Integer> suivi = new ArrayList<>();
+            DeploiementSQL deploiement = new DeploiementSQL(con, requetes);
+            deploiement.setTailleLot(5);
+            deploiement.setSuivi((executees, total, requete) -> {
+                assertEquals(12, total);
+                assertEquals(requetes.get(executees - 1), requete);
+                suivi.add(executees);
+            });
+
+            deploiement.deployer();
+
+            assertEquals(12, suivi.size());
+            assertEquals(12, suivi.get(11));
+        }
+
+        @Test
+        @DisplayName("Should execute requests one by one without batch support")
+        void shouldExecuteOneByOneWithoutBatchSupport() throws SQLException {
+            when(metaData.supportsBatchUpdates()).thenReturn(false);
+
+            assertTrue(new DeploiementSQL(con, requetes).deployer());
+
+            verify(stmt, times(12)).execute(anyString());
+            verify(stmt, never()).executeBatch();
+        }
+
+        @Test
+        @DisplayName("Should reject an empty batch size")
+        void shouldRejectEmptyBatchSize() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new DeploiementSQL(con, requetes).setTailleLot(0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Transaction Tests")
+    class TransactionTests {
+
+        @Test
+        @DisplayName("Should deploy in one transaction for a transactional DDL dialect")
+        void shouldCommitTransactionalDeployment() throws SQLException {
+            DeploiementSQL deploiement = new DeploiementSQL(con, requetes, DialectesSQL.get("PostgreSQL"));
+
+            assertTrue(deploiement.isTransactionnel());
+            assertTrue(deploiement.deployer());
+
+            InOrder ordre = inOrder(con, stmt);
+            ordre.verify(con).setAutoCommit(false);
+            ordre.verify(stmt).executeBatch();
+            ordre.verify(con).commit();
+            ordre.verify(con).setAutoCommit(true);
+        }
+
+        @Test
+        @DisplayName("Should stay in autocommit for MySQL")
+        void shouldNotOpenTransactionForMySql() throws SQLException {
+            DeploiementSQL deploiement = new DeploiementSQL(con, requetes, DialectesSQL.get("MySQL"));
+
+            assertFalse(deploiement.isTransactionnel());
+            deploiement.deployer();
+
+            verify(con, never()).setAutoCommit(anyBoolean());
+            verify(con, never()).commit();
+        }
+
+        @Test
+        @DisplayName("Should roll back and name the failing request")
+        void shouldRollBackOnError() throws SQLException {
+            when(stmt.executeBatch()).thenThrow(
+                    new BatchUpdateException("relation existe", "42P07", 0, new int[] { 1, 1 }));
+            DeploiementSQL deploiement = new DeploiementSQL(con, requetes, DialectesSQL.get("PostgreSQL"));
+
+            SQLException e = assertThrows(SQLException.class, deploiement::deployer);
+
+            assertTrue(e.getMessage().startsWith("relation existe"));
+            assertTrue(e.getMessage().endsWith(requetes.get(2)));
+            assertEquals("42P07", e.getSQLState());
+            assertEquals(2, deploiement.getExecutees());
+            verify(con).rollback();
+            verify(con, never()).commit();
+            verify(con).setAutoCommit(true);
+        }
+    }
+
+    @Nested
+    @DisplayName("Cancellation Tests")
+    class CancellationTests {
+
+        @Test
+        @DisplayName("Should cancel the running batch and roll back")
+        void shouldCancelRunningBatch() throws SQLException {
+            DeploiementSQL deploiement = new DeploiementSQL(con, requetes, DialectesSQL.get("SQLite"));
+            deploiement.setTailleLot(5);
+            when(stmt.executeBatch()).thenAnswer(invocation -> {
+                deploiement.annuler();
+                throw new SQLException("canceling statement due to user request");
+            });
+
+            assertFalse(deploiement.deployer());
+
+            assertTrue(deploiement.isAnnule());
+            verify(stmt).cancel();
+            verify(stmt, times(1)).executeBatch();
+            verify(con).rollback();
+            verify(con, never()).commit();
+        }
+
+        @Test
+        @DisplayName("Should not send the batches following a cancellation")
+        void shouldStopAfterCancellation() throws SQLException {
+            DeploiementSQL deploiement = new DeploiementSQL(con, requetes);
+            deploiement.setTailleLot(5);
+            deploiement.setSuivi((executees, total, requete) -> {
+                if (executees == 5)
+                    deploiement.annuler();
+            });
+
+            assertFalse(deploiement.deployer());
+
+            verify(stmt, times(1)).executeBatch();
+            assertEquals(5, deploiement.getExecutees());
+        }
+    }
+}
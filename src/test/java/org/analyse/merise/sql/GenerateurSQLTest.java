@@ -0,0 +1,107 @@
+package org.analyse.merise.sql;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.analyse.merise.mcd.modele.AssociationMCD;
+import org.analyse.merise.mcd.modele.Dictionnaire;
+import org.analyse.merise.mcd.modele.EntiteMCD;
+import org.analyse.merise.mcd.modele.ModeleMCD;
+import org.analyse.merise.mcd.modele.ModeleMPD;
+import org.analyse.merise.mcd.modele.TransformationMCD;
+import org.analyse.merise.sql.dialecte.DialecteSQL;
+import org.analyse.merise.sql.dialecte.DialectesSQL;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerateurSQLTest {
+
+    private static final int NB_TABLES = 500;
+
+    private Dictionnaire dico;
+    private ModeleMPD mpd;
+
+    /**
+     * Chaîne de NB_TABLES entités, chacune liée à la précédente par une
+     * association 1,N - 1,1 ; une association porteuse sur dix.
+     */
+    @BeforeEach
+    void setUp() {
+        dico = new Dictionnaire();
+        dico.addInformation("libelle", "Libellé", "VARCHAR", 50);
+        dico.addInformation("date_creation", "Date de création", "DATETIME", 0);
+
+        ModeleMCD mcd = new ModeleMCD();
+        EntiteMCD precedente = null;
+        for (int i = 0; i < NB_TABLES; i++) {
+            String id = "id_table" + i;
+            dico.addInformation(id, "Identifiant " + i, i % 2 == 0 ? "INT" : "BIGINT", 0);
+            EntiteMCD entite = mcd.addEntite("Table" + i, 10, 10, null);
+            entite.addInformations(Arrays.asList(id, "libelle", "date_creation"));
+
+            if (precedente != null) {
+                AssociationMCD association = mcd.addAssociation("Lien" + i, 10, 10, null);
+                if (i % 10 == 0) {
+                    association.addInformation("libelle");
+                    mcd.lier(association, precedente, "0", "N");
+                    mcd.lier(association, entite, "1", "N");
+                } else {
+                    mcd.lier(association, precedente, "1", "N");
+                    mcd.lier(association, entite, "1", "1");
+                }
+            }
+            precedente = entite;
+        }
+        mpd = TransformationMCD.deriver(mcd);
+    }
+
+    private GenerateurSQL generateur(String dialecte) {
+        return new GenerateurSQL(dico, DialectesSQL.get(dialecte));
+    }
+
+    @Nested
+    @DisplayName("Parallel Generation Tests")
+    class ParallelGenerationTests {
+
+        @Test
+        @DisplayName("Should generate the same script in parallel for every dialect")
+        void shouldMatchSequentialGeneration() {
+            for (DialecteSQL dialecte : DialectesSQL.tous()) {
+                List<String> sequentiel = new GenerateurSQL(dico, dialecte).generer(mpd, false);
+                List<String> parallele = new GenerateurSQL(dico, dialecte).generer(mpd, true);
+
+                assertEquals(sequentiel, parallele, dialecte.getNom());
+            }
+        }
+
+        @Test
+        @DisplayName("Should generate large models in parallel by default")
+        void shouldGenerateLargeModelsInParallel() {
+            assertTrue(mpd.size() >= GenerateurSQL.SEUIL_PARALLELE);
+
+            GenerateurSQL generateur = generateur("MySQL");
+            assertEquals(generateur.generer(mpd, false), generateur.generer(mpd));
+        }
+
+        @Test
+        @DisplayName("Should place every foreign key after all the tables")
+        void shouldPlaceForeignKeysAfterTables() {
+            List<String> requetes = generateur("MySQL").generer(mpd, true);
+
+            assertEquals("DROP TABLE IF EXISTS Table0 ;", requetes.get(0));
+            int premiereContrainte = -1;
+            for (int i = 0; i < requetes.size(); i++)
+                if (requetes.get(i).startsWith("ALTER TABLE")) {
+                    if (premiereContrainte < 0)
+                        premiereContrainte = i;
+                } else {
+                    assertEquals(-1, premiereContrainte, requetes.get(i));
+                }
+            assertEquals(2 * mpd.size(), premiereContrainte);
+        }
+    }
+}
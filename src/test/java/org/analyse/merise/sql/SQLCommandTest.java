@@ -4,7 +4,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Observer;
 
@@ -116,6 +121,55 @@ class SQLCommandTest {
         }
     }
 
+    @Nested
+    @DisplayName("Script Export Tests")
+    class ScriptExportTests {
+
+        @Test
+        @DisplayName("Should format statements like the saved script")
+        void shouldFormatStatementsLikeSavedScript() throws Exception {
+            sqlCommand.addRequest("DROP TABLE IF EXISTS a ;");
+            sqlCommand.addRequest("DROP TABLE IF EXISTS b ;");
+            sqlCommand.addRequest("CREATE TABLE a (id INT,nom VARCHAR(10));");
+            sqlCommand.addRequest("ALTER TABLE a ADD x;");
+            sqlCommand.addRequest("ALTER TABLE a ADD y;");
+
+            StringBuilder out = new StringBuilder();
+            sqlCommand.writeScript(out);
+
+            assertEquals("DROP TABLE IF EXISTS a ;\r\n"
+                    + "DROP TABLE IF EXISTS b ;\r\n"
+                    + "CREATE TABLE a (id INT,\r\nnom VARCHAR(10));\r\n\r\n"
+                    + "ALTER TABLE a ADD x;\r\n\r\n"
+                    + "ALTER TABLE a ADD y;\r\n", out.toString());
+        }
+
+        @Test
+        @DisplayName("Should join statements split across requests")
+        void shouldJoinStatementsSplitAcrossRequests() throws Exception {
+            sqlCommand.addRequest("CREATE TABLE a ");
+            sqlCommand.addRequest("(id INT);;");
+            sqlCommand.addRequest("ALTER TABLE a");
+
+            StringWriter out = new StringWriter();
+            sqlCommand.writeScript(out);
+
+            assertEquals("CREATE TABLE a (id INT);\r\n\r\n;\r\n\r\nALTER TABLE a", out.toString());
+        }
+
+        @Test
+        @DisplayName("Should write the script to a file")
+        void shouldWriteScriptToFile(@TempDir Path dir) throws Exception {
+            sqlCommand.addRequest("CREATE TABLE a (id INT);");
+            File file = dir.resolve("script.sql").toFile();
+
+            sqlCommand.writeScript(file);
+
+            assertEquals("CREATE TABLE a (id INT);\r\n\r\n",
+                    new String(Files.readAllBytes(file.toPath())));
+        }
+    }
+
     @Nested
     @DisplayName("Error Handling Tests")
     class ErrorHandlingTests {
@@ -139,18 +193,64 @@ class SQLCommandTest {
 
             assertDoesNotThrow(() -> sqlCommand.addObserver(mockObserver));
         }
-    }
 
-    @Nested
-    @DisplayName("SQL Syntax Tests")
-    class SQLSyntaxTests {
+        @Test
+        @DisplayName("Should notify once per request outside a batch")
+        void shouldNotifyOncePerRequestOutsideBatch() {
+            Observer mockObserver = mock(Observer.class);
+            sqlCommand.addObserver(mockObserver);
+
+            sqlCommand.addRequest("DROP TABLE IF EXISTS a ;");
+            sqlCommand.addRequest("CREATE TABLE a (id INT);");
+
+            verify(mockObserver, times(2)).update(any(), any());
+        }
 
         @Test
-        @DisplayName("Should support different SQL syntaxes")
-        void shouldSupportDifferentSQLSyntaxes() {
-            assertNotNull(SQLCommand.SQLsyntax.MySQL);
-            assertNotNull(SQLCommand.SQLsyntax.PostgreSQL);
-            assertNotNull(SQLCommand.SQLsyntax.OracleDB);
+        @DisplayName("Should coalesce notifications of a batch")
+        void shouldCoalesceNotificationsOfBatch() {
+            Observer mockObserver = mock(Observer.class);
+            sqlCommand.addObserver(mockObserver);
+
+            sqlCommand.beginBatch();
+            sqlCommand.clear();
+            for (int i = 0; i < 1000; i++)
+                sqlCommand.addRequest("CREATE TABLE t" + i + " (id INT);");
+            sqlCommand.addRequests(List.of("ALTER TABLE t0 ADD x INT;", "ALTER TABLE t1 ADD x INT;"));
+            verify(mockObserver, never()).update(any(), any());
+
+            sqlCommand.commitBatch();
+
+            verify(mockObserver, times(1)).update(any(), any());
+            assertTrue(sqlCommand.getRequests().startsWith("CREATE TABLE t0 (id INT);CREATE TABLE t1"));
+            assertTrue(sqlCommand.getRequests().endsWith("ALTER TABLE t1 ADD x INT;"));
+        }
+
+        @Test
+        @DisplayName("Should notify only when the outermost batch is committed")
+        void shouldNotifyOnlyWhenOutermostBatchIsCommitted() {
+            Observer mockObserver = mock(Observer.class);
+            sqlCommand.addObserver(mockObserver);
+
+            sqlCommand.beginBatch();
+            sqlCommand.addRequests(List.of("CREATE TABLE a (id INT);"));
+            verify(mockObserver, never()).update(any(), any());
+            sqlCommand.commitBatch();
+
+            verify(mockObserver, times(1)).update(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should not notify for an empty batch")
+        void shouldNotNotifyForEmptyBatch() {
+            Observer mockObserver = mock(Observer.class);
+            sqlCommand.addObserver(mockObserver);
+
+            sqlCommand.beginBatch();
+            sqlCommand.commitBatch();
+
+            verify(mockObserver, never()).update(any(), any());
+            assertThrows(IllegalStateException.class, () -> sqlCommand.commitBatch());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package org.analyse.merise.sql.dialecte;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.analyse.merise.mcd.modele.AssociationMCD;
+import org.analyse.merise.mcd.modele.Dictionnaire;
+import org.analyse.merise.mcd.modele.EntiteMCD;
+import org.analyse.merise.mcd.modele.ModeleMCD;
+import org.analyse.merise.mcd.modele.ModeleMPD;
+import org.analyse.merise.mcd.modele.TransformationMCD;
+import org.analyse.merise.sql.GenerateurSQL;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DialectesSQLTest {
+
+    @Nested
+    @DisplayName("Registry Tests")
+    class RegistryTests {
+
+        @Test
+        @DisplayName("Should load every declared dialect, MySQL first")
+        void shouldLoadDeclaredDialects() {
+            List<String> noms = new ArrayList<>();
+            for (DialecteSQL dialecte : DialectesSQL.tous())
+                noms.add(dialecte.getNom());
+
+            assertEquals(Arrays.asList("MySQL", "PostgreSQL", "OracleDB", "SQLite", "H2"), noms);
+        }
+
+        @Test
+        @DisplayName("Should find a dialect by name or prefix, ignoring case")
+        void shouldFindDialect() {
+            assertEquals("H2", DialectesSQL.get("h2").getNom());
+            assertNull(DialectesSQL.get("oracle"));
+            assertEquals("OracleDB", DialectesSQL.chercher("oracle").getNom());
+            assertEquals("SQLite", DialectesSQL.chercher("SQL").getNom());
+            assertNull(DialectesSQL.chercher(""));
+            assertNull(DialectesSQL.chercher("db2"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Identifier Tests")
+    class IdentifierTests {
+
+        @Test
+        @DisplayName("Should quote keywords with the dialect delimiter only")
+        void shouldQuoteKeywords() {
+            assertEquals("`key`", DialectesSQL.get("MySQL").identifiant("key"));
+            assertEquals("\"key\"", DialectesSQL.get("PostgreSQL").identifiant("key"));
+            assertEquals("\"key\"", DialectesSQL.get("SQLite").identifiant("key"));
+            assertEquals("\"key\"", DialectesSQL.get("H2").identifiant("key"));
+            for (DialecteSQL dialecte : DialectesSQL.tous())
+                assertEquals("client", dialecte.identifiant("client"), dialecte.getNom());
+        }
+    }
+
+    @Nested
+    @DisplayName("Generation Tests")
+    class GenerationTests {
+
+        private Dictionnaire dico;
+        private ModeleMPD mpd;
+
+        @BeforeEach
+        void setUp() {
+            dico = new Dictionnaire();
+            dico.addInformation("id_client", "Identifiant du client", "INT_AUTO_INCREMENT", 11);
+            dico.addInformation("nom", "Nom du client", "VARCHAR", 30);
+            dico.addInformation("notes", "Notes", "TEXT", 0);
+            dico.addInformation("id_commande", "Identifiant de la commande", "INT", 11);
+
+            ModeleMCD mcd = new ModeleMCD();
+            EntiteMCD client = mcd.addEntite("Client", 10, 10, null);
+            client.addInformations(Arrays.asList("id_client", "nom", "notes"));
+            EntiteMCD commande = mcd.addEntite("Commande", 10, 10, null);
+            commande.addInformation("id_commande");
+            AssociationMCD passe = mcd.addAssociation("Passe", 10, 10, null);
+            mcd.lier(passe, client, "1", "N");
+            mcd.lier(passe, commande, "1", "1");
+            mpd = TransformationMCD.deriver(mcd);
+        }
+
+        private List<String> generer(String dialecte) {
+            return new GenerateurSQL(dico, DialectesSQL.get(dialecte)).generer(mpd);
+        }
+
+        @Test
+        @DisplayName("Should declare SQLite foreign keys inside CREATE TABLE")
+        void shouldInlineSqliteForeignKeys() {
+            List<String> requetes = generer("SQLite");
+
+            assertEquals(4, requetes.size());
+            assertEquals("CREATE TABLE Client (id_client INTEGER(11) NOT NULL,nom VARCHAR(30),notes TEXT,"
+                    + "PRIMARY KEY (id_client));", requetes.get(1));
+            assertTrue(requetes.get(3).endsWith(",FOREIGN KEY (id_client) REFERENCES Client (id_client));"),
+                    requetes.get(3));
+            for (String requete : requetes)
+                assertFalse(requete.startsWith("ALTER TABLE"), requete);
+        }
+
+        @Test
+        @DisplayName("Should generate H2 identities and standard types")
+        void shouldGenerateH2Script() {
+            List<String> requetes = generer("H2");
+
+            assertEquals("DROP TABLE IF EXISTS Client CASCADE ;", requetes.get(0));
+            assertEquals("CREATE TABLE Client (id_client INT GENERATED BY DEFAULT AS IDENTITY NOT NULL,"
+                    + "nom VARCHAR(30),notes CLOB,PRIMARY KEY (id_client));", requetes.get(1));
+            assertEquals("ALTER TABLE Commande ADD CONSTRAINT FK_Commande_id_client FOREIGN KEY (id_client) "
+                    + "REFERENCES Client (id_client);", requetes.get(requetes.size() - 1));
+        }
+
+        @Test
+        @DisplayName("Should follow Oracle table creation with its sequence and trigger")
+        void shouldGenerateOracleSequence() {
+            List<String> requetes = generer("OracleDB");
+
+            assertTrue(requetes.get(0).startsWith("DECLARE"), requetes.get(0));
+            assertEquals("\nCREATE SEQUENCE SEQ_Client ;", requetes.get(2));
+        }
+    }
+}
@@ -178,6 +178,17 @@ class XmlParserTest {
             assertTrue(handler.elements.contains("root"), "root element should be parsed");
             assertTrue(handler.charDataCalled, "character data with entities should be parsed");
         }
+
+        @Test
+        @DisplayName("Should decode character references in attributes")
+        void shouldDecodeCharacterReferences() throws Exception {
+            String xml = "<?xml version=\"1.0\"?>" +
+                        "<root a=\"x&#10;y&#x3C;&amp;&#128512;\"/>";
+
+            parser.parse("test", null, new StringReader(xml));
+
+            assertEquals("x\ny<&😀", handler.attributes.get("a"));
+        }
     }
 
     @Nested
@@ -0,0 +1,93 @@
+package org.analyse.xml;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlWriterTest {
+
+    private StringWriter texte;
+    private XmlWriter out;
+
+    @BeforeEach
+    void setUp() {
+        texte = new StringWriter();
+        out = new XmlWriter(texte);
+    }
+
+    @Nested
+    @DisplayName("Layout Tests")
+    class LayoutTests {
+
+        @Test
+        @DisplayName("Should write one element per line, empty ones as empty tags")
+        void shouldWriteOneElementPerLine() throws Exception {
+            out.declaration("UTF-8");
+            out.startElement("mcd");
+            out.startElement("entite").attribute("nom", "CLIENT").attribute("x", -12)
+                    .attribute("y", 340);
+            out.startElement("information").attribute("code", "id").endElement();
+            out.endElement();
+            out.startElement("name").text("AnalyseSI").endElement();
+            out.endElement();
+
+            assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<mcd>\n"
+                    + "<entite nom=\"CLIENT\" x=\"-12\" y=\"340\">\n"
+                    + "<information code=\"id\" />\n"
+                    + "</entite>\n"
+                    + "<name>AnalyseSI</name>\n"
+                    + "</mcd>\n", texte.toString());
+        }
+
+        @Test
+        @DisplayName("Should reject misplaced attributes and closings")
+        void shouldRejectMisplacedCalls() throws Exception {
+            assertThrows(IllegalStateException.class, out::endElement);
+
+            out.startElement("name").text("x");
+            assertThrows(IllegalStateException.class, () -> out.attribute("a", "b"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Escaping Tests")
+    class EscapingTests {
+
+        @Test
+        @DisplayName("Should escape reserved characters in text")
+        void shouldEscapeText() throws Exception {
+            out.startElement("name").text("A & B <C> \"D\"").endElement();
+
+            assertEquals("<name>A &amp; B &lt;C&gt; \"D\"</name>\n", texte.toString());
+        }
+
+        @Test
+        @DisplayName("Should read back attribute values unchanged")
+        void shouldReadBackAttributeValues() throws Exception {
+            String valeur = "a\"b<c>&d\ne\tf g";
+            out.startElement("information").attribute("nom", valeur)
+                    .attribute("taille", Integer.MIN_VALUE).endElement();
+
+            Map<String, String> lus = new HashMap<String, String>();
+            XmlParser parser = new XmlParser();
+            parser.setHandler(new HandlerBase() {
+                public void attribute(String aname, String value, boolean isSpecified) {
+                    lus.put(aname, value);
+                }
+            });
+            parser.parse(null, null, new StringReader(texte.toString()));
+
+            assertEquals(valeur, lus.get("nom"));
+            assertEquals(String.valueOf(Integer.MIN_VALUE), lus.get("taille"));
+        }
+    }
+}